@@ -42,8 +42,10 @@ import java.io.File;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.LinkedHashSet;
@@ -73,9 +75,21 @@ public class ChatBuffer
 
 	private final String title;
 
-	private final StringBuffer content = new StringBuffer();
+	// The buffered messages, oldest first. Once there are more than maximumLines of them, the
+	// oldest are dropped, both here and from every display.
+
+	private final ArrayDeque<String> lines = new ArrayDeque<String>();
+	private int maximumLines = ChatBuffer.DEFAULT_MAXIMUM_LINES;
+
 	private final LinkedList<JEditorPane> displayPanes = new LinkedList<JEditorPane>();
 
+	// For each display, the document length taken up by each message it shows, oldest first.
+	// Messages are only ever added to the end of a document, so the messages occupy the last
+	// characters of the document in that order.  Only touched on the Swing thread.
+
+	private final IdentityHashMap<JEditorPane, ArrayDeque<Integer>> displayedLengths =
+		new IdentityHashMap<JEditorPane, ArrayDeque<Integer>>();
+
 	private final Set<JEditorPane> stickyPanes = new LinkedHashSet<JEditorPane>();
 	private final LinkedList<JEditorPane> addStickyPanes = new LinkedList<JEditorPane>();
 	private final LinkedList<JEditorPane> removeStickyPanes = new LinkedList<JEditorPane>();
@@ -91,8 +105,7 @@ public class ChatBuffer
 
 	protected static final HashMap<String, PrintWriter> ACTIVE_LOG_FILES = new HashMap<String, PrintWriter>();
 
-	private static final int MAXIMUM_LENGTH = 50000;
-	private static final int TRIM_TO_LENGTH = 45000;
+	public static final int DEFAULT_MAXIMUM_LINES = 500;
 
 	/**
 	 * Constructs a new <code>ChatBuffer</code>. However, note that this does not automatically translate into the
@@ -119,7 +132,7 @@ public class ChatBuffer
 		displayPane.setContentType( "text/html" );
 		displayPane.setEditable( false );
 
-		displayPane.setText( this.getHTMLContent() );
+		this.resetDisplay( displayPane, this.getLines() );
 
 		this.displayPanes.addLast( displayPane );
 		this.addStickyPanes.addLast( displayPane );
@@ -132,6 +145,57 @@ public class ChatBuffer
 		return scroller;
 	}
 
+	/**
+	 * Sets the number of messages retained by the buffer and its displays.
+	 */
+
+	public void setMaximumLines( final int maximumLines )
+	{
+		int dropped;
+
+		synchronized ( this.lines )
+		{
+			this.maximumLines = Math.max( 1, maximumLines );
+			dropped = this.trimLines();
+		}
+
+		if ( dropped > 0 )
+		{
+			SwingUtilities.invokeLater( new TrimHandler( dropped ) );
+		}
+	}
+
+	public int getMaximumLines()
+	{
+		return this.maximumLines;
+	}
+
+	/**
+	 * Drops the oldest messages until at most maximumLines remain, returning how many were dropped.
+	 * Callers must hold the lock on lines.
+	 */
+
+	private int trimLines()
+	{
+		int dropped = 0;
+
+		while ( this.lines.size() > this.maximumLines )
+		{
+			this.lines.removeFirst();
+			++dropped;
+		}
+
+		return dropped;
+	}
+
+	private String[] getLines()
+	{
+		synchronized ( this.lines )
+		{
+			return this.lines.toArray( new String[ 0 ] );
+		}
+	}
+
 	/**
 	 * Sets the log file used to actively record messages that are being stored in the buffer.
 	 */
@@ -184,6 +248,7 @@ public class ChatBuffer
 	public void dispose()
 	{
 		this.displayPanes.clear();
+		this.displayedLengths.clear();
 		this.stickyPanes.clear();
 		this.addStickyPanes.clear();
 		this.removeStickyPanes.clear();
@@ -193,7 +258,10 @@ public class ChatBuffer
 			this.logWriter.close();
 		}
 
-		this.content.setLength( 0 );
+		synchronized ( this.lines )
+		{
+			this.lines.clear();
+		}
 	}
 
 	private static void printHTML( final HTMLDocument doc )
@@ -217,9 +285,12 @@ public class ChatBuffer
 
 	public void clear()
 	{
-		this.content.setLength( 0 );
+		synchronized ( this.lines )
+		{
+			this.lines.clear();
+		}
 
-		SwingUtilities.invokeLater( new ResetHandler( this.getHTMLContent() ) );
+		SwingUtilities.invokeLater( new ResetHandler( new String[ 0 ] ) );
 	}
 
 	public File getLogFile() {
@@ -243,7 +314,7 @@ public class ChatBuffer
 
 		if ( newContents == null )
 		{
-			SwingUtilities.invokeLater( new ResetHandler( this.getHTMLContent() ) );
+			SwingUtilities.invokeLater( new ResetHandler( this.getLines() ) );
 			return;
 		}
 
@@ -254,36 +325,28 @@ public class ChatBuffer
 			return;
 		}
 
-		this.content.append( newContents );
+		int dropped;
 
-		if ( this.logWriter != null )
+		synchronized ( this.lines )
 		{
-			this.logWriter.println( newContents );
+			this.lines.addLast( newContents );
+			dropped = this.trimLines();
 		}
 
-		if ( this.content.length() < ChatBuffer.MAXIMUM_LENGTH )
+		if ( this.logWriter != null )
 		{
-			SwingUtilities.invokeLater( new AppendHandler( newContents ) );
-			SwingUtilities.invokeLater( new ScrollHandler() );
-			return;
+			this.logWriter.println( newContents );
 		}
 
-		int lineIndex = this.content.indexOf( "<br", ChatBuffer.MAXIMUM_LENGTH - ChatBuffer.TRIM_TO_LENGTH );
-
-		if ( lineIndex != -1 )
-		{
-			lineIndex = this.content.indexOf( ">", lineIndex ) + 1;
-		}
+		// Displays only ever change incrementally: remove what fell off
+		// the front of the buffer, then add the new message at the end.
 
-		if ( lineIndex == -1 )
+		if ( dropped > 0 )
 		{
-			this.clear();
-			return;
+			SwingUtilities.invokeLater( new TrimHandler( dropped ) );
 		}
 
-		this.content.delete( 0, lineIndex );
-
-		SwingUtilities.invokeLater( new ResetHandler( this.getHTMLContent() ) );
+		SwingUtilities.invokeLater( new AppendHandler( newContents ) );
 		SwingUtilities.invokeLater( new ScrollHandler() );
 	}
 
@@ -302,7 +365,7 @@ public class ChatBuffer
 
 	public String getContent()
 	{
-		return this.content.toString();
+		return String.join( "", this.getLines() );
 	}
 
 	/**
@@ -317,13 +380,190 @@ public class ChatBuffer
 		htmlContent.append( this.getStyle() );
 		htmlContent.append( "</style></head><body><main>" );
 
-		htmlContent.append( this.content.toString() );
+		htmlContent.append( this.getContent() );
 
 		htmlContent.append( "</main></body></html>" );
 
 		return htmlContent.toString();
 	}
 
+	private String getEmptyHTMLContent()
+	{
+		return "<html><head><style>" + this.getStyle() + "</style></head><body><main></main></body></html>";
+	}
+
+	/**
+	 * Replaces everything shown in the display with the given messages, added one at a time so
+	 * that they can later be removed individually.  Must be called on the Swing thread, or before
+	 * the display is shown.
+	 */
+
+	private void resetDisplay( final JEditorPane displayPane, final String[] contents )
+	{
+		displayPane.setText( this.getEmptyHTMLContent() );
+
+		ArrayDeque<Integer> lengths = new ArrayDeque<Integer>();
+		this.displayedLengths.put( displayPane, lengths );
+
+		for ( String line : contents )
+		{
+			ChatBuffer.insertDisplay( displayPane, lengths, ChatBuffer.balanceTags( line ) );
+		}
+	}
+
+	/**
+	 * Adds already-balanced HTML to the end of the display, remembering its length.
+	 */
+
+	private static void insertDisplay( final JEditorPane displayPane, final ArrayDeque<Integer> lengths, final String html )
+	{
+		HTMLDocument currentHTML = (HTMLDocument) displayPane.getDocument();
+
+		Element contentElement = currentHTML.getDefaultRootElement();
+
+		while ( !contentElement.isLeaf() )
+		{
+			contentElement = contentElement.getElement( contentElement.getElementCount() - 1 );
+		}
+
+		int before = currentHTML.getLength();
+
+		try
+		{
+			currentHTML.insertAfterEnd( contentElement, html );
+			// If the insertion contained any non-ASCII characters, the "multiByte"
+			// property will be set on the document.  This causes the use of
+			// an alternate layout algorithm that handles bidirectional text
+			// and other Unicode oddities: it's slower, and on some combinations
+			// of platform and JRE version, tremendously slower.
+			currentHTML.putProperty( "multiByte", Boolean.FALSE );
+		}
+		catch ( Exception e )
+		{
+			// If there's an exception, continue onward so that you
+			// still have an updated display. But, print the stack
+			// trace so you know what's going on.
+
+			e.printStackTrace();
+		}
+
+		lengths.addLast( currentHTML.getLength() - before );
+	}
+
+	/**
+	 * Removes the oldest messages from the front of the display.
+	 */
+
+	private static void removeDisplay( final JEditorPane displayPane, final ArrayDeque<Integer> lengths, final int count )
+	{
+		HTMLDocument currentHTML = (HTMLDocument) displayPane.getDocument();
+
+		int shown = 0;
+		for ( int length : lengths )
+		{
+			shown += length;
+		}
+
+		int removed = 0;
+		for ( int i = 0; i < count && !lengths.isEmpty(); ++i )
+		{
+			removed += lengths.removeFirst();
+		}
+
+		if ( removed == 0 )
+		{
+			return;
+		}
+
+		try
+		{
+			currentHTML.remove( currentHTML.getLength() - shown, removed );
+		}
+		catch ( Exception e )
+		{
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Closes any tags left open by the given HTML, so that it can be inserted into a document
+	 * on its own.
+	 */
+
+	private static String balanceTags( final String newContent )
+	{
+		Stack<String> openTags = new Stack<String>();
+		Set<String> skippedTags = new HashSet<String>();
+		StringBuffer buffer = new StringBuffer();
+
+		String noCommentsContent = COMMENT_PATTERN.matcher( newContent ).replaceAll( "" );
+
+		Matcher tagMatcher = TAG_PATTERN.matcher( noCommentsContent );
+
+		while ( tagMatcher.find() )
+		{
+			String tagName = tagMatcher.group( 1 );
+			StringBuffer replacement = new StringBuffer();
+
+			if ( tagName.startsWith( "/" ) )
+			{
+				String closeTag = tagName.substring( 1 );
+
+				if ( skippedTags.contains( closeTag ) )
+				{
+					skippedTags.remove( closeTag );
+				}
+				else
+				{
+					while ( !openTags.isEmpty() )
+					{
+						String openTag = openTags.pop();
+						replacement.append( "</" );
+						replacement.append( openTag );
+						replacement.append( ">" );
+
+						if ( openTag.equalsIgnoreCase( closeTag ) )
+						{
+							break;
+						}
+						else if ( skippedTags.contains( closeTag ) )
+						{
+							skippedTags.remove( closeTag );
+							break;
+						}
+						else
+						{
+							skippedTags.add( closeTag );
+						}
+					}
+				}
+			}
+			else
+			{
+				if ( !tagName.equalsIgnoreCase( "br" ) )
+				{
+					openTags.push( tagName );
+				}
+
+				replacement.append( "<$1$2>" );
+			}
+
+			tagMatcher.appendReplacement( buffer, replacement.toString() );
+		}
+
+		tagMatcher.appendTail( buffer );
+
+		while ( !openTags.isEmpty() )
+		{
+			String openTag = openTags.pop();
+			buffer.append( "</" );
+			buffer.append( openTag );
+			buffer.append( ">" );
+		}
+
+		return buffer.toString();
+	}
+
 	public void setSticky( JEditorPane editor, boolean sticky )
 	{
 		synchronized ( this.stickyPanes )
@@ -344,12 +584,12 @@ public class ChatBuffer
 	private class ResetHandler
 		implements Runnable
 	{
-		private final String htmlContent;
+		private final String[] contents;
 		private final int resetSequence;
 
-		public ResetHandler( final String htmlContent )
+		public ResetHandler( final String[] contents )
 		{
-			this.htmlContent = htmlContent;
+			this.contents = contents;
 			this.resetSequence = ++ChatBuffer.this.resetSequence;
 		}
 
@@ -372,91 +612,53 @@ public class ChatBuffer
 					continue;
 				}
 
-				displayPane.setText( this.htmlContent );
+				ChatBuffer.this.resetDisplay( displayPane, this.contents );
 			}
 		}
 	}
 
-	private class AppendHandler
+	private class TrimHandler
 		implements Runnable
 	{
-		private final String newContent;
+		private final int count;
 		private final int resetSequence;
 
-		public AppendHandler( final String newContent )
+		public TrimHandler( final int count )
 		{
-			// Check for imbalanced HTML here
-
-			Stack<String> openTags = new Stack<String>();
-			Set<String> skippedTags = new HashSet<String>();
-			StringBuffer buffer = new StringBuffer();
-
-			String noCommentsContent = COMMENT_PATTERN.matcher( newContent ).replaceAll( "" );
+			this.count = count;
+			this.resetSequence = ChatBuffer.this.resetSequence;
+		}
 
-			Matcher tagMatcher = TAG_PATTERN.matcher( noCommentsContent );
+		public void run()
+		{
+			if ( this.resetSequence != ChatBuffer.this.resetSequence )
+			{
+				return;	// outdated by a subsequent display reset
+			}
 
-			while ( tagMatcher.find() )
+			for ( JEditorPane displayPane : ChatBuffer.this.displayPanes )
 			{
-				String tagName = tagMatcher.group( 1 );
-				StringBuffer replacement = new StringBuffer();
+				ArrayDeque<Integer> lengths = ChatBuffer.this.displayedLengths.get( displayPane );
 
-				if ( tagName.startsWith( "/" ) )
+				if ( lengths != null )
 				{
-					String closeTag = tagName.substring( 1 );
-
-					if ( skippedTags.contains( closeTag ) )
-					{
-						skippedTags.remove( closeTag );
-					}
-					else
-					{
-						while ( !openTags.isEmpty() )
-						{
-							String openTag = openTags.pop();
-							replacement.append( "</" );
-							replacement.append( openTag );
-							replacement.append( ">" );
-
-							if ( openTag.equalsIgnoreCase( closeTag ) )
-							{
-								break;
-							}
-							else if ( skippedTags.contains( closeTag ) )
-							{
-								skippedTags.remove( closeTag );
-								break;
-							}
-							else
-							{
-								skippedTags.add( closeTag );
-							}
-						}
-					}
+					ChatBuffer.removeDisplay( displayPane, lengths, this.count );
 				}
-				else
-				{
-					if ( !tagName.equalsIgnoreCase( "br" ) )
-					{
-						openTags.push( tagName );
-					}
-
-					replacement.append( "<$1$2>" );
-				}
-
-				tagMatcher.appendReplacement( buffer, replacement.toString() );
 			}
+		}
+	}
 
-			tagMatcher.appendTail( buffer );
+	private class AppendHandler
+		implements Runnable
+	{
+		private final String newContent;
+		private final int resetSequence;
 
-			while ( !openTags.isEmpty() )
-			{
-				String openTag = openTags.pop();
-				buffer.append( "</" );
-				buffer.append( openTag );
-				buffer.append( ">" );
-			}
+		public AppendHandler( final String newContent )
+		{
+			// Check for imbalanced HTML here
 
-			this.newContent = buffer.toString();
+			this.newContent = ChatBuffer.balanceTags( newContent );
 
 			this.resetSequence = ChatBuffer.this.resetSequence;
 		}
@@ -480,35 +682,17 @@ public class ChatBuffer
 					continue;
 				}
 
-				HTMLDocument currentHTML = (HTMLDocument) displayPane.getDocument();
-
-				Element contentElement = currentHTML.getDefaultRootElement();
+				ArrayDeque<Integer> lengths = ChatBuffer.this.displayedLengths.get( displayPane );
 
-				while ( !contentElement.isLeaf() )
+				if ( lengths == null )
 				{
-					contentElement = contentElement.getElement( contentElement.getElementCount() - 1 );
+					lengths = new ArrayDeque<Integer>();
+					ChatBuffer.this.displayedLengths.put( displayPane, lengths );
 				}
 
-				try
-				{
-					currentHTML.insertAfterEnd( contentElement, this.newContent );
-					// If the insertion contained any non-ASCII characters, the "multiByte"
-					// property will be set on the document.  This causes the use of
-					// an alternate layout algorithm that handles bidirectional text
-					// and other Unicode oddities: it's slower, and on some combinations
-					// of platform and JRE version, tremendously slower.
-					currentHTML.putProperty( "multiByte", Boolean.FALSE );
-				}
-				catch ( Exception e )
-				{
-					// If there's an exception, continue onward so that you
-					// still have an updated display. But, print the stack
-					// trace so you know what's going on.
-
-					e.printStackTrace();
-				}
+				ChatBuffer.insertDisplay( displayPane, lengths, this.newContent );
 
-				// ChatBuffer.printHTML( currentHTML );
+				// ChatBuffer.printHTML( (HTMLDocument) displayPane.getDocument() );
 			}
 		}
 	}
@@ -70,6 +70,10 @@ public class LockableListModel<E>
 	protected ListElementFilter currentFilter;
 	protected Comparator<E> comparator;
 
+	// Counts changes to the visible elements, so that a filter worked out on another thread is
+	// only shown if nothing has changed since. Guarded by actualElements.
+	private int revision = 0;
+
 	/**
 	 * Constructs a new <code>LockableListModel</code>.
 	 */
@@ -162,6 +166,7 @@ public class LockableListModel<E>
 			Comparator<E> comparator = this.comparator != null ? this.comparator : c;
 			Collections.sort( this.actualElements, comparator );
 			Collections.sort( this.visibleElements, comparator );
+			++this.revision;
 			this.fireContentsChanged( this, 0, this.visibleElements.size() - 1 );
 
 			Iterator<WeakReference<LockableListModel<E>>> it = this.mirrorList.iterator();
@@ -176,6 +181,7 @@ public class LockableListModel<E>
 				// If the mirror has a comparator assigned to it, always use that
 				comparator = mirror.comparator != null ? mirror.comparator : c;
 				Collections.sort( mirror.visibleElements, comparator );
+				++mirror.revision;
 				mirror.fireContentsChanged( this, 0, mirror.visibleElements.size() - 1 );
 			}
 		}
@@ -283,6 +289,8 @@ public class LockableListModel<E>
 
 	private void addVisibleElement( final int index, final E element )
 	{
+		++this.revision;
+
 		if ( !this.currentFilter.isVisible( element ) )
 		{
 			return;
@@ -366,6 +374,8 @@ public class LockableListModel<E>
 
 	private void clearVisibleElements()
 	{
+		++this.revision;
+
 		int originalSize = this.visibleElements.size();
 
 		if ( originalSize == 0 )
@@ -623,6 +633,8 @@ public class LockableListModel<E>
 
 	private void removeVisibleElement( final int index, final E element )
 	{
+		++this.revision;
+
 		if ( !this.currentFilter.isVisible( element ) )
 		{
 			return;
@@ -731,6 +743,8 @@ public class LockableListModel<E>
 
 	private void setVisibleElement( final int index, final E element, final E originalValue )
 	{
+		++this.revision;
+
 		int visibleIndex = this.computeVisibleIndex( index );
 
 		if ( originalValue != null && this.currentFilter.isVisible( originalValue ) )
@@ -816,6 +830,8 @@ public class LockableListModel<E>
 
 	private void updateSingleFilter( final boolean refresh )
 	{
+		++this.revision;
+
 		int visibleIndex = 0;
 		int low = -1;
 		int high = -1;
@@ -891,6 +907,77 @@ public class LockableListModel<E>
 		}
 	}
 
+	/**
+	 * Works out which elements the given filter would show, without showing them. This may be called from any
+	 * thread. When narrowing, only the elements shown now are checked, which is enough whenever the filter can
+	 * only hide more than it did when they were last filtered.
+	 */
+
+	public FilterResult<E> computeFilter( final ListElementFilter filter, final boolean narrowing )
+	{
+		Object[] candidates;
+		int revision;
+
+		synchronized ( this.actualElements )
+		{
+			candidates = narrowing ? this.visibleElements.toArray() : this.actualElements.toArray();
+			revision = this.revision;
+		}
+
+		ArrayList<E> elements = new ArrayList<E>();
+		for ( Object candidate : candidates )
+		{
+			if ( filter.isVisible( candidate ) )
+			{
+				elements.add( (E) candidate );
+			}
+		}
+
+		return new FilterResult<E>( elements, revision );
+	}
+
+	/**
+	 * Shows exactly the elements of the given result, firing one event for the rows which changed and one for
+	 * the rows which were added or removed. Mirrors are not affected.
+	 *
+	 * @return false, leaving the list alone, if the list has changed since the result was computed
+	 */
+
+	public boolean showFilterResult( final FilterResult<E> result )
+	{
+		synchronized ( this.actualElements )
+		{
+			if ( result.revision != this.revision )
+			{
+				return false;
+			}
+
+			int oldSize = this.visibleElements.size();
+			int newSize = result.elements.size();
+
+			this.visibleElements.clear();
+			this.visibleElements.addAll( result.elements );
+			++this.revision;
+
+			if ( newSize < oldSize )
+			{
+				this.fireIntervalRemoved( this, newSize, oldSize - 1 );
+			}
+			else if ( newSize > oldSize )
+			{
+				this.fireIntervalAdded( this, oldSize, newSize - 1 );
+			}
+
+			int changed = Math.min( oldSize, newSize );
+			if ( changed > 0 )
+			{
+				this.fireContentsChanged( this, 0, changed - 1 );
+			}
+
+			return true;
+		}
+	}
+
 	private int computeVisibleIndex( final int actualIndex )
 	{
 		if ( currentFilter == NO_FILTER )
@@ -1088,6 +1175,32 @@ public class LockableListModel<E>
 		public boolean isVisible( Object element );
 	}
 
+	/**
+	 * The elements a filter would show, as worked out by computeFilter.
+	 */
+
+	public static class FilterResult<E>
+	{
+		private final List<E> elements;
+		private final int revision;
+
+		private FilterResult( final List<E> elements, final int revision )
+		{
+			this.elements = elements;
+			this.revision = revision;
+		}
+
+		public int size()
+		{
+			return this.elements.size();
+		}
+
+		public boolean isEmpty()
+		{
+			return this.elements.isEmpty();
+		}
+	}
+
 	private static class ShowEverythingFilter
 		implements ListElementFilter
 	{
@@ -1,9 +1,12 @@
 package net.sourceforge.kolmafia;
 
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.function.Function;
 import java.util.stream.Stream;
 import net.sourceforge.kolmafia.KoLConstants.Stat;
@@ -61,6 +64,72 @@ public class AreaCombatData {
   private static final AdventureResult EW_THE_HUMANITY = EffectPool.get(EffectPool.EW_THE_HUMANITY);
   private static final AdventureResult A_BEASTLY_ODOR = EffectPool.get(EffectPool.A_BEASTLY_ODOR);
 
+  /**
+   * Game state that encounter odds depend on, other than preferences and the familiar, which
+   * Expression already tracks. Whatever changes one of these invalidates it, and odds worked out
+   * for an area are cached until something they depend on has been invalidated.
+   */
+  public enum Input {
+    // Banished monsters
+    BANISHES,
+    // Encounter queues and crystal ball predictions
+    QUEUE,
+    // Turns spent in each area
+    TURNS,
+    // Turn counters, which track some copied monsters
+    COUNTERS,
+    // Combat rate, monster level and initiative
+    MODIFIERS,
+    // Class, gender, ascensions and turns played
+    CHARACTER
+  }
+
+  private static final AtomicLongArray generations = new AtomicLongArray(Input.values().length);
+
+  private static final Set<Expression.Dependency> TRACKED =
+      EnumSet.of(Expression.Dependency.PREFERENCES, Expression.Dependency.FAMILIAR);
+
+  /** Discard cached encounter odds in every area which depend on the given state. */
+  public static void invalidate(final Input input) {
+    AreaCombatData.generations.incrementAndGet(input.ordinal());
+  }
+
+  // Active effects are not tracked, so the few which matter here are part of the state
+  private record State(long generation, int effects) {}
+
+  private static State currentState() {
+    // Generations only ever increase, so their sum changes whenever any one of them does
+    long generation = Expression.generation(AreaCombatData.TRACKED);
+    for (int i = 0; i < AreaCombatData.generations.length(); ++i) {
+      generation += AreaCombatData.generations.get(i);
+    }
+
+    int effects = 0;
+    if (KoLConstants.activeEffects.contains(FightRequest.ONTHETRAIL)) {
+      effects |= 1;
+    }
+    if (KoLConstants.activeEffects.contains(EW_THE_HUMANITY)) {
+      effects |= 2;
+    }
+    if (KoLConstants.activeEffects.contains(A_BEASTLY_ODOR)) {
+      effects |= 4;
+    }
+
+    return new State(generation, effects);
+  }
+
+  // The state the current weightings were calculated in
+  private State calculatedState = null;
+  private int calculations = 0;
+
+  // Results cached for a state and a calculation of the weightings
+  private State cachedState = null;
+  private int cachedCalculation = -1;
+  private Map<MonsterData, Double> monsterData = null;
+  private Map<MonsterData, Double> statefulMonsterData = null;
+  private Double statefulCombatPercent = null;
+  private Double averageML = null;
+
   public AreaCombatData(String zone, final int combats) {
     this.zone = zone;
     this.monsters = new ArrayList<>();
@@ -78,7 +147,12 @@ public class AreaCombatData {
     this.jumpChance = Integer.MAX_VALUE;
   }
 
-  public void recalculate() {
+  public synchronized void recalculate() {
+    State state = AreaCombatData.currentState();
+    if (state.equals(this.calculatedState)) {
+      return;
+    }
+
     this.minHit = Integer.MAX_VALUE;
     this.maxHit = 0;
     this.minEvade = Integer.MAX_VALUE;
@@ -194,6 +268,24 @@ public class AreaCombatData {
         this.addMonsterStats(monster);
       }
     }
+
+    // If anything changed while calculating, the next call will calculate again
+    this.calculatedState = state;
+    this.calculations++;
+  }
+
+  private void validateCache() {
+    State state = AreaCombatData.currentState();
+    if (state.equals(this.cachedState) && this.cachedCalculation == this.calculations) {
+      return;
+    }
+
+    this.cachedState = state;
+    this.cachedCalculation = this.calculations;
+    this.monsterData = null;
+    this.statefulMonsterData = null;
+    this.statefulCombatPercent = null;
+    this.averageML = null;
   }
 
   private void addMonsterStats(MonsterData monster) {
@@ -221,7 +313,11 @@ public class AreaCombatData {
     }
   }
 
-  public boolean addMonster(String name) {
+  public synchronized boolean addMonster(String name) {
+    // Weightings must be calculated again with this monster
+    this.calculatedState = null;
+    this.calculations++;
+
     int weighting = 1;
     int flags = ASCENSION_EVEN | ASCENSION_ODD;
     int rejection = 0;
@@ -473,7 +569,15 @@ public class AreaCombatData {
         .orElse(0);
   }
 
-  public double getAverageML() {
+  public synchronized double getAverageML() {
+    this.validateCache();
+    if (this.averageML == null) {
+      this.averageML = this.calculateAverageML();
+    }
+    return this.averageML;
+  }
+
+  private double calculateAverageML() {
     double averageML =
         monsters.stream()
             .filter(m -> getWeighting(m) > 0)
@@ -618,13 +722,29 @@ public class AreaCombatData {
     return getMonsterData(false);
   }
 
-  public Map<MonsterData, Double> getMonsterData(boolean stateful) {
-    Map<MonsterData, Double> monsterData = new HashMap<>();
-
+  public synchronized Map<MonsterData, Double> getMonsterData(boolean stateful) {
     if (stateful) {
       recalculate();
     }
 
+    this.validateCache();
+    Map<MonsterData, Double> monsterData = stateful ? this.statefulMonsterData : this.monsterData;
+    if (monsterData == null) {
+      monsterData = this.calculateMonsterData(stateful);
+      if (stateful) {
+        this.statefulMonsterData = monsterData;
+      } else {
+        this.monsterData = monsterData;
+      }
+    }
+
+    // Callers are free to change what they are given
+    return new HashMap<>(monsterData);
+  }
+
+  private Map<MonsterData, Double> calculateMonsterData(boolean stateful) {
+    Map<MonsterData, Double> monsterData = new HashMap<>();
+
     double totalSuperlikelyChance = 0.0;
 
     for (MonsterData monster : superlikelyMonsters) {
@@ -766,7 +886,19 @@ public class AreaCombatData {
     return areaCombatPercent(true);
   }
 
-  public double areaCombatPercent(boolean stateful) {
+  public synchronized double areaCombatPercent(boolean stateful) {
+    if (!stateful) {
+      return this.calculateCombatPercent(false);
+    }
+
+    this.validateCache();
+    if (this.statefulCombatPercent == null) {
+      this.statefulCombatPercent = this.calculateCombatPercent(true);
+    }
+    return this.statefulCombatPercent;
+  }
+
+  private double calculateCombatPercent(boolean stateful) {
     if (stateful) {
       // Some situations can force combats
       if (EncounterManager.isSaberForceZone(this.getZone())) {
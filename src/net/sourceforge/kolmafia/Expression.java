@@ -1,7 +1,15 @@
 package net.sourceforge.kolmafia;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import net.sourceforge.kolmafia.objectpool.EffectPool;
@@ -20,15 +28,76 @@ import net.sourceforge.kolmafia.utilities.StringUtilities;
 
 public class Expression {
   private static final Pattern NUM_PATTERN = Pattern.compile("([+-]?[\\d.]+)(.*)");
-  private static final int STACK_SIZE = 128;
+
+  /**
+   * The pieces of game state an expression can read. Expressions record which of these they
+   * depend on when they are compiled; an expression whose dependencies are all tracked caches its
+   * result until one of them is invalidated.
+   */
+  public enum Dependency {
+    PREFERENCES(true),
+    LOCATION(true),
+    FAMILIAR(true),
+    EFFECTS(false),
+    EQUIPMENT(false),
+    SKILLS(false),
+    CHARACTER(false),
+    MODIFIERS(false),
+    CALENDAR(false);
+
+    // A tracked dependency calls Expression.invalidate whenever it changes
+    private final boolean tracked;
+
+    Dependency(boolean tracked) {
+      this.tracked = tracked;
+    }
+
+    public boolean isTracked() {
+      return this.tracked;
+    }
+  }
+
+  private static final AtomicLongArray generations =
+      new AtomicLongArray(Dependency.values().length);
+
+  /** Discard cached results of every expression which depends on the given state. */
+  public static void invalidate(final Dependency dependency) {
+    Expression.generations.incrementAndGet(dependency.ordinal());
+  }
+
+  static long generation(final Set<Dependency> dependencies) {
+    // Generations only ever increase, so their sum changes whenever any one of them does
+    long stamp = 0;
+    for (Dependency dependency : dependencies) {
+      stamp += Expression.generations.get(dependency.ordinal());
+    }
+    return stamp;
+  }
+
+  /** A compiled node of an expression tree. */
+  @FunctionalInterface
+  protected interface Term {
+    double eval();
+  }
+
+  private record Node(Term term, Set<Dependency> dependencies) {}
+
+  private record CachedValue(long stamp, double value) {}
+
+  private record ParsedPreference(String raw, double value) {}
 
   protected String name;
   protected String text;
 
-  private char[] bytecode; // Compiled expression
+  private char[] validOps; // Allowed operations in the A-Z range, sorted
   private ArrayList<Object> literals; // Strings & floats needed by expression
   protected AdventureResult effect;
 
+  private Term root; // Compiled expression
+  private Set<Dependency> dependencies;
+  private boolean cacheable;
+  private volatile CachedValue cached = null;
+
   // If non-null, contains concatenated error strings from compiling bytecode
   private StringBuilder error = null;
 
@@ -52,21 +121,6 @@ public class Expression {
     return "Expression syntax errors for '" + name + "':" + KoLConstants.LINE_BREAK + this.error;
   }
 
-  private static double[] cachedStack;
-
-  private static synchronized double[] stackFactory(double[] recycle) {
-    if (recycle != null) { // Reuse this stack for the next evaluation.
-      cachedStack = recycle;
-      return null;
-    } else if (cachedStack != null) { // We have a stack handy; it's yours now.
-      double[] rv = cachedStack;
-      cachedStack = null;
-      return rv;
-    } else { // We're all out of stacks.
-      return new double[STACK_SIZE];
-    }
-  }
-
   public Expression(String text, String name) {
     this.name = name;
     this.text = text;
@@ -75,22 +129,22 @@ public class Expression {
     // compilation and evaluation
     this.initialize();
 
-    // Compile the expression into byte code
-    this.bytecode = this.validBytecodes().toCharArray();
-    Arrays.sort(this.bytecode);
-    String compiled = this.expr() + "r";
-    // if ( name.length() > 0 && name.equalsIgnoreCase(
-    //	Preferences.getString( "debugEval" ) ) )
-    // {
-    //	compiled = compiled.replaceAll( ".", "?$0" );
-    // }
-    this.bytecode = compiled.toCharArray();
+    // Parse the expression into postfix byte code
+    this.validOps = this.validBytecodes().toCharArray();
+    Arrays.sort(this.validOps);
+    String compiled = this.expr();
     if (this.text.length() > 0) {
       StringBuilder buf = this.newError();
       buf.append("Expected end, found ");
       buf.append(this.text);
     }
     this.text = null;
+
+    // Compile the byte code into a tree of terms
+    Node node = this.compile(compiled);
+    this.root = node.term();
+    this.dependencies = Collections.unmodifiableSet(node.dependencies());
+    this.cacheable = this.dependencies.stream().allMatch(Dependency::isTracked);
   }
 
   public static Expression getInstance(String text, String name) {
@@ -104,11 +158,14 @@ public class Expression {
 
   protected void initialize() {}
 
+  /** The game state this expression reads; an empty set means the expression is constant. */
+  public Set<Dependency> getDependencies() {
+    return this.dependencies;
+  }
+
   public double eval() {
     try {
       return this.evalInternal();
-    } catch (ArrayIndexOutOfBoundsException e) {
-      KoLmafia.updateDisplay("Unreasonably complex expression for " + this.name + ": " + e);
     } catch (RuntimeException e) {
       KoLmafia.updateDisplay("Expression evaluation error for " + this.name + ": " + e);
     } catch (Exception e) {
@@ -118,406 +175,528 @@ public class Expression {
   }
 
   public double evalInternal() {
-    double[] s = stackFactory(null);
-    int sp = 0;
-    int pc = 0;
-    double v = 0.0;
+    if (!this.cacheable) {
+      return this.root.eval();
+    }
 
-    while (true) {
-      char inst = this.bytecode[pc++];
-      switch (inst) {
-          // 			case '?':	// temporary instrumentation
-          // 				KoLmafia.updateDisplay( "\u2326 Eval " + this.name + " from " +
-          // 					Thread.currentThread().getName() );
-          // 				StringBuffer b = new StringBuffer();
-          // 				if ( pc == 1 )
-          // 				{
-          // 					b.append( "\u2326 Bytecode=" );
-          // 					b.append( this.bytecode );
-          // 					for ( int i = 1; i < this.bytecode.length; i += 2 )
-          // 					{
-          // 						b.append( ' ' );
-          // 						b.append( Integer.toHexString( this.bytecode[ i ] ) );
-          // 					}
-          // 					KoLmafia.updateDisplay( b.toString() );
-          // 					b.setLength( 0 );
-          // 				}
-          // 				b.append( "\u2326 PC=" );
-          // 				b.append( pc );
-          // 				b.append( " Stack=" );
-          // 				if ( sp < 0 )
-          // 				{
-          // 					b.append( sp );
-          // 				}
-          // 				else
-          // 				{
-          // 					for ( int i = 0; i < sp && i < INITIAL_STACK; ++i )
-          // 					{
-          // 						b.append( ' ' );
-          // 						b.append( s[ i ] );
-          // 					}
-          // 				}
-          // 				KoLmafia.updateDisplay( b.toString() );
-          // 				continue;
-
-        case 'r':
-          v = s[--sp];
-          stackFactory(s); // recycle this stack
-          return v;
+    long stamp = Expression.generation(this.dependencies);
+    CachedValue cached = this.cached;
+    if (cached != null && cached.stamp() == stamp) {
+      return cached.value();
+    }
 
-        case '+':
-          v = s[--sp] + s[--sp];
-          break;
+    double v = this.root.eval();
+    this.cached = new CachedValue(stamp, v);
+    return v;
+  }
 
-        case '-':
-          v = s[--sp] - s[--sp];
-          break;
+  private Node compile(final String bytecode) {
+    Deque<Node> stack = new ArrayDeque<>();
 
-        case '*':
-          v = s[--sp] * s[--sp];
-          break;
+    for (int pc = 0; pc < bytecode.length(); ++pc) {
+      char inst = bytecode.charAt(pc);
+      Node node;
 
-        case '/':
-          double numerator = s[--sp];
-          double denominator = s[--sp];
-          if (denominator == 0.0) {
-            throw new ArithmeticException("Can't divide by zero");
-          }
-          v = numerator / denominator;
-          break;
+      if (inst > '\u00FF') {
+        node = Expression.constant(inst - 0x8000);
+      } else if (inst >= 'A' && inst <= 'Z') {
+        node = this.variable(inst);
+      } else {
+        try {
+          node = this.operation(inst, stack);
+        } catch (RuntimeException e) {
+          // Operands missing from the stack
+          node = null;
+        }
+      }
 
-        case '%':
-          v = s[--sp] % s[--sp];
-          break;
+      if (node == null) {
+        StringBuilder buf = this.newError();
+        buf.append("Evaluator bytecode invalid at ");
+        buf.append(pc);
+        buf.append(": ");
+        buf.append(bytecode);
+        return Expression.constant(0.0);
+      }
 
-        case '^':
-          double base = s[--sp];
-          double expt = s[--sp];
-          v = Math.pow(base, expt);
-          if (Double.isNaN(v) || Double.isInfinite(v)) {
-            throw new ArithmeticException(
-                "Invalid exponentiation: cannot take " + base + " ** " + expt);
-          }
-          break;
+      stack.push(Expression.fold(node));
+    }
 
-        case 'a':
-          v = Math.abs(s[--sp]);
-          break;
-        case 'c':
-          v = Math.ceil(s[--sp]);
-          break;
-        case 'f':
-          v = Math.floor(s[--sp]);
-          break;
-        case 'm':
-          v = Math.min(s[--sp], s[--sp]);
-          break;
-        case 'p':
-          String first = (String) this.literals.get((int) s[--sp]);
-          String second = null;
-          int commaIndex = first.indexOf(",");
-          if (commaIndex > -1) {
-            second = first.substring(commaIndex + 1);
-            first = first.substring(0, commaIndex);
-          }
-          String prefString = Preferences.getString(first);
-          if (second != null) {
-            v = prefString.contains(second) ? 1 : 0;
-          } else {
-            v =
-                prefString.contains("true")
-                    ? 1
-                    : prefString.contains("false") ? 0 : StringUtilities.parseDouble(prefString);
-          }
-          break;
-        case 's':
-          v = Math.sqrt(s[--sp]);
-          if (Double.isNaN(v)) {
-            throw new ArithmeticException("Can't take square root of a negative value");
-          }
-          break;
-        case 'x':
-          v = Math.max(s[--sp], s[--sp]);
-          break;
+    if (stack.size() != 1) {
+      // Only possible if the parser already reported an error
+      return Expression.constant(0.0);
+    }
 
-        case '#':
-          v = (Double) this.literals.get((int) s[--sp]);
-          break;
+    return stack.pop();
+  }
 
-          // Valid with ModifierExpression:
-        case 'b':
-          String elem = (String) this.literals.get((int) s[--sp]);
-          Element element = Element.fromString(elem);
-          v = KoLCharacter.currentNumericModifier(Modifiers.elementalResistance(element));
-          break;
-        case 'd':
-          String skillName = (String) this.literals.get((int) s[--sp]);
-          if (StringUtilities.isNumeric(skillName)) {
-            int skillId = StringUtilities.parseInt(skillName);
-            skillName = SkillDatabase.getSkillName(skillId);
-          }
-          v = KoLCharacter.hasSkill(skillName) ? 1 : 0;
-          break;
-        case 'e':
-          String effectName = (String) this.literals.get((int) s[--sp]);
+  private static Node constant(final double value) {
+    return new Node(() -> value, EnumSet.noneOf(Dependency.class));
+  }
+
+  private static Node leaf(final Dependency dependency, final Term term) {
+    return new Node(term, EnumSet.of(dependency));
+  }
+
+  private static Node fold(final Node node) {
+    // A term with no dependencies always evaluates to the same value, so
+    // evaluate it once now. Leave it alone if that fails, so the error is
+    // still reported each time the expression is evaluated.
+    if (!node.dependencies().isEmpty()) {
+      return node;
+    }
+    try {
+      return Expression.constant(node.term().eval());
+    } catch (RuntimeException e) {
+      return node;
+    }
+  }
+
+  private static Node unary(final Node arg, final Term term) {
+    return new Node(term, arg.dependencies());
+  }
+
+  private static Node binary(final Node lhs, final Node rhs, final Term term) {
+    Set<Dependency> dependencies = EnumSet.noneOf(Dependency.class);
+    dependencies.addAll(lhs.dependencies());
+    dependencies.addAll(rhs.dependencies());
+    return new Node(term, dependencies);
+  }
+
+  private Object literal(final Node index) {
+    return this.literals.get((int) index.term().eval());
+  }
+
+  private String stringLiteral(final Node index) {
+    return (String) this.literal(index);
+  }
+
+  private Node operation(final char inst, final Deque<Node> stack) {
+    // Binary operators find their left operand on top of the stack
+    switch (inst) {
+      case '+':
+        {
+          Term lhs = stack.peek().term();
+          Node l = stack.pop();
+          Term rhs = stack.peek().term();
+          return Expression.binary(l, stack.pop(), () -> lhs.eval() + rhs.eval());
+        }
+      case '-':
+        {
+          Term lhs = stack.peek().term();
+          Node l = stack.pop();
+          Term rhs = stack.peek().term();
+          return Expression.binary(l, stack.pop(), () -> lhs.eval() - rhs.eval());
+        }
+      case '*':
+        {
+          Term lhs = stack.peek().term();
+          Node l = stack.pop();
+          Term rhs = stack.peek().term();
+          return Expression.binary(l, stack.pop(), () -> lhs.eval() * rhs.eval());
+        }
+      case '/':
+        {
+          Term lhs = stack.peek().term();
+          Node l = stack.pop();
+          Term rhs = stack.peek().term();
+          return Expression.binary(
+              l,
+              stack.pop(),
+              () -> {
+                double numerator = lhs.eval();
+                double denominator = rhs.eval();
+                if (denominator == 0.0) {
+                  throw new ArithmeticException("Can't divide by zero");
+                }
+                return numerator / denominator;
+              });
+        }
+      case '%':
+        {
+          Term lhs = stack.peek().term();
+          Node l = stack.pop();
+          Term rhs = stack.peek().term();
+          return Expression.binary(l, stack.pop(), () -> lhs.eval() % rhs.eval());
+        }
+      case '^':
+        {
+          Term lhs = stack.peek().term();
+          Node l = stack.pop();
+          Term rhs = stack.peek().term();
+          return Expression.binary(
+              l,
+              stack.pop(),
+              () -> {
+                double base = lhs.eval();
+                double expt = rhs.eval();
+                double v = Math.pow(base, expt);
+                if (Double.isNaN(v) || Double.isInfinite(v)) {
+                  throw new ArithmeticException(
+                      "Invalid exponentiation: cannot take " + base + " ** " + expt);
+                }
+                return v;
+              });
+        }
+      case 'm':
+        {
+          Term lhs = stack.peek().term();
+          Node l = stack.pop();
+          Term rhs = stack.peek().term();
+          return Expression.binary(l, stack.pop(), () -> Math.min(lhs.eval(), rhs.eval()));
+        }
+      case 'x':
+        {
+          Term lhs = stack.peek().term();
+          Node l = stack.pop();
+          Term rhs = stack.peek().term();
+          return Expression.binary(l, stack.pop(), () -> Math.max(lhs.eval(), rhs.eval()));
+        }
+
+      case 'a':
+        {
+          Term arg = stack.peek().term();
+          return Expression.unary(stack.pop(), () -> Math.abs(arg.eval()));
+        }
+      case 'c':
+        {
+          Term arg = stack.peek().term();
+          return Expression.unary(stack.pop(), () -> Math.ceil(arg.eval()));
+        }
+      case 'f':
+        {
+          Term arg = stack.peek().term();
+          return Expression.unary(stack.pop(), () -> Math.floor(arg.eval()));
+        }
+      case 's':
+        {
+          Term arg = stack.peek().term();
+          return Expression.unary(
+              stack.pop(),
+              () -> {
+                double v = Math.sqrt(arg.eval());
+                if (Double.isNaN(v)) {
+                  throw new ArithmeticException("Can't take square root of a negative value");
+                }
+                return v;
+              });
+        }
+
+      case '#':
+        return Expression.constant((Double) this.literal(stack.pop()));
+      case 'p':
+        return this.preference(this.stringLiteral(stack.pop()));
+
+        // Valid with ModifierExpression:
+      case 'b':
+        {
+          Element element = Element.fromString(this.stringLiteral(stack.pop()));
+          return Expression.leaf(
+              Dependency.MODIFIERS,
+              () -> KoLCharacter.currentNumericModifier(Modifiers.elementalResistance(element)));
+        }
+      case 'd':
+        {
+          String skillName = this.stringLiteral(stack.pop());
+          Supplier<String> skill =
+              StringUtilities.isNumeric(skillName)
+                  ? new Lazy<>(
+                      () -> SkillDatabase.getSkillName(StringUtilities.parseInt(skillName)),
+                      s -> s != null)
+                  : () -> skillName;
+          return Expression.leaf(
+              Dependency.SKILLS, () -> KoLCharacter.hasSkill(skill.get()) ? 1 : 0);
+        }
+      case 'e':
+        {
+          String effectName = this.stringLiteral(stack.pop());
           // If effect name is a number, convert to name
-          int effectId =
-              (StringUtilities.isNumeric(effectName))
-                  ? StringUtilities.parseInt(effectName)
-                  : EffectDatabase.getEffectId(effectName);
-          AdventureResult eff = EffectPool.get(effectId);
-          v = Math.max(0, eff.getCount(KoLConstants.activeEffects));
-          break;
-        case 'g':
-          String itemName = (String) this.literals.get((int) s[--sp]);
-          int itemId = ItemDatabase.getItemId(itemName);
-          AdventureResult item = ItemPool.get(itemId);
-          v = KoLCharacter.hasEquipped(item) ? 1 : 0;
-          break;
-        case 'h':
-          v =
-              Modifiers.mainhandClass.equalsIgnoreCase((String) this.literals.get((int) s[--sp]))
-                  ? 1
-                  : 0;
-          break;
-        case 'i':
-          v =
-              FamiliarDatabase.hasAttribute(
-                      Modifiers.currentFamiliar, (String) this.literals.get((int) s[--sp]))
-                  ? 1
-                  : 0;
-          break;
-        case 'j':
-          v =
-              Modifiers.currentEnvironment.equalsIgnoreCase(
-                      (String) this.literals.get((int) s[--sp]))
-                  ? 1
-                  : 0;
-          break;
-        case 'l':
-          v =
-              Modifiers.currentLocation.equalsIgnoreCase((String) this.literals.get((int) s[--sp]))
-                  ? 1
-                  : 0;
-          break;
-        case 'n':
-          v =
-              KoLCharacter.getAscensionClassName()
-                      .equalsIgnoreCase((String) this.literals.get((int) s[--sp]))
-                  ? 1
-                  : 0;
-          break;
-        case 'w':
-          String fam = (String) this.literals.get((int) s[--sp]);
-          String familiarName =
+          Supplier<AdventureResult> effect =
+              new Lazy<>(
+                  () ->
+                      EffectPool.get(
+                          (StringUtilities.isNumeric(effectName))
+                              ? StringUtilities.parseInt(effectName)
+                              : EffectDatabase.getEffectId(effectName)),
+                  e -> e.getEffectId() != -1);
+          return Expression.leaf(
+              Dependency.EFFECTS,
+              () -> Math.max(0, effect.get().getCount(KoLConstants.activeEffects)));
+        }
+      case 'g':
+        {
+          String itemName = this.stringLiteral(stack.pop());
+          Supplier<AdventureResult> item =
+              new Lazy<>(
+                  () -> ItemPool.get(ItemDatabase.getItemId(itemName)), i -> i.getItemId() != -1);
+          return Expression.leaf(
+              Dependency.EQUIPMENT, () -> KoLCharacter.hasEquipped(item.get()) ? 1 : 0);
+        }
+      case 'h':
+        {
+          String mainhand = this.stringLiteral(stack.pop());
+          return Expression.leaf(
+              Dependency.EQUIPMENT,
+              () -> Modifiers.mainhandClass.equalsIgnoreCase(mainhand) ? 1 : 0);
+        }
+      case 'i':
+        {
+          String attribute = this.stringLiteral(stack.pop());
+          return Expression.leaf(
+              Dependency.FAMILIAR,
+              () -> FamiliarDatabase.hasAttribute(Modifiers.currentFamiliar, attribute) ? 1 : 0);
+        }
+      case 'j':
+        {
+          String environment = this.stringLiteral(stack.pop());
+          return Expression.leaf(
+              Dependency.LOCATION,
+              () -> Modifiers.currentEnvironment.equalsIgnoreCase(environment) ? 1 : 0);
+        }
+      case 'l':
+        {
+          String location = this.stringLiteral(stack.pop());
+          return Expression.leaf(
+              Dependency.LOCATION,
+              () -> Modifiers.currentLocation.equalsIgnoreCase(location) ? 1 : 0);
+        }
+      case 'n':
+        {
+          String className = this.stringLiteral(stack.pop());
+          return Expression.leaf(
+              Dependency.CHARACTER,
+              () -> KoLCharacter.getAscensionClassName().equalsIgnoreCase(className) ? 1 : 0);
+        }
+      case 'w':
+        {
+          String fam = this.stringLiteral(stack.pop());
+          Supplier<String> familiar =
               (StringUtilities.isNumeric(fam))
-                  ? FamiliarDatabase.getFamiliarName(StringUtilities.parseInt(fam))
-                  : fam;
-          v = Modifiers.currentFamiliar.equalsIgnoreCase(familiarName) ? 1 : 0;
-          break;
-        case 'z':
-          String expressionZone = (String) this.literals.get((int) s[--sp]);
-          String currentZone = Modifiers.currentZone;
-          v = 0;
-          while (true) {
-            if (currentZone.equalsIgnoreCase(expressionZone)) {
-              v = 1;
-              break;
-            }
-            String parentZone = AdventureDatabase.PARENT_ZONES.get(currentZone);
-            if (parentZone == null || currentZone.equals(parentZone)) {
-              break;
-            }
-            currentZone = parentZone;
+                  ? new Lazy<>(
+                      () -> FamiliarDatabase.getFamiliarName(StringUtilities.parseInt(fam)),
+                      f -> f != null)
+                  : () -> fam;
+          return Expression.leaf(
+              Dependency.FAMILIAR,
+              () -> Modifiers.currentFamiliar.equalsIgnoreCase(familiar.get()) ? 1 : 0);
+        }
+      case 'z':
+        {
+          String expressionZone = this.stringLiteral(stack.pop());
+          return Expression.leaf(Dependency.LOCATION, () -> Expression.inZone(expressionZone));
+        }
+      case 'v':
+        {
+          String event = this.stringLiteral(stack.pop());
+          if (event.equals("December")) {
+            return Expression.leaf(Dependency.CALENDAR, () -> HolidayDatabase.isDecember() ? 1 : 0);
           }
-          break;
-        case 'v':
-          String event = (String) this.literals.get((int) s[--sp]);
-
-          switch (event) {
-            case "December":
-              v = HolidayDatabase.isDecember() ? 1 : 0;
-              break;
-            default:
-              if (HolidayDatabase.getHoliday().contains(event)) {
-                v = 1;
-              }
-              break;
-          }
-
-          break;
+          return Expression.leaf(
+              Dependency.CALENDAR, () -> HolidayDatabase.getHoliday().contains(event) ? 1 : 0);
+        }
+
+        // Valid with MonsterExpression:
+      case '\u0080':
+        return Expression.leaf(Dependency.CHARACTER, KoLCharacter::getAdjustedMuscle);
+      case '\u0081':
+        return Expression.leaf(Dependency.CHARACTER, KoLCharacter::getAdjustedMysticality);
+      case '\u0082':
+        return Expression.leaf(Dependency.CHARACTER, KoLCharacter::getAdjustedMoxie);
+      case '\u0083':
+        return Expression.leaf(Dependency.MODIFIERS, KoLCharacter::getMonsterLevelAdjustment);
+      case '\u0084':
+        return Expression.leaf(Dependency.CHARACTER, KoLCharacter::getMindControlLevel);
+        // Valid with MonsterExpression and RestoreExpression:
+      case '\u0085':
+        return Expression.leaf(Dependency.CHARACTER, KoLCharacter::getMaximumHP);
+        // Valid with MonsterExpression:
+      case '\u0086':
+        return Expression.leaf(Dependency.CHARACTER, BasementRequest::getBasementLevel);
+      case '\u0087':
+        return Expression.leaf(Dependency.CHARACTER, () -> FightRequest.dreadKisses("Woods"));
+      case '\u0088':
+        return Expression.leaf(Dependency.CHARACTER, () -> FightRequest.dreadKisses("Village"));
+      case '\u0089':
+        return Expression.leaf(Dependency.CHARACTER, () -> FightRequest.dreadKisses("Castle"));
+      case '\u0090':
+        return Expression.leaf(Dependency.CHARACTER, KoLCharacter::getAdjustedHighestStat);
+        // Valid with RestoreExpression:
+      case '\u0091':
+        return Expression.leaf(Dependency.CHARACTER, KoLCharacter::getMaximumMP);
+        // Valid with ModifierExpression and MonsterExpression:
+      case '\u0092':
+        {
+          AscensionPath.Path path = AscensionPath.nameToPath(this.stringLiteral(stack.pop()));
+          return Expression.leaf(
+              Dependency.CHARACTER, () -> KoLCharacter.getPath().equals(path) ? 1 : 0);
+        }
+        // Valid with ModifierExpression:
+      case '\u0093':
+        {
+          String modName = this.stringLiteral(stack.pop());
+          return Expression.leaf(
+              Dependency.MODIFIERS, () -> KoLCharacter.getCurrentModifiers().getExtra(modName));
+        }
+      case '\u0094':
+        return Expression.leaf(Dependency.CHARACTER, () -> KoLCharacter.canInteract() ? 1 : 0);
+        // Valid with RestoreExpression:
+      case '\u0095':
+        return Expression.leaf(Dependency.CHARACTER, KoLCharacter::getCurrentHP);
+        // Valid with ModifierExpression:
+      case '\u0096':
+        {
+          String arg = this.stringLiteral(stack.pop());
+          return Expression.constant(StringUtilities.parseInt(arg.replaceAll(",", "")));
+        }
+      case '\u0097':
+        return Expression.leaf(Dependency.CHARACTER, KoLCharacter::getBaseMuscle);
+      case '\u0098':
+        return Expression.leaf(Dependency.CHARACTER, KoLCharacter::getBaseMysticality);
+      case '\u0099':
+        return Expression.leaf(Dependency.CHARACTER, KoLCharacter::getBaseMoxie);
+    }
 
-          // Valid with MonsterExpression:
-        case '\u0080':
-          v = KoLCharacter.getAdjustedMuscle();
-          break;
-          // Valid with MonsterExpression:
-        case '\u0081':
-          v = KoLCharacter.getAdjustedMysticality();
-          break;
-          // Valid with MonsterExpression:
-        case '\u0082':
-          v = KoLCharacter.getAdjustedMoxie();
-          break;
-          // Valid with MonsterExpression:
-        case '\u0083':
-          v = KoLCharacter.getMonsterLevelAdjustment();
-          break;
-          // Valid with MonsterExpression:
-        case '\u0084':
-          v = KoLCharacter.getMindControlLevel();
-          break;
-          // Valid with MonsterExpression and RestoreExpression:
-        case '\u0085':
-          v = KoLCharacter.getMaximumHP();
-          break;
-          // Valid with MonsterExpression:
-        case '\u0086':
-          v = BasementRequest.getBasementLevel();
-          break;
-          // Valid with MonsterExpression:
-        case '\u0087':
-          v = FightRequest.dreadKisses("Woods");
-          break;
-          // Valid with MonsterExpression:
-        case '\u0088':
-          v = FightRequest.dreadKisses("Village");
-          break;
-          // Valid with MonsterExpression:
-        case '\u0089':
-          v = FightRequest.dreadKisses("Castle");
-          break;
-          // Valid with MonsterExpression:
-        case '\u0090':
-          v = KoLCharacter.getAdjustedHighestStat();
-          break;
-          // Valid with RestoreExpression:
-        case '\u0091':
-          v = KoLCharacter.getMaximumMP();
-          break;
-          // Valid with ModifierExpression and MonsterExpression:
-        case '\u0092':
-          AscensionPath.Path p =
-              AscensionPath.nameToPath((String) this.literals.get((int) s[--sp]));
-          v = KoLCharacter.getPath().equals(p) ? 1 : 0;
-          break;
-          // Valid with ModifierExpression:
-        case '\u0093':
-          Modifiers mods = KoLCharacter.getCurrentModifiers();
-          String modName = (String) this.literals.get((int) s[--sp]);
-          v = mods.getExtra(modName);
-          break;
-          // Valid with ModifierExpression:
-        case '\u0094':
-          v = KoLCharacter.canInteract() ? 1 : 0;
-          break;
-          // Valid with RestoreExpression:
-        case '\u0095':
-          v = KoLCharacter.getCurrentHP();
-          break;
-          // Valid with Modifier Expression:
-        case '\u0096':
-          String arg = (String) this.literals.get((int) s[--sp]);
-          v = StringUtilities.parseInt(arg.replaceAll(",", ""));
-          break;
-          // Valid with Modifier Expression:
-        case '\u0097':
-          v = KoLCharacter.getBaseMuscle();
-          break;
-          // Valid with Modifier Expression:
-        case '\u0098':
-          v = KoLCharacter.getBaseMysticality();
-          break;
-          // Valid with Modifier Expression:
-        case '\u0099':
-          v = KoLCharacter.getBaseMoxie();
-          break;
+    return null;
+  }
 
-        case 'A':
-          v = KoLCharacter.getAscensions();
-          break;
-        case 'B':
-          v = HolidayDatabase.getBloodEffect();
-          break;
-        case 'C':
-          v = KoLCharacter.getMinstrelLevel();
-          break;
-        case 'D':
-          v = KoLCharacter.getInebriety();
-          break;
-        case 'E':
-          {
-            v =
+  private Node variable(final char inst) {
+    switch (inst) {
+      case 'A':
+        return Expression.leaf(Dependency.CHARACTER, KoLCharacter::getAscensions);
+      case 'B':
+        return Expression.leaf(Dependency.CALENDAR, HolidayDatabase::getBloodEffect);
+      case 'C':
+        return Expression.leaf(Dependency.CHARACTER, KoLCharacter::getMinstrelLevel);
+      case 'D':
+        return Expression.leaf(Dependency.CHARACTER, KoLCharacter::getInebriety);
+      case 'E':
+        return Expression.leaf(
+            Dependency.EFFECTS,
+            () ->
                 KoLConstants.activeEffects.stream()
                     .map(e -> e.getCount())
                     .filter(d -> d < Integer.MAX_VALUE)
-                    .count();
-            break;
-          }
-        case 'F':
-          v = KoLCharacter.getFullness();
-          break;
-        case 'G':
-          v = HolidayDatabase.getGrimaciteEffect() / 10.0;
-          break;
-        case 'H':
-          v = Modifiers.hoboPower;
-          break;
-        case 'I':
-          v = KoLCharacter.getDiscoMomentum();
-          break;
-        case 'J':
-          v = HolidayDatabase.getHoliday().contains("Festival of Jarlsberg") ? 1.0 : 0.0;
-          break;
-        case 'K':
-          v = Modifiers.smithsness;
-          break;
-        case 'L':
-          v = KoLCharacter.getLevel();
-          break;
-        case 'M':
-          v = HolidayDatabase.getMoonlight();
-          break;
-        case 'N':
-          v = KoLCharacter.getAudience();
-          break;
-        case 'P':
-          v = KoLCharacter.currentPastaThrall.getLevel();
-          break;
-        case 'R':
-          v = KoLCharacter.getReagentPotionDuration();
-          break;
-        case 'S':
-          v = KoLCharacter.getSpleenUse();
-          break;
-        case 'T':
-          v =
-              this.effect == null
-                  ? 0.0
-                  : Math.max(1, this.effect.getCount(KoLConstants.activeEffects));
-          break;
-        case 'U':
-          v = KoLCharacter.getTelescopeUpgrades();
-          break;
-        case 'W':
-          v = Modifiers.currentWeight;
-          break;
-        case 'X':
-          v = KoLCharacter.getGender();
-          break;
-        case 'Y':
-          v = KoLCharacter.getFury();
-          break;
+                    .count());
+      case 'F':
+        return Expression.leaf(Dependency.CHARACTER, KoLCharacter::getFullness);
+      case 'G':
+        return Expression.leaf(
+            Dependency.CALENDAR, () -> HolidayDatabase.getGrimaciteEffect() / 10.0);
+      case 'H':
+        return Expression.leaf(Dependency.MODIFIERS, () -> Modifiers.hoboPower);
+      case 'I':
+        return Expression.leaf(Dependency.CHARACTER, KoLCharacter::getDiscoMomentum);
+      case 'J':
+        return Expression.leaf(
+            Dependency.CALENDAR,
+            () -> HolidayDatabase.getHoliday().contains("Festival of Jarlsberg") ? 1.0 : 0.0);
+      case 'K':
+        return Expression.leaf(Dependency.MODIFIERS, () -> Modifiers.smithsness);
+      case 'L':
+        return Expression.leaf(Dependency.CHARACTER, KoLCharacter::getLevel);
+      case 'M':
+        return Expression.leaf(Dependency.CALENDAR, HolidayDatabase::getMoonlight);
+      case 'N':
+        return Expression.leaf(Dependency.CHARACTER, KoLCharacter::getAudience);
+      case 'P':
+        return Expression.leaf(
+            Dependency.CHARACTER, () -> KoLCharacter.currentPastaThrall.getLevel());
+      case 'R':
+        return Expression.leaf(Dependency.CHARACTER, KoLCharacter::getReagentPotionDuration);
+      case 'S':
+        return Expression.leaf(Dependency.CHARACTER, KoLCharacter::getSpleenUse);
+      case 'T':
+        {
+          AdventureResult effect = this.effect;
+          return Expression.leaf(
+              Dependency.EFFECTS,
+              () ->
+                  effect == null ? 0.0 : Math.max(1, effect.getCount(KoLConstants.activeEffects)));
+        }
+      case 'U':
+        return Expression.leaf(Dependency.CHARACTER, KoLCharacter::getTelescopeUpgrades);
+      case 'W':
+        return Expression.leaf(Dependency.FAMILIAR, () -> Modifiers.currentWeight);
+      case 'X':
+        return Expression.leaf(Dependency.CHARACTER, KoLCharacter::getGender);
+      case 'Y':
+        return Expression.leaf(Dependency.CHARACTER, KoLCharacter::getFury);
+    }
 
-        default:
-          if (inst > '\u00FF') {
-            v = inst - 0x8000;
-            break;
+    return null;
+  }
+
+  private Node preference(final String literal) {
+    String first = literal;
+    String second = null;
+    int commaIndex = first.indexOf(",");
+    if (commaIndex > -1) {
+      second = first.substring(commaIndex + 1);
+      first = first.substring(0, commaIndex);
+    }
+
+    String prefName = first;
+    if (second != null) {
+      String contains = second;
+      return Expression.leaf(
+          Dependency.PREFERENCES, () -> Preferences.getString(prefName).contains(contains) ? 1 : 0);
+    }
+
+    // Remember the last value seen, so an unchanged preference is not parsed again
+    ParsedPreference[] last = new ParsedPreference[1];
+    return Expression.leaf(
+        Dependency.PREFERENCES,
+        () -> {
+          String prefString = Preferences.getString(prefName);
+          ParsedPreference parsed = last[0];
+          if (parsed == null || !parsed.raw().equals(prefString)) {
+            double v =
+                prefString.contains("true")
+                    ? 1
+                    : prefString.contains("false") ? 0 : StringUtilities.parseDouble(prefString);
+            parsed = new ParsedPreference(prefString, v);
+            last[0] = parsed;
           }
-          throw new RuntimeException(
-              "Evaluator bytecode invalid at " + (pc - 1) + ": " + String.valueOf(this.bytecode));
+          return parsed.value();
+        });
+  }
+
+  private static double inZone(final String expressionZone) {
+    String currentZone = Modifiers.currentZone;
+    while (true) {
+      if (currentZone.equalsIgnoreCase(expressionZone)) {
+        return 1;
+      }
+      String parentZone = AdventureDatabase.PARENT_ZONES.get(currentZone);
+      if (parentZone == null || currentZone.equals(parentZone)) {
+        return 0;
+      }
+      currentZone = parentZone;
+    }
+  }
+
+  /** Resolves a name to an id-bearing value on first use, once the relevant database knows it. */
+  private static class Lazy<T> implements Supplier<T> {
+    private final Supplier<T> resolver;
+    private final Predicate<T> isResolved;
+    private volatile T value = null;
+
+    Lazy(final Supplier<T> resolver, final Predicate<T> isResolved) {
+      this.resolver = resolver;
+      this.isResolved = isResolved;
+    }
+
+    @Override
+    public T get() {
+      T v = this.value;
+      if (v != null) {
+        return v;
+      }
+      v = this.resolver.get();
+      if (this.isResolved.test(v)) {
+        this.value = v;
       }
-      s[sp++] = v;
+      return v;
     }
   }
 
@@ -686,7 +865,7 @@ public class Expression {
     rv = this.text.substring(0, 1);
     if (rv.charAt(0) >= 'A' && rv.charAt(0) <= 'Z') {
       this.text = this.text.substring(1);
-      if (Arrays.binarySearch(this.bytecode, rv.charAt(0)) < 0) {
+      if (Arrays.binarySearch(this.validOps, rv.charAt(0)) < 0) {
         StringBuilder buf = this.newError();
         buf.append("'");
         buf.append(rv);
@@ -288,6 +288,7 @@ public abstract class KoLCharacter {
 
   public static final void reset(boolean newCharacter) {
     KoLCharacter.ascensionClass = null;
+    AreaCombatData.invalidate(AreaCombatData.Input.CHARACTER);
 
     KoLCharacter.gender = 0;
     KoLCharacter.currentLevel = 1;
@@ -885,6 +886,7 @@ public abstract class KoLCharacter {
 
   public static final void setGender(final int gender) {
     KoLCharacter.gender = gender;
+    AreaCombatData.invalidate(AreaCombatData.Input.CHARACTER);
   }
 
   public static final int getGender() {
@@ -1209,6 +1211,7 @@ public abstract class KoLCharacter {
    */
   public static final void setAscensionClass(final AscensionClass ascensionClass) {
     KoLCharacter.ascensionClass = ascensionClass;
+    AreaCombatData.invalidate(AreaCombatData.Input.CHARACTER);
 
     KoLCharacter.tripleReagent = isSauceror();
 
@@ -1739,6 +1742,7 @@ public abstract class KoLCharacter {
     setMuscle(adjustedMuscle, totalMuscle);
     setMysticality(adjustedMysticality, totalMysticality);
     setMoxie(adjustedMoxie, totalMoxie);
+    AreaCombatData.invalidate(AreaCombatData.Input.CHARACTER);
   }
 
   public static final void resetTriggers() {
@@ -2103,6 +2107,7 @@ public abstract class KoLCharacter {
     boolean changed =
         KoLCharacter.currentRun != currentRun && KoLCharacter.currentRun != 0 && currentRun != 0;
     KoLCharacter.currentRun = currentRun;
+    AreaCombatData.invalidate(AreaCombatData.Input.CHARACTER);
     if (changed) {
       BanishManager.recalculate();
     }
@@ -3135,6 +3140,7 @@ public abstract class KoLCharacter {
    */
   public static final void setAscensions(final int ascensions) {
     KoLCharacter.ascensions = ascensions;
+    AreaCombatData.invalidate(AreaCombatData.Input.CHARACTER);
   }
 
   public static final void setRestricted(final boolean restricted) {
@@ -4852,20 +4858,26 @@ public abstract class KoLCharacter {
   }
 
   public static final boolean recalculateAdjustments(boolean debug) {
-    return KoLCharacter.currentModifiers.set(
-        KoLCharacter.recalculateAdjustments(
-            debug,
-            KoLCharacter.getMindControlLevel(),
-            EquipmentManager.allEquipment(),
-            KoLConstants.activeEffects,
-            KoLCharacter.effectiveFamiliar,
-            KoLCharacter.currentEnthroned,
-            KoLCharacter.currentBjorned,
-            null,
-            Preferences.getString("_horsery"),
-            Preferences.getString("boomBoxSong"),
-            Modeable.getStateMap(),
-            false));
+    boolean changed =
+        KoLCharacter.currentModifiers.set(
+            KoLCharacter.recalculateAdjustments(
+                debug,
+                KoLCharacter.getMindControlLevel(),
+                EquipmentManager.allEquipment(),
+                KoLConstants.activeEffects,
+                KoLCharacter.effectiveFamiliar,
+                KoLCharacter.currentEnthroned,
+                KoLCharacter.currentBjorned,
+                null,
+                Preferences.getString("_horsery"),
+                Preferences.getString("boomBoxSong"),
+                Modeable.getStateMap(),
+                false));
+
+    // Combat rate, monster level and initiative all feed into encounter odds
+    AreaCombatData.invalidate(AreaCombatData.Input.MODIFIERS);
+
+    return changed;
   }
 
   public static final Modifiers recalculateAdjustments(
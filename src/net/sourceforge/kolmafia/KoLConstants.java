@@ -129,6 +129,7 @@ public interface KoLConstants extends UtilityConstants {
       LockableListFactory.getSortedInstance(AdventureResult.class);
 
   String BUFFBOT_DIRECTORY = "buffs/";
+  String CACHE_DIRECTORY = "cache/";
   String CCS_DIRECTORY = "ccs/";
   String CHATLOG_DIRECTORY = "chats/";
   String PLOTS_DIRECTORY = "planting/";
@@ -139,6 +140,7 @@ public interface KoLConstants extends UtilityConstants {
   String GIT_DIRECTORY = "git/";
 
   File BUFFBOT_LOCATION = new File(KoLConstants.ROOT_LOCATION, KoLConstants.BUFFBOT_DIRECTORY);
+  File CACHE_LOCATION = new File(KoLConstants.ROOT_LOCATION, KoLConstants.CACHE_DIRECTORY);
   File CCS_LOCATION = new File(KoLConstants.ROOT_LOCATION, KoLConstants.CCS_DIRECTORY);
   File CHATLOG_LOCATION = new File(KoLConstants.ROOT_LOCATION, KoLConstants.CHATLOG_DIRECTORY);
   File PLOTS_LOCATION = new File(KoLConstants.ROOT_LOCATION, KoLConstants.PLOTS_DIRECTORY);
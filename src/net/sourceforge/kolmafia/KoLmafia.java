@@ -36,6 +36,7 @@ import net.sourceforge.kolmafia.objectpool.EffectPool;
 import net.sourceforge.kolmafia.objectpool.ItemPool;
 import net.sourceforge.kolmafia.persistence.BountyDatabase;
 import net.sourceforge.kolmafia.persistence.ConcoctionDatabase;
+import net.sourceforge.kolmafia.persistence.DatabaseWarmup;
 import net.sourceforge.kolmafia.persistence.EffectDatabase;
 import net.sourceforge.kolmafia.persistence.EquipmentDatabase;
 import net.sourceforge.kolmafia.persistence.FamiliarDatabase;
@@ -227,19 +228,22 @@ public abstract class KoLmafia {
     System.out.println("Using Java " + System.getProperty("java.version"));
     System.out.println();
     StaticEntity.setGUIRequired(true);
+    boolean startupReport = false;
 
     for (String arg : args) {
       if (arg.equalsIgnoreCase("--HELP") || arg.equalsIgnoreCase("/?")) {
         System.out.println("An interface for the online adventure game, The Kingdom of Loathing.");
         System.out.println("Please visit https://kolmafia.us for more information.");
         System.out.println();
-        System.out.println("KoLmafia [--Help] [--Version] [--CLI] [--GUI] script");
+        System.out.println(
+            "KoLmafia [--Help] [--Version] [--CLI] [--GUI] [--Startup-Report] script");
         System.out.println();
         System.out.println("  --Help        Display this message and exits.");
         System.out.println("  --Version     Display the current version and exits.");
         System.out.println("  --CLI         Run KoLmafia as a command line application.");
         System.out.println(
             "  --GUI         Run KoLmafia with a graphical user interface (Default).");
+        System.out.println("  --Startup-Report  Display how long each database took to load.");
         System.out.println("  script        Specifies a script to call when starting KoLmafia.");
 
         System.exit(0);
@@ -249,6 +253,8 @@ public abstract class KoLmafia {
         StaticEntity.setGUIRequired(false);
       } else if (arg.equalsIgnoreCase("--GUI")) {
         StaticEntity.setGUIRequired(true);
+      } else if (arg.equalsIgnoreCase("--STARTUP-REPORT")) {
+        startupReport = true;
       }
     }
 
@@ -281,6 +287,14 @@ public abstract class KoLmafia {
 
     KoLmafia.checkDataOverrides();
 
+    // Load the databases now, rather than whenever each is first used
+
+    DatabaseWarmup.run();
+    if (startupReport) {
+      System.out.println(DatabaseWarmup.report());
+      System.out.println();
+    }
+
     // Create an images directory if necessary
     KoLConstants.IMAGE_LOCATION.mkdirs();
 
@@ -320,7 +334,9 @@ public abstract class KoLmafia {
     StringBuilder initialScript = new StringBuilder();
 
     for (int i = 0; i < args.length; ++i) {
-      if (args[i].equalsIgnoreCase("--CLI") || args[i].equalsIgnoreCase("--GUI")) {
+      if (args[i].equalsIgnoreCase("--CLI")
+          || args[i].equalsIgnoreCase("--GUI")
+          || args[i].equalsIgnoreCase("--STARTUP-REPORT")) {
         continue;
       }
       // Special case to allow dark menu bar on MacOSX via java
@@ -611,6 +611,7 @@ public class KoLmafiaCLI {
     new DaycareCommand().register("daycare");
     new DebugCreateCommand().register("debugcreate");
     new DebugRequestCommand().register("debug");
+    new DecoratorsCommand().register("decorators");
     new DemonNamesCommand().register("demons");
     new DisplayCaseCommand().register("display");
     new DreadscrollCommand().register("dreadscroll");
@@ -767,6 +768,7 @@ public class KoLmafiaCLI {
     new SpeculateCommand().register("speculate").register("whatif");
     new SpookyravenCommand().register("spookyraven");
     new SpoonCommand().register("spoon");
+    new StartupCommand().register("startup");
     new StickersCommand().registerPlural("sticker");
     new StorageCommand().register("hagnk").register("pull");
     new StyxPixieCommand().register("styx");
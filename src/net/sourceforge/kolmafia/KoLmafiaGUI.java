@@ -6,6 +6,7 @@ import javax.swing.JTabbedPane;
 import javax.swing.UIManager;
 import net.sourceforge.kolmafia.KoLConstants.MafiaState;
 import net.sourceforge.kolmafia.chat.ChatManager;
+import net.sourceforge.kolmafia.listener.ListenerRegistry;
 import net.sourceforge.kolmafia.persistence.BuffBotDatabase;
 import net.sourceforge.kolmafia.preferences.Preferences;
 import net.sourceforge.kolmafia.request.CharPaneRequest;
@@ -49,6 +50,11 @@ public class KoLmafiaGUI {
    * setting the default look and feel of all <code>JFrame</code> objects to decorated.
    */
   static void initialize() {
+    // Panels repaint when listeners fire; don't let that slow down the requests firing them
+    if (Preferences.getBoolean("coalesceListenerUpdates")) {
+      ListenerRegistry.setDispatchMode(ListenerRegistry.DispatchMode.COALESCING);
+    }
+
     KoLmafiaGUI.initializeLoginInterface();
 
     // All that completed, check to see if there is an auto-login
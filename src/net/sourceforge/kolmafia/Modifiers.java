@@ -2624,7 +2624,10 @@ public class Modifiers {
       final FamiliarData familiar, int weight, final AdventureResult famItem) {
     int familiarId = familiar.getId();
     weight = Math.max(1, weight);
-    Modifiers.currentWeight = weight;
+    if (Modifiers.currentWeight != weight) {
+      Modifiers.currentWeight = weight;
+      Expression.invalidate(Expression.Dependency.FAMILIAR);
+    }
 
     String race = familiar.getRace();
 
@@ -3313,12 +3316,14 @@ public class Modifiers {
       Modifiers.currentLocation = "";
       Modifiers.currentZone = "";
       Modifiers.currentML = 4.0;
+      Expression.invalidate(Expression.Dependency.LOCATION);
       return;
     }
 
     Modifiers.currentLocation = location.getAdventureName();
     Modifiers.currentZone = location.getZone();
     Modifiers.currentEnvironment = location.getEnvironment();
+    Expression.invalidate(Expression.Dependency.LOCATION);
     AreaCombatData data = location.getAreaSummary();
     Modifiers.currentML = Math.max(4.0, data == null ? 0.0 : data.getAverageML());
   }
@@ -3329,6 +3334,7 @@ public class Modifiers {
 
   public static void setFamiliar(FamiliarData fam) {
     Modifiers.currentFamiliar = fam == null ? "" : fam.getRace();
+    Expression.invalidate(Expression.Dependency.FAMILIAR);
   }
 
   public static String getLookupName(final String type, final String name) {
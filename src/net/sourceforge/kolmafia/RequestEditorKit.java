@@ -9,8 +9,11 @@ import java.io.IOException;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
 import java.util.regex.MatchResult;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -83,6 +86,7 @@ import net.sourceforge.kolmafia.webui.IslandDecorator;
 import net.sourceforge.kolmafia.webui.MemoriesDecorator;
 import net.sourceforge.kolmafia.webui.MineDecorator;
 import net.sourceforge.kolmafia.webui.NemesisDecorator;
+import net.sourceforge.kolmafia.webui.PageEdits;
 import net.sourceforge.kolmafia.webui.StationaryButtonDecorator;
 import net.sourceforge.kolmafia.webui.TopMenuDecorator;
 import net.sourceforge.kolmafia.webui.UseItemDecorator;
@@ -253,25 +257,320 @@ public class RequestEditorKit extends HTMLEditorKit {
 
     // Apply adjustments that should be on all pages
 
-    RequestEditorKit.applyGlobalAdjustments(location, buffer, addComplexFeatures);
+    RequestEditorKit.GLOBAL_DECORATOR.decorate(location, buffer, addComplexFeatures);
+  }
+
+  /** The decoration of one kind of page, with how long it has taken. */
+  @FunctionalInterface
+  private interface Decoration {
+    void decorate(String location, StringBuffer buffer, boolean addComplexFeatures);
+  }
+
+  private static class PageDecorator {
+    private final String name;
+    private final Predicate<String> matcher;
+    private final Decoration decoration;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+
+    PageDecorator(final String name, final Predicate<String> matcher, final Decoration decoration) {
+      this.name = name;
+      this.matcher = matcher;
+      this.decoration = decoration;
+    }
+
+    boolean matches(final String location) {
+      return this.matcher.test(location);
+    }
+
+    void decorate(
+        final String location, final StringBuffer buffer, final boolean addComplexFeatures) {
+      long start = System.nanoTime();
+      try {
+        this.decoration.decorate(location, buffer, addComplexFeatures);
+      } finally {
+        this.nanos.add(System.nanoTime() - start);
+        this.calls.increment();
+      }
+    }
+  }
+
+  private static final PageDecorator CHARPANE_DECORATOR =
+      new PageDecorator(
+          "charpane.php",
+          location -> location.startsWith("charpane.php"),
+          (location, buffer, addComplexFeatures) -> {
+            if (addComplexFeatures) {
+              CharPaneDecorator.decorate(buffer);
+            }
+          });
+
+  private static final PageDecorator TOPMENU_DECORATOR =
+      new PageDecorator(
+          "menu.php",
+          location -> location.contains("menu.php"),
+          (location, buffer, addComplexFeatures) -> TopMenuDecorator.decorate(buffer, location));
+
+  private static final PageDecorator GLOBAL_DECORATOR =
+      new PageDecorator(
+          "(every page)", location -> true, RequestEditorKit::applyGlobalAdjustments);
+
+  // Decorators for a single kind of page. The first which matches a page is the one used.
+  private static final List<PageDecorator> PAGE_DECORATORS = new ArrayList<>();
+
+  private static void register(final String prefix, final Decoration decoration) {
+    RequestEditorKit.register(prefix, location -> location.startsWith(prefix), decoration);
+  }
+
+  private static void register(
+      final String name, final Predicate<String> matcher, final Decoration decoration) {
+    RequestEditorKit.PAGE_DECORATORS.add(new PageDecorator(name, matcher, decoration));
+  }
+
+  static {
+    register(
+        "account.php",
+        (location, buffer, addComplexFeatures) ->
+            new PageEdits()
+                .replace(
+                    "Manage Subscriptions",
+                    "Manage Subscriptions (this will not work in KoLmafia)")
+                .replace(
+                    "account_subscription.php\"", "#\" title='This will not work in KoLmafia'")
+                .applyTo(buffer));
+    register(
+        "account_combatmacros.php",
+        (location, buffer, addComplexFeatures) ->
+            StringUtilities.insertAfter(
+                buffer,
+                "</textarea>",
+                "<script language=JavaScript src=\"/"
+                    + KoLConstants.MACROHELPER_JS
+                    + "\"></script>"));
+    // Per KoL dev team request, add extra warning to the bug report form.
+    register(
+        "adminmail.php",
+        (location, buffer, addComplexFeatures) -> RequestEditorKit.addBugReportWarning(buffer));
+    register(
+        "adventure.php",
+        (location, buffer, addComplexFeatures) -> {
+          RequestEditorKit.fixTavernCellar(buffer);
+          RequestEditorKit.fixBallroom1(buffer);
+          RequestEditorKit.fixDucks(buffer);
+          StationaryButtonDecorator.decorate(location, buffer);
+          RequestEditorKit.fixBallroom2(buffer);
+          RequestEditorKit.fixGovernmentLab(buffer);
+        });
+    register(
+        "ascend.php",
+        (location, buffer, addComplexFeatures) ->
+            ValhallaDecorator.decorateGashJump(location, buffer));
+    register(
+        "ascensionhistory.php",
+        (location, buffer, addComplexFeatures) -> {
+          // No Javascript in Java's HTML renderer
+          if (addComplexFeatures) {
+            new PageEdits()
+                .insertBefore(
+                    "</head>",
+                    "<script language=\"Javascript\" src=\"/"
+                        + KoLConstants.SORTTABLE_JS
+                        + "\"></script>")
+                .replace(
+                    "<table><tr><td class=small>",
+                    "<table class=\"sortable\" id=\"history\"><tr><td class=small>")
+                .replaceAll(
+                    "<tr><td colspan=9",
+                    "<tr class=\"sortbottom\" style=\"display:none\"><td colspan=9")
+                .applyTo(buffer);
+          }
+        });
+    register(
+        "barrel.php",
+        (location, buffer, addComplexFeatures) -> BarrelDecorator.decorate(buffer));
+    register(
+        "basement.php",
+        (location, buffer, addComplexFeatures) -> BasementDecorator.decorate(buffer));
+    register(
+        "bathole.php",
+        (location, buffer, addComplexFeatures) ->
+            StringUtilities.globalStringReplace(
+                buffer, "action=bathole.php", "action=adventure.php"));
+    register(
+        "beerpong.php",
+        (location, buffer, addComplexFeatures) -> BeerPongDecorator.decorate(buffer));
+    register(
+        "bigisland.php",
+        (location, buffer, addComplexFeatures) ->
+            IslandDecorator.decorateBigIsland(location, buffer));
+    register(
+        "casino.php",
+        (location, buffer, addComplexFeatures) -> {
+          if (!KoLConstants.activeEffects.contains(EffectPool.get(EffectPool.LUCKY))) {
+            StringUtilities.insertAfter(
+                buffer,
+                "<a href=\"casino.php?action=slot&whichslot=11\"",
+                " onclick=\"return confirm('Are you sure you want to adventure here WITHOUT Lucky!?');\"");
+          }
+        });
+    register(
+        "cave.php",
+        (location, buffer, addComplexFeatures) -> NemesisManager.decorate(location, buffer));
+    register(
+        "choice.php",
+        (location, buffer, addComplexFeatures) -> {
+          RequestEditorKit.fixTavernCellar(buffer);
+          StationaryButtonDecorator.decorate(location, buffer);
+          RequestEditorKit.addChoiceSpoilers(location, buffer);
+          RequestEditorKit.addBarrelSounds(buffer);
+        });
+    register(
+        "clan_hobopolis.php",
+        (location, buffer, addComplexFeatures) -> HobopolisDecorator.decorate(location, buffer));
+    register(
+        "clan_viplounge.php?preaction=testlove",
+        (location, buffer, addComplexFeatures) -> ClanFortuneDecorator.decorateAnswer(buffer));
+    register(
+        "council.php",
+        (location, buffer, addComplexFeatures) -> RequestEditorKit.decorateCouncil(buffer));
+    register(
+        "crypt.php",
+        (location, buffer, addComplexFeatures) -> RequestEditorKit.decorateCrypt(buffer));
+    register(
+        "dwarffactory.php",
+        (location, buffer, addComplexFeatures) -> DwarfFactoryRequest.decorate(location, buffer));
+    register(
+        "fight.php",
+        (location, buffer, addComplexFeatures) -> {
+          // Remove bogus directive in monster images
+          StringUtilities.globalStringDelete(buffer, "crossorigin=\"Anonymous\"");
+
+          RequestEditorKit.suppressInappropriateNags(buffer);
+          RequestEditorKit.suppressPowerPixellation(buffer);
+          RequestEditorKit.fixTavernCellar(buffer);
+
+          // Decorate end of fight before stationary buttons
+          FightDecorator.decorateEndOfFight(buffer);
+
+          StationaryButtonDecorator.decorate(location, buffer);
+
+          DiscoCombatHelper.decorate(buffer);
+          RequestEditorKit.addFightModifiers(buffer);
+          RequestEditorKit.addTaleOfDread(buffer);
+          RequestEditorKit.addDesertProgress(buffer);
+          RequestEditorKit.addBlackForestProgress(buffer);
+          RequestEditorKit.addPartyFairProgress(buffer);
+
+          // Do any monster-specific decoration
+          FightDecorator.decorateMonster(buffer);
+
+          // Do any location-specific decoration
+          FightDecorator.decorateLocation(buffer);
+        });
+    register(
+        "fambattle.php",
+        (location, buffer, addComplexFeatures) -> {
+          // Do a subset of the above for a Pokefam battle
+          RequestEditorKit.fixTavernCellar(buffer);
+          FightDecorator.decorateEndOfFight(buffer);
+          // Not yet.
+          // StationaryButtonDecorator.decorate( location, buffer );
+          RequestEditorKit.addFambattleModifiers(buffer);
+          RequestEditorKit.addDesertProgress(buffer);
+          RequestEditorKit.addBlackForestProgress(buffer);
+          FightDecorator.decorateMonster(buffer);
+          FightDecorator.decorateLocation(buffer);
+        });
+    register(
+        "hermit.php",
+        (location, buffer, addComplexFeatures) ->
+            new PageEdits()
+                .replace(RequestEditorKit.NO_PERMIT_TEXT, RequestEditorKit.BUY_PERMIT_TEXT)
+                .replace(
+                    RequestEditorKit.NO_WORTHLESS_ITEM_TEXT,
+                    RequestEditorKit.BUY_WORTHLESS_ITEM_TEXT)
+                .applyTo(buffer));
+    register(
+        "inventory.php",
+        (location, buffer, addComplexFeatures) -> {
+          RequestEditorKit.decorateInventory(buffer, addComplexFeatures);
+          UseItemDecorator.decorate(location, buffer);
+        });
+    register(
+        "inv_use.php",
+        (location, buffer, addComplexFeatures) -> UseItemDecorator.decorate(location, buffer));
+    register(
+        "lchat.php",
+        location -> location.contains("lchat.php"),
+        (location, buffer, addComplexFeatures) ->
+            new PageEdits()
+                .deleteAll("spacing: 0px;")
+                .insertBefore(
+                    "if (postedgraf",
+                    "if (postedgraf == \"/exit\") { document.location.href = \"chatlaunch.php\"; return true; } ")
+                .applyTo(buffer));
+    register(
+        "mall.php",
+        (location, buffer, addComplexFeatures) -> MallSearchRequest.decorateMallSearch(buffer));
+    register(
+        "mining.php",
+        (location, buffer, addComplexFeatures) -> MineDecorator.decorate(location, buffer));
+    register(
+        "mrstore.php",
+        (location, buffer, addComplexFeatures) ->
+            new PageEdits()
+                .replace("account_subscription.php", "# title='This will not work in KoLmafia'")
+                .replace("subscribing</a>", "subscribing (does not work in KoLmafia)</a>")
+                .applyTo(buffer));
+    register(
+        "multiuse.php",
+        (location, buffer, addComplexFeatures) -> RequestEditorKit.addMultiuseModifiers(buffer));
+    register("ocean.php", (location, buffer, addComplexFeatures) -> OceanManager.decorate(buffer));
+    register(
+        "pandamonium.php",
+        (location, buffer, addComplexFeatures) ->
+            PandamoniumRequest.decoratePandamonium(location, buffer));
+    register(
+        "place.php?whichplace=arcade",
+        (location, buffer, addComplexFeatures) -> RequestEditorKit.decorateArcade(buffer));
+    register(
+        "place.php",
+        (location, buffer, addComplexFeatures) -> PlaceRequest.decorate(location, buffer));
+    register(
+        "postwarisland.php",
+        (location, buffer, addComplexFeatures) ->
+            IslandDecorator.decoratePostwarIsland(location, buffer));
+    register(
+        "searchplayer.php",
+        (location, buffer, addComplexFeatures) ->
+            new PageEdits()
+                .insertAfter("name=pvponly", " checked")
+                .replace("value=0 checked", "value=0")
+                .insertAfter(KoLCharacter.isHardcore() ? "value=1" : "value=2", " checked")
+                .applyTo(buffer));
+    register("tiles.php", (location, buffer, addComplexFeatures) -> DvorakManager.decorate(buffer));
+    register(
+        "volcanomaze.php",
+        (location, buffer, addComplexFeatures) -> VolcanoMazeManager.decorate(location, buffer));
+    register(
+        "wand.php",
+        location -> location.startsWith("wand.php") && !location.contains("notrim=1"),
+        (location, buffer, addComplexFeatures) -> ZapRequest.decorate(buffer));
   }
 
   protected static final void applyPageAdjustments(
       final String location, final StringBuffer buffer, final boolean addComplexFeatures) {
     // Check for charpane first, since it occurs frequently.
 
-    if (location.startsWith("charpane.php")) {
-      if (addComplexFeatures) {
-        CharPaneDecorator.decorate(buffer);
-      }
-
+    if (RequestEditorKit.CHARPANE_DECORATOR.matches(location)) {
+      RequestEditorKit.CHARPANE_DECORATOR.decorate(location, buffer, addComplexFeatures);
       return;
     }
 
     // Handle topmenu
 
-    if (location.contains("menu.php")) {
-      TopMenuDecorator.decorate(buffer, location);
+    if (RequestEditorKit.TOPMENU_DECORATOR.matches(location)) {
+      RequestEditorKit.TOPMENU_DECORATOR.decorate(location, buffer, addComplexFeatures);
       return;
     }
 
@@ -280,202 +579,72 @@ public class RequestEditorKit extends HTMLEditorKit {
 
     // Make changes which only apply to a single page.
 
-    if (location.startsWith("account.php")) {
-      StringUtilities.singleStringReplace(
-          buffer, "Manage Subscriptions", "Manage Subscriptions (this will not work in KoLmafia)");
-      StringUtilities.singleStringReplace(
-          buffer, "account_subscription.php\"", "#\" title='This will not work in KoLmafia'");
-    } else if (location.startsWith("account_combatmacros.php")) {
-      StringUtilities.insertAfter(
-          buffer,
-          "</textarea>",
-          "<script language=JavaScript src=\"/" + KoLConstants.MACROHELPER_JS + "\"></script>");
-    } else if (location.startsWith("adminmail.php")) {
-      // Per KoL dev team request, add extra warning to the
-      // bug report form.
-      RequestEditorKit.addBugReportWarning(buffer);
-    } else if (location.startsWith("adventure.php")) {
-      RequestEditorKit.fixTavernCellar(buffer);
-      RequestEditorKit.fixBallroom1(buffer);
-      RequestEditorKit.fixDucks(buffer);
-      StationaryButtonDecorator.decorate(location, buffer);
-      RequestEditorKit.fixBallroom2(buffer);
-      RequestEditorKit.fixGovernmentLab(buffer);
-    } else if (location.startsWith("ascend.php")) {
-      ValhallaDecorator.decorateGashJump(location, buffer);
-    } else if (location.startsWith("ascensionhistory.php")) {
-      // No Javascript in Java's HTML renderer
-      if (addComplexFeatures) {
-        StringUtilities.insertBefore(
-            buffer,
-            "</head>",
-            "<script language=\"Javascript\" src=\"/" + KoLConstants.SORTTABLE_JS + "\"></script>");
-        StringUtilities.singleStringReplace(
-            buffer,
-            "<table><tr><td class=small>",
-            "<table class=\"sortable\" id=\"history\"><tr><td class=small>");
-        StringUtilities.globalStringReplace(
-            buffer,
-            "<tr><td colspan=9",
-            "<tr class=\"sortbottom\" style=\"display:none\"><td colspan=9");
-      }
-    } else if (location.startsWith("barrel.php")) {
-      BarrelDecorator.decorate(buffer);
-    } else if (location.startsWith("basement.php")) {
-      BasementDecorator.decorate(buffer);
-    } else if (location.startsWith("bathole.php")) {
-      StringUtilities.globalStringReplace(buffer, "action=bathole.php", "action=adventure.php");
-    } else if (location.startsWith("beerpong.php")) {
-      BeerPongDecorator.decorate(buffer);
-    } else if (location.startsWith("bigisland.php")) {
-      IslandDecorator.decorateBigIsland(location, buffer);
-    } else if (location.startsWith("casino.php")) {
-      if (!KoLConstants.activeEffects.contains(EffectPool.get(EffectPool.LUCKY))) {
-        StringUtilities.insertAfter(
-            buffer,
-            "<a href=\"casino.php?action=slot&whichslot=11\"",
-            " onclick=\"return confirm('Are you sure you want to adventure here WITHOUT Lucky!?');\"");
-      }
-    } else if (location.startsWith("cave.php")) {
-      NemesisManager.decorate(location, buffer);
-    } else if (location.startsWith("choice.php")) {
-      RequestEditorKit.fixTavernCellar(buffer);
-      StationaryButtonDecorator.decorate(location, buffer);
-      RequestEditorKit.addChoiceSpoilers(location, buffer);
-      RequestEditorKit.addBarrelSounds(buffer);
-    } else if (location.startsWith("clan_hobopolis.php")) {
-      HobopolisDecorator.decorate(location, buffer);
-    } else if (location.startsWith("clan_viplounge.php?preaction=testlove")) {
-      ClanFortuneDecorator.decorateAnswer(buffer);
-    } else if (location.startsWith("council.php")) {
-      RequestEditorKit.decorateCouncil(buffer);
-    } else if (location.startsWith("crypt.php")) {
-      RequestEditorKit.decorateCrypt(buffer);
-    } else if (location.startsWith("dwarffactory.php")) {
-      DwarfFactoryRequest.decorate(location, buffer);
-    } else if (location.startsWith("fight.php")) {
-      // Remove bogus directive in monster images
-      StringUtilities.globalStringDelete(buffer, "crossorigin=\"Anonymous\"");
-
-      RequestEditorKit.suppressInappropriateNags(buffer);
-      RequestEditorKit.suppressPowerPixellation(buffer);
-      RequestEditorKit.fixTavernCellar(buffer);
-
-      // Decorate end of fight before stationary buttons
-      FightDecorator.decorateEndOfFight(buffer);
-
-      StationaryButtonDecorator.decorate(location, buffer);
-
-      DiscoCombatHelper.decorate(buffer);
-      RequestEditorKit.addFightModifiers(buffer);
-      RequestEditorKit.addTaleOfDread(buffer);
-      RequestEditorKit.addDesertProgress(buffer);
-      RequestEditorKit.addBlackForestProgress(buffer);
-      RequestEditorKit.addPartyFairProgress(buffer);
-
-      // Do any monster-specific decoration
-      FightDecorator.decorateMonster(buffer);
-
-      // Do any location-specific decoration
-      FightDecorator.decorateLocation(buffer);
-    } else if (location.startsWith("fambattle.php")) {
-      // Do a subset of the above for a Pokefam battle
-      RequestEditorKit.fixTavernCellar(buffer);
-      FightDecorator.decorateEndOfFight(buffer);
-      // Not yet.
-      // StationaryButtonDecorator.decorate( location, buffer );
-      RequestEditorKit.addFambattleModifiers(buffer);
-      RequestEditorKit.addDesertProgress(buffer);
-      RequestEditorKit.addBlackForestProgress(buffer);
-      FightDecorator.decorateMonster(buffer);
-      FightDecorator.decorateLocation(buffer);
-    } else if (location.startsWith("hermit.php")) {
-      StringUtilities.singleStringReplace(
-          buffer, RequestEditorKit.NO_PERMIT_TEXT, RequestEditorKit.BUY_PERMIT_TEXT);
-      StringUtilities.singleStringReplace(
-          buffer,
-          RequestEditorKit.NO_WORTHLESS_ITEM_TEXT,
-          RequestEditorKit.BUY_WORTHLESS_ITEM_TEXT);
-    } else if (location.startsWith("inventory.php")) {
-      RequestEditorKit.decorateInventory(buffer, addComplexFeatures);
-      UseItemDecorator.decorate(location, buffer);
-    } else if (location.startsWith("inv_use.php")) {
-      UseItemDecorator.decorate(location, buffer);
-    } else if (location.contains("lchat.php")) {
-      StringUtilities.globalStringDelete(buffer, "spacing: 0px;");
-      StringUtilities.insertBefore(
-          buffer,
-          "if (postedgraf",
-          "if (postedgraf == \"/exit\") { document.location.href = \"chatlaunch.php\"; return true; } ");
-    } else if (location.startsWith("mall.php")) {
-      MallSearchRequest.decorateMallSearch(buffer);
-    } else if (location.startsWith("mining.php")) {
-      MineDecorator.decorate(location, buffer);
-    } else if (location.startsWith("mrstore.php")) {
-      StringUtilities.singleStringReplace(
-          buffer, "account_subscription.php", "# title='This will not work in KoLmafia'");
-      StringUtilities.singleStringReplace(
-          buffer, "subscribing</a>", "subscribing (does not work in KoLmafia)</a>");
-    } else if (location.startsWith("multiuse.php")) {
-      RequestEditorKit.addMultiuseModifiers(buffer);
-    } else if (location.startsWith("ocean.php")) {
-      OceanManager.decorate(buffer);
-    } else if (location.startsWith("pandamonium.php")) {
-      PandamoniumRequest.decoratePandamonium(location, buffer);
-    } else if (location.startsWith("place.php?whichplace=arcade")) {
-      StringBuilder note = new StringBuilder("Arcade (");
-      int count = InventoryManager.getCount(ItemPool.GG_TOKEN);
-      note.append(count);
-      note.append(" token");
-      if (count != 1) {
-        note.append('s');
-      }
-      note.append(", ");
-      count = InventoryManager.getCount(ItemPool.GG_TICKET);
-      note.append(count);
-      note.append(" ticket");
-      if (count != 1) {
-        note.append('s');
-      }
-      note.append(")</b>");
-
-      StringUtilities.singleStringReplace(buffer, "Arcade</b>", note.toString());
-    } else if (location.startsWith("place.php")) {
-      PlaceRequest.decorate(location, buffer);
-    } else if (location.startsWith("postwarisland.php")) {
-      IslandDecorator.decoratePostwarIsland(location, buffer);
-    } else if (location.startsWith("searchplayer.php")) {
-      StringUtilities.insertAfter(buffer, "name=pvponly", " checked");
-      StringUtilities.singleStringReplace(buffer, "value=0 checked", "value=0");
-
-      if (KoLCharacter.isHardcore()) {
-        StringUtilities.insertAfter(buffer, "value=1", " checked");
-      } else {
-        StringUtilities.insertAfter(buffer, "value=2", " checked");
+    for (PageDecorator decorator : RequestEditorKit.PAGE_DECORATORS) {
+      if (decorator.matches(location)) {
+        decorator.decorate(location, buffer, addComplexFeatures);
+        return;
       }
-    } else if (location.startsWith("tiles.php")) {
-      DvorakManager.decorate(buffer);
-    } else if (location.startsWith("volcanomaze.php")) {
-      VolcanoMazeManager.decorate(location, buffer);
-    } else if (location.startsWith("wand.php") && !location.contains("notrim=1")) {
-      ZapRequest.decorate(buffer);
     }
   }
 
+  private static void decorateArcade(final StringBuffer buffer) {
+    StringBuilder note = new StringBuilder("Arcade (");
+    int count = InventoryManager.getCount(ItemPool.GG_TOKEN);
+    note.append(count);
+    note.append(" token");
+    if (count != 1) {
+      note.append('s');
+    }
+    note.append(", ");
+    count = InventoryManager.getCount(ItemPool.GG_TICKET);
+    note.append(count);
+    note.append(" ticket");
+    if (count != 1) {
+      note.append('s');
+    }
+    note.append(")</b>");
+
+    StringUtilities.singleStringReplace(buffer, "Arcade</b>", note.toString());
+  }
+
+  /** Returns how long each kind of page has taken to decorate, busiest first. */
+  public static String getDecoratorTimings() {
+    List<PageDecorator> decorators = new ArrayList<>();
+    decorators.add(RequestEditorKit.CHARPANE_DECORATOR);
+    decorators.add(RequestEditorKit.TOPMENU_DECORATOR);
+    decorators.addAll(RequestEditorKit.PAGE_DECORATORS);
+    decorators.add(RequestEditorKit.GLOBAL_DECORATOR);
+    decorators.removeIf(decorator -> decorator.calls.sum() == 0);
+    decorators.sort(Comparator.comparingLong((PageDecorator decorator) -> -decorator.nanos.sum()));
+
+    if (decorators.isEmpty()) {
+      return "No pages have been decorated.";
+    }
+
+    StringBuilder buffer = new StringBuilder();
+    buffer.append("  calls  total ms   mean ms  page\n");
+    for (PageDecorator decorator : decorators) {
+      long calls = decorator.calls.sum();
+      long nanos = decorator.nanos.sum();
+      buffer.append(
+          String.format(
+              "%7d %9.1f %9.3f  %s\n", calls, nanos / 1e6, nanos / 1e6 / calls, decorator.name));
+    }
+    return buffer.toString();
+  }
+
   protected static final void applyGlobalAdjustments(
       final String location, final StringBuffer buffer, final boolean addComplexFeatures) {
     // Make basics.js and basics.css available to all pages
 
     if (addComplexFeatures) {
-      StringUtilities.insertBefore(
-          buffer,
-          "</head>",
-          "<script language=\"Javascript\" src=\"/" + KoLConstants.BASICS_JS + "\"></script>");
-
-      StringUtilities.insertBefore(
-          buffer,
-          "</head>",
-          "<link rel=\"stylesheet\" href=\"/" + KoLConstants.BASICS_CSS + "\" />");
+      new PageEdits()
+          .insertBefore(
+              "</head>",
+              "<script language=\"Javascript\" src=\"/" + KoLConstants.BASICS_JS + "\"></script>")
+          .insertBefore(
+              "</head>", "<link rel=\"stylesheet\" href=\"/" + KoLConstants.BASICS_CSS + "\" />")
+          .applyTo(buffer);
     }
 
     // Skip additional decorations for the character pane and the top menu
@@ -230,14 +230,21 @@ public class RequestLogger extends NullStream {
   }
 
   public static void openSessionLog() {
+    // The session log is named by day, so reopen it even if it is already open
+    RequestLogger.closeSessionLog();
+
+    if (KoLCharacter.getUserName().isEmpty()) {
+      return;
+    }
+
+    // The session log is not rotated, since session_logs() reads each day's log as one file
     RequestLogger.sessionStream =
-        RequestLogger.openStream(
+        LogStream.openAsyncStream(
             KoLConstants.SESSIONS_DIRECTORY
                 + StringUtilities.globalStringReplace(KoLCharacter.getUserName(), " ", "_")
                 + "_"
                 + KoLConstants.DAILY_FORMAT.format(new Date())
                 + ".txt",
-            RequestLogger.sessionStream,
             false);
   }
 
@@ -267,11 +274,11 @@ public class RequestLogger extends NullStream {
   }
 
   public static void openDebugLog() {
-    RequestLogger.debugStream =
-        RequestLogger.openStream(
-            "DEBUG_" + KoLConstants.DAILY_FORMAT.format(new Date()) + ".txt",
-            RequestLogger.debugStream,
-            true);
+    if (!RequestLogger.isDebugging()) {
+      RequestLogger.debugStream =
+          LogStream.openAsyncStream(
+              "DEBUG_" + KoLConstants.DAILY_FORMAT.format(new Date()) + ".txt");
+    }
     NamedListenerRegistry.fireChange("(debug)");
   }
 
@@ -310,11 +317,11 @@ public class RequestLogger extends NullStream {
   }
 
   public static void openTraceStream() {
-    RequestLogger.traceStream =
-        RequestLogger.openStream(
-            "TRACE_" + KoLConstants.DAILY_FORMAT.format(new Date()) + ".txt",
-            RequestLogger.traceStream,
-            true);
+    if (!RequestLogger.isTracing()) {
+      RequestLogger.traceStream =
+          LogStream.openAsyncStream(
+              "TRACE_" + KoLConstants.DAILY_FORMAT.format(new Date()) + ".txt");
+    }
   }
 
   public static void closeTraceStream() {
@@ -322,15 +329,10 @@ public class RequestLogger extends NullStream {
     RequestLogger.traceStream = NullStream.INSTANCE;
   }
 
-  private static final StringBuilder traceBuffer = new StringBuilder();
-
-  public static synchronized void trace(String message) {
+  public static void trace(String message) {
     if (RequestLogger.isTracing()) {
-      traceBuffer.setLength(0);
-      traceBuffer.append((new Date()).getTime());
-      traceBuffer.append(": ");
-      traceBuffer.append(message);
-      RequestLogger.traceStream.println(traceBuffer);
+      // PrintStream serializes whole lines; the trace log is written in the background
+      RequestLogger.traceStream.println(System.currentTimeMillis() + ": " + message);
     }
   }
 
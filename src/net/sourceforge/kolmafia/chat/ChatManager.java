@@ -214,6 +214,8 @@ public abstract class ChatManager {
     }
 
     buffer = new StyledChatBuffer(bufferKey, "black", !bufferKey.equals("[high]"));
+    // Only chat is bounded by chatBufferLines; the gCLI buffer keeps ChatBuffer's own limit
+    buffer.setMaximumLines(Preferences.getInteger("chatBufferLines"));
 
     if (Preferences.getBoolean("logChatMessages")) {
       String fileSuffix = bufferKey.replaceAll(" ", "_");
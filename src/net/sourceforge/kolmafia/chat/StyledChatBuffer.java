@@ -3,16 +3,22 @@ package net.sourceforge.kolmafia.chat;
 import java.awt.Color;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import net.java.dev.spellcast.utilities.ChatBuffer;
 import net.java.dev.spellcast.utilities.DataUtilities;
 import net.sourceforge.kolmafia.preferences.Preferences;
 
 public class StyledChatBuffer extends ChatBuffer {
-  private static int highlightCount = 0;
-
   public static final List<String> searchStrings = new ArrayList<>();
   public static final List<String> colorStrings = new ArrayList<>();
 
+  // All highlights combined into a single case-insensitive pattern, one
+  // capturing group per search string. Rebuilt whenever the highlights change.
+  private record Highlights(Pattern pattern, String[] colors) {}
+
+  private static volatile Highlights highlights = null;
+
   private final String linkColor;
 
   public StyledChatBuffer(
@@ -23,13 +29,13 @@ public class StyledChatBuffer extends ChatBuffer {
   }
 
   public static final boolean initializeHighlights() {
-    StyledChatBuffer.highlightCount = 0;
     StyledChatBuffer.searchStrings.clear();
     StyledChatBuffer.colorStrings.clear();
 
     String highlights = Preferences.getString("highlightList").trim();
 
     if (highlights.length() == 0) {
+      StyledChatBuffer.compileHighlights();
       return false;
     }
 
@@ -43,25 +49,47 @@ public class StyledChatBuffer extends ChatBuffer {
   }
 
   public static final String removeHighlight(final int index) {
-    --StyledChatBuffer.highlightCount;
-
     String searchString = StyledChatBuffer.searchStrings.remove(index);
     String colorString = StyledChatBuffer.colorStrings.remove(index);
 
+    StyledChatBuffer.compileHighlights();
+
     return searchString + "\n" + colorString;
   }
 
   public static final String addHighlight(final String searchString, final Color color) {
-    ++StyledChatBuffer.highlightCount;
-
     String colorString = DataUtilities.toHexString(color);
 
     StyledChatBuffer.searchStrings.add(searchString.toLowerCase());
     StyledChatBuffer.colorStrings.add(colorString);
 
+    StyledChatBuffer.compileHighlights();
+
     return searchString + "\n" + colorString;
   }
 
+  private static void compileHighlights() {
+    if (StyledChatBuffer.searchStrings.isEmpty()) {
+      StyledChatBuffer.highlights = null;
+      return;
+    }
+
+    StringBuilder regex = new StringBuilder();
+    for (String searchString : StyledChatBuffer.searchStrings) {
+      if (regex.length() > 0) {
+        regex.append('|');
+      }
+      regex.append('(');
+      regex.append(Pattern.quote(searchString));
+      regex.append(')');
+    }
+
+    StyledChatBuffer.highlights =
+        new Highlights(
+            Pattern.compile(regex.toString(), Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE),
+            StyledChatBuffer.colorStrings.toArray(new String[0]));
+  }
+
   /** Appends the given message to the chat buffer. */
   @Override
   public void append(final String message) {
@@ -70,19 +98,7 @@ public class StyledChatBuffer extends ChatBuffer {
       return;
     }
 
-    // Download all the images outside of the Swing thread
-    // by downloading them here.
-
-    String highlightMessage = message;
-
-    for (int i = 0; i < StyledChatBuffer.highlightCount; ++i) {
-      String searchString = StyledChatBuffer.searchStrings.get(i);
-      String colorString = StyledChatBuffer.colorStrings.get(i);
-
-      highlightMessage = this.applyHighlight(highlightMessage, searchString, colorString);
-    }
-
-    super.append(highlightMessage);
+    super.append(StyledChatBuffer.highlight(message));
   }
 
   @Override
@@ -104,50 +120,53 @@ public class StyledChatBuffer extends ChatBuffer {
     }
   }
 
-  private String applyHighlight(
-      final String message, final String searchString, final String colorString) {
-    if (message.contains("<html>")) {
+  /** Wraps every highlighted phrase outside of HTML tags in a font tag of its color. */
+  public static String highlight(final String message) {
+    Highlights highlights = StyledChatBuffer.highlights;
+    if (highlights == null || message.contains("<html>")) {
       return message;
     }
 
-    StringBuilder highlightMessage = new StringBuilder();
-    String remaining = message;
-
-    while (true) {
-      int searchIndex = remaining.toLowerCase().indexOf(searchString);
-      if (searchIndex == -1) {
-        break;
-      }
+    Matcher matcher = highlights.pattern().matcher(message);
+    StringBuilder highlightMessage = null;
+    int length = message.length();
+    int index = 0;
 
+    while (index < length) {
       // Do not highlight HTML tags
-      int openIndex = remaining.indexOf("<");
-      if (openIndex < searchIndex) {
-        int closeIndex = remaining.indexOf(">", openIndex) + 1;
-        if (closeIndex > 0) {
-          highlightMessage.append(remaining, 0, closeIndex);
-          remaining = remaining.substring(closeIndex);
-          continue;
+      int openIndex = message.indexOf("<", index);
+      int closeIndex = openIndex == -1 ? -1 : message.indexOf(">", openIndex);
+      int textEnd = closeIndex == -1 ? length : openIndex;
+
+      int copied = index;
+      matcher.region(index, textEnd);
+      while (matcher.find()) {
+        if (highlightMessage == null) {
+          highlightMessage = new StringBuilder(length + 32);
+          highlightMessage.append(message, 0, index);
         }
-      }
 
-      int stopIndex = searchIndex + searchString.length();
-
-      highlightMessage.append(remaining, 0, searchIndex);
-
-      highlightMessage.append("<font color=\"");
-      highlightMessage.append(colorString);
-      highlightMessage.append("\">");
-      highlightMessage.append(remaining, searchIndex, stopIndex);
-      highlightMessage.append("</font>");
+        int group = 1;
+        while (matcher.group(group) == null) {
+          ++group;
+        }
 
-      remaining = remaining.substring(stopIndex);
-    }
+        highlightMessage.append(message, copied, matcher.start());
+        highlightMessage.append("<font color=\"");
+        highlightMessage.append(highlights.colors()[group - 1]);
+        highlightMessage.append("\">");
+        highlightMessage.append(message, matcher.start(), matcher.end());
+        highlightMessage.append("</font>");
+        copied = matcher.end();
+      }
 
-    if (highlightMessage.length() == 0) {
-      return message;
+      int next = closeIndex == -1 ? length : closeIndex + 1;
+      if (highlightMessage != null) {
+        highlightMessage.append(message, copied, next);
+      }
+      index = next;
     }
 
-    highlightMessage.append(remaining);
-    return highlightMessage.toString();
+    return highlightMessage == null ? message : highlightMessage.toString();
   }
 }
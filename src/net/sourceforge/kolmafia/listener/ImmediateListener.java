@@ -0,0 +1,9 @@
+package net.sourceforge.kolmafia.listener;
+
+/**
+ * A Listener which must see every change as it happens, on the thread which made it, even when the
+ * registry is coalescing updates. Tracing and settings which affect the next request need this;
+ * anything which only repaints should be a plain Listener.
+ */
+@FunctionalInterface
+public interface ImmediateListener extends Listener {}
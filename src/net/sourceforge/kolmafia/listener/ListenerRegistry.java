@@ -6,8 +6,11 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.function.Predicate;
+import javax.swing.Timer;
 import net.sourceforge.kolmafia.RequestLogger;
 import net.sourceforge.kolmafia.StaticEntity;
 
@@ -18,6 +21,10 @@ public class ListenerRegistry {
   // For testing
   protected void clear() {
     this.listenerMap.clear();
+    synchronized (this.dirty) {
+      this.dirty.clear();
+      this.allDirty = false;
+    }
   }
 
   // Logging. For now, this applies to all types of listeners
@@ -27,6 +34,42 @@ public class ListenerRegistry {
     ListenerRegistry.logging = logging;
   }
 
+  // Dispatching. In STRICT mode, listeners are updated on the thread which fired them, before
+  // fireListener returns. In COALESCING mode, firing a key only marks it dirty, and each dirty key
+  // is delivered once per frame on the Swing event dispatch thread, however many times it was
+  // fired in between. ImmediateListeners are updated at once in either mode.
+  public enum DispatchMode {
+    STRICT,
+    COALESCING
+  }
+
+  private static final int FRAME_MILLIS = 33;
+
+  private static final Predicate<Listener> EVERY = listener -> true;
+  private static final Predicate<Listener> IMMEDIATE =
+      listener -> listener instanceof ImmediateListener;
+  private static final Predicate<Listener> COALESCED = IMMEDIATE.negate();
+
+  private static volatile DispatchMode dispatchMode = DispatchMode.STRICT;
+  private static final Set<ListenerRegistry> pending = new LinkedHashSet<>();
+  private static Timer frameTimer = null;
+
+  public static final void setDispatchMode(final DispatchMode mode) {
+    ListenerRegistry.dispatchMode = mode;
+
+    // Nothing may be left waiting for a frame which will never come
+    if (mode == DispatchMode.STRICT) {
+      ListenerRegistry.flushListeners();
+    }
+  }
+
+  public static final DispatchMode getDispatchMode() {
+    return ListenerRegistry.dispatchMode;
+  }
+
+  private final LinkedHashSet<Object> dirty = new LinkedHashSet<>();
+  private boolean allDirty = false;
+
   // Deferring
   private final HashSet<Object> deferred = new HashSet<>();
   private int deferring = 0;
@@ -65,7 +108,7 @@ public class ListenerRegistry {
           int count = listenerList == null ? 0 : listenerList.size();
           RequestLogger.updateDebugLog("Firing " + count + " listeners for \"" + key + "\"");
         }
-        this.fireListeners(listenerList, null);
+        this.dispatch(key, listenerList);
       }
     }
   }
@@ -130,7 +173,7 @@ public class ListenerRegistry {
       return;
     }
 
-    this.fireListeners(listenerList, null);
+    this.dispatch(key, listenerList);
   }
 
   public final void fireAllListeners() {
@@ -151,6 +194,19 @@ public class ListenerRegistry {
       return;
     }
 
+    if (ListenerRegistry.dispatchMode == DispatchMode.STRICT) {
+      this.fireAll(logit, ListenerRegistry.EVERY);
+      return;
+    }
+
+    this.fireAll(false, ListenerRegistry.IMMEDIATE);
+    synchronized (this.dirty) {
+      this.allDirty = true;
+    }
+    ListenerRegistry.schedule(this);
+  }
+
+  private void fireAll(final boolean logit, final Predicate<Listener> filter) {
     HashSet<ArrayList<WeakReference<Listener>>> listeners = new HashSet<>();
 
     if (logit) {
@@ -180,12 +236,83 @@ public class ListenerRegistry {
     HashSet<Listener> notified = new HashSet<>();
 
     while (i2.hasNext()) {
-      this.fireListeners(i2.next(), notified);
+      this.fireListeners(i2.next(), notified, filter);
+    }
+  }
+
+  private void dispatch(final Object key, final ArrayList<WeakReference<Listener>> listenerList) {
+    if (ListenerRegistry.dispatchMode == DispatchMode.STRICT) {
+      this.fireListeners(listenerList, null, ListenerRegistry.EVERY);
+      return;
+    }
+
+    this.fireListeners(listenerList, null, ListenerRegistry.IMMEDIATE);
+    synchronized (this.dirty) {
+      this.dirty.add(key);
+    }
+    ListenerRegistry.schedule(this);
+  }
+
+  private static void schedule(final ListenerRegistry registry) {
+    synchronized (ListenerRegistry.pending) {
+      ListenerRegistry.pending.add(registry);
+
+      if (ListenerRegistry.frameTimer == null) {
+        // Swing timers fire on the event dispatch thread
+        Timer timer = new Timer(FRAME_MILLIS, e -> ListenerRegistry.flushListeners());
+        timer.setRepeats(false);
+        ListenerRegistry.frameTimer = timer;
+      }
+
+      if (!ListenerRegistry.frameTimer.isRunning()) {
+        ListenerRegistry.frameTimer.start();
+      }
+    }
+  }
+
+  /** Delivers every key which has been fired since the last frame, in every registry. */
+  public static final void flushListeners() {
+    ListenerRegistry[] registries;
+    synchronized (ListenerRegistry.pending) {
+      registries = ListenerRegistry.pending.toArray(new ListenerRegistry[0]);
+      ListenerRegistry.pending.clear();
+    }
+
+    for (ListenerRegistry registry : registries) {
+      registry.flush();
+    }
+  }
+
+  private void flush() {
+    Object[] keys;
+    boolean all;
+    synchronized (this.dirty) {
+      keys = this.dirty.toArray();
+      all = this.allDirty;
+      this.dirty.clear();
+      this.allDirty = false;
+    }
+
+    if (all) {
+      this.fireAll(false, ListenerRegistry.COALESCED);
+      return;
+    }
+
+    // A listener registered for several dirty keys is only updated once
+    HashSet<Listener> notified = new HashSet<>();
+    for (Object key : keys) {
+      ArrayList<WeakReference<Listener>> listenerList;
+      synchronized (this.listenerMap) {
+        listenerList = this.listenerMap.get(key);
+      }
+      this.fireListeners(listenerList, notified, ListenerRegistry.COALESCED);
     }
   }
 
   private void fireListeners(
-      final ArrayList<WeakReference<Listener>> listenerList, final HashSet<Listener> notified) {
+      final ArrayList<WeakReference<Listener>> listenerList,
+      final HashSet<Listener> notified,
+      final Predicate<Listener> filter) {
     if (listenerList == null) {
       return;
     }
@@ -203,6 +330,10 @@ public class ListenerRegistry {
           continue;
         }
 
+        if (!filter.test(listener)) {
+          continue;
+        }
+
         if (notified != null) {
           if (notified.contains(listener)) {
             continue;
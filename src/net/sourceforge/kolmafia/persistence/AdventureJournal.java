@@ -0,0 +1,296 @@
+package net.sourceforge.kolmafia.persistence;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * A small append-only journal of per-zone events, used to persist AdventureQueueDatabase and
+ * AdventureSpentDatabase across sessions without Java serialization.
+ *
+ * <p>The file starts with a magic number and a version. Every entry after that is a kind byte, its
+ * payload, and a CRC32 of both. Zone, monster and noncombat names are interned: the first time a
+ * name is written it is given a number by a DEFINE entry, and other entries refer to names by that
+ * number. An entry which is cut short or fails its checksum ends the journal; the file is cut back
+ * to the last good entry when it is loaded.
+ *
+ * <p>Events are appended as they happen. rewrite() replaces the whole journal with a snapshot of
+ * the current state, which keeps it from growing without bound.
+ */
+class AdventureJournal {
+  private static final int MAGIC = 0x4B414A31; // "KAJ1"
+  private static final short VERSION = 1;
+  private static final int HEADER_SIZE = 6;
+
+  private static final byte DEFINE = 0;
+
+  // Entry kinds with this bit set refer to a name; the others carry a plain number
+  static final byte NAMED = 0x40;
+
+  /**
+   * One event: its kind, the zone it happened in, and either a name or a number depending on
+   * whether the kind has the NAMED bit.
+   */
+  record Entry(byte kind, String zone, String name, int number) {}
+
+  private final File file;
+  private final Map<String, Integer> ids = new HashMap<>();
+  private final List<String> names = new ArrayList<>();
+  private FileChannel channel = null;
+
+  // Whether the names in the file are known, so that more entries can be appended to it
+  private boolean ready = false;
+  private boolean failed = false;
+
+  AdventureJournal(final File file) {
+    this.file = file;
+  }
+
+  File getFile() {
+    return this.file;
+  }
+
+  boolean exists() {
+    return this.file.exists();
+  }
+
+  /**
+   * Replays every intact entry of the journal, then truncates whatever follows the last of them.
+   *
+   * @return false if the file is not a journal we can read
+   */
+  synchronized boolean load(final Consumer<Entry> replay) throws IOException {
+    this.close();
+    this.ids.clear();
+    this.names.clear();
+    this.ready = false;
+
+    ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(this.file.toPath()));
+    if (buffer.remaining() < HEADER_SIZE
+        || buffer.getInt() != MAGIC
+        || buffer.getShort() != VERSION) {
+      return false;
+    }
+
+    int good = buffer.position();
+    CRC32 crc = new CRC32();
+
+    try {
+      while (buffer.hasRemaining()) {
+        int start = buffer.position();
+        byte kind = buffer.get();
+
+        String name = null;
+        int first = buffer.getInt();
+        int second = 0;
+        if (kind == DEFINE) {
+          byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+          buffer.get(bytes);
+          name = new String(bytes, StandardCharsets.UTF_8);
+        } else {
+          second = buffer.getInt();
+        }
+
+        crc.reset();
+        crc.update(buffer.array(), start, buffer.position() - start);
+        if (buffer.getInt() != (int) crc.getValue()) {
+          break;
+        }
+
+        if (kind == DEFINE) {
+          if (first != this.names.size()) {
+            break;
+          }
+          this.intern(name);
+        } else {
+          String zone = this.nameOf(first);
+          if ((kind & NAMED) != 0) {
+            replay.accept(new Entry(kind, zone, this.nameOf(second), 0));
+          } else {
+            replay.accept(new Entry(kind, zone, null, second));
+          }
+        }
+
+        good = buffer.position();
+      }
+    } catch (BufferUnderflowException e) {
+      // A torn entry at the end of the file
+    }
+
+    if (good < buffer.limit()) {
+      try (FileChannel truncated =
+          FileChannel.open(this.file.toPath(), StandardOpenOption.WRITE)) {
+        truncated.truncate(good);
+      }
+    }
+
+    this.ready = true;
+    return true;
+  }
+
+  private String nameOf(final int id) {
+    return id >= 0 && id < this.names.size() ? this.names.get(id) : null;
+  }
+
+  private int intern(final String name) {
+    int id = this.names.size();
+    this.ids.put(name, id);
+    this.names.add(name);
+    return id;
+  }
+
+  /** Appends an event which names something, such as the monster just encountered. */
+  synchronized void append(final byte kind, final String zone, final String name) {
+    try {
+      this.open();
+      this.write(kind, this.idOf(zone), this.idOf(name));
+    } catch (IOException e) {
+      this.failed = true;
+      this.close();
+    }
+  }
+
+  /** Appends an event which carries a number, such as a turn count. */
+  synchronized void append(final byte kind, final String zone, final int number) {
+    try {
+      this.open();
+      this.write(kind, this.idOf(zone), number);
+    } catch (IOException e) {
+      this.failed = true;
+      this.close();
+    }
+  }
+
+  // Names are written on first use. null is never written, and reads back as null.
+  private int idOf(final String name) throws IOException {
+    if (name == null) {
+      return -1;
+    }
+
+    Integer id = this.ids.get(name);
+    if (id != null) {
+      return id;
+    }
+
+    byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+    int newId = this.names.size();
+    ByteBuffer buffer = ByteBuffer.allocate(1 + 4 + 2 + bytes.length + 4);
+    buffer.put(DEFINE).putInt(newId).putShort((short) bytes.length).put(bytes);
+    this.writeEntry(buffer);
+
+    return this.intern(name);
+  }
+
+  private void write(final byte kind, final int zone, final int value) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(1 + 4 + 4 + 4);
+    buffer.put(kind).putInt(zone).putInt(value);
+    this.writeEntry(buffer);
+  }
+
+  private void writeEntry(final ByteBuffer buffer) throws IOException {
+    CRC32 crc = new CRC32();
+    crc.update(buffer.array(), 0, buffer.position());
+    buffer.putInt((int) crc.getValue());
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      this.channel.write(buffer);
+    }
+  }
+
+  private void open() throws IOException {
+    if (this.channel != null) {
+      return;
+    }
+
+    this.channel =
+        FileChannel.open(
+            this.file.toPath(),
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.APPEND);
+
+    if (this.channel.size() == 0) {
+      this.ids.clear();
+      this.names.clear();
+      ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+      header.putInt(MAGIC).putShort(VERSION).flip();
+      this.channel.write(header);
+      this.ready = true;
+    }
+
+    if (!this.ready) {
+      // Our entries would refer to names by the wrong numbers
+      this.close();
+      throw new IOException(this.file + " has not been loaded");
+    }
+  }
+
+  /**
+   * Replaces the journal with just the entries appended by the snapshot. The new journal is
+   * written beside the old one and moved over it, so a failure leaves the old one in place.
+   */
+  synchronized void rewrite(final Consumer<AdventureJournal> snapshot) {
+    this.close();
+
+    File current = this.file;
+    File replacement = new File(current.getPath() + ".tmp");
+    replacement.delete();
+
+    AdventureJournal journal = new AdventureJournal(replacement);
+    try {
+      journal.open();
+      snapshot.accept(journal);
+    } catch (IOException e) {
+      journal.failed = true;
+    }
+    journal.close();
+
+    if (journal.failed) {
+      replacement.delete();
+      return;
+    }
+
+    try {
+      Files.move(
+          replacement.toPath(),
+          current.toPath(),
+          StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      replacement.delete();
+      return;
+    }
+
+    // Carry on appending to the snapshot, with the names it defined
+    this.ready = true;
+    this.ids.clear();
+    this.ids.putAll(journal.ids);
+    this.names.clear();
+    this.names.addAll(journal.names);
+  }
+
+  synchronized void close() {
+    if (this.channel == null) {
+      return;
+    }
+
+    try {
+      this.channel.close();
+    } catch (IOException e) {
+      // Nothing more to write anyway
+    }
+    this.channel = null;
+  }
+}
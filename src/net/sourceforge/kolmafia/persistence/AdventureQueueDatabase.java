@@ -1,15 +1,9 @@
 package net.sourceforge.kolmafia.persistence;
 
-import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
-import java.io.Serializable;
-import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -28,17 +22,24 @@ import net.sourceforge.kolmafia.utilities.RollingLinkedList;
 
 /*
  * Instead of packing and unpacking a giant treemap into user preference files, this is a way of persisting a variable across sessions.
- * Uses the Java Serializable interface.
+ * Every encounter is appended to <username>_queue.journal as it happens;
+ * serialize() replaces the journal with a snapshot.
  */
 
-public class AdventureQueueDatabase implements Serializable {
-  private static final long serialVersionUID = -180241952508113931L;
+public class AdventureQueueDatabase {
+  private static final int QUEUE_SIZE = 5;
+
+  // Journal entry kinds
+  private static final byte COMBAT = AdventureJournal.NAMED | 1;
+  private static final byte NONCOMBAT = AdventureJournal.NAMED | 2;
 
   private static TreeMap<String, RollingLinkedList<String>> COMBAT_QUEUE =
       new TreeMap<String, RollingLinkedList<String>>();
   private static TreeMap<String, RollingLinkedList<String>> NONCOMBAT_QUEUE =
       new TreeMap<String, RollingLinkedList<String>>();
 
+  private static AdventureJournal journal = null;
+
   // debugging tool
   public static void showQueue() {
     Set<String> keys = COMBAT_QUEUE.keySet();
@@ -89,11 +90,13 @@ public class AdventureQueueDatabase implements Serializable {
 
     for (KoLAdventure adv : list) {
       AdventureQueueDatabase.COMBAT_QUEUE.put(
-          adv.getAdventureName(), new RollingLinkedList<String>(5));
+          adv.getAdventureName(), new RollingLinkedList<String>(QUEUE_SIZE));
       AdventureQueueDatabase.NONCOMBAT_QUEUE.put(
-          adv.getAdventureName(), new RollingLinkedList<String>(5));
+          adv.getAdventureName(), new RollingLinkedList<String>(QUEUE_SIZE));
     }
 
+    AreaCombatData.invalidate(AreaCombatData.Input.QUEUE);
+
     if (serializeAfterwards) {
       AdventureQueueDatabase.serialize();
     }
@@ -109,7 +112,8 @@ public class AdventureQueueDatabase implements Serializable {
 
     for (KoLAdventure adv : list) {
       if (!keys.contains(adv.getAdventureName())) {
-        AdventureQueueDatabase.COMBAT_QUEUE.put(adv.getAdventureName(), new RollingLinkedList<>(5));
+        AdventureQueueDatabase.COMBAT_QUEUE.put(
+            adv.getAdventureName(), new RollingLinkedList<>(QUEUE_SIZE));
         keyAdded = true;
       }
     }
@@ -119,7 +123,7 @@ public class AdventureQueueDatabase implements Serializable {
     for (KoLAdventure adv : list) {
       if (!keys.contains(adv.getAdventureName())) {
         AdventureQueueDatabase.NONCOMBAT_QUEUE.put(
-            adv.getAdventureName(), new RollingLinkedList<>(5));
+            adv.getAdventureName(), new RollingLinkedList<>(QUEUE_SIZE));
         keyAdded = true;
       }
     }
@@ -158,6 +162,8 @@ public class AdventureQueueDatabase implements Serializable {
     }
 
     zoneQueue.add(mon.getName());
+    AreaCombatData.invalidate(AreaCombatData.Input.QUEUE);
+    AdventureQueueDatabase.journal(COMBAT, adventureName, mon.getName());
   }
 
   public static void enqueueNoncombat(String noncombatAdventureName, String name) {
@@ -168,6 +174,13 @@ public class AdventureQueueDatabase implements Serializable {
     if (zoneQueue == null) return;
 
     zoneQueue.add(name);
+    AdventureQueueDatabase.journal(NONCOMBAT, noncombatAdventureName, name);
+  }
+
+  private static void journal(final byte kind, final String zone, final String name) {
+    if (AdventureQueueDatabase.journal != null) {
+      AdventureQueueDatabase.journal.append(kind, zone, name);
+    }
   }
 
   public static RollingLinkedList<String> getZoneQueue(KoLAdventure adv) {
@@ -186,75 +199,108 @@ public class AdventureQueueDatabase implements Serializable {
     return NONCOMBAT_QUEUE.get(adv);
   }
 
-  public static void serialize() {
+  private static AdventureJournal getJournal() {
     File file =
-        new File(KoLConstants.DATA_LOCATION, KoLCharacter.baseUserName() + "_" + "queue.ser");
+        new File(KoLConstants.DATA_LOCATION, KoLCharacter.baseUserName() + "_" + "queue.journal");
 
-    try {
-      FileOutputStream fileOut = new FileOutputStream(file);
-      ObjectOutputStream out = new ObjectOutputStream(fileOut);
+    AdventureJournal journal = AdventureQueueDatabase.journal;
+    if (journal == null || !journal.getFile().equals(file)) {
+      if (journal != null) {
+        journal.close();
+      }
+      journal = AdventureQueueDatabase.journal = new AdventureJournal(file);
+    }
+    return journal;
+  }
 
-      // make a collection with combat queue first
-      List<TreeMap<String, RollingLinkedList<String>>> queues =
-          new ArrayList<TreeMap<String, RollingLinkedList<String>>>();
-      queues.add(COMBAT_QUEUE);
-      queues.add(NONCOMBAT_QUEUE);
-      out.writeObject(queues);
-      out.close();
-    } catch (IOException e) {
-      e.printStackTrace();
+  /*
+   * Replaces <username>_queue.journal with a snapshot of the current queues.
+   */
+  public static void serialize() {
+    AdventureQueueDatabase.getJournal().rewrite(AdventureQueueDatabase::writeSnapshot);
+  }
+
+  private static void writeSnapshot(final AdventureJournal journal) {
+    for (var entry : AdventureQueueDatabase.COMBAT_QUEUE.entrySet()) {
+      for (String monster : entry.getValue()) {
+        journal.append(COMBAT, entry.getKey(), monster);
+      }
+    }
+    for (var entry : AdventureQueueDatabase.NONCOMBAT_QUEUE.entrySet()) {
+      for (String name : entry.getValue()) {
+        journal.append(NONCOMBAT, entry.getKey(), name);
+      }
     }
   }
 
   /*
-   * Attempts to load saved adventure queue settings from <username>_queue.ser
+   * Attempts to load saved adventure queue settings from <username>_queue.journal, or from
+   * <username>_queue.ser if it was saved by an older version.
    */
-  @SuppressWarnings("unchecked")
   public static void deserialize() {
-    File file =
+    AreaCombatData.invalidate(AreaCombatData.Input.QUEUE);
+    AdventureJournal journal = AdventureQueueDatabase.getJournal();
+
+    AdventureQueueDatabase.COMBAT_QUEUE = new TreeMap<String, RollingLinkedList<String>>();
+    AdventureQueueDatabase.NONCOMBAT_QUEUE = new TreeMap<String, RollingLinkedList<String>>();
+
+    if (journal.exists()) {
+      try {
+        if (journal.load(AdventureQueueDatabase::replay)) {
+          // after successfully loading, check if there were new zones added that aren't yet in
+          // the TreeMap.
+          AdventureQueueDatabase.checkZones();
+          return;
+        }
+      } catch (IOException e) {
+        // Treat it like any other unreadable journal
+      }
+
+      // Found the file, but could not make sense of it. Start over.
+      AdventureQueueDatabase.resetQueue();
+      return;
+    }
+
+    File legacy =
         new File(KoLConstants.DATA_LOCATION, KoLCharacter.baseUserName() + "_" + "queue.ser");
+    if (legacy.exists() && AdventureQueueDatabase.deserializeLegacy(legacy)) {
+      AdventureQueueDatabase.checkZones();
+      AdventureQueueDatabase.serialize();
+      legacy.delete();
+      return;
+    }
+
+    AdventureQueueDatabase.resetQueue(false);
+  }
 
-    if (!file.exists()) {
-      AdventureQueueDatabase.resetQueue(false);
+  private static void replay(final AdventureJournal.Entry entry) {
+    if (entry.zone() == null) {
       return;
     }
-    try {
-      FileInputStream fileIn = new FileInputStream(file);
-      ObjectInputStream in = new ObjectInputStream(fileIn);
 
+    var queues = entry.kind() == COMBAT ? COMBAT_QUEUE : NONCOMBAT_QUEUE;
+    queues
+        .computeIfAbsent(entry.zone(), k -> new RollingLinkedList<>(QUEUE_SIZE))
+        .add(entry.name());
+  }
+
+  /*
+   * Reads queues written with Java serialization by older versions.
+   */
+  @SuppressWarnings("unchecked")
+  private static boolean deserializeLegacy(final File file) {
+    try (ObjectInputStream in = new ObjectInputStream(new FileInputStream(file))) {
       List<TreeMap<String, RollingLinkedList<String>>> queues =
           (List<TreeMap<String, RollingLinkedList<String>>>) in.readObject();
 
       // Combat queue is first
       COMBAT_QUEUE = queues.get(0);
       NONCOMBAT_QUEUE = queues.get(1);
-
-      in.close();
-
-      // after successfully loading, check if there were new zones added that aren't yet in the
-      // TreeMap.
-      AdventureQueueDatabase.checkZones();
-    } catch (FileNotFoundException e) {
-      AdventureQueueDatabase.resetQueue(false);
-      return;
-    } catch (ClassNotFoundException e) {
-      // Found the file, but the contents did not contain a properly-serialized treemap.
-      // Wipe the bogus file.
-      file.delete();
-      AdventureQueueDatabase.resetQueue();
-      return;
-    } catch (ClassCastException e) {
-      // Old version of the combat queue handling.  Sorry, have to delete your queue.
+      return true;
+    } catch (IOException | ClassNotFoundException | ClassCastException e) {
+      // Malformed data, or an old version of the combat queue handling.
       file.delete();
-      AdventureQueueDatabase.resetQueue();
-      return;
-    } catch (EOFException e) {
-      // Malformed data. Wipe the bogus file.
-      file.delete();
-      AdventureQueueDatabase.resetQueue();
-      return;
-    } catch (IOException e) {
-      e.printStackTrace();
+      return false;
     }
   }
 
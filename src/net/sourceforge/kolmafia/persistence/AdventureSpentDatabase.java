@@ -2,16 +2,13 @@ package net.sourceforge.kolmafia.persistence;
 
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
-import java.io.Serializable;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
+import net.sourceforge.kolmafia.AreaCombatData;
 import net.sourceforge.kolmafia.KoLAdventure;
 import net.sourceforge.kolmafia.KoLCharacter;
 import net.sourceforge.kolmafia.KoLConstants;
@@ -21,13 +18,18 @@ import net.sourceforge.kolmafia.request.FightRequest;
 /*
  * Instead of packing and unpacking a giant map into user preference files,
  * this is a way of persisting a variable across sessions.
- * Uses the Java Serializable interface.
+ * Every change is appended to <username>_turns.journal as it happens;
+ * serialize() replaces the journal with a snapshot.
  */
 
-public class AdventureSpentDatabase implements Serializable {
-  private static final long serialVersionUID = -180241952508113933L;
+public class AdventureSpentDatabase {
+  // Journal entry kind: the number of turns now spent in a zone
+  private static final byte TURNS_SPENT = 1;
+
   private static Map<String, Integer> TURNS = new TreeMap<String, Integer>();
 
+  private static AdventureJournal journal = null;
+
   private static int lastTurnUpdated = -1;
 
   private static boolean noncombatEncountered = false;
@@ -55,6 +57,8 @@ public class AdventureSpentDatabase implements Serializable {
       AdventureSpentDatabase.TURNS.put(adv.getAdventureName(), 0);
     }
 
+    AreaCombatData.invalidate(AreaCombatData.Input.TURNS);
+
     if (serializeAfterwards) {
       AdventureSpentDatabase.serialize();
     }
@@ -95,6 +99,14 @@ public class AdventureSpentDatabase implements Serializable {
     }
     int turns = AdventureSpentDatabase.TURNS.getOrDefault(loc, 0);
     AdventureSpentDatabase.TURNS.put(loc, turns + 1);
+    AreaCombatData.invalidate(AreaCombatData.Input.TURNS);
+    AdventureSpentDatabase.journal(loc, turns + 1);
+  }
+
+  private static void journal(final String loc, final int turns) {
+    if (AdventureSpentDatabase.journal != null) {
+      AdventureSpentDatabase.journal.append(TURNS_SPENT, loc, turns);
+    }
   }
 
   public static void setTurns(final String loc, final int turns) {
@@ -107,6 +119,8 @@ public class AdventureSpentDatabase implements Serializable {
       return;
     }
     AdventureSpentDatabase.TURNS.put(loc, turns);
+    AreaCombatData.invalidate(AreaCombatData.Input.TURNS);
+    AdventureSpentDatabase.journal(loc, turns);
   }
 
   public static int getTurns(KoLAdventure adv) {
@@ -131,59 +145,90 @@ public class AdventureSpentDatabase implements Serializable {
     return getTurns(loc, false);
   }
 
-  public static void serialize() {
+  private static AdventureJournal getJournal() {
     File file =
-        new File(KoLConstants.DATA_LOCATION, KoLCharacter.baseUserName() + "_" + "turns.ser");
+        new File(KoLConstants.DATA_LOCATION, KoLCharacter.baseUserName() + "_" + "turns.journal");
+
+    AdventureJournal journal = AdventureSpentDatabase.journal;
+    if (journal == null || !journal.getFile().equals(file)) {
+      if (journal != null) {
+        journal.close();
+      }
+      journal = AdventureSpentDatabase.journal = new AdventureJournal(file);
+    }
+    return journal;
+  }
 
-    try {
-      FileOutputStream fileOut = new FileOutputStream(file);
-      ObjectOutputStream out = new ObjectOutputStream(fileOut);
+  /*
+   * Replaces <username>_turns.journal with a snapshot of the current turn counts.
+   */
+  public static void serialize() {
+    AdventureSpentDatabase.getJournal().rewrite(AdventureSpentDatabase::writeSnapshot);
+  }
 
-      out.writeObject(AdventureSpentDatabase.TURNS);
-      out.close();
-    } catch (IOException e) {
-      e.printStackTrace();
+  private static void writeSnapshot(final AdventureJournal journal) {
+    for (var entry : AdventureSpentDatabase.TURNS.entrySet()) {
+      if (entry.getValue() != 0) {
+        journal.append(TURNS_SPENT, entry.getKey(), entry.getValue());
+      }
     }
   }
 
   /*
-   * Attempts to load saved adventure spent settings from <username>_turns.ser
+   * Attempts to load saved adventure spent settings from <username>_turns.journal, or from
+   * <username>_turns.ser if it was saved by an older version.
    */
   public static void deserialize() {
-    File file =
-        new File(KoLConstants.DATA_LOCATION, KoLCharacter.baseUserName() + "_" + "turns.ser");
+    AreaCombatData.invalidate(AreaCombatData.Input.TURNS);
+    AdventureJournal journal = AdventureSpentDatabase.getJournal();
 
-    if (!file.exists()) {
+    if (journal.exists()) {
       AdventureSpentDatabase.resetTurns(false);
+      try {
+        if (journal.load(AdventureSpentDatabase::replay)) {
+          return;
+        }
+      } catch (IOException e) {
+        // Treat it like any other unreadable journal
+      }
+
+      // Found the file, but could not make sense of it. Start over.
+      AdventureSpentDatabase.resetTurns();
       return;
     }
-    try {
-      FileInputStream fileIn = new FileInputStream(file);
-      ObjectInputStream in = new ObjectInputStream(fileIn);
-
-      AdventureSpentDatabase.TURNS = (TreeMap<String, Integer>) in.readObject();
-
-      in.close();
 
+    File legacy =
+        new File(KoLConstants.DATA_LOCATION, KoLCharacter.baseUserName() + "_" + "turns.ser");
+    if (legacy.exists() && AdventureSpentDatabase.deserializeLegacy(legacy)) {
       // after successfully loading, check if there were new zones added that aren't yet in the
       // TreeMap.
       AdventureSpentDatabase.checkZones();
-    } catch (FileNotFoundException e) {
-      AdventureSpentDatabase.resetTurns(false);
-      return;
-    } catch (ClassNotFoundException e) {
-      // Found the file, but the contents did not contain a properly-serialized treemap.
-      // Wipe the bogus file.
-      file.delete();
-      AdventureSpentDatabase.resetTurns();
+      AdventureSpentDatabase.serialize();
+      legacy.delete();
       return;
-    } catch (ClassCastException e) {
-      // Old version of the combat queue handling.  Sorry, have to delete your queue.
+    }
+
+    AdventureSpentDatabase.resetTurns(false);
+  }
+
+  private static void replay(final AdventureJournal.Entry entry) {
+    if (entry.zone() != null) {
+      AdventureSpentDatabase.TURNS.put(entry.zone(), entry.number());
+    }
+  }
+
+  /*
+   * Reads turn counts written with Java serialization by older versions.
+   */
+  @SuppressWarnings("unchecked")
+  private static boolean deserializeLegacy(final File file) {
+    try (ObjectInputStream in = new ObjectInputStream(new FileInputStream(file))) {
+      AdventureSpentDatabase.TURNS = (TreeMap<String, Integer>) in.readObject();
+      return true;
+    } catch (IOException | ClassNotFoundException | ClassCastException e) {
+      // Malformed data, or an old version of the turn handling.
       file.delete();
-      AdventureSpentDatabase.resetTurns();
-      return;
-    } catch (IOException e) {
-      e.printStackTrace();
+      return false;
     }
   }
 
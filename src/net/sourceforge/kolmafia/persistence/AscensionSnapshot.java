@@ -1,5 +1,6 @@
 package net.sourceforge.kolmafia.persistence;
 
+import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
@@ -63,7 +64,9 @@ public class AscensionSnapshot {
     return AscensionSnapshot.ascensionMap;
   }
 
-  public static final String getAscensionData(
+  /** Writes the ascension leaderboards to a stream as they are generated. */
+  public static final void writeAscensionData(
+      final PrintStream ostream,
       final int typeFilter,
       final int mostAscensionsBoardSize,
       final int mainBoardSize,
@@ -72,74 +75,73 @@ public class AscensionSnapshot {
       final boolean playerMoreThanOnce,
       boolean localProfileLink) {
     AscensionSnapshot.initializeAscensionData();
-    StringBuilder strbuf = new StringBuilder();
 
-    strbuf.append("<html><head>");
-    strbuf.append("<meta http-equiv=\"Content-Type\" content=\"text/html; charset=UTF-8\">");
+    ostream.print("<html><head>");
+    ostream.print("<meta http-equiv=\"Content-Type\" content=\"text/html; charset=UTF-8\">");
 
-    strbuf.append("<title>");
+    ostream.print("<title>");
 
     switch (typeFilter) {
       case AscensionSnapshot.NORMAL:
-        strbuf.append("Normal");
+        ostream.print("Normal");
         break;
       case AscensionSnapshot.HARDCORE:
-        strbuf.append("Hardcore");
+        ostream.print("Hardcore");
         break;
       case AscensionSnapshot.CASUAL:
-        strbuf.append("Casual");
+        ostream.print("Casual");
         break;
     }
 
     String clanName = ClanManager.getClanName(true);
 
-    strbuf.append(" Ascension Data for ");
-    strbuf.append(clanName);
-    strbuf.append(" (");
-    strbuf.append(new Date());
-    strbuf.append(")</title>");
-    strbuf.append(KoLConstants.LINE_BREAK);
-
-    strbuf.append("<style> body, td { font-family: sans-serif; } </style></head><body>");
-    strbuf.append(KoLConstants.LINE_BREAK);
-    strbuf.append("<center><table cellspacing=0 cellpadding=0><tr><td align=center><h2><u>");
-    strbuf.append(clanName);
-    strbuf.append(" (#");
-    strbuf.append(ClanManager.getClanId());
-    strbuf.append(")</u></h2></td></tr>");
-    strbuf.append(KoLConstants.LINE_BREAK);
+    ostream.print(" Ascension Data for ");
+    ostream.print(clanName);
+    ostream.print(" (");
+    ostream.print(new Date());
+    ostream.print(")</title>");
+    ostream.print(KoLConstants.LINE_BREAK);
+
+    ostream.print("<style> body, td { font-family: sans-serif; } </style></head><body>");
+    ostream.print(KoLConstants.LINE_BREAK);
+    ostream.print("<center><table cellspacing=0 cellpadding=0><tr><td align=center><h2><u>");
+    ostream.print(clanName);
+    ostream.print(" (#");
+    ostream.print(ClanManager.getClanId());
+    ostream.print(")</u></h2></td></tr>");
+    ostream.print(KoLConstants.LINE_BREAK);
 
     // Right below the name of the clan, write the average
     // number of this kind of ascension.
 
-    strbuf.append("<tr><td align=center><h3>Avg: ");
-    strbuf.append(
+    ostream.print("<tr><td align=center><h3>Avg: ");
+    ostream.print(
         ((typeFilter == AscensionSnapshot.NORMAL
                     ? (float) AscensionSnapshot.softcoreAscensionList.size()
                     : 0.0f)
                 + AscensionSnapshot.hardcoreAscensionList.size()
                 + AscensionSnapshot.casualAscensionList.size())
             / AscensionSnapshot.ascensionMap.size());
-    strbuf.append("</h3></td></tr></table><br><br>");
-    strbuf.append(KoLConstants.LINE_BREAK);
+    ostream.print("</h3></td></tr></table><br><br>");
+    ostream.print(KoLConstants.LINE_BREAK);
 
     // Next, the ascension leaderboards for most (numeric)
     // ascensions.
 
-    strbuf.append("<table width=500 cellspacing=0 cellpadding=0>");
-    strbuf.append(KoLConstants.LINE_BREAK);
-    strbuf.append("<tr><td style=\"color:white\" align=center bgcolor=blue><b>Most ");
-    strbuf.append(
+    ostream.print("<table width=500 cellspacing=0 cellpadding=0>");
+    ostream.print(KoLConstants.LINE_BREAK);
+    ostream.print("<tr><td style=\"color:white\" align=center bgcolor=blue><b>Most ");
+    ostream.print(
         typeFilter == AscensionSnapshot.NORMAL
             ? "Normal "
             : typeFilter == AscensionSnapshot.HARDCORE ? "Hardcore " : "Casual ");
-    strbuf.append(
+    ostream.print(
         "Ascensions</b></td></tr><tr><td style=\"padding: 5px; border: 1px solid blue;\"><center><table>");
-    strbuf.append(KoLConstants.LINE_BREAK);
-    strbuf.append("<tr><td align=center><b>Player&nbsp;&nbsp;&nbsp;&nbsp;</b></td>");
-    strbuf.append(KoLConstants.LINE_BREAK);
-    strbuf.append("<td align=center><b>Ascensions</b></td></tr>");
-    strbuf.append(KoLConstants.LINE_BREAK);
+    ostream.print(KoLConstants.LINE_BREAK);
+    ostream.print("<tr><td align=center><b>Player&nbsp;&nbsp;&nbsp;&nbsp;</b></td>");
+    ostream.print(KoLConstants.LINE_BREAK);
+    ostream.print("<td align=center><b>Ascensions</b></td></tr>");
+    ostream.print(KoLConstants.LINE_BREAK);
 
     // Resort the lists, and print the results to the buffer
     // so that you have the "most ascensions" leaderboard.
@@ -157,394 +159,394 @@ public class AscensionSnapshot {
         leader = AscensionSnapshot.LINK_PATTERN.matcher(leader).replaceAll("");
       }
 
-      strbuf.append(leader);
-      strbuf.append(KoLConstants.LINE_BREAK);
+      ostream.print(leader);
+      ostream.print(KoLConstants.LINE_BREAK);
     }
 
-    strbuf.append("</table></td></tr></table><br><br>");
-    strbuf.append(KoLConstants.LINE_BREAK);
+    ostream.print("</table></td></tr></table><br><br>");
+    ostream.print(KoLConstants.LINE_BREAK);
 
     // Finally, the ascension leaderboards for fastest
     // ascension speed.  Do this for all paths individually.
 
     if (typeFilter != AscensionSnapshot.CASUAL) {
-      strbuf.append(KoLConstants.LINE_BREAK);
-      strbuf.append(
-          AscensionSnapshot.getPathedAscensionData(
-              typeFilter,
-              Path.PATH_OF_THE_PLUMBER,
-              mainBoardSize,
-              classBoardSize,
-              maxAge,
-              playerMoreThanOnce,
-              localProfileLink));
-      strbuf.append(KoLConstants.LINE_BREAK);
-      strbuf.append(
-          AscensionSnapshot.getPathedAscensionData(
-              typeFilter,
-              Path.KINGDOM_OF_EXPLOATHING,
-              mainBoardSize,
-              classBoardSize,
-              maxAge,
-              playerMoreThanOnce,
-              localProfileLink));
-      strbuf.append(KoLConstants.LINE_BREAK);
-      strbuf.append(
-          AscensionSnapshot.getPathedAscensionData(
-              typeFilter,
-              Path.CRAZY_RANDOM_SUMMER_TWO,
-              mainBoardSize,
-              classBoardSize,
-              maxAge,
-              playerMoreThanOnce,
-              localProfileLink));
-      strbuf.append(KoLConstants.LINE_BREAK);
-      strbuf.append(
-          AscensionSnapshot.getPathedAscensionData(
-              typeFilter,
-              Path.DARK_GYFFTE,
-              mainBoardSize,
-              classBoardSize,
-              maxAge,
-              playerMoreThanOnce,
-              localProfileLink));
-      strbuf.append(KoLConstants.LINE_BREAK);
-      strbuf.append(
-          AscensionSnapshot.getPathedAscensionData(
-              typeFilter,
-              Path.DISGUISES_DELIMIT,
-              mainBoardSize,
-              classBoardSize,
-              maxAge,
-              playerMoreThanOnce,
-              localProfileLink));
-      strbuf.append(KoLConstants.LINE_BREAK);
-      strbuf.append(
-          AscensionSnapshot.getPathedAscensionData(
-              typeFilter,
-              Path.GLOVER,
-              mainBoardSize,
-              classBoardSize,
-              maxAge,
-              playerMoreThanOnce,
-              localProfileLink));
-      strbuf.append(KoLConstants.LINE_BREAK);
-      strbuf.append(
-          AscensionSnapshot.getPathedAscensionData(
-              typeFilter,
-              Path.POKEFAM,
-              mainBoardSize,
-              classBoardSize,
-              maxAge,
-              playerMoreThanOnce,
-              localProfileLink));
-      strbuf.append(KoLConstants.LINE_BREAK);
-      strbuf.append(
-          AscensionSnapshot.getPathedAscensionData(
-              typeFilter,
-              Path.LIVE_ASCEND_REPEAT,
-              mainBoardSize,
-              classBoardSize,
-              maxAge,
-              playerMoreThanOnce,
-              localProfileLink));
-      strbuf.append(KoLConstants.LINE_BREAK);
-      strbuf.append(
-          AscensionSnapshot.getPathedAscensionData(
-              typeFilter,
-              Path.LICENSE_TO_ADVENTURE,
-              mainBoardSize,
-              classBoardSize,
-              maxAge,
-              playerMoreThanOnce,
-              localProfileLink));
-      strbuf.append(KoLConstants.LINE_BREAK);
-      strbuf.append(
-          AscensionSnapshot.getPathedAscensionData(
-              typeFilter,
-              Path.GELATINOUS_NOOB,
-              mainBoardSize,
-              classBoardSize,
-              maxAge,
-              playerMoreThanOnce,
-              localProfileLink));
-      strbuf.append(KoLConstants.LINE_BREAK);
-      strbuf.append(
-          AscensionSnapshot.getPathedAscensionData(
-              typeFilter,
-              Path.NUCLEAR_AUTUMN,
-              mainBoardSize,
-              classBoardSize,
-              maxAge,
-              playerMoreThanOnce,
-              localProfileLink));
-      strbuf.append(
-          AscensionSnapshot.getPathedAscensionData(
-              typeFilter,
-              Path.THE_SOURCE,
-              mainBoardSize,
-              classBoardSize,
-              maxAge,
-              playerMoreThanOnce,
-              localProfileLink));
-      strbuf.append(KoLConstants.LINE_BREAK);
-      strbuf.append(
-          AscensionSnapshot.getPathedAscensionData(
-              typeFilter,
-              Path.AVATAR_OF_WEST_OF_LOATHING,
-              mainBoardSize,
-              classBoardSize,
-              maxAge,
-              playerMoreThanOnce,
-              localProfileLink));
-      strbuf.append(KoLConstants.LINE_BREAK);
-      strbuf.append(
-          AscensionSnapshot.getPathedAscensionData(
-              typeFilter,
-              Path.COMMUNITY_SERVICE,
-              mainBoardSize,
-              classBoardSize,
-              maxAge,
-              playerMoreThanOnce,
-              localProfileLink));
-      strbuf.append(KoLConstants.LINE_BREAK);
-      strbuf.append(
-          AscensionSnapshot.getPathedAscensionData(
-              typeFilter,
-              Path.CRAZY_RANDOM_SUMMER,
-              mainBoardSize,
-              classBoardSize,
-              maxAge,
-              playerMoreThanOnce,
-              localProfileLink));
-      strbuf.append(KoLConstants.LINE_BREAK);
-      strbuf.append(
-          AscensionSnapshot.getPathedAscensionData(
-              typeFilter,
-              Path.ACTUALLY_ED_THE_UNDYING,
-              mainBoardSize,
-              classBoardSize,
-              maxAge,
-              playerMoreThanOnce,
-              localProfileLink));
-      strbuf.append(KoLConstants.LINE_BREAK);
-      strbuf.append(
-          AscensionSnapshot.getPathedAscensionData(
-              typeFilter,
-              Path.STANDARD,
-              mainBoardSize,
-              classBoardSize,
-              maxAge,
-              playerMoreThanOnce,
-              localProfileLink));
-      strbuf.append(KoLConstants.LINE_BREAK);
-      strbuf.append(
-          AscensionSnapshot.getPathedAscensionData(
-              typeFilter,
-              Path.PICKY,
-              mainBoardSize,
-              classBoardSize,
-              maxAge,
-              playerMoreThanOnce,
-              localProfileLink));
-      strbuf.append(KoLConstants.LINE_BREAK);
-      strbuf.append(
-          AscensionSnapshot.getPathedAscensionData(
-              typeFilter,
-              Path.HEAVY_RAINS,
-              mainBoardSize,
-              classBoardSize,
-              maxAge,
-              playerMoreThanOnce,
-              localProfileLink));
-      strbuf.append(KoLConstants.LINE_BREAK);
-      strbuf.append(
-          AscensionSnapshot.getPathedAscensionData(
-              typeFilter,
-              Path.SLOW_AND_STEADY,
-              mainBoardSize,
-              classBoardSize,
-              maxAge,
-              playerMoreThanOnce,
-              localProfileLink));
-      strbuf.append(KoLConstants.LINE_BREAK);
-      strbuf.append(
-          AscensionSnapshot.getPathedAscensionData(
-              typeFilter,
-              Path.AVATAR_OF_SNEAKY_PETE,
-              mainBoardSize,
-              classBoardSize,
-              maxAge,
-              playerMoreThanOnce,
-              localProfileLink));
-      strbuf.append(KoLConstants.LINE_BREAK);
-      strbuf.append(
-          AscensionSnapshot.getPathedAscensionData(
-              typeFilter,
-              Path.CLASS_ACT_II,
-              mainBoardSize,
-              classBoardSize,
-              maxAge,
-              playerMoreThanOnce,
-              localProfileLink));
-      strbuf.append(KoLConstants.LINE_BREAK);
-      strbuf.append(
-          AscensionSnapshot.getPathedAscensionData(
-              typeFilter,
-              Path.KOLHS,
-              mainBoardSize,
-              classBoardSize,
-              maxAge,
-              playerMoreThanOnce,
-              localProfileLink));
-      strbuf.append(KoLConstants.LINE_BREAK);
-      strbuf.append(
-          AscensionSnapshot.getPathedAscensionData(
-              typeFilter,
-              Path.BIG,
-              mainBoardSize,
-              classBoardSize,
-              maxAge,
-              playerMoreThanOnce,
-              localProfileLink));
-      strbuf.append(KoLConstants.LINE_BREAK);
-      strbuf.append(
-          AscensionSnapshot.getPathedAscensionData(
-              typeFilter,
-              Path.AVATAR_OF_JARLSBERG,
-              mainBoardSize,
-              classBoardSize,
-              maxAge,
-              playerMoreThanOnce,
-              localProfileLink));
-      strbuf.append(KoLConstants.LINE_BREAK);
-      strbuf.append(
-          AscensionSnapshot.getPathedAscensionData(
-              typeFilter,
-              Path.CLASS_ACT,
-              mainBoardSize,
-              classBoardSize,
-              maxAge,
-              playerMoreThanOnce,
-              localProfileLink));
-      strbuf.append(KoLConstants.LINE_BREAK);
-      strbuf.append(
-          AscensionSnapshot.getPathedAscensionData(
-              typeFilter,
-              Path.ZOMBIE_SLAYER,
-              mainBoardSize,
-              classBoardSize,
-              maxAge,
-              playerMoreThanOnce,
-              localProfileLink));
-      strbuf.append(KoLConstants.LINE_BREAK);
-      strbuf.append(
-          AscensionSnapshot.getPathedAscensionData(
-              typeFilter,
-              Path.BUGBEAR_INVASION,
-              mainBoardSize,
-              classBoardSize,
-              maxAge,
-              playerMoreThanOnce,
-              localProfileLink));
-      strbuf.append(KoLConstants.LINE_BREAK);
-      strbuf.append(
-          AscensionSnapshot.getPathedAscensionData(
-              typeFilter,
-              Path.AVATAR_OF_BORIS,
-              mainBoardSize,
-              classBoardSize,
-              maxAge,
-              playerMoreThanOnce,
-              localProfileLink));
-      strbuf.append(KoLConstants.LINE_BREAK);
-      strbuf.append(
-          AscensionSnapshot.getPathedAscensionData(
-              typeFilter,
-              Path.TRENDY,
-              mainBoardSize,
-              classBoardSize,
-              maxAge,
-              playerMoreThanOnce,
-              localProfileLink));
-      strbuf.append(KoLConstants.LINE_BREAK);
-      strbuf.append(
-          AscensionSnapshot.getPathedAscensionData(
-              typeFilter,
-              Path.SURPRISING_FIST,
-              mainBoardSize,
-              classBoardSize,
-              maxAge,
-              playerMoreThanOnce,
-              localProfileLink));
-      strbuf.append(KoLConstants.LINE_BREAK);
-      strbuf.append(
-          AscensionSnapshot.getPathedAscensionData(
-              typeFilter,
-              Path.BEES_HATE_YOU,
-              mainBoardSize,
-              classBoardSize,
-              maxAge,
-              playerMoreThanOnce,
-              localProfileLink));
-      strbuf.append(KoLConstants.LINE_BREAK);
-      strbuf.append(
-          AscensionSnapshot.getPathedAscensionData(
-              typeFilter,
-              Path.BAD_MOON,
-              mainBoardSize,
-              classBoardSize,
-              maxAge,
-              playerMoreThanOnce,
-              localProfileLink));
-      strbuf.append(KoLConstants.LINE_BREAK);
-      strbuf.append(
-          AscensionSnapshot.getPathedAscensionData(
-              typeFilter,
-              Path.OXYGENARIAN,
-              mainBoardSize,
-              classBoardSize,
-              maxAge,
-              playerMoreThanOnce,
-              localProfileLink));
-      strbuf.append(KoLConstants.LINE_BREAK);
-      strbuf.append(
-          AscensionSnapshot.getPathedAscensionData(
-              typeFilter,
-              Path.TEETOTALER,
-              mainBoardSize,
-              classBoardSize,
-              maxAge,
-              playerMoreThanOnce,
-              localProfileLink));
-      strbuf.append(KoLConstants.LINE_BREAK);
-      strbuf.append(
-          AscensionSnapshot.getPathedAscensionData(
-              typeFilter,
-              Path.BOOZETAFARIAN,
-              mainBoardSize,
-              classBoardSize,
-              maxAge,
-              playerMoreThanOnce,
-              localProfileLink));
-      strbuf.append(KoLConstants.LINE_BREAK);
+      ostream.print(KoLConstants.LINE_BREAK);
+      AscensionSnapshot.writePathedAscensionData(
+          ostream,
+          typeFilter,
+          Path.PATH_OF_THE_PLUMBER,
+          mainBoardSize,
+          classBoardSize,
+          maxAge,
+          playerMoreThanOnce,
+          localProfileLink);
+      ostream.print(KoLConstants.LINE_BREAK);
+      AscensionSnapshot.writePathedAscensionData(
+          ostream,
+          typeFilter,
+          Path.KINGDOM_OF_EXPLOATHING,
+          mainBoardSize,
+          classBoardSize,
+          maxAge,
+          playerMoreThanOnce,
+          localProfileLink);
+      ostream.print(KoLConstants.LINE_BREAK);
+      AscensionSnapshot.writePathedAscensionData(
+          ostream,
+          typeFilter,
+          Path.CRAZY_RANDOM_SUMMER_TWO,
+          mainBoardSize,
+          classBoardSize,
+          maxAge,
+          playerMoreThanOnce,
+          localProfileLink);
+      ostream.print(KoLConstants.LINE_BREAK);
+      AscensionSnapshot.writePathedAscensionData(
+          ostream,
+          typeFilter,
+          Path.DARK_GYFFTE,
+          mainBoardSize,
+          classBoardSize,
+          maxAge,
+          playerMoreThanOnce,
+          localProfileLink);
+      ostream.print(KoLConstants.LINE_BREAK);
+      AscensionSnapshot.writePathedAscensionData(
+          ostream,
+          typeFilter,
+          Path.DISGUISES_DELIMIT,
+          mainBoardSize,
+          classBoardSize,
+          maxAge,
+          playerMoreThanOnce,
+          localProfileLink);
+      ostream.print(KoLConstants.LINE_BREAK);
+      AscensionSnapshot.writePathedAscensionData(
+          ostream,
+          typeFilter,
+          Path.GLOVER,
+          mainBoardSize,
+          classBoardSize,
+          maxAge,
+          playerMoreThanOnce,
+          localProfileLink);
+      ostream.print(KoLConstants.LINE_BREAK);
+      AscensionSnapshot.writePathedAscensionData(
+          ostream,
+          typeFilter,
+          Path.POKEFAM,
+          mainBoardSize,
+          classBoardSize,
+          maxAge,
+          playerMoreThanOnce,
+          localProfileLink);
+      ostream.print(KoLConstants.LINE_BREAK);
+      AscensionSnapshot.writePathedAscensionData(
+          ostream,
+          typeFilter,
+          Path.LIVE_ASCEND_REPEAT,
+          mainBoardSize,
+          classBoardSize,
+          maxAge,
+          playerMoreThanOnce,
+          localProfileLink);
+      ostream.print(KoLConstants.LINE_BREAK);
+      AscensionSnapshot.writePathedAscensionData(
+          ostream,
+          typeFilter,
+          Path.LICENSE_TO_ADVENTURE,
+          mainBoardSize,
+          classBoardSize,
+          maxAge,
+          playerMoreThanOnce,
+          localProfileLink);
+      ostream.print(KoLConstants.LINE_BREAK);
+      AscensionSnapshot.writePathedAscensionData(
+          ostream,
+          typeFilter,
+          Path.GELATINOUS_NOOB,
+          mainBoardSize,
+          classBoardSize,
+          maxAge,
+          playerMoreThanOnce,
+          localProfileLink);
+      ostream.print(KoLConstants.LINE_BREAK);
+      AscensionSnapshot.writePathedAscensionData(
+          ostream,
+          typeFilter,
+          Path.NUCLEAR_AUTUMN,
+          mainBoardSize,
+          classBoardSize,
+          maxAge,
+          playerMoreThanOnce,
+          localProfileLink);
+      AscensionSnapshot.writePathedAscensionData(
+          ostream,
+          typeFilter,
+          Path.THE_SOURCE,
+          mainBoardSize,
+          classBoardSize,
+          maxAge,
+          playerMoreThanOnce,
+          localProfileLink);
+      ostream.print(KoLConstants.LINE_BREAK);
+      AscensionSnapshot.writePathedAscensionData(
+          ostream,
+          typeFilter,
+          Path.AVATAR_OF_WEST_OF_LOATHING,
+          mainBoardSize,
+          classBoardSize,
+          maxAge,
+          playerMoreThanOnce,
+          localProfileLink);
+      ostream.print(KoLConstants.LINE_BREAK);
+      AscensionSnapshot.writePathedAscensionData(
+          ostream,
+          typeFilter,
+          Path.COMMUNITY_SERVICE,
+          mainBoardSize,
+          classBoardSize,
+          maxAge,
+          playerMoreThanOnce,
+          localProfileLink);
+      ostream.print(KoLConstants.LINE_BREAK);
+      AscensionSnapshot.writePathedAscensionData(
+          ostream,
+          typeFilter,
+          Path.CRAZY_RANDOM_SUMMER,
+          mainBoardSize,
+          classBoardSize,
+          maxAge,
+          playerMoreThanOnce,
+          localProfileLink);
+      ostream.print(KoLConstants.LINE_BREAK);
+      AscensionSnapshot.writePathedAscensionData(
+          ostream,
+          typeFilter,
+          Path.ACTUALLY_ED_THE_UNDYING,
+          mainBoardSize,
+          classBoardSize,
+          maxAge,
+          playerMoreThanOnce,
+          localProfileLink);
+      ostream.print(KoLConstants.LINE_BREAK);
+      AscensionSnapshot.writePathedAscensionData(
+          ostream,
+          typeFilter,
+          Path.STANDARD,
+          mainBoardSize,
+          classBoardSize,
+          maxAge,
+          playerMoreThanOnce,
+          localProfileLink);
+      ostream.print(KoLConstants.LINE_BREAK);
+      AscensionSnapshot.writePathedAscensionData(
+          ostream,
+          typeFilter,
+          Path.PICKY,
+          mainBoardSize,
+          classBoardSize,
+          maxAge,
+          playerMoreThanOnce,
+          localProfileLink);
+      ostream.print(KoLConstants.LINE_BREAK);
+      AscensionSnapshot.writePathedAscensionData(
+          ostream,
+          typeFilter,
+          Path.HEAVY_RAINS,
+          mainBoardSize,
+          classBoardSize,
+          maxAge,
+          playerMoreThanOnce,
+          localProfileLink);
+      ostream.print(KoLConstants.LINE_BREAK);
+      AscensionSnapshot.writePathedAscensionData(
+          ostream,
+          typeFilter,
+          Path.SLOW_AND_STEADY,
+          mainBoardSize,
+          classBoardSize,
+          maxAge,
+          playerMoreThanOnce,
+          localProfileLink);
+      ostream.print(KoLConstants.LINE_BREAK);
+      AscensionSnapshot.writePathedAscensionData(
+          ostream,
+          typeFilter,
+          Path.AVATAR_OF_SNEAKY_PETE,
+          mainBoardSize,
+          classBoardSize,
+          maxAge,
+          playerMoreThanOnce,
+          localProfileLink);
+      ostream.print(KoLConstants.LINE_BREAK);
+      AscensionSnapshot.writePathedAscensionData(
+          ostream,
+          typeFilter,
+          Path.CLASS_ACT_II,
+          mainBoardSize,
+          classBoardSize,
+          maxAge,
+          playerMoreThanOnce,
+          localProfileLink);
+      ostream.print(KoLConstants.LINE_BREAK);
+      AscensionSnapshot.writePathedAscensionData(
+          ostream,
+          typeFilter,
+          Path.KOLHS,
+          mainBoardSize,
+          classBoardSize,
+          maxAge,
+          playerMoreThanOnce,
+          localProfileLink);
+      ostream.print(KoLConstants.LINE_BREAK);
+      AscensionSnapshot.writePathedAscensionData(
+          ostream,
+          typeFilter,
+          Path.BIG,
+          mainBoardSize,
+          classBoardSize,
+          maxAge,
+          playerMoreThanOnce,
+          localProfileLink);
+      ostream.print(KoLConstants.LINE_BREAK);
+      AscensionSnapshot.writePathedAscensionData(
+          ostream,
+          typeFilter,
+          Path.AVATAR_OF_JARLSBERG,
+          mainBoardSize,
+          classBoardSize,
+          maxAge,
+          playerMoreThanOnce,
+          localProfileLink);
+      ostream.print(KoLConstants.LINE_BREAK);
+      AscensionSnapshot.writePathedAscensionData(
+          ostream,
+          typeFilter,
+          Path.CLASS_ACT,
+          mainBoardSize,
+          classBoardSize,
+          maxAge,
+          playerMoreThanOnce,
+          localProfileLink);
+      ostream.print(KoLConstants.LINE_BREAK);
+      AscensionSnapshot.writePathedAscensionData(
+          ostream,
+          typeFilter,
+          Path.ZOMBIE_SLAYER,
+          mainBoardSize,
+          classBoardSize,
+          maxAge,
+          playerMoreThanOnce,
+          localProfileLink);
+      ostream.print(KoLConstants.LINE_BREAK);
+      AscensionSnapshot.writePathedAscensionData(
+          ostream,
+          typeFilter,
+          Path.BUGBEAR_INVASION,
+          mainBoardSize,
+          classBoardSize,
+          maxAge,
+          playerMoreThanOnce,
+          localProfileLink);
+      ostream.print(KoLConstants.LINE_BREAK);
+      AscensionSnapshot.writePathedAscensionData(
+          ostream,
+          typeFilter,
+          Path.AVATAR_OF_BORIS,
+          mainBoardSize,
+          classBoardSize,
+          maxAge,
+          playerMoreThanOnce,
+          localProfileLink);
+      ostream.print(KoLConstants.LINE_BREAK);
+      AscensionSnapshot.writePathedAscensionData(
+          ostream,
+          typeFilter,
+          Path.TRENDY,
+          mainBoardSize,
+          classBoardSize,
+          maxAge,
+          playerMoreThanOnce,
+          localProfileLink);
+      ostream.print(KoLConstants.LINE_BREAK);
+      AscensionSnapshot.writePathedAscensionData(
+          ostream,
+          typeFilter,
+          Path.SURPRISING_FIST,
+          mainBoardSize,
+          classBoardSize,
+          maxAge,
+          playerMoreThanOnce,
+          localProfileLink);
+      ostream.print(KoLConstants.LINE_BREAK);
+      AscensionSnapshot.writePathedAscensionData(
+          ostream,
+          typeFilter,
+          Path.BEES_HATE_YOU,
+          mainBoardSize,
+          classBoardSize,
+          maxAge,
+          playerMoreThanOnce,
+          localProfileLink);
+      ostream.print(KoLConstants.LINE_BREAK);
+      AscensionSnapshot.writePathedAscensionData(
+          ostream,
+          typeFilter,
+          Path.BAD_MOON,
+          mainBoardSize,
+          classBoardSize,
+          maxAge,
+          playerMoreThanOnce,
+          localProfileLink);
+      ostream.print(KoLConstants.LINE_BREAK);
+      AscensionSnapshot.writePathedAscensionData(
+          ostream,
+          typeFilter,
+          Path.OXYGENARIAN,
+          mainBoardSize,
+          classBoardSize,
+          maxAge,
+          playerMoreThanOnce,
+          localProfileLink);
+      ostream.print(KoLConstants.LINE_BREAK);
+      AscensionSnapshot.writePathedAscensionData(
+          ostream,
+          typeFilter,
+          Path.TEETOTALER,
+          mainBoardSize,
+          classBoardSize,
+          maxAge,
+          playerMoreThanOnce,
+          localProfileLink);
+      ostream.print(KoLConstants.LINE_BREAK);
+      AscensionSnapshot.writePathedAscensionData(
+          ostream,
+          typeFilter,
+          Path.BOOZETAFARIAN,
+          mainBoardSize,
+          classBoardSize,
+          maxAge,
+          playerMoreThanOnce,
+          localProfileLink);
+      ostream.print(KoLConstants.LINE_BREAK);
     }
-    strbuf.append(
-        AscensionSnapshot.getPathedAscensionData(
-            typeFilter,
-            Path.NONE,
-            mainBoardSize,
-            classBoardSize,
-            maxAge,
-            playerMoreThanOnce,
-            localProfileLink));
-    strbuf.append(KoLConstants.LINE_BREAK);
-
-    strbuf.append("</center>");
-    return strbuf.toString();
+    AscensionSnapshot.writePathedAscensionData(
+        ostream,
+        typeFilter,
+        Path.NONE,
+        mainBoardSize,
+        classBoardSize,
+        maxAge,
+        playerMoreThanOnce,
+        localProfileLink);
+    ostream.print(KoLConstants.LINE_BREAK);
+
+    ostream.print("</center>");
   }
 
-  public static final String getPathedAscensionData(
+  public static final void writePathedAscensionData(
+      final PrintStream ostream,
       final int typeFilter,
       final Path pathFilter,
       final int mainBoardSize,
@@ -552,12 +554,10 @@ public class AscensionSnapshot {
       final int maxAge,
       final boolean playerMoreThanOnce,
       final boolean localProfileLink) {
-    StringBuilder strbuf = new StringBuilder();
-
     // First, print the table showing the top ascenders
     // without a class-based filter.
 
-    strbuf.append(
+    ostream.print(
         AscensionSnapshot.getAscensionData(
             typeFilter,
             pathFilter,
@@ -571,7 +571,7 @@ public class AscensionSnapshot {
     // Next, print the nifty disappearing link bar that
     // is used in the KoL leaderboard frame.
 
-    strbuf.append(KoLConstants.LINE_BREAK);
+    ostream.print(KoLConstants.LINE_BREAK);
 
     // Finally, add in all the breakdown tables, just like
     // in the KoL leaderboard frame, for class based paths.
@@ -588,18 +588,18 @@ public class AscensionSnapshot {
       case GREY_YOU:
         break;
       case AVATAR_OF_WEST_OF_LOATHING:
-        strbuf.append(
+        ostream.print(
             "<br><a class=small href=\"javascript:void(0);\" onClick=\"javascript: var element = document.getElementById('sec");
-        strbuf.append(pathFilter);
-        strbuf.append(
+        ostream.print(pathFilter);
+        ostream.print(
             "'); element.style.display = element.style.display == 'inline' ? 'none' : 'inline';\">");
-        strbuf.append("hide/show records by class</a><div id=\"sec");
-        strbuf.append(pathFilter);
-        strbuf.append("\" style=\"display:none\"><br><br>");
-        strbuf.append(KoLConstants.LINE_BREAK);
-        strbuf.append("<table><tr><td valign=top>");
-        strbuf.append(KoLConstants.LINE_BREAK);
-        strbuf.append(
+        ostream.print("hide/show records by class</a><div id=\"sec");
+        ostream.print(pathFilter);
+        ostream.print("\" style=\"display:none\"><br><br>");
+        ostream.print(KoLConstants.LINE_BREAK);
+        ostream.print("<table><tr><td valign=top>");
+        ostream.print(KoLConstants.LINE_BREAK);
+        ostream.print(
             AscensionSnapshot.getAscensionData(
                 typeFilter,
                 pathFilter,
@@ -609,10 +609,10 @@ public class AscensionSnapshot {
                 maxAge,
                 playerMoreThanOnce,
                 localProfileLink));
-        strbuf.append(KoLConstants.LINE_BREAK);
-        strbuf.append("</td><td valign=top>");
-        strbuf.append(KoLConstants.LINE_BREAK);
-        strbuf.append(
+        ostream.print(KoLConstants.LINE_BREAK);
+        ostream.print("</td><td valign=top>");
+        ostream.print(KoLConstants.LINE_BREAK);
+        ostream.print(
             AscensionSnapshot.getAscensionData(
                 typeFilter,
                 pathFilter,
@@ -622,10 +622,10 @@ public class AscensionSnapshot {
                 maxAge,
                 playerMoreThanOnce,
                 localProfileLink));
-        strbuf.append(KoLConstants.LINE_BREAK);
-        strbuf.append("</td></tr><tr><td valign=top>");
-        strbuf.append(KoLConstants.LINE_BREAK);
-        strbuf.append(
+        ostream.print(KoLConstants.LINE_BREAK);
+        ostream.print("</td></tr><tr><td valign=top>");
+        ostream.print(KoLConstants.LINE_BREAK);
+        ostream.print(
             AscensionSnapshot.getAscensionData(
                 typeFilter,
                 pathFilter,
@@ -635,22 +635,22 @@ public class AscensionSnapshot {
                 maxAge,
                 playerMoreThanOnce,
                 localProfileLink));
-        strbuf.append(KoLConstants.LINE_BREAK);
-        strbuf.append("</td></tr></table>");
+        ostream.print(KoLConstants.LINE_BREAK);
+        ostream.print("</td></tr></table>");
         break;
       default:
-        strbuf.append(
+        ostream.print(
             "<br><a class=small href=\"javascript:void(0);\" onClick=\"javascript: var element = document.getElementById('sec");
-        strbuf.append(pathFilter);
-        strbuf.append(
+        ostream.print(pathFilter);
+        ostream.print(
             "'); element.style.display = element.style.display == 'inline' ? 'none' : 'inline';\">");
-        strbuf.append("hide/show records by class</a><div id=\"sec");
-        strbuf.append(pathFilter);
-        strbuf.append("\" style=\"display:none\"><br><br>");
-        strbuf.append(KoLConstants.LINE_BREAK);
-        strbuf.append("<table><tr><td valign=top>");
-        strbuf.append(KoLConstants.LINE_BREAK);
-        strbuf.append(
+        ostream.print("hide/show records by class</a><div id=\"sec");
+        ostream.print(pathFilter);
+        ostream.print("\" style=\"display:none\"><br><br>");
+        ostream.print(KoLConstants.LINE_BREAK);
+        ostream.print("<table><tr><td valign=top>");
+        ostream.print(KoLConstants.LINE_BREAK);
+        ostream.print(
             AscensionSnapshot.getAscensionData(
                 typeFilter,
                 pathFilter,
@@ -660,10 +660,10 @@ public class AscensionSnapshot {
                 maxAge,
                 playerMoreThanOnce,
                 localProfileLink));
-        strbuf.append(KoLConstants.LINE_BREAK);
-        strbuf.append("</td><td valign=top>");
-        strbuf.append(KoLConstants.LINE_BREAK);
-        strbuf.append(
+        ostream.print(KoLConstants.LINE_BREAK);
+        ostream.print("</td><td valign=top>");
+        ostream.print(KoLConstants.LINE_BREAK);
+        ostream.print(
             AscensionSnapshot.getAscensionData(
                 typeFilter,
                 pathFilter,
@@ -673,10 +673,10 @@ public class AscensionSnapshot {
                 maxAge,
                 playerMoreThanOnce,
                 localProfileLink));
-        strbuf.append(KoLConstants.LINE_BREAK);
-        strbuf.append("</td></tr><tr><td valign=top>");
-        strbuf.append(KoLConstants.LINE_BREAK);
-        strbuf.append(
+        ostream.print(KoLConstants.LINE_BREAK);
+        ostream.print("</td></tr><tr><td valign=top>");
+        ostream.print(KoLConstants.LINE_BREAK);
+        ostream.print(
             AscensionSnapshot.getAscensionData(
                 typeFilter,
                 pathFilter,
@@ -686,10 +686,10 @@ public class AscensionSnapshot {
                 maxAge,
                 playerMoreThanOnce,
                 localProfileLink));
-        strbuf.append(KoLConstants.LINE_BREAK);
-        strbuf.append("</td><td valign=top>");
-        strbuf.append(KoLConstants.LINE_BREAK);
-        strbuf.append(
+        ostream.print(KoLConstants.LINE_BREAK);
+        ostream.print("</td><td valign=top>");
+        ostream.print(KoLConstants.LINE_BREAK);
+        ostream.print(
             AscensionSnapshot.getAscensionData(
                 typeFilter,
                 pathFilter,
@@ -699,10 +699,10 @@ public class AscensionSnapshot {
                 maxAge,
                 playerMoreThanOnce,
                 localProfileLink));
-        strbuf.append(KoLConstants.LINE_BREAK);
-        strbuf.append("</td></tr><tr><td valign=top>");
-        strbuf.append(KoLConstants.LINE_BREAK);
-        strbuf.append(
+        ostream.print(KoLConstants.LINE_BREAK);
+        ostream.print("</td></tr><tr><td valign=top>");
+        ostream.print(KoLConstants.LINE_BREAK);
+        ostream.print(
             AscensionSnapshot.getAscensionData(
                 typeFilter,
                 pathFilter,
@@ -712,10 +712,10 @@ public class AscensionSnapshot {
                 maxAge,
                 playerMoreThanOnce,
                 localProfileLink));
-        strbuf.append(KoLConstants.LINE_BREAK);
-        strbuf.append("</td><td valign=top>");
-        strbuf.append(KoLConstants.LINE_BREAK);
-        strbuf.append(
+        ostream.print(KoLConstants.LINE_BREAK);
+        ostream.print("</td><td valign=top>");
+        ostream.print(KoLConstants.LINE_BREAK);
+        ostream.print(
             AscensionSnapshot.getAscensionData(
                 typeFilter,
                 pathFilter,
@@ -725,16 +725,15 @@ public class AscensionSnapshot {
                 maxAge,
                 playerMoreThanOnce,
                 localProfileLink));
-        strbuf.append(KoLConstants.LINE_BREAK);
-        strbuf.append("</td></tr></table>");
+        ostream.print(KoLConstants.LINE_BREAK);
+        ostream.print("</td></tr></table>");
         break;
     }
 
     // Close the disappearing section and return the complete
     // code for this path filter.
 
-    strbuf.append("</div><br><br>");
-    return strbuf.toString();
+    ostream.print("</div><br><br>");
   }
 
   public static final String getAscensionData(
@@ -0,0 +1,248 @@
+package net.sourceforge.kolmafia.persistence;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import net.sourceforge.kolmafia.KoLConstants;
+import net.sourceforge.kolmafia.Modifiers;
+import net.sourceforge.kolmafia.StaticEntity;
+import net.sourceforge.kolmafia.utilities.DataFileCache;
+
+/**
+ * Loads the databases at startup, rather than whenever each is first used, and records how long
+ * each stage took.
+ *
+ * <p>Each database loads its data in its static initializer. Those initializers refer to one
+ * another, so two of them running on different threads could each wait for the other to finish.
+ * Databases are therefore initialized one at a time, each after those it depends on, while the
+ * data files of the databases still to come are read and parsed in parallel on a pool.
+ */
+public class DatabaseWarmup {
+  private record DataFile(String name, int version) {}
+
+  public enum Stage {
+    HOLIDAYS(HolidayDatabase.class),
+    EFFECTS(EffectDatabase.class, file("statuseffects.txt", KoLConstants.STATUSEFFECTS_VERSION)),
+    SKILLS(
+        SkillDatabase.class,
+        new DataFile[] {file("classskills.txt", KoLConstants.CLASSSKILLS_VERSION)},
+        EFFECTS),
+    MODIFIERS(
+        Modifiers.class,
+        new DataFile[] {file("modifiers.txt", KoLConstants.MODIFIERS_VERSION)},
+        EFFECTS,
+        SKILLS),
+    ITEMS(
+        ItemDatabase.class,
+        new DataFile[] {
+          file("items.txt", KoLConstants.ITEMS_VERSION),
+          file("foldgroups.txt", KoLConstants.FOLDGROUPS_VERSION)
+        },
+        EFFECTS,
+        SKILLS,
+        MODIFIERS),
+    EQUIPMENT(
+        EquipmentDatabase.class,
+        new DataFile[] {
+          file("equipment.txt", KoLConstants.EQUIPMENT_VERSION),
+          file("outfits.txt", KoLConstants.OUTFITS_VERSION),
+          file("pulverize.txt", KoLConstants.PULVERIZE_VERSION)
+        },
+        ITEMS,
+        MODIFIERS),
+    CONSUMABLES(
+        ConsumablesDatabase.class,
+        new DataFile[] {
+          file("fullness.txt", KoLConstants.FULLNESS_VERSION),
+          file("inebriety.txt", KoLConstants.INEBRIETY_VERSION),
+          file("spleenhit.txt", KoLConstants.SPLEENHIT_VERSION),
+          file("nonfilling.txt", KoLConstants.NONFILLING_VERSION)
+        },
+        HOLIDAYS,
+        ITEMS,
+        EQUIPMENT),
+    QUESTS(
+        QuestDatabase.class,
+        new DataFile[] {
+          file("questslog.txt", KoLConstants.QUESTSLOG_VERSION),
+          file("questscouncil.txt", KoLConstants.QUESTSCOUNCIL_VERSION)
+        },
+        ITEMS),
+    NPC_STORES(
+        NPCStoreDatabase.class,
+        new DataFile[] {file("npcstores.txt", KoLConstants.NPCSTORES_VERSION)},
+        HOLIDAYS,
+        ITEMS,
+        QUESTS),
+    CONCOCTIONS(
+        ConcoctionDatabase.class,
+        new DataFile[] {file("concoctions.txt", KoLConstants.CONCOCTIONS_VERSION)},
+        HOLIDAYS,
+        ITEMS,
+        CONSUMABLES,
+        QUESTS,
+        NPC_STORES),
+    FAMILIARS(
+        FamiliarDatabase.class,
+        new DataFile[] {
+          file("familiars.txt", KoLConstants.FAMILIARS_VERSION),
+          file("fambattle.txt", KoLConstants.FAMBATTLE_VERSION)
+        },
+        ITEMS),
+    MONSTERS(
+        MonsterDatabase.class,
+        new DataFile[] {file("monsters.txt", KoLConstants.MONSTERS_VERSION)},
+        ITEMS),
+    BOUNTIES(BountyDatabase.class, file("bounty.txt", KoLConstants.BOUNTY_VERSION)),
+    ADVENTURES(
+        AdventureDatabase.class,
+        new DataFile[] {
+          file("zonelist.txt", KoLConstants.ZONELIST_VERSION),
+          file("adventures.txt", KoLConstants.ADVENTURES_VERSION),
+          file("combats.txt", KoLConstants.COMBATS_VERSION)
+        },
+        ITEMS,
+        MONSTERS,
+        BOUNTIES),
+    RESTORES(
+        RestoresDatabase.class,
+        new DataFile[] {file("restores.txt", KoLConstants.RESTORES_VERSION)},
+        ITEMS),
+    COINMASTERS(
+        CoinmastersDatabase.class,
+        new DataFile[] {file("coinmasters.txt", KoLConstants.COINMASTERS_VERSION)},
+        ITEMS),
+    DAILY_LIMITS(
+        DailyLimitDatabase.class,
+        new DataFile[] {file("dailylimits.txt", KoLConstants.DAILYLIMITS_VERSION)},
+        ITEMS,
+        SKILLS);
+
+    private final Class<?> database;
+    private final DataFile[] files;
+    private final Stage[] dependencies;
+
+    Stage(final Class<?> database, final DataFile... files) {
+      this(database, files, new Stage[0]);
+    }
+
+    Stage(final Class<?> database, final DataFile[] files, final Stage... dependencies) {
+      this.database = database;
+      this.files = files;
+      this.dependencies = dependencies;
+    }
+
+    public Stage[] getDependencies() {
+      return this.dependencies.clone();
+    }
+
+    @Override
+    public String toString() {
+      return this.database.getSimpleName();
+    }
+  }
+
+  private static DataFile file(final String name, final int version) {
+    return new DataFile(name, version);
+  }
+
+  /** One step of startup, with times in nanoseconds since startup began. */
+  public record Event(String name, String thread, long start, long end) {}
+
+  private static List<Event> timeline = null;
+
+  private DatabaseWarmup() {}
+
+  /** Loads every database, once. Returns when all are loaded. */
+  public static synchronized void run() {
+    if (DatabaseWarmup.timeline != null) {
+      return;
+    }
+
+    long origin = System.nanoTime();
+    List<Event> events = new ArrayList<>();
+
+    int threads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+    // Read the data files in the order the databases will want them
+    Map<Stage, List<Future<Event>>> reads = new EnumMap<>(Stage.class);
+    for (Stage stage : Stage.values()) {
+      List<Future<Event>> futures = new ArrayList<>();
+      for (DataFile file : stage.files) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  long start = System.nanoTime() - origin;
+                  DataFileCache.prefetch(file.name(), file.version());
+                  return event("read " + file.name(), start, origin);
+                }));
+      }
+      reads.put(stage, futures);
+    }
+
+    try {
+      // Every stage comes after its dependencies, so it is enough to initialize them in order
+      for (Stage stage : Stage.values()) {
+        for (Future<Event> read : reads.get(stage)) {
+          events.add(read.get());
+        }
+
+        long start = System.nanoTime() - origin;
+        Class.forName(stage.database.getName(), true, stage.database.getClassLoader());
+        events.add(event("load " + stage, start, origin));
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException e) {
+      StaticEntity.printStackTrace(e.getCause());
+    } catch (ClassNotFoundException e) {
+      StaticEntity.printStackTrace(e);
+    } finally {
+      executor.shutdownNow();
+      DataFileCache.clearPrefetched();
+    }
+
+    events.sort((left, right) -> Long.compare(left.start(), right.start()));
+    DatabaseWarmup.timeline = List.copyOf(events);
+  }
+
+  private static Event event(final String name, final long start, final long origin) {
+    return new Event(name, Thread.currentThread().getName(), start, System.nanoTime() - origin);
+  }
+
+  /** Returns what happened at startup, in order, or an empty list if it has not happened yet. */
+  public static synchronized List<Event> getTimeline() {
+    return DatabaseWarmup.timeline == null ? List.of() : DatabaseWarmup.timeline;
+  }
+
+  /** Returns the timeline as lines of text, with times in milliseconds. */
+  public static String report() {
+    List<Event> events = DatabaseWarmup.getTimeline();
+    if (events.isEmpty()) {
+      return "Databases have not been loaded at startup.";
+    }
+
+    StringBuilder buffer = new StringBuilder();
+    buffer.append("  start     end    time  step                         thread\n");
+    long end = 0;
+    for (Event event : events) {
+      buffer.append(
+          String.format(
+              "%7.1f %7.1f %7.1f  %-28s %s\n",
+              event.start() / 1e6,
+              event.end() / 1e6,
+              (event.end() - event.start()) / 1e6,
+              event.name(),
+              event.thread()));
+      end = Math.max(end, event.end());
+    }
+    buffer.append(String.format("Databases loaded in %.1f ms", end / 1e6));
+    return buffer.toString();
+  }
+}
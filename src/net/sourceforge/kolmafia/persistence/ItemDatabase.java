@@ -34,6 +34,8 @@ import net.sourceforge.kolmafia.objectpool.EffectPool;
 import net.sourceforge.kolmafia.objectpool.ItemPool;
 import net.sourceforge.kolmafia.objectpool.SkillPool;
 import net.sourceforge.kolmafia.persistence.ConsumablesDatabase.DustyBottle;
+import net.sourceforge.kolmafia.persistence.ItemTable.IntColumn;
+import net.sourceforge.kolmafia.persistence.ItemTable.StringColumn;
 import net.sourceforge.kolmafia.preferences.Preferences;
 import net.sourceforge.kolmafia.request.ApiRequest;
 import net.sourceforge.kolmafia.request.ClanLoungeRequest;
@@ -51,16 +53,16 @@ public class ItemDatabase {
   private static int maxItemId = 0;
 
   private static String[] canonicalNames = new String[0];
-  private static final Map<Integer, Integer> useTypeById = new HashMap<>();
-  private static final Map<Integer, Integer> attributesById = new HashMap<>();
-  private static final Map<Integer, Integer> priceById = new HashMap<>();
-  private static final Map<Integer, Integer> nameLength = new HashMap<>();
-  private static final Map<Integer, String> pluralById = new HashMap<>();
-  private static final Map<Integer, String> imageById = new HashMap<>();
-
-  private static final Map<Integer, String> nameById = new TreeMap<Integer, String>();
-  private static final Map<Integer, String> dataNameById = new HashMap<Integer, String>();
-  private static final Map<Integer, String> descriptionById = new TreeMap<Integer, String>();
+  private static final IntColumn useTypeById = new IntColumn();
+  private static final IntColumn attributesById = new IntColumn();
+  private static final IntColumn priceById = new IntColumn();
+  private static final IntColumn nameLength = new IntColumn();
+  private static final StringColumn pluralById = new StringColumn();
+  private static final StringColumn imageById = new StringColumn();
+
+  private static final StringColumn nameById = new StringColumn();
+  private static final StringColumn dataNameById = new StringColumn();
+  private static final StringColumn descriptionById = new StringColumn();
   private static final Map<String, int[]> itemIdSetByName = new HashMap<String, int[]>();
   private static final ArrayList<String> itemAliases = new ArrayList<String>();
   private static final ArrayList<String> pluralAliases = new ArrayList<String>();
@@ -180,7 +182,7 @@ public class ItemDatabase {
     return data;
   }
 
-  private static final Map<Integer, String> accessById = new HashMap<Integer, String>();
+  private static final StringColumn accessById = new StringColumn();
 
   public static final int ATTR_QUEST = 0x00000001;
   public static final int ATTR_GIFT = 0x00000002;
@@ -936,7 +938,7 @@ public class ItemDatabase {
   }
 
   public static final void registerMultiUsability(final int itemId, final boolean multi) {
-    int useType = ItemDatabase.useTypeById.getOrDefault(itemId, 0);
+    int useType = ItemDatabase.useTypeById.get(itemId);
     int attributes = ItemDatabase.getAttributes(itemId);
 
     if (multi) {
@@ -1462,7 +1464,7 @@ public class ItemDatabase {
   }
 
   public static final int getNameLength(final int itemId) {
-    return ItemDatabase.nameLength.getOrDefault(itemId, 0);
+    return ItemDatabase.nameLength.get(itemId);
   }
 
   public static final String getPluralName(final String name) {
@@ -1576,7 +1578,7 @@ public class ItemDatabase {
    * @return The price associated with the item
    */
   public static final int getPriceById(final int itemId) {
-    return ItemDatabase.priceById.getOrDefault(itemId, 0);
+    return ItemDatabase.priceById.get(itemId);
   }
 
   /**
@@ -1589,7 +1591,7 @@ public class ItemDatabase {
   }
 
   public static final int getAttributes(int itemId) {
-    return ItemDatabase.attributesById.getOrDefault(itemId, 0);
+    return ItemDatabase.attributesById.get(itemId);
   }
 
   public static final String attrsToSecondaryUsage(int attrs) {
@@ -1619,7 +1621,7 @@ public class ItemDatabase {
   }
 
   public static final boolean getAttribute(int itemId, int mask) {
-    return (ItemDatabase.attributesById.getOrDefault(itemId, 0) & mask) != 0;
+    return (ItemDatabase.attributesById.get(itemId) & mask) != 0;
   }
 
   /**
@@ -1874,7 +1876,7 @@ public class ItemDatabase {
   public static final boolean isUsable(final int itemId) {
     // Anything that you can manipulate with inv_use.php
 
-    int useType = ItemDatabase.useTypeById.getOrDefault(itemId, 0);
+    int useType = ItemDatabase.useTypeById.get(itemId);
     int attributes = ItemDatabase.getAttributes(itemId);
 
     switch (useType) {
@@ -1907,64 +1909,64 @@ public class ItemDatabase {
   }
 
   public static final boolean isPotion(final int itemId) {
-    int useType = ItemDatabase.useTypeById.getOrDefault(itemId, 0);
+    int useType = ItemDatabase.useTypeById.get(itemId);
     return (useType == KoLConstants.CONSUME_POTION || useType == KoLConstants.CONSUME_AVATAR);
   }
 
   public static final boolean isEquipment(final int itemId) {
-    int useType = ItemDatabase.useTypeById.getOrDefault(itemId, 0);
+    int useType = ItemDatabase.useTypeById.get(itemId);
     return KoLConstants.isEquipmentType(useType, true);
   }
 
   public static final boolean isFood(final int itemId) {
-    int useType = ItemDatabase.useTypeById.getOrDefault(itemId, 0);
+    int useType = ItemDatabase.useTypeById.get(itemId);
     return useType == KoLConstants.CONSUME_EAT;
   }
 
   public static final boolean isBooze(final int itemId) {
-    int useType = ItemDatabase.useTypeById.getOrDefault(itemId, 0);
+    int useType = ItemDatabase.useTypeById.get(itemId);
     return useType == KoLConstants.CONSUME_DRINK;
   }
 
   public static final boolean isHat(final int itemId) {
-    int useType = ItemDatabase.useTypeById.getOrDefault(itemId, 0);
+    int useType = ItemDatabase.useTypeById.get(itemId);
     return useType == KoLConstants.EQUIP_HAT;
   }
 
   public static final boolean isWeapon(final int itemId) {
-    int useType = ItemDatabase.useTypeById.getOrDefault(itemId, 0);
+    int useType = ItemDatabase.useTypeById.get(itemId);
     return useType == KoLConstants.EQUIP_WEAPON;
   }
 
   public static final boolean isOffHand(final int itemId) {
-    int useType = ItemDatabase.useTypeById.getOrDefault(itemId, 0);
+    int useType = ItemDatabase.useTypeById.get(itemId);
     return useType == KoLConstants.EQUIP_OFFHAND;
   }
 
   public static final boolean isShirt(final int itemId) {
-    int useType = ItemDatabase.useTypeById.getOrDefault(itemId, 0);
+    int useType = ItemDatabase.useTypeById.get(itemId);
     return useType == KoLConstants.EQUIP_SHIRT;
   }
 
   public static final boolean isPants(final int itemId) {
-    int useType = ItemDatabase.useTypeById.getOrDefault(itemId, 0);
+    int useType = ItemDatabase.useTypeById.get(itemId);
     return useType == KoLConstants.EQUIP_PANTS;
   }
 
   public static final boolean isAccessory(final int itemId) {
-    int useType = ItemDatabase.useTypeById.getOrDefault(itemId, 0);
+    int useType = ItemDatabase.useTypeById.get(itemId);
     return useType == KoLConstants.EQUIP_ACCESSORY;
   }
 
   public static final boolean isFamiliarEquipment(final int itemId) {
-    int useType = ItemDatabase.useTypeById.getOrDefault(itemId, 0);
+    int useType = ItemDatabase.useTypeById.get(itemId);
     return useType == KoLConstants.EQUIP_FAMILIAR;
   }
 
   public static final boolean isMultiUsable(final int itemId) {
     // Anything that you can manipulate with multiuse.php
 
-    int useType = ItemDatabase.useTypeById.getOrDefault(itemId, 0);
+    int useType = ItemDatabase.useTypeById.get(itemId);
     int attributes = ItemDatabase.getAttributes(itemId);
 
     switch (useType) {
@@ -1980,7 +1982,7 @@ public class ItemDatabase {
   }
 
   public static final boolean isReusable(final int itemId) {
-    int useType = ItemDatabase.useTypeById.getOrDefault(itemId, 0);
+    int useType = ItemDatabase.useTypeById.get(itemId);
     int attributes = ItemDatabase.getAttributes(itemId);
     return useType == KoLConstants.INFINITE_USES || (attributes & ItemDatabase.ATTR_REUSABLE) != 0;
   }
@@ -2078,7 +2080,7 @@ public class ItemDatabase {
    * @return The consumption associated with the item
    */
   public static final int getConsumptionType(final int itemId) {
-    return itemId <= 0 ? KoLConstants.NO_CONSUME : ItemDatabase.useTypeById.getOrDefault(itemId, 0);
+    return itemId <= 0 ? KoLConstants.NO_CONSUME : ItemDatabase.useTypeById.get(itemId);
   }
 
   public static final int getConsumptionType(final AdventureResult item) {
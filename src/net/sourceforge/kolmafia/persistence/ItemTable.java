@@ -0,0 +1,143 @@
+package net.sourceforge.kolmafia.persistence;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+/**
+ * Columns of per-item data, indexed directly by item id.
+ *
+ * <p>Item ids are small and nearly dense, so an array with a slot for every id up to the largest
+ * one takes less memory than a map from boxed ids, and a lookup is a bounds check and an array
+ * read. Columns grow when an item with a larger id than any seen so far is registered. Negative
+ * ids are never stored; looking one up finds nothing.
+ */
+final class ItemTable {
+  private static final int INITIAL_CAPACITY = 16;
+
+  private ItemTable() {}
+
+  private static int grownCapacity(final int capacity, final int id) {
+    return Math.max(id + 1, Math.max(INITIAL_CAPACITY, capacity + (capacity >> 1)));
+  }
+
+  /** A column of ints, in which items with no value have 0. */
+  static final class IntColumn {
+    private int[] values = new int[0];
+
+    int get(final int id) {
+      return id >= 0 && id < this.values.length ? this.values[id] : 0;
+    }
+
+    void put(final int id, final int value) {
+      if (id < 0) {
+        return;
+      }
+      if (id >= this.values.length) {
+        this.values = Arrays.copyOf(this.values, grownCapacity(this.values.length, id));
+      }
+      this.values[id] = value;
+    }
+  }
+
+  /** A column of strings, in which items with no value have null. */
+  static final class StringColumn {
+    private String[] values = new String[0];
+    private int size = 0;
+
+    private final Set<Integer> keySet = new ColumnSet<>(id -> id);
+    private final Set<Entry<Integer, String>> entrySet =
+        new ColumnSet<>(id -> new SimpleImmutableEntry<>(id, this.values[id]));
+
+    String get(final int id) {
+      return id >= 0 && id < this.values.length ? this.values[id] : null;
+    }
+
+    String get(final Integer id) {
+      return id == null ? null : this.get(id.intValue());
+    }
+
+    String getOrDefault(final int id, final String defaultValue) {
+      String value = this.get(id);
+      return value == null ? defaultValue : value;
+    }
+
+    void put(final int id, final String value) {
+      if (id < 0) {
+        return;
+      }
+      if (id >= this.values.length) {
+        if (value == null) {
+          return;
+        }
+        this.values = Arrays.copyOf(this.values, grownCapacity(this.values.length, id));
+      }
+      if (this.values[id] == null) {
+        if (value != null) {
+          this.size++;
+        }
+      } else if (value == null) {
+        this.size--;
+      }
+      this.values[id] = value;
+    }
+
+    /** Returns a read-only view of the ids which have values, in ascending order. */
+    Set<Integer> keySet() {
+      return this.keySet;
+    }
+
+    /** Returns a read-only view of the ids and their values, in ascending order of id. */
+    Set<Entry<Integer, String>> entrySet() {
+      return this.entrySet;
+    }
+
+    private class ColumnSet<T> extends AbstractSet<T> {
+      private final IntFunction<T> element;
+
+      ColumnSet(final IntFunction<T> element) {
+        this.element = element;
+      }
+
+      @Override
+      public int size() {
+        return StringColumn.this.size;
+      }
+
+      @Override
+      public Iterator<T> iterator() {
+        return new Iterator<>() {
+          private int next = this.advance(0);
+
+          private int advance(int id) {
+            String[] values = StringColumn.this.values;
+            while (id < values.length && values[id] == null) {
+              id++;
+            }
+            return id;
+          }
+
+          @Override
+          public boolean hasNext() {
+            return this.next < StringColumn.this.values.length;
+          }
+
+          @Override
+          public T next() {
+            if (!this.hasNext()) {
+              throw new NoSuchElementException();
+            }
+            int id = this.next;
+            this.next = this.advance(id + 1);
+            return ColumnSet.this.element.apply(id);
+          }
+        };
+      }
+    }
+  }
+}
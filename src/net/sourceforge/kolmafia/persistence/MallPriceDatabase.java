@@ -1,8 +1,11 @@
 package net.sourceforge.kolmafia.persistence;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.PrintStream;
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -12,16 +15,19 @@ import java.net.http.HttpRequest;
 import java.net.http.HttpRequest.BodyPublishers;
 import java.net.http.HttpResponse;
 import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.time.Duration;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import net.sourceforge.kolmafia.KoLConstants;
 import net.sourceforge.kolmafia.RequestLogger;
 import net.sourceforge.kolmafia.RequestThread;
 import net.sourceforge.kolmafia.StaticEntity;
+import net.sourceforge.kolmafia.preferences.Preferences;
 import net.sourceforge.kolmafia.request.GenericRequest;
 import net.sourceforge.kolmafia.session.MallPriceManager;
 import net.sourceforge.kolmafia.utilities.FileUtilities;
@@ -33,21 +39,76 @@ public class MallPriceDatabase {
   // If false, blocks saving of mall prices. Do not modify outside of tests.
   public static boolean savePricesToFile = true;
 
-  private static final Map<Integer, Price> prices = new HashMap<>();
+  // Concurrent, since MallPriceManager searches the mall from several threads at once
+  private static final Map<Integer, Price> prices = new ConcurrentHashMap<>();
   private static final HashSet<String> updated = new HashSet<>();
   private static final HashSet<String> submitted = new HashSet<>();
   private static int modCount = 0;
+  private static int writtenModCount = 0;
+
+  // Every price we have seen, not just the latest. Recorded prices are appended to this log as
+  // they come in, so mallprices.txt only needs to be rewritten now and then.
+  private static final MallPriceHistory history =
+      new MallPriceHistory(new File(KoLConstants.DATA_LOCATION, "mallprices.log"));
 
   private static final int CONNECT_TIMEOUT = 15 * 1000;
 
   static {
+    MallPriceDatabase.loadHistory();
     updatePricesFromSource("mallprices.txt");
     MallPriceDatabase.modCount = 0;
+    MallPriceDatabase.writtenModCount = 0;
   }
 
   private MallPriceDatabase() {}
 
+  private static void loadHistory() {
+    long now = MallPriceManager.currentTimeMillis() / 1000L;
+    long cutoff = now - Preferences.getInteger("mallPriceHistoryDays") * 86400L;
+    MallPriceDatabase.history.load(cutoff);
+
+    // The log may have seen prices since mallprices.txt was last written. Prices in
+    // mallprices.txt which the log has not seen are added to it as they are read.
+    for (MallPriceHistory.Observation observation : MallPriceDatabase.history.getLatest()) {
+      MallPriceDatabase.updatePrice(
+          observation.itemId(), observation.price(), Math.min(now, observation.timestamp()));
+    }
+  }
+
+  // Returns whether the price is newer than the one we had
+  private static synchronized boolean updatePrice(int id, int price, long timestamp) {
+    if (!ItemDatabase.isTradeable(id)) {
+      return false;
+    }
+
+    Price p = MallPriceDatabase.prices.get(id);
+    if (p == null) {
+      MallPriceDatabase.prices.put(id, new Price(price, timestamp));
+    } else if (timestamp > p.timestamp) {
+      p.price = price;
+      p.timestamp = timestamp;
+    } else {
+      return false;
+    }
+
+    ++MallPriceDatabase.modCount;
+    return true;
+  }
+
+  // Resolves a filename as the text price files are read, in the data directory unless absolute
+  private static File getFile(String filename) {
+    File file = new File(filename);
+    return file.isAbsolute() ? file : new File(KoLConstants.DATA_LOCATION, filename);
+  }
+
   private static int updatePricesFromSource(String filename) {
+    if (!filename.startsWith("http://") && !filename.startsWith("https://")) {
+      File file = MallPriceDatabase.getFile(filename);
+      if (file.isFile() && MallPriceDatabase.isPriceLog(file)) {
+        return MallPriceDatabase.importHistory(file);
+      }
+    }
+
     int count = 0;
     try (BufferedReader reader = FileUtilities.getReader(filename)) {
 
@@ -81,17 +142,10 @@ public class MallPriceDatabase {
           continue;
         }
 
-        if (!ItemDatabase.isTradeable(id)) continue;
-        Price p = MallPriceDatabase.prices.get(id);
-        if (p == null) {
-          MallPriceDatabase.prices.put(id, new Price(price, timestamp));
+        if (MallPriceDatabase.updatePrice(id, price, timestamp)) {
+          MallPriceDatabase.history.record(
+              id, timestamp, price, MallPriceDatabase.savePricesToFile);
           ++count;
-          ++MallPriceDatabase.modCount;
-        } else if (timestamp > p.timestamp) {
-          p.price = price;
-          p.timestamp = timestamp;
-          ++count;
-          ++MallPriceDatabase.modCount;
         }
       }
     } catch (IOException e) {
@@ -139,7 +193,12 @@ public class MallPriceDatabase {
     }
   }
 
-  public static void recordPrice(int itemId, int price, boolean deferred) {
+  /**
+   * Records a price we have just seen. It is appended to the price log straight away; deferred
+   * is kept for callers which used to choose when mallprices.txt was rewritten, which is now left
+   * to writePrices().
+   */
+  public static synchronized void recordPrice(int itemId, int price, boolean deferred) {
     long timestamp = MallPriceManager.currentTimeMillis() / 1000L;
     Price p = MallPriceDatabase.prices.get(itemId);
     if (p == null) {
@@ -149,12 +208,10 @@ public class MallPriceDatabase {
       p.timestamp = timestamp;
     }
     ++MallPriceDatabase.modCount;
-    if (!deferred) {
-      MallPriceDatabase.writePrices();
-    }
+    MallPriceDatabase.history.record(itemId, timestamp, price, MallPriceDatabase.savePricesToFile);
   }
 
-  public static void writePrices() {
+  public static synchronized void writePrices() {
     if (!MallPriceDatabase.savePricesToFile) {
       return;
     }
@@ -163,9 +220,22 @@ public class MallPriceDatabase {
     try (PrintStream writer = LogStream.openStream(output, true)) {
       writePrices(writer);
     }
+    MallPriceDatabase.writtenModCount = MallPriceDatabase.modCount;
+  }
+
+  /** Rewrites mallprices.txt if any prices have changed since it was last written. */
+  public static synchronized void writeChangedPrices() {
+    if (MallPriceDatabase.modCount != MallPriceDatabase.writtenModCount) {
+      MallPriceDatabase.writePrices();
+    }
   }
 
   static void writePrices(PrintStream writer) {
+    MallPriceDatabase.writePrices(writer, 0);
+  }
+
+  // Writes the prices seen after the given time
+  static void writePrices(PrintStream writer, long since) {
     writer.println(KoLConstants.MALLPRICES_VERSION);
 
     MallPriceDatabase.prices.entrySet().stream()
@@ -173,12 +243,59 @@ public class MallPriceDatabase {
         .forEach(
             entry -> {
               Price p = entry.getValue();
-              if (p != null) {
+              if (p != null && p.timestamp > since) {
                 writer.println(entry.getKey() + "\t" + p.timestamp + "\t" + p.price);
               }
             });
   }
 
+  private static boolean isPriceLog(File file) {
+    byte[] header = new byte[8];
+    try (InputStream in = Files.newInputStream(file.toPath())) {
+      return in.readNBytes(header, 0, header.length) == header.length
+          && MallPriceHistory.isPriceLog(header);
+    } catch (IOException e) {
+      return false;
+    }
+  }
+
+  // Adds the observations in a log written by exportHistory to our own
+  private static int importHistory(File file) {
+    try (InputStream in = Files.newInputStream(file.toPath())) {
+      return MallPriceDatabase.history.importLog(
+          in,
+          MallPriceDatabase.savePricesToFile,
+          observation ->
+              MallPriceDatabase.updatePrice(
+                  observation.itemId(), observation.price(), observation.timestamp()));
+    } catch (IOException e) {
+      RequestLogger.printLine("Failed to read " + file + ": " + e.getMessage());
+      return 0;
+    }
+  }
+
+  /**
+   * Writes every price seen in the last given number of days to a file, in the price log format.
+   * Passing that file to "update prices" on another installation adds the prices to its history.
+   */
+  public static void exportHistory(String filename, float days) {
+    if (filename.length() == 0) {
+      RequestLogger.printLine("No filename specified.");
+      return;
+    }
+
+    long now = MallPriceManager.currentTimeMillis() / 1000L;
+    long since = days > 0 ? now - (long) (days * 86400) : Long.MIN_VALUE;
+
+    File output = MallPriceDatabase.getFile(filename);
+    try (OutputStream out = Files.newOutputStream(output.toPath())) {
+      int count = MallPriceDatabase.history.export(out, since);
+      RequestLogger.printLine(count + " price" + (count != 1 ? "s" : "") + " written to " + output);
+    } catch (IOException e) {
+      RequestLogger.printLine("Failed to write " + output + ": " + e.getMessage());
+    }
+  }
+
   public static void submitPrices(String url) {
     if (url.length() == 0) {
       RequestLogger.printLine("No URL specified.");
@@ -202,13 +319,17 @@ public class MallPriceDatabase {
       return;
     }
 
+    // Only send what has changed since our last submission to this server
+    long since = MallPriceDatabase.getLastSubmission(uri);
+    long submissionTime = MallPriceManager.currentTimeMillis() / 1000L;
+
     HttpClient client =
         HttpUtilities.getClientBuilder().connectTimeout(Duration.ofMillis(CONNECT_TIMEOUT)).build();
     HttpRequest req =
         HttpRequest.newBuilder(uri)
             .header("User-Agent", GenericRequest.getUserAgent())
             .header("Content-Type", "multipart/form-data; boundary=--blahblahfishcakes")
-            .POST(BodyPublishers.ofString(getPostData()))
+            .POST(BodyPublishers.ofString(getPostData(since)))
             .build();
 
     HttpResponse<Stream<String>> res;
@@ -226,26 +347,57 @@ public class MallPriceDatabase {
     if (code == 200) {
       RequestLogger.printLine("Success: " + res.body().findFirst().orElse(""));
       MallPriceDatabase.submitted.add(url);
+      MallPriceDatabase.setLastSubmission(uri, submissionTime);
     } else {
       RequestLogger.printLine("Error " + code + ": " + res.body().collect(Collectors.joining()));
     }
   }
 
-  private static String getPostData() {
+  // The time of the last successful submission to each server is kept in lastPriceSubmissions,
+  // as comma separated host=seconds pairs. A server with none is sent every price.
+
+  static long getLastSubmission(URI uri) {
+    String host = uri.getHost();
+    if (host == null) {
+      return Long.MIN_VALUE;
+    }
+
+    for (String submission : Preferences.getString("lastPriceSubmissions").split(",")) {
+      int equals = submission.indexOf('=');
+      if (equals != -1 && submission.substring(0, equals).equalsIgnoreCase(host)) {
+        return StringUtilities.parseLong(submission.substring(equals + 1));
+      }
+    }
+    return Long.MIN_VALUE;
+  }
+
+  private static void setLastSubmission(URI uri, long time) {
+    String host = uri.getHost();
+    if (host == null) {
+      return;
+    }
+
+    StringBuilder submissions = new StringBuilder(host.toLowerCase()).append('=').append(time);
+    for (String submission : Preferences.getString("lastPriceSubmissions").split(",")) {
+      int equals = submission.indexOf('=');
+      if (equals != -1 && !submission.substring(0, equals).equalsIgnoreCase(host)) {
+        submissions.append(',').append(submission);
+      }
+    }
+    Preferences.setString("lastPriceSubmissions", submissions.toString());
+  }
+
+  private static String getPostData(long since) {
     StringBuilder builder = new StringBuilder();
     builder.append("----blahblahfishcakes\r\n");
     builder.append(
         "Content-Disposition: form-data; name=\"upload\"; filename=\"mallprices.txt\"\r\n\r\n");
 
-    try (BufferedReader reader = FileUtilities.getReader("mallprices.txt")) {
-      String line;
-      while ((line = FileUtilities.readLine(reader)) != null) {
-        builder.append(line);
-        builder.append('\n');
-      }
-    } catch (IOException e) {
-      StaticEntity.printStackTrace(e);
+    ByteArrayOutputStream data = new ByteArrayOutputStream();
+    try (PrintStream writer = new PrintStream(data, false, StandardCharsets.UTF_8)) {
+      MallPriceDatabase.writePrices(writer, since);
     }
+    builder.append(data.toString(StandardCharsets.UTF_8));
     builder.append("\r\n----blahblahfishcakes--\r\n");
     return builder.toString();
   }
@@ -255,6 +407,17 @@ public class MallPriceDatabase {
     return p == null ? 0 : p.price;
   }
 
+  /** Returns the price the item had at the given time, in seconds, or 0 if we do not know. */
+  public static int getPriceAt(int itemId, long timestamp) {
+    return MallPriceDatabase.history.getPriceAt(itemId, timestamp);
+  }
+
+  /** Returns the average price of the item over the last given number of days. */
+  public static double getAveragePrice(int itemId, float days) {
+    long now = MallPriceManager.currentTimeMillis() / 1000L;
+    return MallPriceDatabase.history.getAveragePrice(itemId, now - (long) (days * 86400), now);
+  }
+
   // Return age of price data, in fractional days
   public static float getAge(int itemId) {
     Price p = MallPriceDatabase.prices.get(itemId);
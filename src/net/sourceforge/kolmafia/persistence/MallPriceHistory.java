@@ -0,0 +1,451 @@
+package net.sourceforge.kolmafia.persistence;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Every mall price observation we have seen, kept as an append-only log.
+ *
+ * <p>The log starts with an 8 byte header (magic, version) followed by fixed size records: item
+ * id, timestamp in seconds, price, and a CRC32 of those 16 bytes. Recording a price appends a
+ * single record, rather than rewriting a file holding every price. A record torn by a crash fails
+ * its checksum, and the log is cut back to the last good record when it is next loaded.
+ *
+ * <p>Observations older than the retention period are dropped by compact(), except for the most
+ * recent one of each item. The log compacts itself when it is loaded if at least half of it could
+ * be dropped.
+ *
+ * <p>The same format, holding only the observations since a given time, is used to exchange price
+ * history with other installations.
+ */
+public class MallPriceHistory {
+  public static final int MAGIC = 0x4B4D5048; // "KMPH"
+  public static final int VERSION = 1;
+
+  private static final int HEADER_SIZE = 8;
+  private static final int RECORD_SIZE = 20;
+
+  public record Observation(int itemId, long timestamp, int price) {}
+
+  // The observations of a single item, in timestamp order
+  private static class Series {
+    long[] timestamps = new long[4];
+    int[] prices = new int[4];
+    int size = 0;
+
+    // Returns false if this exact observation is already present
+    boolean add(final long timestamp, final int price) {
+      int index = this.indexAfter(timestamp);
+      for (int i = index - 1; i >= 0 && this.timestamps[i] == timestamp; --i) {
+        if (this.prices[i] == price) {
+          return false;
+        }
+      }
+
+      if (this.size == this.timestamps.length) {
+        this.timestamps = Arrays.copyOf(this.timestamps, this.size * 2);
+        this.prices = Arrays.copyOf(this.prices, this.size * 2);
+      }
+
+      System.arraycopy(this.timestamps, index, this.timestamps, index + 1, this.size - index);
+      System.arraycopy(this.prices, index, this.prices, index + 1, this.size - index);
+      this.timestamps[index] = timestamp;
+      this.prices[index] = price;
+      this.size++;
+      return true;
+    }
+
+    // The index of the first observation later than timestamp
+    int indexAfter(final long timestamp) {
+      int low = 0;
+      int high = this.size;
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        if (this.timestamps[mid] <= timestamp) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+      return low;
+    }
+  }
+
+  private final File file;
+  private final Map<Integer, Series> history = new HashMap<>();
+  private FileChannel channel = null;
+  private int records = 0;
+
+  public MallPriceHistory(final File file) {
+    this.file = file;
+  }
+
+  public File getFile() {
+    return this.file;
+  }
+
+  /**
+   * Reads the log, discarding anything after the first damaged record, and compacts it if more
+   * than half of it is older than the retention cutoff.
+   *
+   * @return The number of observations read
+   */
+  public synchronized int load(final long cutoff) {
+    this.close();
+    this.history.clear();
+    this.records = 0;
+
+    if (!this.file.exists()) {
+      return 0;
+    }
+
+    // An unreadable header leaves nothing worth keeping; start the log over
+    long good = 0;
+    try (DataInputStream in =
+        new DataInputStream(new BufferedInputStream(Files.newInputStream(this.file.toPath())))) {
+      if (in.readInt() == MAGIC && in.readInt() == VERSION) {
+        good = HEADER_SIZE;
+
+        Observation observation;
+        while ((observation = MallPriceHistory.readRecord(in)) != null) {
+          this.add(observation);
+          this.records++;
+          good += RECORD_SIZE;
+        }
+      }
+    } catch (IOException e) {
+      // Keep whatever was read before the failure
+    }
+
+    if (good < this.file.length()) {
+      this.truncate(good);
+    }
+
+    if (this.countBefore(cutoff) * 2 >= this.records && this.records > 0) {
+      this.compact(cutoff);
+    }
+
+    return this.records;
+  }
+
+  // Returns null at the end of the stream or at the first damaged record
+  private static Observation readRecord(final DataInputStream in) throws IOException {
+    byte[] record = new byte[RECORD_SIZE];
+    try {
+      in.readFully(record);
+    } catch (EOFException e) {
+      return null;
+    }
+
+    ByteBuffer buffer = ByteBuffer.wrap(record);
+    int itemId = buffer.getInt();
+    long timestamp = buffer.getLong();
+    int price = buffer.getInt();
+    int checksum = buffer.getInt();
+
+    if (checksum != MallPriceHistory.checksum(record)) {
+      return null;
+    }
+
+    return new Observation(itemId, timestamp, price);
+  }
+
+  private static int checksum(final byte[] record) {
+    CRC32 crc = new CRC32();
+    crc.update(record, 0, RECORD_SIZE - 4);
+    return (int) crc.getValue();
+  }
+
+  private static byte[] toRecord(final Observation observation) {
+    ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE);
+    buffer.putInt(observation.itemId());
+    buffer.putLong(observation.timestamp());
+    buffer.putInt(observation.price());
+    buffer.putInt(MallPriceHistory.checksum(buffer.array()));
+    return buffer.array();
+  }
+
+  private boolean add(final Observation observation) {
+    return this.history
+        .computeIfAbsent(observation.itemId(), k -> new Series())
+        .add(observation.timestamp(), observation.price());
+  }
+
+  /**
+   * Adds an observation to the history and appends it to the log.
+   *
+   * @return false if the observation was already known
+   */
+  public boolean record(final int itemId, final long timestamp, final int price) {
+    return this.record(itemId, timestamp, price, true);
+  }
+
+  /**
+   * Adds an observation to the history, appending it to the log only if asked to.
+   *
+   * @return false if the observation was already known
+   */
+  public synchronized boolean record(
+      final int itemId, final long timestamp, final int price, final boolean append) {
+    Observation observation = new Observation(itemId, timestamp, price);
+    if (!this.add(observation)) {
+      return false;
+    }
+
+    if (append) {
+      try {
+        this.append(MallPriceHistory.toRecord(observation));
+      } catch (IOException e) {
+        // The observation is still available for the rest of the session
+        this.close();
+      }
+    }
+    return true;
+  }
+
+  private void append(final byte[] record) throws IOException {
+    if (this.channel == null) {
+      File directory = this.file.getAbsoluteFile().getParentFile();
+      if (directory != null) {
+        Files.createDirectories(directory.toPath());
+      }
+      this.channel =
+          FileChannel.open(
+              this.file.toPath(),
+              StandardOpenOption.CREATE,
+              StandardOpenOption.WRITE,
+              StandardOpenOption.APPEND);
+      if (this.channel.size() == 0) {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).flip();
+        this.channel.write(header);
+      }
+    }
+
+    ByteBuffer buffer = ByteBuffer.wrap(record);
+    while (buffer.hasRemaining()) {
+      this.channel.write(buffer);
+    }
+    this.records++;
+  }
+
+  public synchronized void close() {
+    if (this.channel == null) {
+      return;
+    }
+
+    try {
+      this.channel.close();
+    } catch (IOException e) {
+      // Nothing more to write anyway
+    }
+    this.channel = null;
+  }
+
+  private void truncate(final long size) {
+    try (FileChannel truncated =
+        FileChannel.open(this.file.toPath(), StandardOpenOption.WRITE)) {
+      truncated.truncate(size);
+    } catch (IOException e) {
+      // The damaged tail will be skipped again next time
+    }
+  }
+
+  private int countBefore(final long cutoff) {
+    int count = 0;
+    for (Series series : this.history.values()) {
+      // The latest observation of each item is always kept
+      count += Math.min(series.indexAfter(cutoff - 1), series.size - 1);
+    }
+    return count;
+  }
+
+  /**
+   * Drops every observation older than cutoff, other than the latest of each item, and rewrites
+   * the log to hold only what is left.
+   */
+  public synchronized void compact(final long cutoff) {
+    for (Series series : this.history.values()) {
+      int drop = Math.min(series.indexAfter(cutoff - 1), series.size - 1);
+      if (drop > 0) {
+        series.size -= drop;
+        System.arraycopy(series.timestamps, drop, series.timestamps, 0, series.size);
+        System.arraycopy(series.prices, drop, series.prices, 0, series.size);
+      }
+    }
+
+    this.close();
+
+    File compacted = new File(this.file.getPath() + ".tmp");
+    try {
+      try (OutputStream out = Files.newOutputStream(compacted.toPath())) {
+        this.records = this.write(out, Long.MIN_VALUE);
+      }
+      Files.move(
+          compacted.toPath(),
+          this.file.toPath(),
+          StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      compacted.delete();
+    }
+  }
+
+  /**
+   * Writes every observation made after the given time, in log format, for another installation to
+   * import.
+   *
+   * @return The number of observations written
+   */
+  public synchronized int export(final OutputStream out, final long since) throws IOException {
+    return this.write(out, since);
+  }
+
+  private int write(final OutputStream out, final long since) throws IOException {
+    DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+    data.writeInt(MAGIC);
+    data.writeInt(VERSION);
+
+    int count = 0;
+    for (Map.Entry<Integer, Series> entry : this.history.entrySet()) {
+      Series series = entry.getValue();
+      for (int i = series.indexAfter(since); i < series.size; ++i) {
+        Observation observation =
+            new Observation(entry.getKey(), series.timestamps[i], series.prices[i]);
+        data.write(MallPriceHistory.toRecord(observation));
+        count++;
+      }
+    }
+
+    data.flush();
+    return count;
+  }
+
+  /** Returns whether the stream starts like a price log. */
+  public static boolean isPriceLog(final byte[] header) {
+    return header.length >= HEADER_SIZE && ByteBuffer.wrap(header).getInt() == MAGIC;
+  }
+
+  /**
+   * Records every observation in an exported log which is not already known. Reading stops at the
+   * first damaged record.
+   *
+   * @param append Whether to add the new observations to the log
+   * @param accept Called with each new observation
+   * @return The number of new observations
+   */
+  public int importLog(
+      final InputStream in, final boolean append, final Consumer<Observation> accept)
+      throws IOException {
+    DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+    if (data.readInt() != MAGIC || data.readInt() != VERSION) {
+      throw new IOException("not a compatible price log");
+    }
+
+    int count = 0;
+    Observation observation;
+    while ((observation = MallPriceHistory.readRecord(data)) != null) {
+      if (this.record(
+          observation.itemId(), observation.timestamp(), observation.price(), append)) {
+        accept.accept(observation);
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /** Returns the latest observation of every item. */
+  public synchronized List<Observation> getLatest() {
+    List<Observation> latest = new ArrayList<>(this.history.size());
+    for (Map.Entry<Integer, Series> entry : this.history.entrySet()) {
+      Series series = entry.getValue();
+      if (series.size > 0) {
+        int last = series.size - 1;
+        latest.add(
+            new Observation(entry.getKey(), series.timestamps[last], series.prices[last]));
+      }
+    }
+    return latest;
+  }
+
+  /** Returns the price the item had at the given time, or 0 if it had not been seen by then. */
+  public synchronized int getPriceAt(final int itemId, final long timestamp) {
+    Series series = this.history.get(itemId);
+    if (series == null) {
+      return 0;
+    }
+
+    int index = series.indexAfter(timestamp) - 1;
+    return index < 0 ? 0 : series.prices[index];
+  }
+
+  /**
+   * Returns the average of the item's prices between start and end, each weighted by how long it
+   * stood. A price seen before start counts from start. Returns 0 if the item had not been seen by
+   * end.
+   */
+  public synchronized double getAveragePrice(final int itemId, final long start, final long end) {
+    Series series = this.history.get(itemId);
+    if (series == null || end < start) {
+      return 0;
+    }
+
+    int first = Math.max(series.indexAfter(start) - 1, 0);
+    int last = series.indexAfter(end);
+    if (first >= last) {
+      return 0;
+    }
+
+    if (end == start) {
+      return series.prices[last - 1];
+    }
+
+    double total = 0;
+    long from = Math.max(start, series.timestamps[first]);
+    for (int i = first; i < last; ++i) {
+      long until = i + 1 < last ? series.timestamps[i + 1] : end;
+      total += (double) series.prices[i] * (until - from);
+      from = until;
+    }
+
+    long span = end - Math.max(start, series.timestamps[first]);
+    return span > 0 ? total / span : series.prices[last - 1];
+  }
+
+  /** Returns the observations of the item between start and end, inclusive. */
+  public synchronized List<Observation> getObservations(
+      final int itemId, final long start, final long end) {
+    List<Observation> observations = new ArrayList<>();
+    Series series = this.history.get(itemId);
+    if (series == null) {
+      return observations;
+    }
+
+    for (int i = series.indexAfter(start - 1); i < series.size; ++i) {
+      if (series.timestamps[i] > end) {
+        break;
+      }
+      observations.add(new Observation(itemId, series.timestamps[i], series.prices[i]));
+    }
+    return observations;
+  }
+}
@@ -1,5 +1,6 @@
 package net.sourceforge.kolmafia.persistence;
 
+import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
@@ -96,12 +97,7 @@ public class ProfileSnapshot {
 
   public static final void applyFilter(
       final int matchType, final int filterType, final String filter) {
-    // First, if you haven't retrieved a detailed
-    // roster for the clan, do so.
-
-    if (ProfileSnapshot.request.responseText == null) {
-      RequestThread.postRequest(ProfileSnapshot.request);
-    }
+    ProfileSnapshot.retrieveRoster();
 
     ProfileSnapshot.filterList.clear();
     ArrayList<ProfileRequest> interimList = new ArrayList<ProfileRequest>();
@@ -130,6 +126,24 @@ public class ProfileSnapshot {
     KoLmafia.updateDisplay("Search results rendered.");
   }
 
+  private static void retrieveRoster() {
+    // If you haven't retrieved a detailed roster
+    // for the clan, do so.
+
+    if (ProfileSnapshot.request.responseText == null) {
+      RequestThread.postRequest(ProfileSnapshot.request);
+    }
+  }
+
+  /**
+   * Returns the number of times a member has ascended, according to the detailed clan roster, or
+   * -1 if the roster does not say.
+   */
+  public static final int getRosterAscensions(final String name) {
+    ProfileSnapshot.retrieveRoster();
+    return ProfileRequest.getRosterAscensions(ProfileSnapshot.rosterMap.get(name.toLowerCase()));
+  }
+
   private static ProfileRequest getProfile(final String name) {
     return ProfileRequest.getInstance(
         name,
@@ -186,124 +200,123 @@ public class ProfileSnapshot {
     return Integer.compare(compareValue, 0);
   }
 
-  public static final String getStandardData(final boolean localProfileLink) {
-    // First, if you haven't retrieved a detailed
-    // roster for the clan, do so.
-
-    if (ProfileSnapshot.request.responseText == null) {
-      RequestThread.postRequest(ProfileSnapshot.request);
-    }
+  /**
+   * Writes the clan snapshot to a stream as it is generated, reading each member's profile only
+   * once.
+   */
+  public static final void writeStandardData(
+      final PrintStream ostream, final boolean localProfileLink) {
+    ProfileSnapshot.retrieveRoster();
 
     String[] members = new String[ProfileSnapshot.profileMap.size()];
     ProfileSnapshot.profileMap.keySet().toArray(members);
 
-    StringBuilder strbuf = new StringBuilder();
+    ProfileRequest[] profiles = new ProfileRequest[members.length];
+    for (int i = 0; i < members.length; ++i) {
+      profiles[i] = ProfileSnapshot.getProfile(members[i]);
+    }
 
-    strbuf.append("<html><head>");
-    strbuf.append("<meta http-equiv=\"Content-Type\" content=\"text/html; charset=UTF-8\">");
+    ostream.print("<html><head>");
+    ostream.print("<meta http-equiv=\"Content-Type\" content=\"text/html; charset=UTF-8\">");
 
     String clanName = ClanManager.getClanName(true);
 
-    strbuf.append("<title>Clan Snapshot for ");
-    strbuf.append(clanName);
+    ostream.print("<title>Clan Snapshot for ");
+    ostream.print(clanName);
 
-    strbuf.append(", Clan #");
-    strbuf.append(ClanManager.getClanId());
-    strbuf.append(" (");
-    strbuf.append(new Date());
-    strbuf.append(")</title>");
-    strbuf.append(KoLConstants.LINE_BREAK);
+    ostream.print(", Clan #");
+    ostream.print(ClanManager.getClanId());
+    ostream.print(" (");
+    ostream.print(new Date());
+    ostream.print(")</title>");
+    ostream.print(KoLConstants.LINE_BREAK);
 
-    strbuf.append("<script language=\"Javascript\" src=\"");
-    strbuf.append(KoLConstants.SORTTABLE_JS);
-    strbuf.append("\"></script>");
-    strbuf.append(KoLConstants.LINE_BREAK);
+    ostream.print("<script language=\"Javascript\" src=\"");
+    ostream.print(KoLConstants.SORTTABLE_JS);
+    ostream.print("\"></script>");
+    ostream.print(KoLConstants.LINE_BREAK);
 
-    strbuf.append("<style> body, td { font-family: sans-serif; } </style></head>");
-    strbuf.append(KoLConstants.LINE_BREAK);
-    strbuf.append("<body>");
-    strbuf.append(KoLConstants.LINE_BREAK);
-    strbuf.append(KoLConstants.LINE_BREAK);
+    ostream.print("<style> body, td { font-family: sans-serif; } </style></head>");
+    ostream.print(KoLConstants.LINE_BREAK);
+    ostream.print("<body>");
+    ostream.print(KoLConstants.LINE_BREAK);
+    ostream.print(KoLConstants.LINE_BREAK);
 
-    strbuf.append("<h2>");
-    strbuf.append(clanName);
-    strbuf.append("</h2>");
-    strbuf.append(KoLConstants.LINE_BREAK);
+    ostream.print("<h2>");
+    ostream.print(clanName);
+    ostream.print("</h2>");
+    ostream.print(KoLConstants.LINE_BREAK);
 
     ArrayList<String> rankList = new ArrayList<String>();
 
-    ProfileRequest memberLookup;
-    for (int i = 0; i < members.length; ++i) {
-      memberLookup = ProfileSnapshot.getProfile(members[i]);
+    for (ProfileRequest memberLookup : profiles) {
       rankList.add(memberLookup.getRank());
     }
 
     Collections.sort(rankList);
-    strbuf.append(KoLDatabase.getBreakdown(rankList));
+    ostream.print(KoLDatabase.getBreakdown(rankList));
 
-    strbuf.append(
+    ostream.print(
         "<center><br><br><table class=\"sortable\" id=\"overview\" border=0 cellspacing=0 cellpadding=10>");
-    strbuf.append(KoLConstants.LINE_BREAK);
-    strbuf.append("<tr style=\"font-weight: bold\"><td>Name</td>");
+    ostream.print(KoLConstants.LINE_BREAK);
+    ostream.print("<tr style=\"font-weight: bold\"><td>Name</td>");
 
-    strbuf.append(ProfileSnapshot.getOverviewHeader());
-    strbuf.append(KoLConstants.LINE_BREAK);
+    ostream.print(ProfileSnapshot.getOverviewHeader());
+    ostream.print(KoLConstants.LINE_BREAK);
 
     for (int i = 0; i < members.length; ++i) {
-      strbuf.append(ProfileSnapshot.getOverviewDetail(members[i], localProfileLink));
-      strbuf.append(KoLConstants.LINE_BREAK);
+      ostream.print(ProfileSnapshot.getOverviewDetail(members[i], profiles[i], localProfileLink));
+      ostream.print(KoLConstants.LINE_BREAK);
     }
 
-    strbuf.append("</table>");
+    ostream.print("</table>");
 
-    strbuf.append("<br><br><hr width=80%><br><br>");
+    ostream.print("<br><br><hr width=80%><br><br>");
 
-    strbuf.append(ProfileSnapshot.getStatsSummary(members));
-    strbuf.append(KoLConstants.LINE_BREAK);
+    ostream.print(ProfileSnapshot.getStatsSummary(profiles));
+    ostream.print(KoLConstants.LINE_BREAK);
 
-    strbuf.append(
+    ostream.print(
         "<br><br><table class=\"sortable\" id=\"stats\" border=0 cellspacing=0 cellpadding=10>");
-    strbuf.append(KoLConstants.LINE_BREAK);
-    strbuf.append("<tr style=\"font-weight: bold\"><td>Name</td>");
+    ostream.print(KoLConstants.LINE_BREAK);
+    ostream.print("<tr style=\"font-weight: bold\"><td>Name</td>");
 
-    strbuf.append(ProfileSnapshot.getStatsHeader());
-    strbuf.append(KoLConstants.LINE_BREAK);
+    ostream.print(ProfileSnapshot.getStatsHeader());
+    ostream.print(KoLConstants.LINE_BREAK);
 
     for (int i = 0; i < members.length; ++i) {
-      strbuf.append(ProfileSnapshot.getStatsDetail(members[i], localProfileLink));
-      strbuf.append(KoLConstants.LINE_BREAK);
+      ostream.print(ProfileSnapshot.getStatsDetail(members[i], profiles[i], localProfileLink));
+      ostream.print(KoLConstants.LINE_BREAK);
     }
 
-    strbuf.append("</table>");
+    ostream.print("</table>");
 
-    strbuf.append("<br><br><hr width=80%><br><br>");
+    ostream.print("<br><br><hr width=80%><br><br>");
 
-    strbuf.append(ProfileSnapshot.getSocialSummary(members));
-    strbuf.append(KoLConstants.LINE_BREAK);
+    ostream.print(ProfileSnapshot.getSocialSummary(profiles));
+    ostream.print(KoLConstants.LINE_BREAK);
 
-    strbuf.append(
+    ostream.print(
         "<br><br><table class=\"sortable\" id=\"social\" border=0 cellspacing=0 cellpadding=10>");
-    strbuf.append(KoLConstants.LINE_BREAK);
-    strbuf.append("<tr style=\"font-weight: bold\"><td>Name</td>");
+    ostream.print(KoLConstants.LINE_BREAK);
+    ostream.print("<tr style=\"font-weight: bold\"><td>Name</td>");
 
-    strbuf.append(ProfileSnapshot.getSocialHeader());
-    strbuf.append(KoLConstants.LINE_BREAK);
+    ostream.print(ProfileSnapshot.getSocialHeader());
+    ostream.print(KoLConstants.LINE_BREAK);
 
     for (int i = 0; i < members.length; ++i) {
-      strbuf.append(ProfileSnapshot.getSocialDetail(members[i], localProfileLink));
-      strbuf.append(KoLConstants.LINE_BREAK);
+      ostream.print(ProfileSnapshot.getSocialDetail(members[i], profiles[i], localProfileLink));
+      ostream.print(KoLConstants.LINE_BREAK);
     }
 
-    strbuf.append("</table>");
-
-    strbuf.append("</center></body></html>");
-    strbuf.append(KoLConstants.LINE_BREAK);
+    ostream.print("</table>");
 
-    return strbuf.toString();
+    ostream.print("</center></body></html>");
+    ostream.print(KoLConstants.LINE_BREAK);
   }
 
-  private static String getOverviewDetail(final String memberName, final boolean localProfileLink) {
-    ProfileRequest memberLookup = ProfileSnapshot.getProfile(memberName);
+  private static String getOverviewDetail(
+      final String memberName, final ProfileRequest memberLookup, final boolean localProfileLink) {
     StringBuilder strbuf = new StringBuilder();
 
     // No matter what happens, you need to make sure
@@ -378,7 +391,7 @@ public class ProfileSnapshot {
         + "<td align=center>Turns</td><td align=center>Ascended</td><td align=center>Logged In</td>";
   }
 
-  private static String getStatsSummary(final String[] members) {
+  private static String getStatsSummary(final ProfileRequest[] profiles) {
     StringBuilder strbuf = new StringBuilder();
 
     ArrayList<String> classList = new ArrayList<String>();
@@ -396,11 +409,7 @@ public class ProfileSnapshot {
     // Iterate through the list of clan members
     // and populate the lists.
 
-    ProfileRequest memberLookup;
-
-    for (int i = 0; i < members.length; ++i) {
-      memberLookup = ProfileSnapshot.getProfile(members[i]);
-
+    for (ProfileRequest memberLookup : profiles) {
       classList.add(memberLookup.getClassType());
       // meatList.add( memberLookup.getCurrentMeat() );
       turnsList.add(memberLookup.getTurnsPlayed());
@@ -514,8 +523,8 @@ public class ProfileSnapshot {
     return strbuf.toString();
   }
 
-  private static String getStatsDetail(final String memberName, final boolean localProfileLink) {
-    ProfileRequest memberLookup = ProfileSnapshot.getProfile(memberName);
+  private static String getStatsDetail(
+      final String memberName, final ProfileRequest memberLookup, final boolean localProfileLink) {
     StringBuilder strbuf = new StringBuilder();
 
     // No matter what happens, you need to make sure
@@ -603,17 +612,13 @@ public class ProfileSnapshot {
     return "<td align=center>Path</td><td align=center>Class</td><td align=center>Lv</td><td>PvP</td><td align=center>Mus</td><td align=center>Mys</td><td align=center>Mox</td><td align=center>Total Turns</td><td align=center>Asc</td>";
   }
 
-  private static String getSocialSummary(final String[] members) {
+  private static String getSocialSummary(final ProfileRequest[] profiles) {
     StringBuilder strbuf = new StringBuilder();
 
     ArrayList<String> foodList = new ArrayList<String>();
     ArrayList<String> drinkList = new ArrayList<String>();
 
-    ProfileRequest memberLookup;
-
-    for (int i = 0; i < members.length; ++i) {
-      memberLookup = ProfileSnapshot.getProfile(members[i]);
-
+    for (ProfileRequest memberLookup : profiles) {
       foodList.add(memberLookup.getFood());
       drinkList.add(memberLookup.getDrink());
     }
@@ -635,8 +640,8 @@ public class ProfileSnapshot {
     return strbuf.toString();
   }
 
-  private static String getSocialDetail(final String memberName, final boolean localProfileLink) {
-    ProfileRequest memberLookup = ProfileSnapshot.getProfile(memberName);
+  private static String getSocialDetail(
+      final String memberName, final ProfileRequest memberLookup, final boolean localProfileLink) {
     StringBuilder strbuf = new StringBuilder();
 
     // No matter what happens, you need to make sure
@@ -677,6 +682,6 @@ public class ProfileSnapshot {
   }
 
   public static final void addToRoster(final String name, final String row) {
-    ProfileSnapshot.rosterMap.put(name, row);
+    ProfileSnapshot.rosterMap.put(name.toLowerCase(), row);
   }
 }
@@ -20,6 +20,7 @@ import java.util.SortedMap;
 import java.util.TreeMap;
 import java.util.TreeSet;
 import net.java.dev.spellcast.utilities.DataUtilities;
+import net.sourceforge.kolmafia.Expression;
 import net.sourceforge.kolmafia.KoLCharacter;
 import net.sourceforge.kolmafia.KoLConstants;
 import net.sourceforge.kolmafia.RequestLogger;
@@ -532,6 +533,7 @@ public class Preferences {
           Preferences.saveToFile(Preferences.userPropertiesFile, Preferences.userValues);
           Preferences.userPropertiesFile = null;
           Preferences.userValues.clear();
+          Expression.invalidate(Expression.Dependency.PREFERENCES);
         }
 
         return;
@@ -622,6 +624,9 @@ public class Preferences {
       // System.out.println( "Adding new built-in user setting: " + key );
       Preferences.userValues.put(key, value);
     }
+
+    // Only now, so that nothing cached while loading outlives the load
+    Expression.invalidate(Expression.Dependency.PREFERENCES);
   }
 
   private static Properties loadPreferences(File file) {
@@ -747,6 +752,7 @@ public class Preferences {
         // globalValues is a synchronized map.
 
         Preferences.globalValues.remove(name);
+        Expression.invalidate(Expression.Dependency.PREFERENCES);
         if (Preferences.getBoolean("saveSettingsOnSet")) {
           Preferences.saveToFile(Preferences.globalPropertiesFile, Preferences.globalValues);
         }
@@ -757,6 +763,7 @@ public class Preferences {
         // userValues is a synchronized map.
 
         Preferences.userValues.remove(name);
+        Expression.invalidate(Expression.Dependency.PREFERENCES);
         if (Preferences.getBoolean("saveSettingsOnSet")) {
           Preferences.saveToFile(Preferences.userPropertiesFile, Preferences.userValues);
         }
@@ -1076,6 +1083,7 @@ public class Preferences {
       }
     }
 
+    Expression.invalidate(Expression.Dependency.PREFERENCES);
     PreferenceListenerRegistry.firePreferenceChanged(name);
 
     if (name.startsWith("choiceAdventure")) {
@@ -0,0 +1,467 @@
+package net.sourceforge.kolmafia.request;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The markers on a fight page which every combat round looks for, found in a single pass.
+ *
+ * <p>Each round of combat used to scan the whole page, or the part of it for one macro action,
+ * once for each thing it wanted to know: the round KoL thinks it is, whether the fight was won,
+ * whether there is still a way to attack, what was gained, and so on. Instead, the page is
+ * tokenized once, and each marker becomes an event with its position, which can be counted or
+ * looked up within any part of the page.
+ *
+ * <p>Markers are matched exactly as the patterns they replace did, wherever they appear in the
+ * page. Gains, stat changes, monster health and damage also carry what they are about: the name of
+ * the item, effect, stat or estimate, and the amount.
+ */
+final class FightPage {
+  enum Marker {
+    // onturn = 3
+    ONTURN,
+    // <!--WINWINWIN-->
+    WIN,
+    // action=fight.php
+    FIGHT_ACTION,
+    // action="fight.php"
+    QUOTED_FIGHT_ACTION,
+    // action=fambattle.php
+    FAMBATTLE_ACTION,
+    // (show old combat form)
+    OLD_COMBAT_FORM,
+    // href="/fight.php
+    FIGHT_LINK,
+    // href="choice.php
+    CHOICE_LINK,
+    // discomo3.gif
+    DISCO_MOMENTUM,
+    // Macro Abort, Could not match item(s) for use
+    MACRO_ABORT,
+    // You acquire an item: <b>name</b>
+    ITEM_GAIN,
+    // You acquire an effect: <b>name</b><br>(duration: 5 Adventures)
+    EFFECT_GAIN,
+    // You gain 5 Meat., You lose 3 hit points., You absorb 5 Soulsauce, and path resources
+    STAT_CHANGE,
+    // Opponent HP: 30, I deduce that this monster has approximately 30 hit points
+    MONSTER_HP,
+    // 12 (<b>+3</b>) damage
+    DAMAGE
+  }
+
+  /**
+   * A marker found in the page, from start to end. The value is the round for ONTURN, the momentum
+   * for DISCO_MOMENTUM, the duration of an effect, the amount of a stat change (negative if it is
+   * lost), the estimated health of the monster, or the damage including any bonus damage. The name
+   * is that of the item, effect, stat, or health estimate, if the marker has one.
+   */
+  record Event(Marker marker, int start, int end, int value, String name) {}
+
+  private static final String[] MACRO_ABORTS = {
+    "Macro Abort", "Macro abort", "macro abort", "Could not match item(s) for use"
+  };
+
+  private final String text;
+  private final List<Event> events = new ArrayList<>();
+  // The end of the last damage found, since a regex would not find another within it
+  private int damageEnd = 0;
+
+  private FightPage(final String text) {
+    this.text = text;
+  }
+
+  static FightPage scan(final String text) {
+    FightPage page = new FightPage(text);
+    page.tokenize();
+    return page;
+  }
+
+  String getText() {
+    return this.text;
+  }
+
+  List<Event> getEvents() {
+    return this.events;
+  }
+
+  /** Returns the first event for a marker, or null if there is none. */
+  Event first(final Marker marker) {
+    for (Event event : this.events) {
+      if (event.marker() == marker) {
+        return event;
+      }
+    }
+    return null;
+  }
+
+  boolean contains(final Marker marker) {
+    return this.first(marker) != null;
+  }
+
+  /**
+   * Returns the first event for a marker with the given name which lies entirely within [start,
+   * end), or null if there is none. A null name matches any event.
+   */
+  Event first(final Marker marker, final String name, final int start, final int end) {
+    for (Event event : this.events) {
+      if (event.marker() == marker
+          && event.start() >= start
+          && event.end() <= end
+          && (name == null || name.equals(event.name()))) {
+        return event;
+      }
+    }
+    return null;
+  }
+
+  Event first(final Marker marker, final String name) {
+    return this.first(marker, name, 0, this.text.length());
+  }
+
+  /** Returns the number of events for a marker which lie entirely within [start, end). */
+  int count(final Marker marker, final int start, final int end) {
+    int count = 0;
+    for (Event event : this.events) {
+      if (event.marker() == marker && event.start() >= start && event.end() <= end) {
+        ++count;
+      }
+    }
+    return count;
+  }
+
+  boolean contains(final Marker marker, final int start, final int end) {
+    return this.count(marker, start, end) > 0;
+  }
+
+  private void tokenize() {
+    String text = this.text;
+    int length = text.length();
+
+    // Every position is tried, so markers are found even where one overlaps another
+    for (int i = 0; i < length; ++i) {
+      switch (text.charAt(i)) {
+        case '<' -> this.win(i);
+        case 'a' -> this.action(i);
+        case 'h' -> this.link(i);
+        case 'o' -> this.onturn(i);
+        case 'd' -> this.discoMomentum(i);
+        case '(' -> this.literal(i, "(show old combat form)", Marker.OLD_COMBAT_FORM);
+        case 'M', 'm', 'C' -> this.macroAbort(i);
+        case 'Y' -> this.youGain(i);
+        case 's' -> this.resource(i, "swallow <b>", "</b> dB of it", "Thunder");
+        case 'r' -> this.recovering(i);
+        case 'O' -> this.monsterHP(i, "Opponent HP: ", "", "toy space helmet");
+        case 'I' -> this.deduction(i);
+        case '0', '1', '2', '3', '4', '5', '6', '7', '8', '9' -> this.damage(i);
+        default -> {}
+      }
+    }
+  }
+
+  // Each of these returns the end of the marker at the given position, or -1 if there is none
+
+  private int add(final Marker marker, final int start, final int end, final int value) {
+    return this.add(marker, start, end, value, null);
+  }
+
+  private int add(
+      final Marker marker, final int start, final int end, final int value, final String name) {
+    this.events.add(new Event(marker, start, end, value, name));
+    return end;
+  }
+
+  private int literal(final int start, final String literal, final Marker marker) {
+    return this.text.startsWith(literal, start)
+        ? this.add(marker, start, start + literal.length(), 0)
+        : -1;
+  }
+
+  private int win(final int start) {
+    return this.literal(start, "<!--WINWINWIN-->", Marker.WIN);
+  }
+
+  private int action(final int start) {
+    if (!this.text.startsWith("action=", start)) {
+      return -1;
+    }
+
+    int i = start + 7;
+    if (this.text.startsWith("\"fight.php\"", i)) {
+      return this.add(Marker.QUOTED_FIGHT_ACTION, start, i + 11, 0);
+    }
+    if (this.text.startsWith("fambattle.php", i)) {
+      return this.add(Marker.FAMBATTLE_ACTION, start, i + 13, 0);
+    }
+    // As in the pattern "action=fight.php", the dot is any character but a line terminator
+    if (this.matches(i, "fight", "php")) {
+      return this.add(Marker.FIGHT_ACTION, start, i + 9, 0);
+    }
+    return -1;
+  }
+
+  // href="?/?fight.php or href="?choice.php
+  private int link(final int start) {
+    if (!this.text.startsWith("href=", start)) {
+      return -1;
+    }
+
+    int i = start + 5;
+    if (this.at(i, '"')) {
+      ++i;
+    }
+    if (this.matches(i, "choice", "php")) {
+      return this.add(Marker.CHOICE_LINK, start, i + 10, 0);
+    }
+    if (this.at(i, '/')) {
+      ++i;
+    }
+    if (this.matches(i, "fight", "php")) {
+      return this.add(Marker.FIGHT_LINK, start, i + 9, 0);
+    }
+    return -1;
+  }
+
+  // onturn = (\d+)
+  private int onturn(final int start) {
+    if (!this.text.startsWith("onturn = ", start)) {
+      return -1;
+    }
+
+    int i = start + 9;
+    int digits = this.digits(i);
+    if (digits == i) {
+      return -1;
+    }
+    return this.add(Marker.ONTURN, start, digits, this.parse(i, digits));
+  }
+
+  // discomo(\d).gif
+  private int discoMomentum(final int start) {
+    if (!this.text.startsWith("discomo", start)) {
+      return -1;
+    }
+
+    int i = start + 7;
+    if (this.digits(i) == i || !this.anyAt(i + 1) || !this.text.startsWith("gif", i + 2)) {
+      return -1;
+    }
+    return this.add(Marker.DISCO_MOMENTUM, start, i + 5, this.text.charAt(i) - '0');
+  }
+
+  private int macroAbort(final int start) {
+    for (String abort : MACRO_ABORTS) {
+      int end = this.literal(start, abort, Marker.MACRO_ABORT);
+      if (end != -1) {
+        return end;
+      }
+    }
+    return -1;
+  }
+
+  private int youGain(final int start) {
+    if (this.text.startsWith("You acquire an item", start)) {
+      return this.acquire(start, start + 19, Marker.ITEM_GAIN);
+    }
+    if (this.text.startsWith("You acquire an effect", start)) {
+      return this.acquire(start, start + 21, Marker.EFFECT_GAIN);
+    }
+    if (this.text.startsWith("You gain ", start)) {
+      return this.statChange(start, start + 9, 1);
+    }
+    if (this.text.startsWith("You lose ", start)) {
+      return this.statChange(start, start + 9, -1);
+    }
+    return this.resource(start, "You absorb ", " Soulsauce", "Soulsauce");
+  }
+
+  // You acquire an item, with the name if it follows as ": <b>name</b>"
+  private int acquire(final int start, final int end, final Marker marker) {
+    String name = null;
+    int duration = 0;
+    int close = -1;
+    if (this.text.startsWith(": <b>", end)) {
+      close = this.text.indexOf("</b>", end + 5);
+    }
+    if (close != -1) {
+      name = this.text.substring(end + 5, close);
+
+      // <br>(duration: 5 Adventures)
+      int i = close + 4;
+      if (this.text.startsWith("<br>", i)) {
+        i += 4;
+      }
+      if (marker == Marker.EFFECT_GAIN && this.text.startsWith("(duration: ", i)) {
+        int digits = this.digits(i + 11);
+        duration = this.parse(i + 11, digits);
+      }
+    }
+    return this.add(marker, start, end, duration, name);
+  }
+
+  // You (gain|lose) (\d[\d,]*) name, where the name runs to the end of the sentence
+  private int statChange(final int start, final int i, final int sign) {
+    int digits = this.number(i);
+    if (digits == i || !this.at(digits, ' ')) {
+      return -1;
+    }
+
+    int nameStart = digits + 1;
+    int nameEnd = nameStart;
+    while (nameEnd < this.text.length() && ".!<\n".indexOf(this.text.charAt(nameEnd)) == -1) {
+      ++nameEnd;
+    }
+    String name = this.text.substring(nameStart, nameEnd);
+    return this.add(Marker.STAT_CHANGE, start, nameStart, sign * this.parse(i, digits), name);
+  }
+
+  // prefix(\d+)suffix, for the resources of a path
+  private int resource(
+      final int start, final String prefix, final String suffix, final String name) {
+    if (!this.text.startsWith(prefix, start)) {
+      return -1;
+    }
+
+    int i = start + prefix.length();
+    int digits = this.digits(i);
+    if (digits == i || !this.text.startsWith(suffix, digits)) {
+      return -1;
+    }
+    return this.add(
+        Marker.STAT_CHANGE, start, digits + suffix.length(), this.parse(i, digits), name);
+  }
+
+  private int recovering(final int start) {
+    int end = this.resource(start, "recovering <b>", "</b> drops", "Rain");
+    return end != -1 ? end : this.resource(start, "recovering <b>", "</b> bolts", "Lightning");
+  }
+
+  // prefix(\d+)suffix, for an estimate of the monster's health
+  private int monsterHP(
+      final int start, final String prefix, final String suffix, final String name) {
+    if (!this.text.startsWith(prefix, start)) {
+      return -1;
+    }
+
+    int i = start + prefix.length();
+    int digits = this.digits(i);
+    if (digits == i || !this.text.startsWith(suffix, digits)) {
+      return -1;
+    }
+    return this.add(
+        Marker.MONSTER_HP, start, digits + suffix.length(), this.parse(i, digits), name);
+  }
+
+  private int deduction(final int start) {
+    return this.monsterHP(
+        start, "I deduce that this monster has approximately ", " hit points", "detective skull");
+  }
+
+  // (?<![\d,])\d[\d,]*(?: \([^()]*\))* damage, adding up the bonus damage in parentheses
+  private int damage(final int start) {
+    if (start < this.damageEnd || (start > 0 && this.isNumeric(this.text.charAt(start - 1)))) {
+      return -1;
+    }
+
+    int digits = this.number(start);
+    int damage = this.parse(start, digits);
+
+    int i = digits;
+    while (this.text.startsWith(" (", i)) {
+      int close = this.closeParen(i + 2);
+      if (close == -1) {
+        break;
+      }
+
+      // Bonus damage is written as +N
+      for (int plus = this.text.indexOf('+', i + 2);
+          plus != -1 && plus < close;
+          plus = this.text.indexOf('+', plus + 1)) {
+        damage += this.parse(plus + 1, this.number(plus + 1));
+      }
+      i = close + 1;
+    }
+
+    if (!this.text.startsWith(" damage", i)) {
+      return -1;
+    }
+
+    // Damage in one match cannot start another, as with a regex
+    this.damageEnd = this.add(Marker.DAMAGE, start, i + 7, damage);
+    return this.damageEnd;
+  }
+
+  // The index of the ) closing a group which starts at i, or -1 if a ( or the end comes first
+  private int closeParen(int i) {
+    for (; i < this.text.length(); ++i) {
+      char c = this.text.charAt(i);
+      if (c == ')') {
+        return i;
+      }
+      if (c == '(') {
+        return -1;
+      }
+    }
+    return -1;
+  }
+
+  // Whether the text at i matches the regex name.extension
+  private boolean matches(final int i, final String name, final String extension) {
+    int dot = i + name.length();
+    return this.text.startsWith(name, i)
+        && this.anyAt(dot)
+        && this.text.startsWith(extension, dot + 1);
+  }
+
+  private boolean at(final int i, final char c) {
+    return i < this.text.length() && this.text.charAt(i) == c;
+  }
+
+  // Whether there is a character at i which the regex "." matches
+  private boolean anyAt(final int i) {
+    if (i >= this.text.length()) {
+      return false;
+    }
+    char c = this.text.charAt(i);
+    return c != '\n' && c != '\r' && c != '\u0085' && c != '\u2028' && c != '\u2029';
+  }
+
+  // As in a regex, \d is only an ASCII digit
+  private static boolean isDigit(final char c) {
+    return c >= '0' && c <= '9';
+  }
+
+  private static boolean isNumeric(final char c) {
+    return isDigit(c) || c == ',';
+  }
+
+  private int digits(int i) {
+    while (i < this.text.length() && isDigit(this.text.charAt(i))) {
+      ++i;
+    }
+    return i;
+  }
+
+  // The end of \d[\d,]* at i, or i if there is no number there
+  private int number(int i) {
+    if (i >= this.text.length() || !isDigit(this.text.charAt(i))) {
+      return i;
+    }
+    while (i < this.text.length() && isNumeric(this.text.charAt(i))) {
+      ++i;
+    }
+    return i;
+  }
+
+  // Parses a number, ignoring commas
+  private int parse(final int start, final int end) {
+    long value = 0;
+    for (int i = start; i < end && value <= Integer.MAX_VALUE; ++i) {
+      char c = this.text.charAt(i);
+      if (c != ',') {
+        value = value * 10 + (c - '0');
+      }
+    }
+    return value <= Integer.MAX_VALUE ? (int) value : 0;
+  }
+}
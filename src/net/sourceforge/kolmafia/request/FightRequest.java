@@ -151,6 +151,8 @@ public class FightRequest extends GenericRequest {
   public static boolean waitingForSpecial;
 
   public static String lastResponseText = "";
+  // The markers found in lastResponseText
+  private static FightPage lastPage = null;
   public static String lastDecoratedResponseText = "";
   public static String currentEncounter = "";
   private static boolean transformed = false;
@@ -207,13 +209,10 @@ public class FightRequest extends GenericRequest {
       Pattern.compile(
           "The Sorceress pauses for a moment\\, mutters some words under her breath\\, and straightens out her dress\\. Her skin seems to shimmer for a moment\\.");
 
-  private static final Pattern DETECTIVE_PATTERN =
-      Pattern.compile("I deduce that this monster has approximately (\\d+) hit points");
   private static final Pattern YELLOW_WORD_PATTERN =
       Pattern.compile("She said...  <font color=yellow>(.*?)</font>...");
   private static final Pattern BLUE_WORD_PATTERN =
       Pattern.compile("drinks that don't exist, like <font color=blue>(.*?)</font>");
-  private static final Pattern SPACE_HELMET_PATTERN = Pattern.compile("Opponent HP: (\\d+)");
   private static final Pattern SLIMED_PATTERN =
       Pattern.compile(
           "it blasts you with a massive loogie that sticks to your (.*?), pulls it off of you");
@@ -222,16 +221,6 @@ public class FightRequest extends GenericRequest {
 
   private static final Pattern KEYOTRON_PATTERN = Pattern.compile("key-o-tron emits (\\d) short");
 
-  private static final Pattern DISCO_MOMENTUM_PATTERN = Pattern.compile("discomo(\\d).gif");
-
-  private static final Pattern SOULSAUCE_PATTERN = Pattern.compile("You absorb (\\d+) Soulsauce");
-
-  private static final Pattern THUNDER_PATTERN = Pattern.compile("swallow <b>(\\d+)</b> dB of it");
-
-  private static final Pattern RAIN_PATTERN = Pattern.compile("recovering <b>(\\d+)</b> drops");
-
-  private static final Pattern LIGHTNING_PATTERN =
-      Pattern.compile("recovering <b>(\\d+)</b> bolts");
 
   private static final Pattern SEAHORSE_PATTERN =
       Pattern.compile("I shall name you &quot;(.*?),&quot; you say.");
@@ -2038,10 +2027,27 @@ public class FightRequest extends GenericRequest {
 
   public static final Pattern ONTURN_PATTERN = Pattern.compile("onturn = (\\d+)");
 
+  // Returns the markers in a page, scanning it only if it is not the last page scanned
+  private static FightPage getPage(final String responseText) {
+    FightPage page = FightRequest.lastPage;
+    if (page == null || page.getText() != responseText) {
+      page = FightPage.scan(responseText);
+      FightRequest.lastPage = page;
+    }
+    return page;
+  }
+
+  // Returns whether exactly this much of a stat was gained between start and end of a page
+  private static boolean gained(
+      final FightPage page, final int start, final int end, final String name, final int amount) {
+    FightPage.Event gain = page.first(FightPage.Marker.STAT_CHANGE, name, start, end);
+    return gain != null && gain.value() == amount;
+  }
+
   private static void synchronizeRoundNumber(final String responseText, final boolean logit) {
-    Matcher m = ONTURN_PATTERN.matcher(responseText);
-    if (m.find()) {
-      int round = StringUtilities.parseInt(m.group(1));
+    FightPage.Event onturn = FightRequest.getPage(responseText).first(FightPage.Marker.ONTURN);
+    if (onturn != null) {
+      int round = onturn.value();
       if (round == FightRequest.currentRound) {
         return;
       }
@@ -2550,10 +2556,7 @@ public class FightRequest extends GenericRequest {
     // Report combat round to spading manager
     SpadingManager.processCombatRound(MonsterStatusTracker.getLastMonsterName(), responseText);
 
-    if (responseText.contains("Macro Abort")
-        || responseText.contains("Macro abort")
-        || responseText.contains("macro abort")
-        || responseText.contains("Could not match item(s) for use")) {
+    if (FightRequest.getPage(responseText).contains(FightPage.Marker.MACRO_ABORT)) {
       FightRequest.nextAction = "abort";
     }
   }
@@ -2588,16 +2591,21 @@ public class FightRequest extends GenericRequest {
       return;
     }
 
+    // This round's part of the page
+    FightPage page = FightRequest.getPage(FightRequest.lastResponseText);
+    int start = macroMatcher.start();
+    int end = macroMatcher.end();
+
     // Spend MP and consume items
-    FightRequest.payActionCost(responseText);
+    FightRequest.payActionCost(responseText, page, start, end);
 
     MonsterData monster = MonsterStatusTracker.getLastMonster();
     String monsterName = monster != null ? monster.getName() : "";
     SpecialMonster special = FightRequest.specialMonsterCategory(monsterName);
 
     String limitmode = KoLCharacter.getLimitmode();
-    boolean finalRound = macroMatcher.end() == FightRequest.lastResponseText.length();
-    boolean won = finalRound && responseText.contains("<!--WINWINWIN-->");
+    boolean finalRound = end == FightRequest.lastResponseText.length();
+    boolean won = finalRound && page.contains(FightPage.Marker.WIN, start, end);
     KoLAdventure location = KoLAdventure.lastVisitedLocation();
     String locationName = (location != null) ? location.getAdventureName() : null;
 
@@ -2608,19 +2616,17 @@ public class FightRequest extends GenericRequest {
     // fight is continuing.
     // Disguises Delimit always has one link, so check for a second
 
-    Pattern fightPattern = Pattern.compile("action=fight.php");
-    Matcher fightMatcher = fightPattern.matcher(responseText);
-    long fightCount = fightMatcher.results().count();
+    int fightCount = page.count(FightPage.Marker.FIGHT_ACTION, start, end);
 
     boolean stillInBattle =
         finalRound
             && !won
             && (FightRequest.pokefam
-                ? responseText.contains("action=fambattle.php")
+                ? page.contains(FightPage.Marker.FAMBATTLE_ACTION, start, end)
                 : (limitmode == Limitmode.BATMAN || FightRequest.innerWolf)
-                    ? responseText.contains("action=\"fight.php\"")
+                    ? page.contains(FightPage.Marker.QUOTED_FIGHT_ACTION, start, end)
                     : Preferences.getBoolean("serverAddsCustomCombat")
-                        ? responseText.contains("(show old combat form)")
+                        ? page.contains(FightPage.Marker.OLD_COMBAT_FORM, start, end)
                         : KoLCharacter.inDisguise() ? fightCount > 1 : fightCount > 0);
 
     if (limitmode == Limitmode.BATMAN || limitmode == Limitmode.SPELUNKY) {
@@ -2643,25 +2649,23 @@ public class FightRequest extends GenericRequest {
 
       FightRequest.clearInstanceData();
       FightRequest.won = won;
-      FightRequest.inMultiFight = FightRequest.MULTIFIGHT_PATTERN.matcher(responseText).find();
-      FightRequest.choiceFollowsFight =
-          FightRequest.FIGHTCHOICE_PATTERN.matcher(responseText).find();
+      FightRequest.inMultiFight = page.contains(FightPage.Marker.FIGHT_LINK, start, end);
+      FightRequest.choiceFollowsFight = page.contains(FightPage.Marker.CHOICE_LINK, start, end);
 
       return;
     }
 
     // Look for special effects
-    FightRequest.updateMonsterHealth(responseText);
+    FightRequest.updateMonsterHealth(responseText, page, start, end);
 
     // Look for Mer-kin clues
     DreadScrollManager.handleKillscroll(responseText);
     DreadScrollManager.handleHealscroll(responseText);
 
     // Check for Disco Momentum
-    Matcher DiscoMatcher =
-        FightRequest.DISCO_MOMENTUM_PATTERN.matcher(FightRequest.lastResponseText);
-    if (DiscoMatcher.find()) {
-      KoLCharacter.setDiscoMomentum(StringUtilities.parseInt(DiscoMatcher.group(1)));
+    FightPage.Event discoMomentum = page.first(FightPage.Marker.DISCO_MOMENTUM);
+    if (discoMomentum != null) {
+      KoLCharacter.setDiscoMomentum(discoMomentum.value());
     }
 
     // Parse unusual construct puzzle
@@ -2978,7 +2982,7 @@ public class FightRequest extends GenericRequest {
       return;
     }
 
-    updateFinalRoundData(responseText, won);
+    FightRequest.updateFinalRoundData(responseText, won, page, start, end);
   }
 
   static String[] ROBORTENDER_DROP_MESSAGES =
@@ -3006,6 +3010,17 @@ public class FightRequest extends GenericRequest {
   // Note that this is not run if the combat is finished by
   // rollover-runaway, saber, or similar mechanic.
   public static void updateFinalRoundData(final String responseText, final boolean won) {
+    FightRequest.updateFinalRoundData(
+        responseText, won, FightPage.scan(responseText), 0, responseText.length());
+  }
+
+  // As above, with this round's part of an already scanned page
+  private static void updateFinalRoundData(
+      final String responseText,
+      final boolean won,
+      final FightPage page,
+      final int start,
+      final int end) {
     MonsterData monster = MonsterStatusTracker.getLastMonster();
     String monsterName = monster != null ? monster.getName() : "";
     SpecialMonster special = FightRequest.specialMonsterCategory(monsterName);
@@ -3309,12 +3324,12 @@ public class FightRequest extends GenericRequest {
 
     if (KoLCharacter.isSauceror()) {
       // Check for Soulsauce gain
-      Matcher SoulsauceMatcher =
-          FightRequest.SOULSAUCE_PATTERN.matcher(FightRequest.lastResponseText);
-      if (SoulsauceMatcher.find()) {
-        String gainSoulsauce = SoulsauceMatcher.group(1);
-        KoLCharacter.incrementSoulsauce(StringUtilities.parseInt(gainSoulsauce));
-        String updateMessage = "You gain " + gainSoulsauce + " Soulsauce";
+      FightPage.Event soulsauce =
+          FightRequest.getPage(FightRequest.lastResponseText)
+              .first(FightPage.Marker.STAT_CHANGE, "Soulsauce");
+      if (soulsauce != null) {
+        KoLCharacter.incrementSoulsauce(soulsauce.value());
+        String updateMessage = "You gain " + soulsauce.value() + " Soulsauce";
         RequestLogger.updateSessionLog(updateMessage);
         KoLmafia.updateDisplay(updateMessage);
       }
@@ -3635,7 +3650,7 @@ public class FightRequest extends GenericRequest {
 
         case FamiliarPool.ARTISTIC_GOTH_KID:
           if (KoLCharacter.getHippyStoneBroken()) {
-            if (responseText.contains("You gain 1 PvP Fight")
+            if (FightRequest.gained(page, start, end, "PvP Fight", 1)
                 && GOTH_KID_PVP_PATTERN.matcher(responseText).find()) {
               Preferences.setInteger("_gothKidCharge", 0);
               Preferences.increment("_gothKidFights");
@@ -3650,7 +3665,7 @@ public class FightRequest extends GenericRequest {
         case FamiliarPool.CRIMBO_SHRUB:
           if (KoLCharacter.getHippyStoneBroken()
               && Preferences.getString("shrubGarland").equals("PvP")) {
-            if (responseText.contains("You gain 1 PvP Fight")) {
+            if (FightRequest.gained(page, start, end, "PvP Fight", 1)) {
               Preferences.setInteger("_shrubCharge", 0);
             } else {
               Preferences.increment("_shrubCharge", 1);
@@ -4028,32 +4043,29 @@ public class FightRequest extends GenericRequest {
       }
 
       if (KoLCharacter.inRaincore()) {
+        FightPage fullPage = FightRequest.getPage(FightRequest.lastResponseText);
+
         // Check for Thunder gain
-        Matcher thunderMatcher =
-            FightRequest.THUNDER_PATTERN.matcher(FightRequest.lastResponseText);
-        if (thunderMatcher.find()) {
-          String gainThunder = thunderMatcher.group(1);
-          KoLCharacter.incrementThunder(StringUtilities.parseInt(gainThunder));
-          String updateMessage = "You swallow " + gainThunder + " dB of Thunder";
+        FightPage.Event thunder = fullPage.first(FightPage.Marker.STAT_CHANGE, "Thunder");
+        if (thunder != null) {
+          KoLCharacter.incrementThunder(thunder.value());
+          String updateMessage = "You swallow " + thunder.value() + " dB of Thunder";
           RequestLogger.updateSessionLog(updateMessage);
           KoLmafia.updateDisplay(updateMessage);
         }
 
-        Matcher rainMatcher = FightRequest.RAIN_PATTERN.matcher(FightRequest.lastResponseText);
-        if (rainMatcher.find()) {
-          String gain = rainMatcher.group(1);
-          KoLCharacter.incrementRain(StringUtilities.parseInt(gain));
-          String updateMessage = "You recover " + gain + " drops of Rain";
+        FightPage.Event rain = fullPage.first(FightPage.Marker.STAT_CHANGE, "Rain");
+        if (rain != null) {
+          KoLCharacter.incrementRain(rain.value());
+          String updateMessage = "You recover " + rain.value() + " drops of Rain";
           RequestLogger.updateSessionLog(updateMessage);
           KoLmafia.updateDisplay(updateMessage);
         }
 
-        Matcher lightningMatcher =
-            FightRequest.LIGHTNING_PATTERN.matcher(FightRequest.lastResponseText);
-        if (lightningMatcher.find()) {
-          String gain = lightningMatcher.group(1);
-          KoLCharacter.incrementLightning(StringUtilities.parseInt(gain));
-          String updateMessage = "You recover " + gain + " bolts of lightning";
+        FightPage.Event lightning = fullPage.first(FightPage.Marker.STAT_CHANGE, "Lightning");
+        if (lightning != null) {
+          KoLCharacter.incrementLightning(lightning.value());
+          String updateMessage = "You recover " + lightning.value() + " bolts of lightning";
           RequestLogger.updateSessionLog(updateMessage);
           KoLmafia.updateDisplay(updateMessage);
         }
@@ -4627,7 +4639,8 @@ public class FightRequest extends GenericRequest {
     }
   }
 
-  private static void updateMonsterHealth(final String responseText) {
+  private static void updateMonsterHealth(
+      final String responseText, final FightPage page, final int start, final int end) {
     StringBuffer action = new StringBuffer();
     MonsterData monster = MonsterStatusTracker.getLastMonster();
     String monsterName = monster != null ? monster.getName() : FightRequest.currentEncounter;
@@ -4645,28 +4658,20 @@ public class FightRequest extends GenericRequest {
       return;
     }
 
-    Matcher detectiveMatcher = FightRequest.DETECTIVE_PATTERN.matcher(responseText);
-    if (detectiveMatcher.find()) {
-      FightRequest.getRound(action);
-      action.append(monsterName);
-      action.append(" shows detective skull health estimate of ");
-      action.append(detectiveMatcher.group(1));
-
-      String message = action.toString();
-      RequestLogger.printLine(message);
-      RequestLogger.updateSessionLog(message);
-    }
-
-    Matcher helmetMatcher = FightRequest.SPACE_HELMET_PATTERN.matcher(responseText);
-    if (helmetMatcher.find()) {
-      FightRequest.getRound(action);
-      action.append(monsterName);
-      action.append(" shows toy space helmet health estimate of ");
-      action.append(helmetMatcher.group(1));
+    for (String estimate : new String[] {"detective skull", "toy space helmet"}) {
+      FightPage.Event health = page.first(FightPage.Marker.MONSTER_HP, estimate, start, end);
+      if (health != null) {
+        FightRequest.getRound(action);
+        action.append(monsterName);
+        action.append(" shows ");
+        action.append(estimate);
+        action.append(" health estimate of ");
+        action.append(health.value());
 
-      String message = action.toString();
-      RequestLogger.printLine(message);
-      RequestLogger.updateSessionLog(message);
+        String message = action.toString();
+        RequestLogger.printLine(message);
+        RequestLogger.updateSessionLog(message);
+      }
     }
 
     int hp = DwarfFactoryRequest.deduceHP(responseText);
@@ -8684,7 +8689,8 @@ public class FightRequest extends GenericRequest {
   private static final AdventureResult METEOR_SHOWERED =
       EffectPool.get(EffectPool.METEOR_SHOWERED, 1);
 
-  private static void payActionCost(final String responseText) {
+  private static void payActionCost(
+      final String responseText, final FightPage page, final int start, final int end) {
     // If we don't know what we tried, punt now.
     if (FightRequest.nextAction == null || FightRequest.nextAction.equals("")) {
       return;
@@ -8852,10 +8858,10 @@ public class FightRequest extends GenericRequest {
 
       int id1 = StringUtilities.parseInt(item1);
       int id2 = StringUtilities.parseInt(item2);
-      FightRequest.payItemCost(id1, -1, responseText);
+      FightRequest.payItemCost(id1, -1, responseText, page, start, end);
 
       if (item2 != null) {
-        FightRequest.payItemCost(id2, id1, responseText);
+        FightRequest.payItemCost(id2, id1, responseText, page, start, end);
       }
 
       return;
@@ -9306,7 +9312,7 @@ public class FightRequest extends GenericRequest {
 
       case SkillPool.LASH_OF_COBRA:
         Preferences.setBoolean("edUsedLash", true);
-        if (responseText.contains("You acquire an item") || skillSuccess) {
+        if (page.first(FightPage.Marker.ITEM_GAIN, null, start, end) != null || skillSuccess) {
           skillSuccess = true;
         }
         break;
@@ -9938,7 +9944,12 @@ public class FightRequest extends GenericRequest {
   }
 
   public static final void payItemCost(
-      final int itemId, final int itemId2, final String responseText) {
+      final int itemId,
+      final int itemId2,
+      final String responseText,
+      final FightPage page,
+      final int start,
+      final int end) {
     if (itemId <= 0) {
       return;
     }
@@ -10169,7 +10180,8 @@ public class FightRequest extends GenericRequest {
         break;
 
       case ItemPool.MAYO_LANCE:
-        if (responseText.contains("Everything Looks Yellow")) {
+        if (page.first(FightPage.Marker.EFFECT_GAIN, "Everything Looks Yellow", start, end)
+            != null) {
           int mayo = Math.max(Preferences.getInteger("mayoLevel") - 30, 0);
           Preferences.setInteger("mayoLevel", mayo);
         }
@@ -10279,7 +10291,7 @@ public class FightRequest extends GenericRequest {
           break;
 
         case ItemPool.AFFIRMATION_HATE:
-          if (responseText.contains("You gain 3 PvP Fights")
+          if (FightRequest.gained(page, start, end, "PvP Fights", 3)
               || responseText.contains("belligerent")
               || itemSuccess) {
             Preferences.setBoolean("_affirmationHateUsed", true);
@@ -49,6 +49,7 @@ import net.sourceforge.kolmafia.SpecialOutfit.Checkpoint;
 import net.sourceforge.kolmafia.StaticEntity;
 import net.sourceforge.kolmafia.chat.ChatPoller;
 import net.sourceforge.kolmafia.chat.InternalMessage;
+import net.sourceforge.kolmafia.listener.ImmediateListener;
 import net.sourceforge.kolmafia.listener.PreferenceListenerRegistry;
 import net.sourceforge.kolmafia.moods.RecoveryManager;
 import net.sourceforge.kolmafia.objectpool.EffectPool;
@@ -67,6 +68,8 @@ import net.sourceforge.kolmafia.session.InventoryManager;
 import net.sourceforge.kolmafia.session.LightsOutManager;
 import net.sourceforge.kolmafia.session.OceanManager;
 import net.sourceforge.kolmafia.session.QuestManager;
+import net.sourceforge.kolmafia.session.ResponseKeywords;
+import net.sourceforge.kolmafia.session.ResponseKeywords.Keyword;
 import net.sourceforge.kolmafia.session.ResponseTextParser;
 import net.sourceforge.kolmafia.session.ResultProcessor;
 import net.sourceforge.kolmafia.session.TurnCounter;
@@ -237,7 +240,7 @@ public class GenericRequest implements Runnable {
 
     if (!System.getProperty("os.name").startsWith("Mac")) {
       PreferenceListenerRegistry.registerPreferenceListener(
-          "proxySet", GenericRequest::resetClient);
+          "proxySet", (ImmediateListener) GenericRequest::resetClient);
       registerProxyListeners("http");
       registerProxyListeners("https");
     }
@@ -249,13 +252,13 @@ public class GenericRequest implements Runnable {
 
   private static void registerProxyListeners(String protocol) {
     PreferenceListenerRegistry.registerPreferenceListener(
-        protocol + ".proxyHost", GenericRequest::resetClient);
+        protocol + ".proxyHost", (ImmediateListener) GenericRequest::resetClient);
     PreferenceListenerRegistry.registerPreferenceListener(
-        protocol + ".proxyPort", GenericRequest::resetClient);
+        protocol + ".proxyPort", (ImmediateListener) GenericRequest::resetClient);
     PreferenceListenerRegistry.registerPreferenceListener(
-        protocol + ".proxyUser", GenericRequest::resetClient);
+        protocol + ".proxyUser", (ImmediateListener) GenericRequest::resetClient);
     PreferenceListenerRegistry.registerPreferenceListener(
-        protocol + ".proxyPassword", GenericRequest::resetClient);
+        protocol + ".proxyPassword", (ImmediateListener) GenericRequest::resetClient);
   }
 
   private static void applyProxySettings() {
@@ -2224,7 +2227,8 @@ public class GenericRequest implements Runnable {
     // happening change anything, even though KoL asks for a
     // charpane refresh for many of them.
 
-    if (this.responseText.contains("charpane.php") && !KoLmafia.isRefreshing()) {
+    if (ResponseKeywords.contains(this.responseText, Keyword.CHARPANE)
+        && !KoLmafia.isRefreshing()) {
       ApiRequest.updateStatus(true);
       RelayServer.updateStatus();
     }
@@ -2306,18 +2310,19 @@ public class GenericRequest implements Runnable {
       return;
     }
 
+    ResponseKeywords keywords = ResponseKeywords.of(this.responseText);
+
     // If this is a lucky adventure, then remove the Lucky intrinsic
-    if (this.responseText.contains("You feel less lucky")) {
+    if (keywords.contains(Keyword.LESS_LUCKY)) {
       KoLConstants.activeEffects.remove(EffectPool.get(EffectPool.LUCKY));
     }
 
-    if (this.responseText.contains("You break the bottle on the ground")) {
+    if (keywords.contains(Keyword.BROKEN_AGUA_BOTTLE)) {
       // You break the bottle on the ground, and stomp it to powder
       ResultProcessor.processItem(ItemPool.EMPTY_AGUA_DE_VIDA_BOTTLE, -1);
     }
 
-    if (this.responseText.contains("FARQUAR")
-        || this.responseText.contains("Sleeping Near the Enemy")) {
+    if (keywords.contains(Keyword.FARQUAR) || keywords.contains(Keyword.SLEEPING_NEAR_ENEMY)) {
       // The password to the Dispensary is known!
       Preferences.setInteger("lastDispensaryOpen", KoLCharacter.getAscensions());
     }
@@ -2335,7 +2340,7 @@ public class GenericRequest implements Runnable {
     if (urlString.startsWith("main.php")) {
       FightRequest.currentRound = 0;
       if (urlString.contains("fightgodlobster=1")
-          && this.responseText.contains("can't challenge your God Lobster anymore")) {
+          && keywords.contains(Keyword.NO_MORE_GOD_LOBSTER)) {
         Preferences.setInteger("_godLobsterFights", 3);
       }
       return;
@@ -358,6 +358,29 @@ public class ProfileRequest extends GenericRequest implements Comparable<Profile
     return instance;
   }
 
+  /**
+   * Returns the ascension count from a row of the detail roster table, or -1 if the row does not
+   * have one.
+   */
+  public static final int getRosterAscensions(final String rosterRow) {
+    if (rosterRow == null) {
+      return -1;
+    }
+
+    // The ascension count follows the name, class, three
+    // primary stats and total power.
+
+    Matcher dataMatcher = ProfileRequest.DATA_PATTERN.matcher(rosterRow);
+    for (int i = 0; i < 7; ++i) {
+      if (!dataMatcher.find()) {
+        return -1;
+      }
+    }
+
+    String count = dataMatcher.group(1).trim();
+    return StringUtilities.isNumeric(count) ? StringUtilities.parseInt(count) : -1;
+  }
+
   public void initialize() {
     if (this.responseText == null) {
       RequestThread.postRequest(this);
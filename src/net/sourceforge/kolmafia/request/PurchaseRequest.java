@@ -58,6 +58,10 @@ public abstract class PurchaseRequest extends GenericRequest
     return this.timestamp;
   }
 
+  public void setTimestamp(final long timestamp) {
+    this.timestamp = timestamp;
+  }
+
   /**
    * Retrieves the price of the item being purchased.
    *
@@ -70,11 +70,11 @@ import net.sourceforge.kolmafia.session.TurnCounter;
 import net.sourceforge.kolmafia.session.VoteMonsterManager;
 import net.sourceforge.kolmafia.swingui.AdventureFrame;
 import net.sourceforge.kolmafia.swingui.CommandDisplayFrame;
-import net.sourceforge.kolmafia.utilities.ByteBufferUtilities;
 import net.sourceforge.kolmafia.utilities.FileUtilities;
 import net.sourceforge.kolmafia.utilities.PauseObject;
 import net.sourceforge.kolmafia.utilities.StringUtilities;
 import net.sourceforge.kolmafia.utilities.WikiUtilities;
+import net.sourceforge.kolmafia.webui.RelayAssetCache;
 import net.sourceforge.kolmafia.webui.RelayServer;
 import net.sourceforge.kolmafia.webui.StationaryButtonDecorator;
 import org.json.JSONObject;
@@ -102,7 +102,10 @@ public class RelayRequest extends PasswordHashRequest {
   public List<String> headers = new ArrayList<>();
   public Set<ServerCookie> serverCookies = null;
   public String cookies = null;
+  public String ifNoneMatch = null;
+  public boolean acceptsGzip = false;
   public byte[] rawByteBuffer = null;
+  public File rawFile = null;
   public String contentType = null;
   public long lastModified = 0;
   public String statusLine = "HTTP/1.1 302 Found";
@@ -193,6 +196,7 @@ public class RelayRequest extends PasswordHashRequest {
     super.constructURLString(newURLString, usePostMethod, encoded);
 
     this.rawByteBuffer = null;
+    this.rawFile = null;
     this.headers.clear();
 
     String path = this.getBasePath();
@@ -535,8 +539,10 @@ public class RelayRequest extends PasswordHashRequest {
 
       if (this.contentType.equals("text/html")) {
         this.headers.add("Content-Type: text/html; charset=UTF-8");
-        this.headers.add("Cache-Control: no-cache, must-revalidate");
-        this.headers.add("Pragma: no-cache");
+        if (this.headers.stream().noneMatch(h -> h.startsWith("Cache-Control:"))) {
+          this.headers.add("Cache-Control: no-cache, must-revalidate");
+          this.headers.add("Pragma: no-cache");
+        }
       } else {
         this.headers.add("Content-Type: " + this.contentType);
       }
@@ -628,6 +634,7 @@ public class RelayRequest extends PasswordHashRequest {
 
   public static void clearImageCache() {
     RelayRequest.clearImageDirectory(KoLConstants.IMAGE_LOCATION, RELAYIMAGES_FILTER);
+    RelayAssetCache.clear();
     Preferences.setLong("lastImageCacheClear", (new Date()).getTime());
   }
 
@@ -653,9 +660,58 @@ public class RelayRequest extends PasswordHashRequest {
       return;
     }
 
-    this.lastModified = imageFile.lastModified();
-    this.rawByteBuffer = ByteBufferUtilities.read(imageFile);
     this.headers.add("Access-Control-Allow-Origin: *");
+    this.sendAsset(imageFile, "Cache-Control: max-age=86400");
+  }
+
+  /**
+   * Sends a file from the relay asset cache, or tells the browser that the copy it already has is
+   * still good.
+   *
+   * @param cacheControl How long the browser may use its copy before checking with us again
+   */
+  private void sendAsset(final File file, final String cacheControl) {
+    RelayAssetCache.Asset asset = RelayAssetCache.get(file);
+    if (asset == null) {
+      this.sendNotFound();
+      return;
+    }
+
+    boolean text = this.contentType.startsWith("text");
+    boolean localized = text && Preferences.getBoolean("useImageCache");
+
+    byte[] contents = asset.getContents(localized, false);
+    byte[] gzipped = text && this.acceptsGzip ? asset.getContents(localized, true) : null;
+    boolean gzip = gzipped != null;
+
+    String etag = asset.getETag(localized, gzip);
+
+    this.lastModified = asset.getLastModified();
+    this.headers.add("ETag: " + etag);
+    this.headers.add(cacheControl);
+    if (text) {
+      this.headers.add("Vary: Accept-Encoding");
+    }
+
+    if (RelayAssetCache.matches(this.ifNoneMatch, etag)) {
+      this.pseudoResponse("HTTP/1.1 304 Not Modified", "");
+      this.responseCode = 304;
+      this.rawByteBuffer = new byte[0];
+      return;
+    }
+
+    if (asset.isLarge()) {
+      this.rawFile = asset.getFile();
+      this.headers.add("Content-Length: " + this.rawFile.length());
+    } else {
+      this.rawByteBuffer = gzip ? gzipped : contents;
+      this.headers.add("Content-Length: " + this.rawByteBuffer.length);
+    }
+
+    if (gzip) {
+      this.headers.add("Content-Encoding: gzip");
+    }
+
     this.pseudoResponse("HTTP/1.1 200 OK", "");
   }
 
@@ -690,6 +746,14 @@ public class RelayRequest extends PasswordHashRequest {
     } catch (IOException e) {
     }
 
+    // Files which are sent as they are on disk can come from the cache
+    if (override.exists()
+        && !this.isChatRequest
+        && !filename.endsWith("chat.html")
+        && this.sendRelayAsset(filename, override)) {
+      return;
+    }
+
     // Read the file
     StringBuffer replyBuffer;
 
@@ -730,6 +794,27 @@ public class RelayRequest extends PasswordHashRequest {
     this.pseudoResponse("HTTP/1.1 200 OK", replyBuffer.toString());
   }
 
+  private boolean sendRelayAsset(final String filename, final File file) {
+    String cacheControl = "Cache-Control: no-cache";
+
+    if (RelayRequest.builtinRelayFile(filename)) {
+      RelayAssetCache.Asset asset = RelayAssetCache.get(file);
+
+      // The password hash goes into these on their way to the browser
+      if (asset == null || asset.isLarge() || asset.contains("MAFIAHIT")) {
+        return false;
+      }
+
+      // Our own files only change when KoLmafia does
+      if (!filename.endsWith(".html")) {
+        cacheControl = "Cache-Control: max-age=2592000";
+      }
+    }
+
+    this.sendAsset(file, cacheControl);
+    return true;
+  }
+
   public static boolean builtinRelayFile(final String file) {
     for (int i = 0; i < KoLConstants.RELAY_FILES.length; ++i) {
       if (file.equals(KoLConstants.RELAY_FILES[i])) {
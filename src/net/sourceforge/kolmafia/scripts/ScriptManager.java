@@ -81,37 +81,54 @@ public class ScriptManager {
   }
 
   protected static void installDependencies(Path dependencies) {
+    for (var args : readDependencies(dependencies)) {
+      installDependency(args);
+    }
+  }
+
+  /** Read a dependency file, returning each entry as its URL and optional branch. */
+  protected static List<String[]> readDependencies(Path dependencies) {
     List<String> potentials;
     try {
       potentials = Files.readAllLines(dependencies);
     } catch (IOException e) {
       KoLmafia.updateDisplay(MafiaState.ERROR, "Failed to read dependency file " + dependencies);
-      return;
+      return List.of();
     }
+    List<String[]> entries = new ArrayList<>();
     for (var potential : potentials) {
       if (potential.startsWith("#")) continue;
       String[] args = potential.split("\\s+");
       if (args.length == 0 || args[0].length() == 0) continue;
-      var url = args[0];
-      if (args.length > 1 || url.endsWith(".git")) {
-        // git
-        String branch = args.length == 1 ? null : args[1];
-        var id = GitManager.getRepoId(url, branch);
-        if (!Files.exists(KoLConstants.GIT_LOCATION.toPath().resolve(id))) {
-          GitManager.clone(url, branch);
-        }
-      } else {
-        SVNURL repo;
-        try {
-          repo = SVNURL.parseURIEncoded(potential);
-        } catch (SVNException e) {
-          RequestLogger.printLine("Cannot parse \"" + potential + "\" as SVN URL");
-          continue;
-        }
-        var id = SVNManager.getFolderUUID(repo);
-        if (!Files.exists(KoLConstants.SVN_LOCATION.toPath().resolve(id))) {
-          SVNManager.doCheckout(repo);
-        }
+      entries.add(args);
+    }
+    return entries;
+  }
+
+  protected static boolean isGitDependency(String[] args) {
+    return args.length > 1 || args[0].endsWith(".git");
+  }
+
+  protected static void installDependency(String[] args) {
+    var url = args[0];
+    if (isGitDependency(args)) {
+      // git
+      String branch = args.length == 1 ? null : args[1];
+      var id = GitManager.getRepoId(url, branch);
+      if (!Files.exists(KoLConstants.GIT_LOCATION.toPath().resolve(id))) {
+        GitManager.clone(url, branch);
+      }
+    } else {
+      SVNURL repo;
+      try {
+        repo = SVNURL.parseURIEncoded(url);
+      } catch (SVNException e) {
+        RequestLogger.printLine("Cannot parse \"" + url + "\" as SVN URL");
+        return;
+      }
+      var id = SVNManager.getFolderUUID(repo);
+      if (!Files.exists(KoLConstants.SVN_LOCATION.toPath().resolve(id))) {
+        SVNManager.doCheckout(repo);
       }
     }
   }
@@ -13,8 +13,18 @@ import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
 import net.sourceforge.kolmafia.KoLConstants;
 import net.sourceforge.kolmafia.KoLConstants.MafiaState;
 import net.sourceforge.kolmafia.KoLmafia;
@@ -26,6 +36,7 @@ import org.eclipse.jgit.api.errors.GitAPIException;
 import org.eclipse.jgit.api.errors.InvalidRemoteException;
 import org.eclipse.jgit.diff.DiffEntry;
 import org.eclipse.jgit.lib.BranchTrackingStatus;
+import org.eclipse.jgit.lib.NullProgressMonitor;
 import org.eclipse.jgit.lib.ObjectId;
 import org.eclipse.jgit.lib.PersonIdent;
 import org.eclipse.jgit.lib.ProgressMonitor;
@@ -63,33 +74,103 @@ public class GitManager extends ScriptManager {
           "Cannot clone project to " + id + ", folder already exists. Please delete to checkout.");
       return;
     }
+    finishClone(download(repoUrl, branch, new MafiaProgressMonitor()));
+  }
+
+  /** The outcome of cloning a project, before any of its files have been copied. */
+  private record ClonedProject(String id, Path projectPath, String error) {}
+
+  /** Clone a project into git/ without installing it. Safe to call from any thread. */
+  private static ClonedProject download(String repoUrl, String branch, ProgressMonitor monitor) {
+    String id = getRepoId(repoUrl, branch);
+    Path projectPath = KoLConstants.GIT_LOCATION.toPath().resolve(id);
     var git =
         Git.cloneRepository()
             .setURI(repoUrl)
             .setCloneAllBranches(false)
             .setDirectory(projectPath.toFile())
-            .setProgressMonitor(new MafiaProgressMonitor());
+            .setProgressMonitor(monitor);
     if (branch != null) {
       git.setBranch(branch).setBranchesToClone(List.of("refs/heads/" + branch));
     }
     try (var ignored = git.call()) {
-      sync(projectPath);
+      return new ClonedProject(id, projectPath, null);
     } catch (InvalidRemoteException e) {
-      KoLmafia.updateDisplay(MafiaState.ERROR, "Could not find project at " + repoUrl + ": " + e);
-      return;
+      return new ClonedProject(id, projectPath, "Could not find project at " + repoUrl + ": " + e);
     } catch (GitAPIException e) {
-      KoLmafia.updateDisplay(MafiaState.ERROR, "Could not download project " + repoUrl + ": " + e);
+      return new ClonedProject(id, projectPath, "Could not download project " + repoUrl + ": " + e);
+    }
+  }
+
+  /** Copy the files of a freshly cloned project to permissible folders. */
+  private static void finishClone(ClonedProject clone) {
+    if (clone.error() != null) {
+      KoLmafia.updateDisplay(MafiaState.ERROR, clone.error());
       return;
     }
 
-    KoLmafia.updateDisplay("Cloned project " + id);
+    sync(clone.projectPath());
+    KoLmafia.updateDisplay("Cloned project " + clone.id());
   }
 
-  /** Update all installed projects. */
+  /**
+   * Update all installed projects.
+   *
+   * <p>Projects are fetched concurrently, using up to gitThreadPoolSize threads. The changes are
+   * then applied to the permissible folders one project at a time, in the order the projects are
+   * listed, so that files shared between projects end up the same as if they had been updated
+   * serially.
+   */
   public static void updateAll() {
-    for (var project : allFolders()) {
-      update(project);
+    var folders = List.of(allFolders());
+    if (folders.isEmpty()) {
+      return;
+    }
+
+    KoLmafia.updateDisplay("Fetching " + folders.size() + " projects...");
+    var fetched =
+        runConcurrently(
+            folders,
+            folder -> fetch(folder, NullProgressMonitor.INSTANCE),
+            project ->
+                project.folder()
+                    + (project.error() != null
+                        ? ": failed"
+                        : project.isUnchanged() ? ": no changes" : ": fetched"));
+
+    int updated = 0;
+    int unchanged = 0;
+    List<String> failed = new ArrayList<>();
+    List<Path> dependencies = new ArrayList<>();
+    for (var project : fetched) {
+      if (project.isUnchanged()) {
+        unchanged++;
+        continue;
+      }
+      RequestLogger.printLine("Updating project " + project.folder());
+      switch (apply(project, dependencies)) {
+        case UPDATED -> updated++;
+        case UNCHANGED -> unchanged++;
+        case FAILED -> failed.add(project.folder());
+      }
+    }
+    // Projects whose fetch threw outright have no result at all
+    for (var folder : folders) {
+      if (fetched.stream().noneMatch(project -> project.folder().equals(folder))) {
+        failed.add(folder);
+      }
+    }
+
+    installDependencies(dependencies);
+
+    StringBuilder summary = new StringBuilder();
+    summary.append("Updated ").append(updated).append(updated == 1 ? " project, " : " projects, ");
+    summary.append(unchanged).append(" unchanged, ");
+    summary.append(failed.size()).append(" failed");
+    if (!failed.isEmpty()) {
+      summary.append(": ").append(String.join(", ", failed));
     }
+    RequestLogger.printLine(summary.toString());
   }
 
   /**
@@ -107,14 +188,54 @@ public class GitManager extends ScriptManager {
       return;
     }
     var folder = folderOpt.get();
+    RequestLogger.printLine("Updating project " + folder);
+    List<Path> dependencies = new ArrayList<>();
+    apply(fetch(folder, new MafiaProgressMonitor()), dependencies);
+    installDependencies(dependencies);
+  }
+
+  /**
+   * The outcome of pulling a project, before any of its files have been copied. Either error is
+   * set, resync is set because the root directory moved, or the diffs between the two commits are
+   * given.
+   */
+  private record FetchedProject(
+      String folder,
+      Path projectPath,
+      Path oldRoot,
+      Path newRoot,
+      ObjectId currCommit,
+      ObjectId incomingCommit,
+      List<DiffEntry> diffs,
+      boolean resync,
+      String error) {
+    static FetchedProject failed(String folder, String error) {
+      return new FetchedProject(folder, null, null, null, null, null, null, false, error);
+    }
+
+    boolean isUnchanged() {
+      return this.error == null && !this.resync && this.diffs.isEmpty();
+    }
+  }
+
+  private enum UpdateResult {
+    UPDATED,
+    UNCHANGED,
+    FAILED
+  }
+
+  /**
+   * Pull a project and work out what changed. This only touches the project's own folder in git/,
+   * so it is safe to call for different projects from different threads.
+   */
+  private static FetchedProject fetch(String folder, ProgressMonitor monitor) {
     Path projectPath = KoLConstants.GIT_LOCATION.toPath().resolve(folder);
     var oldRoot = getRoot(projectPath);
     Git git;
     try {
       git = Git.open(projectPath.toFile());
     } catch (IOException e) {
-      KoLmafia.updateDisplay(MafiaState.ERROR, "Failed to open project " + folder + ": " + e);
-      return;
+      return FetchedProject.failed(folder, "Failed to open project " + folder + ": " + e);
     }
     // update repo, then find out what was updated
     try (git) {
@@ -127,33 +248,29 @@ public class GitManager extends ScriptManager {
         currCommit = getCurrentCommit(repo);
         currTree = getCurrentCommitTree(repo);
       } catch (IOException e) {
-        KoLmafia.updateDisplay(
-            MafiaState.ERROR, "Failed to get details for project " + folder + ": " + e);
-        return;
+        return FetchedProject.failed(
+            folder, "Failed to get details for project " + folder + ": " + e);
       }
 
-      RequestLogger.printLine("Updating project " + folder);
       try {
-        git.pull().setProgressMonitor(new MafiaProgressMonitor()).setRebase(true).call();
+        git.pull().setProgressMonitor(monitor).setRebase(true).call();
       } catch (GitAPIException e) {
-        KoLmafia.updateDisplay(MafiaState.ERROR, "Failed to update project " + folder + ": " + e);
-        return;
+        return FetchedProject.failed(folder, "Failed to update project " + folder + ": " + e);
       }
       var newRoot = getRoot(projectPath);
 
       if (!oldRoot.equals(newRoot)) {
         // the root directory has changed. Figuring out the diff is too hard, just sync
-        sync(projectPath);
-        return;
+        return new FetchedProject(
+            folder, projectPath, oldRoot, newRoot, currCommit, null, null, true, null);
       }
 
       try {
         incomingCommit = getCurrentCommit(repo);
         incomingTree = getCurrentCommitTree(repo);
       } catch (IOException e) {
-        KoLmafia.updateDisplay(
-            MafiaState.ERROR, "Failed to get incoming changes for project " + folder + ": " + e);
-        return;
+        return FetchedProject.failed(
+            folder, "Failed to get incoming changes for project " + folder + ": " + e);
       }
 
       List<DiffEntry> diffs;
@@ -167,45 +284,82 @@ public class GitManager extends ScriptManager {
         }
         diffs = cmd.call();
       } catch (GitAPIException e) {
-        KoLmafia.updateDisplay(
-            MafiaState.ERROR, "Failed to diff incoming changes for project " + folder + ": " + e);
-        return;
+        return FetchedProject.failed(
+            folder, "Failed to diff incoming changes for project " + folder + ": " + e);
       }
 
-      if (diffs.size() == 0) {
-        RequestLogger.printLine("No changes");
-        return;
+      return new FetchedProject(
+          folder, projectPath, oldRoot, newRoot, currCommit, incomingCommit, diffs, false, null);
+    }
+  }
+
+  /**
+   * Copy, replace or delete the permissible files a fetched project changed. Dependency files that
+   * need checking are added to dependencies rather than installed straight away.
+   */
+  private static UpdateResult apply(FetchedProject project, List<Path> dependencies) {
+    if (project.error() != null) {
+      KoLmafia.updateDisplay(MafiaState.ERROR, project.error());
+      return UpdateResult.FAILED;
+    }
+
+    var folder = project.folder();
+    var projectPath = project.projectPath();
+    var oldRoot = project.oldRoot();
+    var newRoot = project.newRoot();
+
+    if (project.resync()) {
+      if (!copyProject(projectPath)) {
+        return UpdateResult.FAILED;
       }
+      var deps = newRoot.resolve(DEPENDENCIES);
+      if (Files.exists(deps)) {
+        dependencies.add(deps);
+      }
+      return UpdateResult.UPDATED;
+    }
 
-      boolean checkDependencies = false;
-
-      for (var diff : diffs) {
-        var oldDiffPath = diff.getOldPath();
-        var oldRelPath = oldRoot.relativize(projectPath.resolve(oldDiffPath));
-        var newDiffPath = diff.getNewPath();
-        var newRelPath = newRoot.relativize(projectPath.resolve(newDiffPath));
-        switch (diff.getChangeType()) {
-          case ADD, MODIFY, COPY -> addNewFile(newRoot, newRelPath);
-          case DELETE -> deleteOldFile(oldRelPath);
-          case RENAME -> {
-            deleteOldFile(oldRelPath);
-            addNewFile(newRoot, newRelPath);
-          }
-        }
+    var diffs = project.diffs();
+    if (diffs.size() == 0) {
+      RequestLogger.printLine("No changes");
+      return UpdateResult.UNCHANGED;
+    }
 
-        if (DEPENDENCIES.equals(diff.getNewPath())) {
-          checkDependencies = true;
+    boolean checkDependencies = false;
+
+    for (var diff : diffs) {
+      var oldDiffPath = diff.getOldPath();
+      var oldRelPath = oldRoot.relativize(projectPath.resolve(oldDiffPath));
+      var newDiffPath = diff.getNewPath();
+      var newRelPath = newRoot.relativize(projectPath.resolve(newDiffPath));
+      switch (diff.getChangeType()) {
+        case ADD, MODIFY, COPY -> addNewFile(newRoot, newRelPath);
+        case DELETE -> deleteOldFile(oldRelPath);
+        case RENAME -> {
+          deleteOldFile(oldRelPath);
+          addNewFile(newRoot, newRelPath);
         }
       }
 
-      if (Preferences.getBoolean("gitShowCommitMessages")) {
-        printCommitMessages(git, currCommit, incomingCommit, folder);
+      if (DEPENDENCIES.equals(diff.getNewPath())) {
+        checkDependencies = true;
       }
+    }
 
-      if (checkDependencies) {
-        installDependencies(newRoot.resolve(DEPENDENCIES));
+    if (Preferences.getBoolean("gitShowCommitMessages")) {
+      try (var git = Git.open(projectPath.toFile())) {
+        printCommitMessages(git, project.currCommit(), project.incomingCommit(), folder);
+      } catch (IOException e) {
+        KoLmafia.updateDisplay(
+            MafiaState.CONTINUE, "Failed to get commit messages for " + folder + ": " + e);
       }
     }
+
+    if (checkDependencies) {
+      dependencies.add(newRoot.resolve(DEPENDENCIES));
+    }
+
+    return UpdateResult.UPDATED;
   }
 
   /** Delete a newly removed file in the correct permissible folder. */
@@ -369,10 +523,17 @@ public class GitManager extends ScriptManager {
 
   /** Copy files from all installed git projects to permissible folders. */
   public static void syncAll() {
-    var files = allFolders();
-    for (var file : files) {
-      sync(file);
+    List<Path> dependencies = new ArrayList<>();
+    for (var file : allFolders()) {
+      Path projectPath = KoLConstants.GIT_LOCATION.toPath().resolve(file);
+      if (copyProject(projectPath)) {
+        var deps = getRoot(projectPath).resolve(DEPENDENCIES);
+        if (Files.exists(deps)) {
+          dependencies.add(deps);
+        }
+      }
     }
+    installDependencies(dependencies);
   }
 
   /** Copy files from specific project to permissible folders. */
@@ -388,6 +549,17 @@ public class GitManager extends ScriptManager {
   }
 
   private static void sync(Path projectPath) {
+    if (!copyProject(projectPath)) {
+      return;
+    }
+    var deps = getRoot(projectPath).resolve(DEPENDENCIES);
+    if (Files.exists(deps)) {
+      installDependencies(deps);
+    }
+  }
+
+  /** Copy every permissible file of a project, returning whether all of them were copied. */
+  private static boolean copyProject(Path projectPath) {
     var folder = KoLConstants.GIT_LOCATION.toPath().relativize(projectPath);
     var root = getRoot(projectPath);
     List<Path> toAdd;
@@ -395,7 +567,7 @@ public class GitManager extends ScriptManager {
       toAdd = getPermissibleFiles(root, false);
     } catch (IOException e) {
       KoLmafia.updateDisplay(MafiaState.ERROR, "Failed to sync project " + folder + ": " + e);
-      return;
+      return false;
     }
     for (var absPath : toAdd) {
       try {
@@ -403,13 +575,10 @@ public class GitManager extends ScriptManager {
         copyPath(absPath, toRel);
       } catch (IOException e) {
         KoLmafia.updateDisplay(MafiaState.ERROR, "Failed to sync project " + folder + ": " + e);
-        return;
+        return false;
       }
     }
-    var deps = root.resolve(DEPENDENCIES);
-    if (Files.exists(deps)) {
-      installDependencies(deps);
-    }
+    return true;
   }
 
   public record GitInfo(
@@ -536,6 +705,11 @@ public class GitManager extends ScriptManager {
     } catch (URISyntaxException e) {
       return (repoUrl + dashBranch).replaceAll("https?://", "").replaceAll("/", "-");
     }
+    if (uri.getHost() == null) {
+      // local repositories, e.g. file:///path/to/project.git
+      var path = uri.getPath() == null ? repoUrl : uri.getPath();
+      return path.substring(path.lastIndexOf('/') + 1) + dashBranch;
+    }
     String uuid = getProjectIdentifier(uri.getHost(), uri.getPath());
     return uuid + dashBranch;
   }
@@ -553,10 +727,98 @@ public class GitManager extends ScriptManager {
   }
 
   protected static void installDependencies(Path dependencies) {
+    installDependencies(List.of(dependencies));
+  }
+
+  /**
+   * Install everything listed in the given dependency files. Git projects which are not yet
+   * installed are cloned concurrently, then copied to permissible folders one at a time; SVN
+   * projects are left to SVNManager.
+   */
+  private static void installDependencies(List<Path> dependencyFiles) {
     if (!Preferences.getBoolean("gitInstallDependencies")) return;
+    if (dependencyFiles.isEmpty()) return;
 
     KoLmafia.updateDisplay("Installing dependencies");
-    ScriptManager.installDependencies(dependencies);
+
+    Map<String, String[]> clones = new LinkedHashMap<>();
+    List<String[]> others = new ArrayList<>();
+    for (var dependencies : dependencyFiles) {
+      for (var args : readDependencies(dependencies)) {
+        if (!isGitDependency(args)) {
+          others.add(args);
+          continue;
+        }
+        String branch = args.length == 1 ? null : args[1];
+        var id = getRepoId(args[0], branch);
+        if (!Files.exists(KoLConstants.GIT_LOCATION.toPath().resolve(id))) {
+          clones.putIfAbsent(id, args);
+        }
+      }
+    }
+
+    var cloned =
+        runConcurrently(
+            List.copyOf(clones.values()),
+            args ->
+                download(args[0], args.length == 1 ? null : args[1], NullProgressMonitor.INSTANCE),
+            clone -> clone.id() + (clone.error() != null ? ": failed" : ": downloaded"));
+    for (var clone : cloned) {
+      finishClone(clone);
+    }
+
+    for (var args : others) {
+      installDependency(args);
+    }
+  }
+
+  /**
+   * Run task for each of items on a pool of at most gitThreadPoolSize threads, printing a progress
+   * line as each one finishes. Results are returned in the order of items; any task which throws
+   * is reported and left out.
+   */
+  private static <I, R> List<R> runConcurrently(
+      List<I> items, Function<I, R> task, Function<R, String> describe) {
+    if (items.isEmpty()) {
+      return List.of();
+    }
+
+    int threads = Math.max(1, Math.min(items.size(), Preferences.getInteger("gitThreadPoolSize")));
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    CompletionService<R> completion = new ExecutorCompletionService<>(executor);
+    List<Future<R>> futures = new ArrayList<>(items.size());
+    try {
+      for (var item : items) {
+        futures.add(completion.submit(() -> task.apply(item)));
+      }
+
+      for (int done = 1; done <= items.size(); ++done) {
+        var future = completion.take();
+        try {
+          var result = future.get();
+          RequestLogger.printLine("(" + done + "/" + items.size() + ") " + describe.apply(result));
+        } catch (ExecutionException e) {
+          RequestLogger.printLine("(" + done + "/" + items.size() + ") " + e.getCause());
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      executor.shutdownNow();
+    }
+
+    List<R> results = new ArrayList<>(items.size());
+    for (var future : futures) {
+      if (!future.isDone()) {
+        continue;
+      }
+      try {
+        results.add(future.get());
+      } catch (ExecutionException | CancellationException | InterruptedException e) {
+        // already reported above, or abandoned
+      }
+    }
+    return results;
   }
 
   private static Optional<JSONObject> readManifest(Path manifest) {
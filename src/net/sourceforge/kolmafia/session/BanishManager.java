@@ -1,14 +1,19 @@
 package net.sourceforge.kolmafia.session;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.StringTokenizer;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import net.sourceforge.kolmafia.AreaCombatData;
 import net.sourceforge.kolmafia.KoLCharacter;
 import net.sourceforge.kolmafia.KoLmafia;
 import net.sourceforge.kolmafia.MonsterData;
@@ -22,6 +27,19 @@ import net.sourceforge.kolmafia.utilities.StringUtilities;
 public class BanishManager {
   private static final Set<BanishedMonster> banishedMonsters = new LinkedHashSet<>();
 
+  // Indexes over banishedMonsters, in the same order, so that lookups need not scan it
+  private static final Map<String, List<BanishedMonster>> byMonster = new HashMap<>();
+  private static final Map<Banisher, List<BanishedMonster>> byBanisher =
+      new EnumMap<>(Banisher.class);
+
+  // The last turn on which every turn-limited banish is still in effect, and whether any banish
+  // lasts until the cosmic bowling ball returns. Until one of these runs out, nothing has expired.
+  private static int expiresAfter = Integer.MAX_VALUE;
+  private static boolean untilBallReturns = false;
+
+  // The banishedMonsters preference for the banishes above, or null if it must be rebuilt
+  private static String serialized = null;
+
   private BanishManager() {}
 
   private enum Reset {
@@ -185,6 +203,10 @@ public class BanishManager {
       return this.turnBanished;
     }
 
+    private String getKey() {
+      return this.monsterName.toLowerCase();
+    }
+
     public final Integer turnsLeft() {
       return (turnBanished + banisher.getDuration()) - KoLCharacter.getCurrentRun();
     }
@@ -228,10 +250,12 @@ public class BanishManager {
 
   public static final void clearCache() {
     BanishManager.banishedMonsters.clear();
+    BanishManager.reindex();
   }
 
   public static final void loadBanishedMonsters() {
     BanishManager.banishedMonsters.clear();
+    BanishManager.reindex();
 
     String banishes = Preferences.getString("banishedMonsters");
     if (banishes.length() == 0) {
@@ -259,13 +283,51 @@ public class BanishManager {
   }
 
   private static final void saveBanishedMonsters() {
-    Preferences.setString(
-        "banishedMonsters",
-        banishedMonsters.stream()
-            .flatMap(
-                m -> Stream.of(m.getMonsterName(), m.getBanisher().getName(), m.getTurnBanished()))
-            .map(Object::toString)
-            .collect(Collectors.joining(":")));
+    if (serialized == null) {
+      serialized =
+          banishedMonsters.stream()
+              .flatMap(
+                  m ->
+                      Stream.of(m.getMonsterName(), m.getBanisher().getName(), m.getTurnBanished()))
+              .map(Object::toString)
+              .collect(Collectors.joining(":"));
+    }
+
+    if (!serialized.equals(Preferences.getString("banishedMonsters"))) {
+      Preferences.setString("banishedMonsters", serialized);
+    }
+  }
+
+  /** Rebuilds the indexes after banishes have been removed. */
+  private static void reindex() {
+    byMonster.clear();
+    byBanisher.clear();
+    expiresAfter = Integer.MAX_VALUE;
+    untilBallReturns = false;
+
+    for (BanishedMonster banishedMonster : banishedMonsters) {
+      BanishManager.index(banishedMonster);
+    }
+
+    serialized = null;
+    AreaCombatData.invalidate(AreaCombatData.Input.BANISHES);
+  }
+
+  private static void index(final BanishedMonster banishedMonster) {
+    byMonster
+        .computeIfAbsent(banishedMonster.getKey(), k -> new ArrayList<>())
+        .add(banishedMonster);
+    byBanisher
+        .computeIfAbsent(banishedMonster.getBanisher(), k -> new ArrayList<>())
+        .add(banishedMonster);
+
+    Banisher banisher = banishedMonster.getBanisher();
+    if (banisher.getResetType().isTurnReset()) {
+      expiresAfter =
+          Math.min(expiresAfter, banishedMonster.getTurnBanished() + banisher.getDuration());
+    } else if (banisher.getResetType() == Reset.COSMIC_BOWLING_BALL_RESET) {
+      untilBallReturns = true;
+    }
   }
 
   /**
@@ -274,7 +336,9 @@ public class BanishManager {
    * @param predicate Predicate dictating removal
    */
   private static final void resetIf(Predicate<BanishedMonster> predicate) {
-    BanishManager.banishedMonsters.removeIf(predicate);
+    if (BanishManager.banishedMonsters.removeIf(predicate)) {
+      BanishManager.reindex();
+    }
     BanishManager.saveBanishedMonsters();
   }
 
@@ -305,7 +369,13 @@ public class BanishManager {
   }
 
   public static void recalculate() {
-    resetIf(Predicate.not(BanishedMonster::isValid));
+    if (KoLCharacter.getCurrentRun() > expiresAfter
+        || (untilBallReturns && Preferences.getInteger("cosmicBowlingBallReturnCombats") <= 0)) {
+      resetIf(Predicate.not(BanishedMonster::isValid));
+    } else {
+      // Nothing has expired, but the preference may have been changed behind our back
+      saveBanishedMonsters();
+    }
   }
 
   public static final void banishCurrentMonster(final Banisher banisher) {
@@ -400,7 +470,11 @@ public class BanishManager {
       return false;
     }
 
-    banishedMonsters.add(banishedMonster);
+    if (banishedMonsters.add(banishedMonster)) {
+      BanishManager.index(banishedMonster);
+      serialized = null;
+      AreaCombatData.invalidate(AreaCombatData.Input.BANISHES);
+    }
     return true;
   }
 
@@ -409,8 +483,7 @@ public class BanishManager {
   }
 
   private static final void removeOldestBanish(final Banisher banisher) {
-    banishedMonsters.stream()
-        .filter(b -> b.getBanisher().equals(banisher))
+    byBanisher.getOrDefault(banisher, List.of()).stream()
         .min(Comparator.comparingInt(BanishedMonster::getTurnBanished))
         .ifPresent(b -> resetIf(m -> m == b));
   }
@@ -418,18 +491,22 @@ public class BanishManager {
   public static final boolean isBanished(final String monster) {
     BanishManager.recalculate();
 
-    boolean iceHouseEffective = StandardRequest.isAllowed(RestrictedItemType.ITEMS, "ice house");
+    List<BanishedMonster> banishes = byMonster.get(monster.toLowerCase());
+    if (banishes == null) {
+      return false;
+    }
 
-    return banishedMonsters.stream()
-        .anyMatch(
-            m -> {
-              if (!m.getMonsterName().equalsIgnoreCase(monster)) return false;
-              return (!m.getBanisher().equals(Banisher.ICE_HOUSE) || iceHouseEffective);
-            });
+    for (BanishedMonster banish : banishes) {
+      if (!banish.getBanisher().equals(Banisher.ICE_HOUSE)
+          || StandardRequest.isAllowed(RestrictedItemType.ITEMS, "ice house")) {
+        return true;
+      }
+    }
+    return false;
   }
 
   private static int countBanishes(final Banisher banisher) {
-    return (int) banishedMonsters.stream().filter(m -> m.getBanisher().equals(banisher)).count();
+    return byBanisher.getOrDefault(banisher, List.of()).size();
   }
 
   public static final List<String> getBanishedMonsters() {
@@ -443,8 +520,7 @@ public class BanishManager {
   public static final List<String> getBanishedMonsters(Banisher banisher) {
     BanishManager.recalculate();
 
-    return banishedMonsters.stream()
-        .filter(m -> m.getBanisher().equals(banisher))
+    return byBanisher.getOrDefault(banisher, List.of()).stream()
         .map(BanishedMonster::getMonsterName)
         .collect(Collectors.toList());
   }
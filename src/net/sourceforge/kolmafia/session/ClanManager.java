@@ -2,7 +2,10 @@ package net.sourceforge.kolmafia.session;
 
 import java.io.BufferedReader;
 import java.io.File;
+import java.io.IOException;
 import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
@@ -10,6 +13,12 @@ import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import net.java.dev.spellcast.utilities.DataUtilities;
@@ -288,16 +297,18 @@ public abstract class ClanManager {
     ClanManager.updateWhiteList();
   }
 
+  // A page to retrieve for a clan member, who had ascended the given number of times
+  private record MemberPage(String name, boolean isProfile, int ascensions) {}
+
   private static boolean retrieveMemberData(
       final boolean retrieveProfileData, final boolean retrieveAscensionData) {
-    // First, determine how many member profiles need to be retrieved
-    // before this happens.
-
-    int requestsNeeded = 0;
+    // First, load every member page which has already been saved
+    // and is still current, and list the ones which are not.
 
-    String filename;
-    File profile, ascensionData;
-    String currentProfile, currentAscensionData;
+    ClanSnapshotIndex index =
+        ClanSnapshotIndex.load(
+            new File(KoLConstants.ROOT_LOCATION, "clan/" + ClanManager.clanId + "/snapshots.txt"));
+    List<MemberPage> wanted = new ArrayList<>();
 
     String[] names = new String[ClanManager.profileMap.size()];
     ClanManager.profileMap.keySet().toArray(names);
@@ -306,69 +317,107 @@ public abstract class ClanManager {
       KoLmafia.updateDisplay(
           "Cache data lookup for member " + (i + 1) + " of " + names.length + "...");
 
-      currentProfile = ClanManager.profileMap.get(names[i]);
-      currentAscensionData = ClanManager.ascensionMap.get(names[i]);
-
-      filename = ClanManager.getFileName(names[i]);
-      profile =
-          new File(KoLConstants.ROOT_LOCATION, ClanManager.snapshotFolder + "profiles/" + filename);
-      ascensionData =
-          new File(
-              KoLConstants.ROOT_LOCATION, ClanManager.snapshotFolder + "ascensions/" + filename);
-
-      if (retrieveProfileData) {
-        if (currentProfile.equals("") && !profile.exists()) {
-          ++requestsNeeded;
-        }
+      int ascensions = ProfileSnapshot.getRosterAscensions(names[i]);
 
-        if (currentProfile.equals("") && profile.exists()) {
-          ClanManager.initializeProfile(names[i]);
-        }
+      if (retrieveProfileData
+          && ClanManager.profileMap.get(names[i]).equals("")
+          && !ClanManager.loadSavedPage(index, names[i], true, ascensions)) {
+        wanted.add(new MemberPage(names[i], true, ascensions));
       }
 
-      if (retrieveAscensionData) {
-        if (currentAscensionData.equals("") && !ascensionData.exists()) {
-          ++requestsNeeded;
-        }
-
-        if (currentAscensionData.equals("") && ascensionData.exists()) {
-          ClanManager.initializeAscensionData(names[i]);
-        }
+      if (retrieveAscensionData
+          && ClanManager.ascensionMap.get(names[i]).equals("")
+          && !ClanManager.loadSavedPage(index, names[i], false, ascensions)) {
+        wanted.add(new MemberPage(names[i], false, ascensions));
       }
     }
 
-    // If all the member profiles have already been retrieved, then
-    // you won't need to look up any profiles, so it takes no time.
-    // No need to confirm with the user.  Therefore, return.
+    // If all the member pages are already saved, then
+    // there is nothing to retrieve.
 
-    if (requestsNeeded == 0) {
+    if (wanted.isEmpty()) {
       return true;
     }
 
-    // Now that it's known what the user wishes to continue,
-    // you begin initializing all the data.
-
     // Create a special HTML file for each of the
     // players in the ProfileSnapshot so that it can be
     // navigated at leisure.
 
-    for (int i = 0; i < names.length && KoLmafia.permitsContinue(); ++i) {
-      KoLmafia.updateDisplay(
-          "Loading profile for member " + (i + 1) + " of " + names.length + "...");
-
-      currentProfile = ClanManager.profileMap.get(names[i]);
-      currentAscensionData = ClanManager.ascensionMap.get(names[i]);
+    int threads = Math.min(wanted.size(), Preferences.getInteger("clanSnapshotThreads"));
+    long delay = Preferences.getInteger("clanSnapshotDelay");
 
-      if (retrieveProfileData && currentProfile.equals("")) {
-        ClanManager.initializeProfile(names[i]);
+    if (threads <= 1) {
+      for (int i = 0; i < wanted.size() && KoLmafia.permitsContinue(); ++i) {
+        KoLmafia.updateDisplay("Loading member page " + (i + 1) + " of " + wanted.size() + "...");
+        if (!ClanManager.awaitFetchSlot(delay)) {
+          break;
+        }
+        MemberPage page = wanted.get(i);
+        ClanManager.savePage(index, page, ClanManager.fetchPage(page));
       }
+    } else {
+      ClanManager.fetchConcurrently(index, wanted, threads, delay);
+    }
 
-      if (retrieveAscensionData && currentAscensionData.equals("")) {
-        ClanManager.initializeAscensionData(names[i]);
+    index.save();
+    return true;
+  }
+
+  private static void fetchConcurrently(
+      final ClanSnapshotIndex index,
+      final List<MemberPage> wanted,
+      final int threads,
+      final long delay) {
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    CompletionService<Entry<MemberPage, String>> completion =
+        new ExecutorCompletionService<>(executor);
+
+    for (MemberPage page : wanted) {
+      completion.submit(
+          () -> {
+            if (!KoLmafia.permitsContinue() || !ClanManager.awaitFetchSlot(delay)) {
+              return Map.entry(page, "");
+            }
+            return Map.entry(page, ClanManager.fetchPage(page));
+          });
+    }
+
+    // The pages are retrieved in parallel; they are saved here, one at a time
+    try {
+      for (int i = 0; i < wanted.size(); ++i) {
+        var fetched = completion.take().get();
+        KoLmafia.updateDisplay("Loaded member page " + (i + 1) + " of " + wanted.size() + "...");
+        ClanManager.savePage(index, fetched.getKey(), fetched.getValue());
       }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException e) {
+      StaticEntity.printStackTrace(e.getCause());
+    } finally {
+      executor.shutdownNow();
     }
+  }
 
-    return true;
+  private static long nextFetchTime = 0;
+
+  // Wait until at least delay milliseconds have passed since the last member page retrieval
+  // started. Returns false if interrupted while waiting.
+  private static boolean awaitFetchSlot(final long delay) {
+    synchronized (ClanManager.class) {
+      long now = System.currentTimeMillis();
+      long wait = ClanManager.nextFetchTime - now;
+      if (wait > 0) {
+        try {
+          Thread.sleep(wait);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return false;
+        }
+        now += wait;
+      }
+      ClanManager.nextFetchTime = now + delay;
+      return true;
+    }
   }
 
   public static final String getURLName(final String name) {
@@ -383,126 +432,137 @@ public abstract class ClanManager {
     return Preferences.baseUserName(name) + "_(#" + ContactManager.getPlayerId(name) + ")" + ".htm";
   }
 
-  private static void initializeProfile(final String name) {
-    File profile =
-        new File(
-            KoLConstants.ROOT_LOCATION,
-            ClanManager.snapshotFolder + "profiles/" + ClanManager.getFileName(name));
+  private static File getPageFile(final String folder, final String name, final boolean isProfile) {
+    return new File(
+        KoLConstants.ROOT_LOCATION,
+        folder + (isProfile ? "profiles/" : "ascensions/") + ClanManager.getFileName(name));
+  }
 
-    if (profile.exists()) {
-      try {
-        BufferedReader istream = FileUtilities.getReader(profile);
-        StringBuilder profileString = new StringBuilder();
-        String currentLine;
+  /**
+   * Loads a member's page from this week's folder. An ascension history is instead loaded from
+   * wherever it was last saved, unless the member has ascended since; one saved in an earlier week
+   * is copied into this week's folder, so the snapshot can link to it.
+   *
+   * @return false if the page needs to be retrieved
+   */
+  private static boolean loadSavedPage(
+      final ClanSnapshotIndex index,
+      final String name,
+      final boolean isProfile,
+      final int ascensions) {
+    File current = ClanManager.getPageFile(ClanManager.snapshotFolder, name, isProfile);
+    File saved = current;
+
+    if (!current.exists() || index.isStale(name, isProfile, ascensions)) {
+      String folder = index.getFreshFolder(name, isProfile, ascensions);
+      if (folder == null) {
+        return false;
+      }
 
-        while ((currentLine = istream.readLine()) != null) {
-          profileString.append(currentLine);
-          profileString.append(KoLConstants.LINE_BREAK);
-        }
+      saved = ClanManager.getPageFile(folder, name, isProfile);
+      if (!saved.exists()) {
+        return false;
+      }
+    }
 
-        ClanManager.profileMap.put(name.toLowerCase(), profileString.toString());
-        istream.close();
-      } catch (Exception e) {
-        // This should not happen.  Therefore, print
-        // a stack trace for debug purposes.
+    StringBuilder data = new StringBuilder();
 
-        StaticEntity.printStackTrace(e, "Failed to load cached profile");
-        return;
-      }
-    } else {
-      // Otherwise, run the request and pull the data from the
-      // web server.
+    try (BufferedReader istream = FileUtilities.getReader(saved)) {
+      String currentLine;
 
-      ProfileRequest request = new ProfileRequest(name);
-      request.initialize();
+      while ((currentLine = istream.readLine()) != null) {
+        data.append(currentLine);
+        data.append(KoLConstants.LINE_BREAK);
+      }
+    } catch (Exception e) {
+      // This should not happen.  Therefore, print
+      // a stack trace for debug purposes.
 
-      String data =
-          KoLConstants.LINE_BREAK_PATTERN
-              .matcher(
-                  KoLConstants.COMMENT_PATTERN
-                      .matcher(
-                          KoLConstants.STYLE_PATTERN
-                              .matcher(
-                                  KoLConstants.SCRIPT_PATTERN
-                                      .matcher(request.responseText)
-                                      .replaceAll(""))
-                              .replaceAll(""))
-                      .replaceAll(""))
-              .replaceAll("")
-              .replaceAll(
-                  "ascensionhistory.php\\?back=other&who=" + ContactManager.getPlayerId(name),
-                  "../ascensions/" + ClanManager.getURLName(name));
-
-      ClanManager.profileMap.put(name, data);
-
-      // To avoid retrieving the file again, store the intermediate
-      // result in a local file.
-
-      PrintStream ostream = LogStream.openStream(profile, true);
-      ostream.println(data);
-      ostream.close();
+      StaticEntity.printStackTrace(
+          e,
+          isProfile ? "Failed to load cached profile" : "Failed to load cached ascension history");
+      return false;
     }
-  }
 
-  private static void initializeAscensionData(final String name) {
-    File ascension =
-        new File(
-            KoLConstants.ROOT_LOCATION,
-            ClanManager.snapshotFolder + "ascensions/" + ClanManager.getFileName(name));
+    (isProfile ? ClanManager.profileMap : ClanManager.ascensionMap).put(name, data.toString());
 
-    if (ascension.exists()) {
+    if (saved != current) {
       try {
-        BufferedReader istream = FileUtilities.getReader(ascension);
-        StringBuilder ascensionString = new StringBuilder();
-        String currentLine;
+        current.getParentFile().mkdirs();
+        Files.copy(saved.toPath(), current.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      } catch (IOException e) {
+        StaticEntity.printStackTrace(e, "Failed to copy cached page");
+      }
+    }
 
-        while ((currentLine = istream.readLine()) != null) {
-          ascensionString.append(currentLine);
-          ascensionString.append(KoLConstants.LINE_BREAK);
-        }
+    return true;
+  }
 
-        ClanManager.ascensionMap.put(name, ascensionString.toString());
-      } catch (Exception e) {
-        // This should not happen.  Therefore, print
-        // a stack trace for debug purposes.
+  /**
+   * Retrieves a member's page from the server. This may run on any thread, so the page is only
+   * stored by savePage.
+   */
+  private static String fetchPage(final MemberPage page) {
+    String name = page.name();
 
-        StaticEntity.printStackTrace(e, "Failed to load cached ascension history");
-        return;
+    if (page.isProfile()) {
+      ProfileRequest request = new ProfileRequest(name);
+      request.initialize();
+
+      if (request.responseText == null) {
+        return "";
       }
-    } else {
-      // Otherwise, run the request and pull the data from the
-      // web server.
 
-      AscensionHistoryRequest request =
-          new AscensionHistoryRequest(name, ContactManager.getPlayerId(name));
-      request.initialize();
+      return ClanManager.stripPage(request.responseText)
+          .replaceAll(
+              "ascensionhistory.php\\?back=other&who=" + ContactManager.getPlayerId(name),
+              "../ascensions/" + ClanManager.getURLName(name));
+    }
 
-      String data =
-          KoLConstants.LINE_BREAK_PATTERN
-              .matcher(
-                  KoLConstants.COMMENT_PATTERN
-                      .matcher(
-                          KoLConstants.STYLE_PATTERN
-                              .matcher(
-                                  KoLConstants.SCRIPT_PATTERN
-                                      .matcher(request.responseText)
-                                      .replaceAll(""))
-                              .replaceAll(""))
-                      .replaceAll(""))
-              .replaceAll("")
-              .replaceAll(
-                  "<a href=\"charsheet.php\">",
-                  "<a href=../profiles/" + ClanManager.getURLName(name));
-
-      ClanManager.ascensionMap.put(name, data);
-
-      // To avoid retrieving the file again, store the intermediate
-      // result in a local file.
-
-      PrintStream ostream = LogStream.openStream(ascension, true);
-      ostream.println(data);
-      ostream.close();
+    AscensionHistoryRequest request =
+        new AscensionHistoryRequest(name, ContactManager.getPlayerId(name));
+    request.initialize();
+
+    if (request.responseText == null) {
+      return "";
+    }
+
+    return ClanManager.stripPage(request.responseText)
+        .replaceAll(
+            "<a href=\"charsheet.php\">", "<a href=../profiles/" + ClanManager.getURLName(name));
+  }
+
+  private static String stripPage(final String responseText) {
+    return KoLConstants.LINE_BREAK_PATTERN
+        .matcher(
+            KoLConstants.COMMENT_PATTERN
+                .matcher(
+                    KoLConstants.STYLE_PATTERN
+                        .matcher(KoLConstants.SCRIPT_PATTERN.matcher(responseText).replaceAll(""))
+                        .replaceAll(""))
+                .replaceAll(""))
+        .replaceAll("");
+  }
+
+  private static void savePage(
+      final ClanSnapshotIndex index, final MemberPage page, final String data) {
+    if (data.isEmpty()) {
+      return;
     }
+
+    (page.isProfile() ? ClanManager.profileMap : ClanManager.ascensionMap).put(page.name(), data);
+
+    // To avoid retrieving the page again, store it in a local
+    // file, and note how many times the member had ascended.
+
+    PrintStream ostream =
+        LogStream.openStream(
+            ClanManager.getPageFile(ClanManager.snapshotFolder, page.name(), page.isProfile()),
+            true);
+    ostream.println(data);
+    ostream.close();
+
+    index.record(page.name(), page.isProfile(), page.ascensions(), ClanManager.snapshotFolder);
   }
 
   public static String getTitle(final String name) {
@@ -578,7 +638,7 @@ public abstract class ClanManager {
 
     try {
       PrintStream ostream = LogStream.openStream(standardFile, true);
-      ostream.println(ProfileSnapshot.getStandardData(localProfileLink));
+      ProfileSnapshot.writeStandardData(ostream, localProfileLink);
       ostream.close();
 
       String line;
@@ -594,39 +654,39 @@ public abstract class ClanManager {
       KoLmafia.updateDisplay("Storing ascension snapshot...");
 
       ostream = LogStream.openStream(softcoreFile, true);
-      ostream.println(
-          AscensionSnapshot.getAscensionData(
-              AscensionSnapshot.NORMAL,
-              mostAscensionsBoardSize,
-              mainBoardSize,
-              classBoardSize,
-              maxAge,
-              playerMoreThanOnce,
-              localProfileLink));
+      AscensionSnapshot.writeAscensionData(
+          ostream,
+          AscensionSnapshot.NORMAL,
+          mostAscensionsBoardSize,
+          mainBoardSize,
+          classBoardSize,
+          maxAge,
+          playerMoreThanOnce,
+          localProfileLink);
       ostream.close();
 
       ostream = LogStream.openStream(hardcoreFile, true);
-      ostream.println(
-          AscensionSnapshot.getAscensionData(
-              AscensionSnapshot.HARDCORE,
-              mostAscensionsBoardSize,
-              mainBoardSize,
-              classBoardSize,
-              maxAge,
-              playerMoreThanOnce,
-              localProfileLink));
+      AscensionSnapshot.writeAscensionData(
+          ostream,
+          AscensionSnapshot.HARDCORE,
+          mostAscensionsBoardSize,
+          mainBoardSize,
+          classBoardSize,
+          maxAge,
+          playerMoreThanOnce,
+          localProfileLink);
       ostream.close();
 
       ostream = LogStream.openStream(casualFile, true);
-      ostream.println(
-          AscensionSnapshot.getAscensionData(
-              AscensionSnapshot.CASUAL,
-              mostAscensionsBoardSize,
-              mainBoardSize,
-              classBoardSize,
-              maxAge,
-              playerMoreThanOnce,
-              localProfileLink));
+      AscensionSnapshot.writeAscensionData(
+          ostream,
+          AscensionSnapshot.CASUAL,
+          mostAscensionsBoardSize,
+          mainBoardSize,
+          classBoardSize,
+          maxAge,
+          playerMoreThanOnce,
+          localProfileLink);
       ostream.close();
     } catch (Exception e) {
       StaticEntity.printStackTrace(e);
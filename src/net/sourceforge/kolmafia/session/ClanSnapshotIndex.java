@@ -0,0 +1,106 @@
+package net.sourceforge.kolmafia.session;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.TreeMap;
+import net.sourceforge.kolmafia.StaticEntity;
+import net.sourceforge.kolmafia.utilities.FileUtilities;
+import net.sourceforge.kolmafia.utilities.LogStream;
+import net.sourceforge.kolmafia.utilities.StringUtilities;
+
+/**
+ * Where the latest ascension history saved for each clan member is, and how many times the member
+ * had ascended when it was fetched.
+ *
+ * <p>Clan snapshots are saved in a new folder each week. A member whose ascension count has not
+ * changed since then has no new runs in their ascension history, so the page already saved, in
+ * whichever week, is still good. A member who has ascended since must be fetched again, even if
+ * this week's folder already has their page.
+ *
+ * <p>Profiles are not tracked. Level, turns played and last login change whether or not the member
+ * ascends, so a profile is only reused from this week's folder.
+ *
+ * <p>The index is saved as a tab separated file: member name, ascension count, and folder.
+ */
+class ClanSnapshotIndex {
+  private record Entry(int ascensions, String folder) {}
+
+  private final File file;
+  // Keyed by member name
+  private final Map<String, Entry> entries = new TreeMap<>();
+
+  private ClanSnapshotIndex(final File file) {
+    this.file = file;
+  }
+
+  static ClanSnapshotIndex load(final File file) {
+    ClanSnapshotIndex index = new ClanSnapshotIndex(file);
+    if (!file.exists()) {
+      return index;
+    }
+
+    try (BufferedReader reader = FileUtilities.getReader(file)) {
+      if (reader == null) {
+        return index;
+      }
+
+      String line;
+      while ((line = reader.readLine()) != null) {
+        String[] data = line.split("\t");
+        if (data.length != 3 || !StringUtilities.isNumeric(data[1])) {
+          continue;
+        }
+        index.entries.put(data[0], new Entry(StringUtilities.parseInt(data[1]), data[2]));
+      }
+    } catch (IOException e) {
+      StaticEntity.printStackTrace(e, "Failed to load clan snapshot index");
+    }
+
+    return index;
+  }
+
+  void save() {
+    try (PrintStream ostream = LogStream.openStream(this.file, true)) {
+      for (Map.Entry<String, Entry> entry : this.entries.entrySet()) {
+        Entry value = entry.getValue();
+        ostream.println(entry.getKey() + "\t" + value.ascensions() + "\t" + value.folder());
+      }
+    }
+  }
+
+  /**
+   * Returns the folder with the member's ascension history if they have not ascended since it was
+   * fetched, or null if they have, or if it is not known. Always null for profiles.
+   */
+  String getFreshFolder(final String name, final boolean isProfile, final int ascensions) {
+    Entry entry = isProfile ? null : this.entries.get(name);
+    return ascensions >= 0 && entry != null && entry.ascensions() == ascensions
+        ? entry.folder()
+        : null;
+  }
+
+  /**
+   * Returns whether the member is known to have ascended since their ascension history was fetched.
+   * Always false for profiles.
+   */
+  boolean isStale(final String name, final boolean isProfile, final int ascensions) {
+    Entry entry = isProfile ? null : this.entries.get(name);
+    return ascensions >= 0 && entry != null && entry.ascensions() != ascensions;
+  }
+
+  /** Notes where a page was saved. Profiles are not recorded. */
+  void record(
+      final String name, final boolean isProfile, final int ascensions, final String folder) {
+    if (isProfile) {
+      return;
+    }
+    if (ascensions < 0) {
+      this.entries.remove(name);
+    } else {
+      this.entries.put(name, new Entry(ascensions, folder));
+    }
+  }
+}
@@ -7,6 +7,7 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import net.sourceforge.kolmafia.AdventureResult;
+import net.sourceforge.kolmafia.AreaCombatData;
 import net.sourceforge.kolmafia.KoLAdventure;
 import net.sourceforge.kolmafia.KoLCharacter;
 import net.sourceforge.kolmafia.KoLConstants;
@@ -67,11 +68,13 @@ public final class CrystalBallManager {
 
   public static void clear() {
     CrystalBallManager.predictions.clear();
+    AreaCombatData.invalidate(AreaCombatData.Input.QUEUE);
     updatePreference();
   }
 
   public static void reset() {
     CrystalBallManager.predictions.clear();
+    AreaCombatData.invalidate(AreaCombatData.Input.QUEUE);
 
     String[] predictions = Preferences.getString("crystalBallPredictions").split("\\|");
 
@@ -2,9 +2,12 @@ package net.sourceforge.kolmafia.session;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -1161,20 +1164,45 @@ public abstract class InventoryManager {
     return lower + (int) ((upper - lower) * factor);
   }
 
+  // The prices worked out during a single top-level priceToAcquire or priceToMake call. A recipe
+  // tree can contain the same sub-ingredient many times, and every node whose mall and make prices
+  // are close gets its whole subtree priced again with exact prices, so without this the same
+  // items are evaluated over and over.
+  private record PriceKey(int itemId, int count, boolean exact, boolean make, int level) {}
+
   public static final long priceToAcquire(final AdventureResult item, final boolean exact) {
-    return InventoryManager.priceToAcquire(item, exact, false, 0);
+    return InventoryManager.priceToAcquire(item, exact, false);
   }
 
   public static final long priceToAcquire(
       final AdventureResult item, final boolean exact, final boolean mallPriceOnly) {
-    return InventoryManager.priceToAcquire(item, exact, mallPriceOnly, 0);
+    InventoryManager.prefetchPrices(item, exact, mallPriceOnly, false);
+    return InventoryManager.priceToAcquire(item, exact, mallPriceOnly, 0, new HashMap<>());
+  }
+
+  private static long priceToAcquire(
+      final AdventureResult item,
+      final boolean exact,
+      final boolean mallPriceOnly,
+      final int level,
+      final Map<PriceKey, Long> prices) {
+    PriceKey key = new PriceKey(item.getItemId(), item.getCount(), exact, false, level);
+    Long known = prices.get(key);
+    if (known != null) {
+      return known;
+    }
+
+    long price = InventoryManager.computePriceToAcquire(item, exact, mallPriceOnly, level, prices);
+    prices.put(key, price);
+    return price;
   }
 
-  private static final long priceToAcquire(
+  private static long computePriceToAcquire(
       final AdventureResult item,
       final boolean exact,
       final boolean mallPriceOnly,
-      final int level) {
+      final int level,
+      final Map<PriceKey, Long> prices) {
 
     int itemId = item.getItemId();
     int needed = item.getCount();
@@ -1215,24 +1243,21 @@ public abstract class InventoryManager {
     }
 
     AdventureResult instance = item.getInstance(needed);
-    long mallPrice =
-        (exact
-            ? MallPriceManager.getMallPrice(instance)
-            : MallPriceManager.getMallPrice(instance, MALL_PRICE_AGE));
+    long mallPrice = InventoryManager.mallPrice(instance, exact);
     if (mallPrice <= 0) {
       mallPrice = Long.MAX_VALUE;
     } else {
       mallPrice += price;
     }
 
-    long makePrice = InventoryManager.priceToMake(instance, exact, mallPriceOnly, level);
+    long makePrice = InventoryManager.priceToMake(instance, exact, mallPriceOnly, level, prices);
     if (makePrice != Long.MAX_VALUE) {
       makePrice += price;
     }
 
     if (!exact && mallPrice / 2 < makePrice && makePrice / 2 < mallPrice) {
       // Less than a 2:1 ratio, we should check more carefully
-      return InventoryManager.priceToAcquire(item, true, mallPriceOnly, level);
+      return InventoryManager.priceToAcquire(item, true, mallPriceOnly, level, prices);
     }
 
     if (Preferences.getBoolean("debugBuy")) {
@@ -1243,24 +1268,49 @@ public abstract class InventoryManager {
     return Math.min(mallPrice, makePrice);
   }
 
+  private static long mallPrice(final AdventureResult item, final boolean exact) {
+    return exact
+        ? MallPriceManager.getMallPrice(item)
+        : MallPriceManager.getMallPrice(item, MALL_PRICE_AGE);
+  }
+
   private static String priceString(long price) {
     return price == Long.MAX_VALUE ? "\u221E" : String.valueOf(price);
   }
 
   public static long priceToMake(final AdventureResult item, final boolean exact) {
-    return InventoryManager.priceToMake(item, exact, false, 0);
+    return InventoryManager.priceToMake(item, exact, false);
   }
 
   public static long priceToMake(
       final AdventureResult item, final boolean exact, final boolean mallPriceOnly) {
-    return InventoryManager.priceToMake(item, exact, mallPriceOnly, 0);
+    InventoryManager.prefetchPrices(item, exact, mallPriceOnly, true);
+    return InventoryManager.priceToMake(item, exact, mallPriceOnly, 0, new HashMap<>());
   }
 
   private static long priceToMake(
       final AdventureResult item,
       final boolean exact,
       final boolean mallPriceOnly,
-      final int level) {
+      final int level,
+      final Map<PriceKey, Long> prices) {
+    PriceKey key = new PriceKey(item.getItemId(), item.getCount(), exact, true, level);
+    Long known = prices.get(key);
+    if (known != null) {
+      return known;
+    }
+
+    long price = InventoryManager.computePriceToMake(item, exact, mallPriceOnly, level, prices);
+    prices.put(key, price);
+    return price;
+  }
+
+  private static long computePriceToMake(
+      final AdventureResult item,
+      final boolean exact,
+      final boolean mallPriceOnly,
+      final int level,
+      final Map<PriceKey, Long> prices) {
     int itemId = item.getItemId();
     int quantity = item.getCount();
     int meatCost = CombineMeatRequest.getCost(itemId);
@@ -1292,7 +1342,7 @@ public abstract class InventoryManager {
           ingredient.isMeat()
               ? needed
               : InventoryManager.priceToAcquire(
-                  ingredient.getInstance(needed), exact, mallPriceOnly, level + 1);
+                  ingredient.getInstance(needed), exact, mallPriceOnly, level + 1, prices);
 
       if (ingredientPrice == Long.MAX_VALUE) {
         return ingredientPrice;
@@ -1304,6 +1354,97 @@ public abstract class InventoryManager {
     return price * quantity / (yield * madeQuantity);
   }
 
+  /**
+   * Walks the recipe tree the way priceToAcquire or priceToMake is about to, collecting every item
+   * it will want a mall price for, and looks those prices up before any costs are worked out. Each
+   * item is only searched for once however often it appears in the tree.
+   */
+  private static void prefetchPrices(
+      final AdventureResult item,
+      final boolean exact,
+      final boolean mallPriceOnly,
+      final boolean make) {
+    Map<Integer, AdventureResult> wanted = new LinkedHashMap<>();
+    Set<PriceKey> visited = new HashSet<>();
+    if (make) {
+      InventoryManager.collectPricesToMake(item, mallPriceOnly, 0, wanted, visited);
+    } else {
+      InventoryManager.collectPricesToAcquire(item, mallPriceOnly, 0, wanted, visited);
+    }
+
+    // Search for everything still missing a price in one batch rather than one at a time
+    if (exact) {
+      MallPriceManager.prefetchMallPrices(wanted.values(), 0.0f);
+    } else {
+      // Inexact prices are per item, however many are wanted
+      List<AdventureResult> items = new ArrayList<>();
+      for (AdventureResult instance : wanted.values()) {
+        items.add(instance.getInstance(1));
+      }
+      MallPriceManager.prefetchMallPrices(items, MALL_PRICE_AGE);
+    }
+  }
+
+  private static void collectPricesToAcquire(
+      final AdventureResult item,
+      final boolean mallPriceOnly,
+      final int level,
+      final Map<Integer, AdventureResult> wanted,
+      final Set<PriceKey> visited) {
+    if (!visited.add(new PriceKey(item.getItemId(), item.getCount(), false, false, level))) {
+      return;
+    }
+
+    int needed = item.getCount();
+    int onhand = Math.min(needed, InventoryManager.getAccessibleCount(item));
+
+    if (onhand > 0) {
+      // itemValue only looks at the mall when inventory is valued above autosell
+      if (item.getItemId() != ItemPool.PLASTIC_SWORD
+          && !mallPriceOnly
+          && Preferences.getFloat("valueOfInventory") > 1.0f) {
+        wanted.putIfAbsent(item.getItemId(), item.getInstance(onhand));
+      }
+
+      needed -= onhand;
+      if (needed == 0) {
+        return;
+      }
+    }
+
+    AdventureResult instance = item.getInstance(needed);
+    wanted.putIfAbsent(item.getItemId(), instance);
+    InventoryManager.collectPricesToMake(instance, mallPriceOnly, level, wanted, visited);
+  }
+
+  private static void collectPricesToMake(
+      final AdventureResult item,
+      final boolean mallPriceOnly,
+      final int level,
+      final Map<Integer, AdventureResult> wanted,
+      final Set<PriceKey> visited) {
+    int itemId = item.getItemId();
+    if (CombineMeatRequest.getCost(itemId) > 0
+        || level > 10
+        || !ConcoctionDatabase.isPermittedMethod(item)) {
+      return;
+    }
+
+    int yield = ConcoctionDatabase.getYield(itemId);
+    int madeQuantity = (item.getCount() + yield - 1) / yield;
+
+    for (AdventureResult ingredient : ConcoctionDatabase.getIngredients(itemId)) {
+      if (!ingredient.isMeat()) {
+        InventoryManager.collectPricesToAcquire(
+            ingredient.getInstance(ingredient.getCount() * madeQuantity),
+            mallPriceOnly,
+            level + 1,
+            wanted,
+            visited);
+      }
+    }
+  }
+
   private static int getPurchaseCount(final int itemId, final int missingCount) {
     if (missingCount >= InventoryManager.BULK_PURCHASE_AMOUNT
         || !KoLCharacter.canInteract()
@@ -129,6 +129,8 @@ public class LoginManager {
           "https://kolmafia.us/scripts/updateprices.php?action=getmap");
     }
 
+    MallPriceManager.loadMallSearches();
+
     // Also, do mushrooms, if a mushroom script has already
     // been setup by the user.
 
@@ -14,6 +14,7 @@ import net.sourceforge.kolmafia.StaticEntity;
 import net.sourceforge.kolmafia.chat.ChatManager;
 import net.sourceforge.kolmafia.persistence.AdventureQueueDatabase;
 import net.sourceforge.kolmafia.persistence.AdventureSpentDatabase;
+import net.sourceforge.kolmafia.persistence.MallPriceDatabase;
 import net.sourceforge.kolmafia.preferences.Preferences;
 import net.sourceforge.kolmafia.request.GenericRequest;
 import net.sourceforge.kolmafia.request.LogoutRequest;
@@ -129,6 +130,10 @@ public class LogoutManager {
           "spade prices https://kolmafia.us/scripts/updateprices.php");
     }
 
+    // Prices recorded this session are in the price log; bring mallprices.txt up to date too
+    MallPriceDatabase.writeChangedPrices();
+    MallPriceManager.saveMallSearches();
+
     // Serialize adventure queue data
     AdventureQueueDatabase.serialize();
     AdventureSpentDatabase.serialize();
@@ -1,22 +1,35 @@
 package net.sourceforge.kolmafia.session;
 
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
 import java.time.Clock;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import net.sourceforge.kolmafia.AdventureResult;
 import net.sourceforge.kolmafia.KoLConstants;
 import net.sourceforge.kolmafia.KoLmafia;
 import net.sourceforge.kolmafia.RequestLogger;
 import net.sourceforge.kolmafia.RequestThread;
+import net.sourceforge.kolmafia.StaticEntity;
 import net.sourceforge.kolmafia.objectpool.ItemPool;
 import net.sourceforge.kolmafia.persistence.ItemDatabase;
 import net.sourceforge.kolmafia.persistence.MallPriceDatabase;
@@ -27,6 +40,9 @@ import net.sourceforge.kolmafia.request.GenericRequest;
 import net.sourceforge.kolmafia.request.MallPurchaseRequest;
 import net.sourceforge.kolmafia.request.MallSearchRequest;
 import net.sourceforge.kolmafia.request.PurchaseRequest;
+import net.sourceforge.kolmafia.utilities.FileUtilities;
+import net.sourceforge.kolmafia.utilities.LogStream;
+import net.sourceforge.kolmafia.utilities.StringUtilities;
 
 public abstract class MallPriceManager {
 
@@ -132,10 +148,12 @@ public abstract class MallPriceManager {
   // The data structures that this package "manages".
 
   // a Map from itemId -> current mall price (as visible to a scripter.)
-  private static final Map<Integer, Integer> mallPrices = new HashMap<>();
+  // Concurrent, since batched searches are made from several threads.
+  private static final Map<Integer, Integer> mallPrices = new ConcurrentHashMap<>();
 
   // a Map from itemId -> the most resent mall search results.
-  private static final Map<Integer, List<PurchaseRequest>> mallSearches = new HashMap<>();
+  private static final Map<Integer, List<PurchaseRequest>> mallSearches =
+      new ConcurrentHashMap<>();
 
   // Constants controlling how we manage those data
 
@@ -161,6 +179,7 @@ public abstract class MallPriceManager {
   public static void reset() {
     mallPrices.clear();
     mallSearches.clear();
+    persistSearches = false;
   }
 
   private static boolean removeShopPurchaseRequest(
@@ -617,24 +636,11 @@ public abstract class MallPriceManager {
     int count = 0;
 
     try {
+      List<AdventureResult> searches = new ArrayList<>();
       for (AdventureResult item : items) {
-        int itemId = item.getItemId();
-        if (!validMallItem(itemId)) {
-          continue;
-        }
-        int price = MallPriceDatabase.getPrice(itemId);
-        if (price > 0 && MallPriceDatabase.getAge(itemId) <= maxAge) {
-          continue;
-        }
-        if (MallPriceManager.mallPrices.getOrDefault(itemId, 0) == 0) {
-          AdventureResult search = item.getInstance(NTH_CHEAPEST_COUNT);
-          List<PurchaseRequest> results = MallPriceManager.searchMall(search);
-          MallPriceManager.flushCache(itemId);
-          MallPriceManager.updateMallPrice(itemId, results, true);
-          MallPriceManager.mallSearches.put(itemId, results);
-          ++count;
-        }
+        searches.add(item.getInstance(NTH_CHEAPEST_COUNT));
       }
+      count = MallPriceManager.searchMallPrices(searches, maxAge);
     } finally {
       RequestLogger.printLine("Updating mallprices.txt with " + count + " prices.");
       MallPriceDatabase.writePrices();
@@ -643,6 +649,274 @@ public abstract class MallPriceManager {
     return count;
   }
 
+  /**
+   * Makes sure that every one of the given items has a current mall price, so that pricing them
+   * one at a time afterwards needs no more searches.
+   *
+   * <p>Each item is searched for at most once, however often it is given, and only if neither
+   * MallPriceDatabase has a price for it younger than maxAge days nor a saved search would answer
+   * getMallPrice(item). The searches are shared among mallPrefetchThreads threads and are started
+   * no closer together than mallPrefetchDelay milliseconds.
+   *
+   * @return The number of items searched for
+   */
+  public static int prefetchMallPrices(Collection<AdventureResult> items, float maxAge) {
+    int count = MallPriceManager.searchMallPrices(items, maxAge);
+    if (count > 0) {
+      MallPriceDatabase.writePrices();
+    }
+    return count;
+  }
+
+  private static int searchMallPrices(Collection<AdventureResult> items, float maxAge) {
+    Map<Integer, String> wanted = new LinkedHashMap<>();
+    for (AdventureResult item : items) {
+      int itemId = item.getItemId();
+      if (wanted.containsKey(itemId)
+          || !validMallItem(itemId)
+          || MallPriceManager.hasFreshPrice(itemId, maxAge)
+          || !MallPriceManager.needsSearch(item)) {
+        continue;
+      }
+      wanted.put(itemId, ItemDatabase.getItemDataName(itemId));
+    }
+
+    if (wanted.isEmpty()) {
+      return 0;
+    }
+
+    int threads = Math.min(wanted.size(), Preferences.getInteger("mallPrefetchThreads"));
+    long delay = Preferences.getInteger("mallPrefetchDelay");
+
+    int count = 0;
+    if (threads <= 1) {
+      // Searching on this thread keeps the searches in order, and lets tests mock them
+      for (Entry<Integer, String> entry : wanted.entrySet()) {
+        if (!KoLmafia.permitsContinue() || !MallPriceManager.awaitSearchSlot(delay)) {
+          break;
+        }
+        List<PurchaseRequest> results =
+            MallPriceManager.searchMall("\"" + entry.getValue() + "\"", MALL_SEARCH_RESULTS);
+        count += MallPriceManager.saveBatchSearch(entry.getKey(), results);
+      }
+    } else {
+      count = MallPriceManager.searchConcurrently(wanted, threads, delay);
+    }
+
+    MallPriceManager.saveMallSearches();
+    return count;
+  }
+
+  // The searches are posted from the pool threads, as the relay browser and the GUI already post
+  // requests from theirs. GenericRequest keeps a request's state in the request itself and locks
+  // the shared cookies. Its static flags are only set by cellar, barrel, ascension and fight pages;
+  // a mall search can only clear them, as it would if it were posted from this thread.
+  // MallSearchRequest parses its results into the list it is given, and everything else is done
+  // here, one search at a time, by saveBatchSearch.
+  private static int searchConcurrently(Map<Integer, String> wanted, int threads, long delay) {
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    CompletionService<Entry<Integer, List<PurchaseRequest>>> completion =
+        new ExecutorCompletionService<>(executor);
+
+    for (Entry<Integer, String> entry : wanted.entrySet()) {
+      completion.submit(
+          () -> {
+            if (!KoLmafia.permitsContinue() || !MallPriceManager.awaitSearchSlot(delay)) {
+              return Map.entry(entry.getKey(), List.<PurchaseRequest>of());
+            }
+            List<PurchaseRequest> results =
+                MallPriceManager.searchMall("\"" + entry.getValue() + "\"", MALL_SEARCH_RESULTS);
+            return Map.entry(entry.getKey(), results);
+          });
+    }
+
+    // The searches themselves run in parallel; their results are saved here, one at a time
+    int count = 0;
+    try {
+      for (int i = 0; i < wanted.size(); ++i) {
+        var search = completion.take().get();
+        count += MallPriceManager.saveBatchSearch(search.getKey(), search.getValue());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException e) {
+      StaticEntity.printStackTrace(e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+
+    return count;
+  }
+
+  private static int saveBatchSearch(int itemId, List<PurchaseRequest> results) {
+    if (!KoLmafia.permitsContinue()) {
+      return 0;
+    }
+
+    results = new ArrayList<>(results);
+    results.removeIf(purchaseRequest -> purchaseRequest instanceof CoinMasterPurchaseRequest);
+    MallPriceManager.flushCache(itemId);
+    MallPriceManager.updateMallPrice(itemId, results, true);
+    MallPriceManager.mallSearches.put(itemId, results);
+    return 1;
+  }
+
+  // Whether MallPriceDatabase has a price no older than maxAge days
+  private static boolean hasFreshPrice(int itemId, float maxAge) {
+    return MallPriceDatabase.getPrice(itemId) > 0 && MallPriceDatabase.getAge(itemId) <= maxAge;
+  }
+
+  // Whether getMallPrice(item) would have to search the mall
+  private static boolean needsSearch(AdventureResult item) {
+    int itemId = item.getItemId();
+    if (item.getCount() > NTH_CHEAPEST_COUNT) {
+      return MallPriceManager.getSavedSearch(itemId, 0) == null;
+    }
+    return MallPriceManager.mallPrices.getOrDefault(itemId, 0) == 0;
+  }
+
+  private static long nextSearchTime = 0;
+
+  // Wait until at least delay milliseconds have passed since the last batched search started.
+  // Returns false if interrupted while waiting.
+  private static boolean awaitSearchSlot(long delay) {
+    synchronized (MallPriceManager.class) {
+      long now = System.currentTimeMillis();
+      long wait = MallPriceManager.nextSearchTime - now;
+      if (wait > 0) {
+        try {
+          Thread.sleep(wait);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return false;
+        }
+        now += wait;
+      }
+      MallPriceManager.nextSearchTime = now + delay;
+      return true;
+    }
+  }
+
+  // Saved searches are only good for MALL_SEARCH_FRESHNESS seconds, but that is still long enough
+  // to be worth keeping across a restart. Once loadMallSearches has been called, the saved
+  // searches are written to this file, each store with the time it was seen, after each batch of
+  // prefetched searches and at logout.
+
+  private static final String SEARCH_FILE = "mallsearches.txt";
+  private static final int SEARCH_FILE_VERSION = 1;
+  // Held while the search file is read or written
+  private static final Object SEARCH_FILE_LOCK = new Object();
+  private static boolean persistSearches = false;
+
+  public static void loadMallSearches() {
+    MallPriceManager.persistSearches = true;
+
+    File input = new File(KoLConstants.DATA_LOCATION, SEARCH_FILE);
+    if (!input.exists()) {
+      return;
+    }
+
+    Map<Integer, List<PurchaseRequest>> searches = new HashMap<>();
+    synchronized (MallPriceManager.SEARCH_FILE_LOCK) {
+      try (BufferedReader reader = FileUtilities.getReader(input)) {
+        String line = FileUtilities.readLine(reader);
+        if (line == null || StringUtilities.parseInt(line) != SEARCH_FILE_VERSION) {
+          return;
+        }
+
+        String[] data;
+        while ((data = FileUtilities.readData(reader)) != null) {
+          if (data.length < 8) {
+            continue;
+          }
+
+          int itemId = StringUtilities.parseInt(data[0]);
+          if (!ItemDatabase.isTradeable(itemId)) {
+            continue;
+          }
+
+          PurchaseRequest request =
+              new MallPurchaseRequest(
+                  itemId,
+                  StringUtilities.parseInt(data[4]),
+                  StringUtilities.parseInt(data[2]),
+                  data[7],
+                  StringUtilities.parseInt(data[3]),
+                  StringUtilities.parseInt(data[5]),
+                  Boolean.parseBoolean(data[6]));
+          request.setTimestamp(Long.parseLong(data[1]));
+          searches.computeIfAbsent(itemId, k -> new ArrayList<>()).add(request);
+        }
+      } catch (IOException | NumberFormatException e) {
+        StaticEntity.printStackTrace(e);
+        return;
+      }
+    }
+
+    for (Entry<Integer, List<PurchaseRequest>> entry : searches.entrySet()) {
+      int itemId = entry.getKey();
+      List<PurchaseRequest> results = entry.getValue();
+      if (MallPriceManager.searchIsTooOld(results)
+          || MallPriceManager.mallSearches.containsKey(itemId)) {
+        continue;
+      }
+
+      // NPC stores are not saved, since what they offer depends on the character
+      if (NPCStoreDatabase.contains(itemId, false)) {
+        results.add(NPCStoreDatabase.getPurchaseRequest(itemId));
+      }
+      results.sort(PurchaseRequest.nameComparator);
+
+      MallPriceManager.mallSearches.put(itemId, results);
+      MallPriceManager.mallPrices.put(
+          itemId, MallPriceManager.nthCheapestPrice(NTH_CHEAPEST_COUNT, results));
+    }
+  }
+
+  public static void saveMallSearches() {
+    if (!MallPriceManager.persistSearches) {
+      return;
+    }
+
+    File output = new File(KoLConstants.DATA_LOCATION, SEARCH_FILE);
+    synchronized (MallPriceManager.SEARCH_FILE_LOCK) {
+      try (PrintStream writer = LogStream.openStream(output, true)) {
+        writer.println(SEARCH_FILE_VERSION);
+
+        for (Entry<Integer, List<PurchaseRequest>> entry :
+            MallPriceManager.mallSearches.entrySet()) {
+          List<PurchaseRequest> results = entry.getValue();
+          if (MallPriceManager.searchIsTooOld(results)) {
+            continue;
+          }
+
+          for (PurchaseRequest result : results) {
+            if (!(result instanceof MallPurchaseRequest request)) {
+              continue;
+            }
+
+            writer.println(
+                entry.getKey()
+                    + "\t"
+                    + request.getTimestamp()
+                    + "\t"
+                    + request.getShopId()
+                    + "\t"
+                    + request.getPrice()
+                    + "\t"
+                    + request.getQuantity()
+                    + "\t"
+                    + request.getLimit()
+                    + "\t"
+                    + request.canPurchaseIgnoringMeat()
+                    + "\t"
+                    + request.getShopName().replace('\t', ' '));
+          }
+        }
+      }
+    }
+  }
+
   public static int getMallPrices(String category) {
     return getMallPrices(category, "");
   }
@@ -0,0 +1,97 @@
+package net.sourceforge.kolmafia.session;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import net.sourceforge.kolmafia.RequestLogger;
+import net.sourceforge.kolmafia.utilities.KeywordAutomaton;
+
+/**
+ * The fixed strings which result processing looks for on every page, found in a single pass.
+ *
+ * <p>Some keywords are the whole of what a handler looks for. Others are literal parts of a
+ * pattern, which cannot match unless the keyword is present, so the pattern need only be tried when
+ * it is.
+ *
+ * <p>With debugging on, each answer is checked against searching the page for the keyword, and
+ * any disagreement is logged.
+ */
+public class ResponseKeywords {
+  public enum Keyword {
+    CHARPANE("charpane.php"),
+    LESS_LUCKY("You feel less lucky"),
+    BROKEN_AGUA_BOTTLE("You break the bottle on the ground"),
+    FARQUAR("FARQUAR"),
+    SLEEPING_NEAR_ENEMY("Sleeping Near the Enemy"),
+    NO_MORE_GOD_LOBSTER("can't challenge your God Lobster anymore"),
+
+    // Donations in Fistcore
+    MOIST_ORPHANS("give it away to moist orphans"),
+    COLA_WARS("Cola Wars Veterans Administration"),
+    LARVA("Thanks for the larva, Adventurer"),
+    YOU_GAIN("You gain"),
+    LIBRARY("the one next to the library"),
+    TRAPPER("you divide up between the Tr4pz0r and the needy"),
+    HIPPY_DONATION("we donated "),
+
+    // Skills, recipes, and items which may show up on any page
+    LEARGN_SKILL("You leargn a new skill."),
+    NEW_SKILL("a new skill: <b>"),
+    GAIN_SKILL(" a skill:"),
+    CRAFT_RECIPE("You learn to "),
+    DISCOVER_RECIPE(" a new recipe"),
+    DESCITEM("descitem(");
+
+    private final String text;
+
+    Keyword(final String text) {
+      this.text = text;
+    }
+
+    public String getText() {
+      return this.text;
+    }
+  }
+
+  private static final KeywordAutomaton AUTOMATON =
+      new KeywordAutomaton(Arrays.stream(Keyword.values()).map(Keyword::getText).toList());
+
+  // The page most recently scanned, since each page is consulted by several handlers
+  private static volatile ResponseKeywords last = null;
+
+  private final String text;
+  private final BitSet found;
+
+  private ResponseKeywords(final String text) {
+    this.text = text;
+    this.found = AUTOMATON.scan(text);
+  }
+
+  /** Returns the keywords in a page, scanning it only if it is not the last page scanned. */
+  public static ResponseKeywords of(final String text) {
+    ResponseKeywords keywords = ResponseKeywords.last;
+    if (keywords == null || keywords.text != text) {
+      keywords = new ResponseKeywords(text);
+      ResponseKeywords.last = keywords;
+    }
+    return keywords;
+  }
+
+  public static boolean contains(final String text, final Keyword keyword) {
+    return ResponseKeywords.of(text).contains(keyword);
+  }
+
+  public boolean contains(final Keyword keyword) {
+    boolean found = this.found.get(keyword.ordinal());
+
+    if (RequestLogger.isDebugging()) {
+      boolean expected = this.text.contains(keyword.text);
+      if (found != expected) {
+        RequestLogger.updateDebugLog(
+            "Keyword \"" + keyword.text + "\" found: " + found + ", expected: " + expected);
+        return expected;
+      }
+    }
+
+    return found;
+  }
+}
@@ -108,6 +108,7 @@ import net.sourceforge.kolmafia.request.VolcanoIslandRequest;
 import net.sourceforge.kolmafia.request.VolcanoMazeRequest;
 import net.sourceforge.kolmafia.request.WitchessRequest;
 import net.sourceforge.kolmafia.request.ZapRequest;
+import net.sourceforge.kolmafia.session.ResponseKeywords.Keyword;
 import net.sourceforge.kolmafia.utilities.LockableListFactory;
 import net.sourceforge.kolmafia.utilities.StringUtilities;
 import net.sourceforge.kolmafia.webui.DiscoCombatHelper;
@@ -571,7 +572,7 @@ public class ResponseTextParser {
     }
 
     if (location.startsWith("tiles.php")) {
-      if (responseText.contains("charpane.php")) {
+      if (ResponseKeywords.contains(responseText, Keyword.CHARPANE)) {
         // Since a charpane refresh was requested, this might have taken a turn
         AdventureSpentDatabase.setNoncombatEncountered(true);
       }
@@ -678,15 +679,24 @@ public class ResponseTextParser {
     Pattern.compile("You learn to .*?craft.*? a new item:.*?<b>(.*?)</b>"),
     Pattern.compile("You (?:have|just) .*?discovered.*? a new recipe.*?<b>(.*?)</b>")
   };
+  // Text each of the above needs in order to match
+  private static final Keyword[] RECIPE_KEYWORDS = {
+    Keyword.CRAFT_RECIPE, Keyword.DISCOVER_RECIPE
+  };
 
   public static void learnRecipe(String location, String responseText) {
     if (!ResponseTextParser.hasResult(location)) {
       return;
     }
 
+    ResponseKeywords keywords = ResponseKeywords.of(responseText);
     String itemName = null;
 
     for (int i = 0; i < RECIPE_PATTERNS.length; ++i) {
+      if (!keywords.contains(RECIPE_KEYWORDS[i])) {
+        continue;
+      }
+
       Matcher matcher = RECIPE_PATTERNS[i].matcher(responseText);
       if (matcher.find()) {
         itemName = matcher.group(1);
@@ -716,6 +726,10 @@ public class ResponseTextParser {
       Pattern.compile("on[cC]lick='(?:javascript:)?descitem\\(([\\d]*)\\)'");
 
   public static void findNewItems(final String responseText) {
+    if (!ResponseKeywords.contains(responseText, Keyword.DESCITEM)) {
+      return;
+    }
+
     Matcher itemDescMatcher = ResponseTextParser.ITEM_DESC_PATTERN.matcher(responseText);
     while (itemDescMatcher.find()) {
       String descId = itemDescMatcher.group(1);
@@ -748,7 +762,7 @@ public class ResponseTextParser {
     // Camp, it doesn't tell you the name of the skill.
     // It simply says: "You leargn a new skill. Whee!"
 
-    if (responseText.contains("You leargn a new skill.")) {
+    if (ResponseKeywords.contains(responseText, Keyword.LEARGN_SKILL)) {
       Matcher matcher = ResponseTextParser.NEWSKILL2_PATTERN.matcher(location);
       if (matcher.find()) {
         int skillId = StringUtilities.parseInt(matcher.group(1));
@@ -762,19 +776,22 @@ public class ResponseTextParser {
   }
 
   public static void learnSkillFromResponse(final String responseText) {
+    ResponseKeywords keywords = ResponseKeywords.of(responseText);
     boolean skillFound = false;
 
-    Matcher matcher = ResponseTextParser.NEWSKILL1_PATTERN.matcher(responseText);
-    while (matcher.find()) {
-      ResponseTextParser.learnSkill(matcher.group(1));
-      skillFound = true;
+    if (keywords.contains(Keyword.NEW_SKILL)) {
+      Matcher matcher = ResponseTextParser.NEWSKILL1_PATTERN.matcher(responseText);
+      while (matcher.find()) {
+        ResponseTextParser.learnSkill(matcher.group(1));
+        skillFound = true;
+      }
     }
 
-    if (skillFound) {
+    if (skillFound || !keywords.contains(Keyword.GAIN_SKILL)) {
       return;
     }
 
-    matcher = ResponseTextParser.NEWSKILL3_PATTERN.matcher(responseText);
+    Matcher matcher = ResponseTextParser.NEWSKILL3_PATTERN.matcher(responseText);
     while (matcher.find()) {
       ResponseTextParser.learnSkill(Integer.parseInt(matcher.group(1)));
       skillFound = true;
@@ -45,6 +45,7 @@ import net.sourceforge.kolmafia.request.GenericRequest;
 import net.sourceforge.kolmafia.request.HermitRequest;
 import net.sourceforge.kolmafia.request.PlaceRequest;
 import net.sourceforge.kolmafia.request.UseItemRequest;
+import net.sourceforge.kolmafia.session.ResponseKeywords.Keyword;
 import net.sourceforge.kolmafia.utilities.LockableListFactory;
 import net.sourceforge.kolmafia.utilities.StringUtilities;
 import net.sourceforge.kolmafia.webui.BarrelDecorator;
@@ -3388,6 +3389,8 @@ public class ResultProcessor {
       return;
     }
 
+    ResponseKeywords keywords = ResponseKeywords.of(responseText);
+
     // ITEMS
 
     // Dolphin King's map:
@@ -3395,7 +3398,7 @@ public class ResultProcessor {
     // The treasure includes some Meat, but you give it away to
     // some moist orphans. They need it to buy dry clothes.
 
-    if (responseText.contains("give it away to moist orphans")) {
+    if (keywords.contains(Keyword.MOIST_ORPHANS)) {
       KoLCharacter.makeCharitableDonation(150);
       return;
     }
@@ -3405,7 +3408,7 @@ public class ResultProcessor {
     // The Cola Wars Veterans Administration is really gonna
     // appreciate the huge donation you're about to make!
 
-    if (responseText.contains("Cola Wars Veterans Administration")) {
+    if (keywords.contains(Keyword.COLA_WARS)) {
       KoLCharacter.makeCharitableDonation(3000);
       return;
     }
@@ -3457,8 +3460,7 @@ public class ResultProcessor {
     //
     // Thanks for the larva, Adventurer. We'll put this to good use.
 
-    if (responseText.contains("Thanks for the larva, Adventurer")
-        && !responseText.contains("You gain")) {
+    if (keywords.contains(Keyword.LARVA) && !keywords.contains(Keyword.YOU_GAIN)) {
       KoLCharacter.makeCharitableDonation(500);
       return;
     }
@@ -3469,7 +3471,7 @@ public class ResultProcessor {
     // You take the Meat into town and drop it in the donation slot
     // at the orphanage. You know, the one next to the library.
 
-    if (responseText.contains("the one next to the library")) {
+    if (keywords.contains(Keyword.LIBRARY)) {
       int donation =
           urlString.contains("place=ocg") ? 500 : urlString.contains("place=scg") ? 1000 : 0;
       KoLCharacter.makeCharitableDonation(donation);
@@ -3481,7 +3483,7 @@ public class ResultProcessor {
     // The furs you divide up between yourself and the Tr4pz0r, the
     // Meat you divide up between the Tr4pz0r and the needy.
 
-    if (responseText.contains("you divide up between the Tr4pz0r and the needy")) {
+    if (keywords.contains(Keyword.TRAPPER)) {
       KoLCharacter.makeCharitableDonation(5000);
       return;
     }
@@ -3497,6 +3499,10 @@ public class ResultProcessor {
     // our profits to the human fund in your honor. Thanks for
     // getting rid of those worms, man!
 
+    if (!keywords.contains(Keyword.HIPPY_DONATION)) {
+      return;
+    }
+
     Matcher matcher = ResultProcessor.HIPPY_PATTERN.matcher(responseText);
     if (matcher.find()) {
       int donation = StringUtilities.parseInt(matcher.group(1));
@@ -2,9 +2,14 @@ package net.sourceforge.kolmafia.session;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.StringTokenizer;
+import java.util.function.Predicate;
+import net.sourceforge.kolmafia.AreaCombatData;
 import net.sourceforge.kolmafia.KoLAdventure;
 import net.sourceforge.kolmafia.KoLCharacter;
 import net.sourceforge.kolmafia.KoLConstants;
@@ -22,6 +27,12 @@ public class TurnCounter implements Comparable<TurnCounter> {
   private static final ArrayList<TurnCounter> relayCounters = new ArrayList<TurnCounter>();
   private static final HashSet<String> ALL_LOCATIONS = new HashSet<>();
 
+  // relayCounters by parsed label, so that checking for a counter need not scan them all
+  private static final Map<String, List<TurnCounter>> countersByLabel = new HashMap<>();
+
+  // The relayCounters preference for the counters above, or null if it must be rebuilt
+  private static String serialized = null;
+
   private int value;
   private final String image;
   private String label;
@@ -100,22 +111,27 @@ public class TurnCounter implements Comparable<TurnCounter> {
   public int getTurnsRemaining() {
     int remain = this.value - KoLCharacter.getCurrentRun();
     if (remain < 0 && this.wander) {
-      this.value = KoLCharacter.getCurrentRun();
+      synchronized (TurnCounter.relayCounters) {
+        this.value = KoLCharacter.getCurrentRun();
+        TurnCounter.changed();
+      }
       remain = 0;
     }
     return remain;
   }
 
   public void resetForRun() {
-    this.value = this.getTurnsRemaining();
+    synchronized (TurnCounter.relayCounters) {
+      this.value = this.getTurnsRemaining();
+      TurnCounter.changed();
+    }
   }
 
   public static int turnsRemaining(final String label) {
     synchronized (TurnCounter.relayCounters) {
-      for (TurnCounter current : TurnCounter.relayCounters) {
-        if (current.parsedLabel.equals(label)) {
-          return current.value - KoLCharacter.getCurrentRun();
-        }
+      List<TurnCounter> counters = TurnCounter.countersWithLabel(label);
+      if (!counters.isEmpty()) {
+        return counters.get(0).value - KoLCharacter.getCurrentRun();
       }
     }
 
@@ -148,9 +164,44 @@ public class TurnCounter implements Comparable<TurnCounter> {
     return this.value - o.value;
   }
 
+  private static List<TurnCounter> countersWithLabel(final String label) {
+    return TurnCounter.countersByLabel.getOrDefault(label, List.of());
+  }
+
+  // Callers synchronize on relayCounters
+  private static void addCounter(final TurnCounter counter) {
+    TurnCounter.relayCounters.add(counter);
+    TurnCounter.countersByLabel
+        .computeIfAbsent(counter.parsedLabel, k -> new ArrayList<>())
+        .add(counter);
+    TurnCounter.changed();
+  }
+
+  private static void removeCountersIf(final Predicate<TurnCounter> predicate) {
+    if (TurnCounter.relayCounters.removeIf(predicate)) {
+      TurnCounter.reindex();
+    }
+  }
+
+  private static void reindex() {
+    TurnCounter.countersByLabel.clear();
+    for (TurnCounter counter : TurnCounter.relayCounters) {
+      TurnCounter.countersByLabel
+          .computeIfAbsent(counter.parsedLabel, k -> new ArrayList<>())
+          .add(counter);
+    }
+    TurnCounter.changed();
+  }
+
+  private static void changed() {
+    TurnCounter.serialized = null;
+    AreaCombatData.invalidate(AreaCombatData.Input.COUNTERS);
+  }
+
   public static final void clearCounters() {
     synchronized (TurnCounter.relayCounters) {
       TurnCounter.relayCounters.clear();
+      TurnCounter.reindex();
       TurnCounter.saveCounters();
     }
   }
@@ -158,6 +209,7 @@ public class TurnCounter implements Comparable<TurnCounter> {
   public static final void loadCounters() {
     synchronized (TurnCounter.relayCounters) {
       TurnCounter.relayCounters.clear();
+      TurnCounter.reindex();
 
       String counters = Preferences.getString("relayCounters");
       if (counters.length() == 0) {
@@ -178,21 +230,30 @@ public class TurnCounter implements Comparable<TurnCounter> {
 
   public static final void saveCounters() {
     synchronized (TurnCounter.relayCounters) {
-      StringBuilder counters = new StringBuilder();
+      String counters = TurnCounter.serialized;
 
-      for (TurnCounter current : TurnCounter.relayCounters) {
-        if (counters.length() > 0) {
-          counters.append(":");
+      if (counters == null) {
+        StringBuilder buffer = new StringBuilder();
+
+        for (TurnCounter current : TurnCounter.relayCounters) {
+          if (buffer.length() > 0) {
+            buffer.append(":");
+          }
+
+          buffer.append(current.value);
+          buffer.append(":");
+          buffer.append(current.label);
+          buffer.append(":");
+          buffer.append(current.image);
         }
 
-        counters.append(current.value);
-        counters.append(":");
-        counters.append(current.label);
-        counters.append(":");
-        counters.append(current.image);
+        counters = buffer.toString();
+        TurnCounter.serialized = counters;
       }
 
-      Preferences.setString("relayCounters", counters.toString());
+      if (!counters.equals(Preferences.getString("relayCounters"))) {
+        Preferences.setString("relayCounters", counters);
+      }
     }
   }
 
@@ -245,6 +306,7 @@ public class TurnCounter implements Comparable<TurnCounter> {
             continue;
           }
           it.remove();
+          TurnCounter.reindex();
         }
 
         current.lastWarned = thisTurn;
@@ -294,15 +356,15 @@ public class TurnCounter implements Comparable<TurnCounter> {
     if (value >= 0) {
       TurnCounter counter = new TurnCounter(value, label, image);
 
-      if (!TurnCounter.relayCounters.contains(counter)) {
-        TurnCounter.relayCounters.add(counter);
+      if (!TurnCounter.countersWithLabel(counter.parsedLabel).contains(counter)) {
+        TurnCounter.addCounter(counter);
       }
     }
   }
 
   public static final void stopCounting(final String label) {
     synchronized (TurnCounter.relayCounters) {
-      TurnCounter.relayCounters.removeIf(current -> current.parsedLabel.equals(label));
+      TurnCounter.removeCountersIf(current -> current.parsedLabel.equals(label));
 
       TurnCounter.saveCounters();
     }
@@ -312,8 +374,8 @@ public class TurnCounter implements Comparable<TurnCounter> {
     int searchValue = KoLCharacter.getCurrentRun() + value;
 
     synchronized (TurnCounter.relayCounters) {
-      for (TurnCounter current : TurnCounter.relayCounters) {
-        if (current.parsedLabel.equals(label) && current.value == searchValue) {
+      for (TurnCounter current : TurnCounter.countersWithLabel(label)) {
+        if (current.value == searchValue) {
           return true;
         }
       }
@@ -327,8 +389,8 @@ public class TurnCounter implements Comparable<TurnCounter> {
     int end = KoLCharacter.getCurrentRun() + stop;
 
     synchronized (TurnCounter.relayCounters) {
-      for (TurnCounter current : TurnCounter.relayCounters) {
-        if (current.parsedLabel.equals(label) && current.value >= begin && current.value <= end) {
+      for (TurnCounter current : TurnCounter.countersWithLabel(label)) {
+        if (current.value >= begin && current.value <= end) {
           return true;
         }
       }
@@ -339,8 +401,8 @@ public class TurnCounter implements Comparable<TurnCounter> {
 
   public static final boolean isCounting(final String label) {
     synchronized (TurnCounter.relayCounters) {
-      for (TurnCounter current : TurnCounter.relayCounters) {
-        if (current.parsedLabel.equals(label) && current.value >= KoLCharacter.getCurrentRun()) {
+      for (TurnCounter current : TurnCounter.countersWithLabel(label)) {
+        if (current.value >= KoLCharacter.getCurrentRun()) {
           return true;
         }
       }
@@ -482,6 +544,7 @@ public class TurnCounter implements Comparable<TurnCounter> {
         TurnCounter counter = it.next();
         if (counter.parsedLabel.equals(label) && counter.exemptions == TurnCounter.ALL_LOCATIONS) {
           counter.label = counter.label.replace(" loc=*", "");
+          TurnCounter.changed();
 
           // Reload the counter, since it may have had its own exceptions in addition to the "
           // loc=*"
@@ -502,6 +565,7 @@ public class TurnCounter implements Comparable<TurnCounter> {
         if (counter.parsedLabel.equals(label) && counter.exemptions != TurnCounter.ALL_LOCATIONS) {
           counter.exemptions = TurnCounter.ALL_LOCATIONS;
           counter.label += " loc=*";
+          TurnCounter.changed();
         }
       }
 
@@ -511,8 +575,7 @@ public class TurnCounter implements Comparable<TurnCounter> {
 
   public static final void deleteByHash(final int hash) {
     synchronized (TurnCounter.relayCounters) {
-      TurnCounter.relayCounters.removeIf(
-          turnCounter -> System.identityHashCode(turnCounter) == hash);
+      TurnCounter.removeCountersIf(turnCounter -> System.identityHashCode(turnCounter) == hash);
 
       TurnCounter.saveCounters();
     }
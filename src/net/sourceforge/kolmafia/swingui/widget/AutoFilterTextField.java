@@ -4,6 +4,13 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import javax.swing.JList;
@@ -11,6 +18,7 @@ import javax.swing.SwingUtilities;
 import javax.swing.event.AncestorEvent;
 import javax.swing.event.AncestorListener;
 import net.java.dev.spellcast.utilities.LockableListModel;
+import net.java.dev.spellcast.utilities.LockableListModel.FilterResult;
 import net.java.dev.spellcast.utilities.LockableListModel.ListElementFilter;
 import net.sourceforge.kolmafia.AdventureResult;
 import net.sourceforge.kolmafia.KoLAdventure;
@@ -47,6 +55,34 @@ public class AutoFilterTextField<E> extends AutoHighlightTextField
 
   private static final Pattern NOTSEARCH_PATTERN = Pattern.compile("\\s*!\\s*=\\s*(.+)\\s*");
 
+  // Lists at least this long are filtered off the event dispatch thread
+  private static final int BACKGROUND_FILTER_SIZE = 2000;
+
+  private static final ExecutorService FILTER_EXECUTOR =
+      Executors.newSingleThreadExecutor(
+          runnable -> {
+            Thread thread = new Thread(runnable, "AutoFilterTextField");
+            thread.setDaemon(true);
+            return thread;
+          });
+
+  // Lower-cased names, keyed by the name the element reports. Those are mostly the same String
+  // every time, so this saves lower-casing every name in a list on every keystroke.
+  private static final Map<String, String> LOWER_CASE_NAMES = new ConcurrentHashMap<>();
+  private static final int LOWER_CASE_NAMES_LIMIT = 16384;
+
+  // What the model shows: the plain text it was last filtered by, if any, and whether strictly.
+  // While the user types more of the same text, only what is shown can still match.
+  private String shownText = null;
+  private boolean shownStrict = true;
+  private boolean typing = false;
+
+  // Counts updates, so that a filter still running for an older one is thrown away
+  private volatile int generation = 0;
+  private Future<?> pending = null;
+
+  private record Filtered<T>(FilterResult<T> result, boolean strict) {}
+
   public AutoFilterTextField(final JList<E> list) {
     this(list, null, false);
   }
@@ -93,11 +129,13 @@ public class AutoFilterTextField<E> extends AutoHighlightTextField
     this.model = (LockableListModel<E>) list.getModel();
     this.model.setFilter(this);
     this.list.clearSelection();
+    this.shownText = null;
   }
 
   public void setModel(final LockableListModel<E> model) {
     this.model = model;
     this.model.setFilter(this);
+    this.shownText = null;
   }
 
   @Override
@@ -155,19 +193,19 @@ public class AutoFilterTextField<E> extends AutoHighlightTextField
     }
 
     if (element instanceof AdventureResult) {
-      return ((AdventureResult) element).getName().toLowerCase();
+      return AutoFilterTextField.toLowerCase(((AdventureResult) element).getName());
     }
     if (element instanceof CreateItemRequest) {
-      return ((CreateItemRequest) element).getName().toLowerCase();
+      return AutoFilterTextField.toLowerCase(((CreateItemRequest) element).getName());
     }
     if (element instanceof Concoction) {
-      return ((Concoction) element).getName().toLowerCase();
+      return AutoFilterTextField.toLowerCase(((Concoction) element).getName());
     }
     if (element instanceof QueuedConcoction) {
-      return ((QueuedConcoction) element).getName().toLowerCase();
+      return AutoFilterTextField.toLowerCase(((QueuedConcoction) element).getName());
     }
     if (element instanceof SoldItem) {
-      return ((SoldItem) element).getItemName().toLowerCase();
+      return AutoFilterTextField.toLowerCase(((SoldItem) element).getItemName());
     }
     if (element instanceof StoreLogEntry) {
       return element.toString().toLowerCase();
@@ -182,12 +220,24 @@ public class AutoFilterTextField<E> extends AutoHighlightTextField
       return ((Monster) element).toLowerCaseString();
     }
     if (element instanceof Script) {
-      return ((Script) element).getScriptName().toLowerCase();
+      return AutoFilterTextField.toLowerCase(((Script) element).getScriptName());
     }
 
     return element.toString().toLowerCase();
   }
 
+  private static String toLowerCase(final String name) {
+    String lowerCase = AutoFilterTextField.LOWER_CASE_NAMES.get(name);
+    if (lowerCase == null) {
+      lowerCase = name.toLowerCase();
+      if (AutoFilterTextField.LOWER_CASE_NAMES.size() >= LOWER_CASE_NAMES_LIMIT) {
+        AutoFilterTextField.LOWER_CASE_NAMES.clear();
+      }
+      AutoFilterTextField.LOWER_CASE_NAMES.put(name, lowerCase);
+    }
+    return lowerCase;
+  }
+
   public static final int getResultPrice(final Object element) {
     if (element == null) {
       return -1;
@@ -228,7 +278,10 @@ public class AutoFilterTextField<E> extends AutoHighlightTextField
   }
 
   public void update() {
-    try {
+    int generation;
+    synchronized (this) {
+      generation = ++this.generation;
+
       AutoFilterTextField.this.qtyChecked = false;
       AutoFilterTextField.this.asChecked = false;
       AutoFilterTextField.this.notChecked = false;
@@ -274,16 +327,70 @@ public class AutoFilterTextField<E> extends AutoHighlightTextField
       }
 
       AutoFilterTextField.this.strict = true;
-      AutoFilterTextField.this.model.updateFilter(false);
+    }
+
+    // Narrowing from what is shown only works while typing more of the same plain text
+    String query = this.qtyChecked || this.asChecked || this.notChecked ? null : this.text;
+    boolean narrowing =
+        this.typing && query != null && this.shownText != null && query.startsWith(this.shownText);
+    boolean narrowStrict = narrowing && this.shownStrict;
+    boolean narrowFuzzy = narrowing && !this.shownStrict;
+
+    if (this.model.size() < BACKGROUND_FILTER_SIZE) {
+      this.showFilter(this.filter(generation, narrowStrict, narrowFuzzy), query);
+      return;
+    }
+
+    this.pending =
+        FILTER_EXECUTOR.submit(
+            () -> {
+              Filtered<E> filtered = this.filter(generation, narrowStrict, narrowFuzzy);
+              SwingUtilities.invokeLater(
+                  () -> {
+                    if (generation == this.generation) {
+                      this.showFilter(filtered, query);
+                    }
+                  });
+            });
+  }
+
+  // Filters strictly, falling back to a fuzzy match if nothing matches strictly. Runs on the
+  // filter thread for long lists, so only the latest update may change how isVisible matches.
+  private Filtered<E> filter(
+      final int generation, final boolean narrowStrict, final boolean narrowFuzzy) {
+    FilterResult<E> result = this.model.computeFilter(this, narrowStrict);
+    if (!result.isEmpty()) {
+      return new Filtered<>(result, true);
+    }
 
-      if (AutoFilterTextField.this.model.getSize() == 0) {
-        AutoFilterTextField.this.strict = false;
-        AutoFilterTextField.this.model.updateFilter(false);
+    synchronized (this) {
+      if (generation != this.generation) {
+        return null;
       }
+      this.strict = false;
+    }
 
-      if (AutoFilterTextField.this.list != null) {
-        JList<E> list = AutoFilterTextField.this.list;
-        if (AutoFilterTextField.this.model.getSize() == 1) {
+    return new Filtered<>(this.model.computeFilter(this, narrowFuzzy), false);
+  }
+
+  private void showFilter(final Filtered<E> filtered, final String query) {
+    if (filtered == null) {
+      return;
+    }
+
+    try {
+      if (this.model.showFilterResult(filtered.result())) {
+        this.shownText = query;
+        this.shownStrict = filtered.strict();
+      } else {
+        // The list changed while it was being filtered
+        this.model.updateFilter(false);
+        this.shownText = null;
+      }
+
+      if (this.list != null) {
+        JList<E> list = this.list;
+        if (this.model.getSize() == 1) {
           list.setSelectedIndex(0);
         } else if (list.getSelectedIndices().length == 1) {
           list.ensureIndexIsVisible(list.getSelectedIndex());
@@ -292,13 +399,24 @@ public class AutoFilterTextField<E> extends AutoHighlightTextField
         }
       }
     } finally {
-      if (AutoFilterTextField.this.model.size() > 0) {
-        AutoFilterTextField.this.model.fireContentsChanged(
-            AutoFilterTextField.this.model, 0, AutoFilterTextField.this.model.size() - 1);
+      if (this.model.size() > 0) {
+        this.model.fireContentsChanged(this.model, 0, this.model.size() - 1);
       }
     }
   }
 
+  // For testing
+  void awaitFilter() throws InterruptedException, ExecutionException {
+    if (this.pending != null) {
+      this.pending.get();
+    }
+    try {
+      SwingUtilities.invokeAndWait(() -> {});
+    } catch (InvocationTargetException e) {
+      throw new ExecutionException(e.getCause());
+    }
+  }
+
   private class RequestFocusAncestorListener implements AncestorListener {
     @Override
     public void ancestorAdded(AncestorEvent event) {
@@ -315,7 +433,12 @@ public class AutoFilterTextField<E> extends AutoHighlightTextField
   private class FilterListener extends KeyAdapter {
     @Override
     public void keyReleased(final KeyEvent e) {
-      AutoFilterTextField.this.update();
+      AutoFilterTextField.this.typing = true;
+      try {
+        AutoFilterTextField.this.update();
+      } finally {
+        AutoFilterTextField.this.typing = false;
+      }
     }
   }
 }
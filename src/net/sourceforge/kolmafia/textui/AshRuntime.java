@@ -36,7 +36,6 @@ public class AshRuntime extends AbstractRuntime {
   private static final Stack<AshRuntime> interpreterStack = new Stack<>();
 
   private boolean exiting = false;
-  public Profiler profiler;
 
   // key, then aggregate, then iterator for every active foreach loop
   public ArrayList<Object> iterators = new ArrayList<>();
@@ -383,11 +382,13 @@ public class AshRuntime extends AbstractRuntime {
     return unusedCallFrames.remove(unusedCallFrames.size() - 1).reset(name, lineNumber, fileName);
   }
 
-  public void pushFrame(String name) {
+  // The frame stack is sampled by ScriptSampler from its own thread
+
+  public synchronized void pushFrame(String name) {
     frameStack.add(getCallFrame(name, this.lineNumber, this.fileName));
   }
 
-  public CallFrame popFrame() {
+  public synchronized CallFrame popFrame() {
     // Unclear when/why we sometimes have an empty stack.
     if (frameStack.size() == 0) {
       return null;
@@ -397,11 +398,28 @@ public class AshRuntime extends AbstractRuntime {
     return frame;
   }
 
-  public List<CallFrame> getCallFrames() {
+  public synchronized List<CallFrame> getCallFrames() {
     return new ArrayList<>(frameStack);
   }
 
-  private String getStackTrace() {
+  /**
+   * Returns the names of the functions on the call stack, outermost first. Unlike the frames from
+   * {@link #getCallFrames}, which are reused once popped, these are safe to keep.
+   */
+  public synchronized List<String> getCallFrameNames() {
+    List<String> names = new ArrayList<>(frameStack.size());
+    for (CallFrame frame : frameStack) {
+      names.add(frame.getName());
+    }
+    return names;
+  }
+
+  /** Returns the file and line of the most recent function call. */
+  public String getCurrentLine() {
+    return this.fileName + ":" + this.lineNumber;
+  }
+
+  private synchronized String getStackTrace() {
     StringBuilder s = new StringBuilder();
     String fileName = null;
     int lineNumber = 0;
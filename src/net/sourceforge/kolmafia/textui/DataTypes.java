@@ -1,6 +1,8 @@
 package net.sourceforge.kolmafia.textui;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import net.java.dev.spellcast.utilities.LockableListModel;
 import net.sourceforge.kolmafia.AdventureResult;
 import net.sourceforge.kolmafia.AscensionClass;
@@ -199,6 +201,25 @@ public class DataTypes {
       new Value(DataTypes.VYKEA_TYPE, 0, "none", VYKEACompanionData.NO_COMPANION);
   public static final Value PATH_INIT = new Value(DataTypes.PATH_TYPE, -1, "none", Path.NONE);
 
+  // Shared Values, which scripts make over and over again. These must never be changed in place.
+
+  private static final int SMALL_INT_MIN = -128;
+  private static final int SMALL_INT_MAX = 1023;
+  private static final Value[] SMALL_INT_VALUES = new Value[SMALL_INT_MAX - SMALL_INT_MIN + 1];
+
+  static {
+    for (int i = SMALL_INT_MIN; i <= SMALL_INT_MAX; ++i) {
+      SMALL_INT_VALUES[i - SMALL_INT_MIN] = i == 0 ? ZERO_VALUE : i == 1 ? ONE_VALUE : new Value(i);
+    }
+  }
+
+  private static final ValueTable ITEM_VALUES = new ValueTable();
+  private static final ValueTable SKILL_VALUES = new ValueTable();
+  private static final ValueTable EFFECT_VALUES = new ValueTable();
+  private static final ValueTable MONSTER_VALUES = new ValueTable();
+  private static final Map<String, Value> LOCATION_VALUES = new ConcurrentHashMap<>();
+  private static final Map<String, Value> COINMASTER_VALUES = new ConcurrentHashMap<>();
+
   public static final TypeList enumeratedTypes =
       TypeList.of(
           ITEM_TYPE,
@@ -256,7 +277,7 @@ public class DataTypes {
   public static final Value parseIntValue(final String name, final boolean returnDefault) {
     try {
       // Expected input is the string representation of an integer
-      return new Value(StringUtilities.parseLong(name));
+      return DataTypes.makeIntValue(StringUtilities.parseLong(name));
     } catch (NumberFormatException e) {
       // Allow names of booleans to represent the usual integer value
       if (name.equals("false")) {
@@ -358,7 +379,13 @@ public class DataTypes {
   }
 
   public static final Value makeLocationValue(final KoLAdventure adventure) {
-    return new Value(DataTypes.LOCATION_TYPE, adventure.getAdventureName(), adventure);
+    String name = adventure.getAdventureName();
+    Value value = DataTypes.LOCATION_VALUES.get(name);
+    if (value == null || value.content != adventure) {
+      value = new Value(DataTypes.LOCATION_TYPE, name, adventure);
+      DataTypes.LOCATION_VALUES.put(name, value);
+    }
+    return value;
   }
 
   public static final Value parseClassValue(final String name, final boolean returnDefault) {
@@ -716,7 +743,7 @@ public class DataTypes {
       return returnDefault ? DataTypes.COINMASTER_INIT : null;
     }
 
-    return new Value(DataTypes.COINMASTER_TYPE, content.getMaster(), content);
+    return DataTypes.makeCoinmasterValue(content);
   }
 
   public static final Value makeCoinmasterValue(final CoinmasterData data) {
@@ -724,7 +751,13 @@ public class DataTypes {
       return DataTypes.COINMASTER_INIT;
     }
 
-    return new Value(DataTypes.COINMASTER_TYPE, data.getMaster(), data);
+    String name = data.getMaster();
+    Value value = DataTypes.COINMASTER_VALUES.get(name);
+    if (value == null || value.content != data) {
+      value = new Value(DataTypes.COINMASTER_TYPE, name, data);
+      DataTypes.COINMASTER_VALUES.put(name, value);
+    }
+    return value;
   }
 
   public static final Value parseValue(
@@ -745,7 +778,9 @@ public class DataTypes {
   }
 
   public static final Value makeIntValue(final long val) {
-    return val == 0 ? ZERO_VALUE : val == 1 ? ONE_VALUE : new Value(val);
+    return val >= SMALL_INT_MIN && val <= SMALL_INT_MAX
+        ? SMALL_INT_VALUES[(int) val - SMALL_INT_MIN]
+        : new Value(val);
   }
 
   public static final Value makeFloatValue(final double val) {
@@ -775,7 +810,7 @@ public class DataTypes {
     if (itemIds != null && itemIds.length > 1) {
       name = "[" + num + "]" + name;
     }
-    return new Value(DataTypes.ITEM_TYPE, num, name);
+    return DataTypes.shared(DataTypes.ITEM_VALUES, DataTypes.ITEM_TYPE, num, name, null);
   }
 
   public static final Value makeItemValue(final int num, final boolean returnDefault) {
@@ -835,7 +870,7 @@ public class DataTypes {
     if (skillIds != null && skillIds.length > 1) {
       name = "[" + num + "]" + name;
     }
-    return new Value(DataTypes.SKILL_TYPE, num, name);
+    return DataTypes.shared(DataTypes.SKILL_VALUES, DataTypes.SKILL_TYPE, num, name, null);
   }
 
   public static final Value makeSkillValue(final int num, final boolean returnDefault) {
@@ -858,7 +893,7 @@ public class DataTypes {
     if (effectIds != null && effectIds.length > 1) {
       name = "[" + num + "]" + name;
     }
-    return new Value(DataTypes.EFFECT_TYPE, num, name);
+    return DataTypes.shared(DataTypes.EFFECT_VALUES, DataTypes.EFFECT_TYPE, num, name, null);
   }
 
   public static final Value makeEffectValue(final int num, final boolean returnDefault) {
@@ -974,7 +1009,18 @@ public class DataTypes {
       name = "[" + id + "]" + name;
     }
 
-    return new Value(DataTypes.MONSTER_TYPE, id, name, monster);
+    return DataTypes.shared(DataTypes.MONSTER_VALUES, DataTypes.MONSTER_TYPE, id, name, monster);
+  }
+
+  // Returns the shared Value for the given thing, making it if there is none yet
+  private static Value shared(
+      final ValueTable table,
+      final Type type,
+      final int id,
+      final String name,
+      final Object content) {
+    Value value = table.get(id, name, content);
+    return value != null ? value : table.put(id, new Value(type, id, name, content));
   }
 
   public static final Value makeStringArrayValue(final List<String> list) {
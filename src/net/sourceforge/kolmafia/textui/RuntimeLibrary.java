@@ -3801,6 +3801,9 @@ public abstract class RuntimeLibrary {
   }
 
   private static String getContentsOfSessionLog(String playerName, String logDate) {
+    // The session log is written in the background; wait until what has been logged is on disk
+    RequestLogger.getSessionStream().flush();
+
     StringBuilder contents = new StringBuilder();
     String filename =
         StringUtilities.globalStringReplace(playerName, " ", "_") + "_" + logDate + ".txt";
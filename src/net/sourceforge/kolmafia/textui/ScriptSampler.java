@@ -0,0 +1,285 @@
+package net.sourceforge.kolmafia.textui;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import net.sourceforge.kolmafia.KoLConstants;
+
+/**
+ * Profiles a script by periodically sampling the thread which runs it.
+ *
+ * <p>Each sample records the script's call stack, the line it is on, the library function it is
+ * in, and what that thread is actually doing: waiting on KoL, handling a response, running a
+ * library function, or interpreting the script. ASH call stacks come from the {@link AshRuntime};
+ * JavaScript call stacks come from the classes which Rhino compiles scripts into.
+ *
+ * <p>Samples are aggregated into collapsed stacks, which flame graph tools read, and into a report
+ * of where the time went.
+ */
+public class ScriptSampler {
+  public static final long INTERVAL_MILLIS = 10;
+
+  static final String NETWORK = "[network]";
+  static final String WAITING = "[waiting]";
+  static final String RESPONSE = "[response]";
+  static final String LIBRARY = "[library]";
+  static final String INTERPRETER = "[interpreter]";
+
+  private static final String[] NETWORK_CLASSES = {
+    "java.net.http.",
+    "java.net.Socket",
+    "java.net.InetAddress",
+    "jdk.internal.net.",
+    "sun.net.",
+    "sun.nio.ch.",
+    "sun.security.ssl."
+  };
+  private static final String REQUEST_PACKAGE = "net.sourceforge.kolmafia.request.";
+  private static final String LIBRARY_CLASS = RuntimeLibrary.class.getName();
+  private static final String RHINO_PACKAGE = "org.mozilla.javascript.gen.";
+
+  // Rhino names the method for a function "_c_<name>_<index>", and the top level "_c_script_0"
+  private static final Pattern RHINO_METHOD_PATTERN = Pattern.compile("_c_(.*)_\\d+");
+
+  private final String scriptName;
+  private final Thread target;
+  private final AshRuntime runtime;
+
+  private final Map<String, Integer> stacks = new HashMap<>();
+  private final Map<String, Integer> lines = new HashMap<>();
+  private final Map<String, Integer> libraryFunctions = new HashMap<>();
+  private final Map<String, Integer> activities = new HashMap<>();
+  private int samples = 0;
+
+  private Thread sampler;
+
+  /**
+   * @param scriptName the name of the script, which is the root of every stack
+   * @param target the thread which runs the script
+   * @param runtime the runtime of an ASH script, or null for a JavaScript script
+   */
+  public ScriptSampler(final String scriptName, final Thread target, final AshRuntime runtime) {
+    this.scriptName = scriptName;
+    this.target = target;
+    this.runtime = runtime;
+  }
+
+  public void start() {
+    this.sampler = new Thread(this::run, "ScriptSampler");
+    this.sampler.setDaemon(true);
+    this.sampler.start();
+  }
+
+  /** Stops sampling. The results may be read once this returns. */
+  public void stop() {
+    if (this.sampler == null) {
+      return;
+    }
+
+    this.sampler.interrupt();
+    try {
+      this.sampler.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    this.sampler = null;
+  }
+
+  private void run() {
+    while (this.target.isAlive()) {
+      try {
+        Thread.sleep(INTERVAL_MILLIS);
+      } catch (InterruptedException e) {
+        return;
+      }
+      this.sample();
+    }
+  }
+
+  void sample() {
+    // Take the script's stack first, so that the thread is less likely to have moved on
+    List<String> frames = this.runtime == null ? null : this.runtime.getCallFrameNames();
+    String line = this.runtime == null ? null : this.runtime.getCurrentLine();
+
+    StackTraceElement[] trace = this.target.getStackTrace();
+    if (trace.length == 0) {
+      return;
+    }
+
+    if (this.runtime == null) {
+      frames = new ArrayList<>();
+      line = javascriptStack(trace, frames);
+    }
+
+    this.record(frames, line, libraryFunction(trace), activity(trace));
+  }
+
+  void record(
+      final List<String> frames, final String line, final String function, final String activity) {
+    StringBuilder stack = new StringBuilder(frameName(this.scriptName));
+    for (String frame : frames) {
+      stack.append(';').append(frameName(frame));
+    }
+    if (function != null) {
+      stack.append(';').append(frameName(function));
+    }
+    stack.append(';').append(activity);
+
+    this.stacks.merge(stack.toString(), 1, Integer::sum);
+    this.activities.merge(activity, 1, Integer::sum);
+    if (line != null) {
+      this.lines.merge(line, 1, Integer::sum);
+    }
+    if (function != null) {
+      this.libraryFunctions.merge(function, 1, Integer::sum);
+    }
+    ++this.samples;
+  }
+
+  // Flame graph tools split frames on semicolons, and counts off on the last space
+  private static String frameName(final String name) {
+    return name.replace(';', ':');
+  }
+
+  /**
+   * Finds the JavaScript call stack in a Java stack trace.
+   *
+   * @param frames receives the names of the script's functions, outermost first
+   * @return the file and line the script is on, or null if it is not found
+   */
+  static String javascriptStack(final StackTraceElement[] trace, final List<String> frames) {
+    String line = null;
+
+    for (StackTraceElement element : trace) {
+      if (!element.getClassName().startsWith(RHINO_PACKAGE) || element.getLineNumber() < 0) {
+        continue;
+      }
+
+      Matcher matcher = RHINO_METHOD_PATTERN.matcher(element.getMethodName());
+      if (!matcher.matches()) {
+        continue;
+      }
+
+      String fileName = element.getFileName();
+      if (fileName != null) {
+        fileName = fileName.substring(fileName.lastIndexOf('/') + 1);
+      }
+
+      String name = matcher.group(1);
+      if (name.equals("script")) {
+        name = fileName;
+      } else if (name.isEmpty()) {
+        name = "(anonymous)";
+      }
+      frames.add(name);
+
+      if (line == null) {
+        line = fileName + ":" + element.getLineNumber();
+      }
+    }
+
+    Collections.reverse(frames);
+    return line;
+  }
+
+  /**
+   * Returns the library function which the script called, or null if it is not in one. When one
+   * library function calls another, this is the one the script called.
+   */
+  static String libraryFunction(final StackTraceElement[] trace) {
+    String function = null;
+    for (StackTraceElement element : trace) {
+      if (element.getClassName().equals(LIBRARY_CLASS)) {
+        function = element.getMethodName();
+      }
+    }
+    return function;
+  }
+
+  /** Classifies what a thread is doing from its Java stack trace. */
+  static String activity(final StackTraceElement[] trace) {
+    boolean sleeping = false;
+    boolean request = false;
+    boolean library = false;
+
+    for (StackTraceElement element : trace) {
+      String className = element.getClassName();
+      for (String prefix : NETWORK_CLASSES) {
+        if (className.startsWith(prefix)) {
+          return NETWORK;
+        }
+      }
+
+      if (className.equals("java.lang.Thread") && element.getMethodName().equals("sleep")) {
+        sleeping = true;
+      } else if (className.startsWith(REQUEST_PACKAGE)) {
+        request = true;
+      } else if (className.equals(LIBRARY_CLASS)) {
+        library = true;
+      }
+    }
+
+    return sleeping ? WAITING : request ? RESPONSE : library ? LIBRARY : INTERPRETER;
+  }
+
+  public int getSamples() {
+    return this.samples;
+  }
+
+  /** Returns the samples as collapsed stacks, one "frame;frame;frame count" per line. */
+  public String collapsed() {
+    StringBuilder buffer = new StringBuilder();
+    for (Map.Entry<String, Integer> entry : new TreeMap<>(this.stacks).entrySet()) {
+      buffer.append(entry.getKey()).append(' ').append(entry.getValue()).append('\n');
+    }
+    return buffer.toString();
+  }
+
+  /** Returns a report of where the samples fell, with the busiest lines and functions first. */
+  public String summary(final int limit) {
+    StringBuilder buffer = new StringBuilder();
+
+    buffer.append("<br>");
+    buffer.append(this.samples);
+    buffer.append(" samples, one every ");
+    buffer.append(INTERVAL_MILLIS);
+    buffer.append(" ms<br>");
+
+    this.addTable(buffer, this.activities, "Activity", limit);
+    this.addTable(buffer, this.libraryFunctions, "Library function", limit);
+    this.addTable(buffer, this.lines, "Line (of the latest call, for ASH)", limit);
+
+    return buffer.toString();
+  }
+
+  private void addTable(
+      final StringBuilder buffer,
+      final Map<String, Integer> counts,
+      final String title,
+      final int limit) {
+    List<Map.Entry<String, Integer>> list = new ArrayList<>(counts.entrySet());
+    list.sort(
+        Map.Entry.<String, Integer>comparingByValue()
+            .reversed()
+            .thenComparing(Map.Entry.comparingByKey()));
+
+    buffer.append("<br><table border=0><tr><td>Samples</td><td>Percent</td><td>");
+    buffer.append(title);
+    buffer.append("</td></tr>");
+    for (Map.Entry<String, Integer> entry : list.subList(0, Math.min(limit, list.size()))) {
+      buffer.append("<tr><td>");
+      buffer.append(entry.getValue());
+      buffer.append("</td><td>");
+      buffer.append(KoLConstants.FLOAT_FORMAT.format(100.0 * entry.getValue() / this.samples));
+      buffer.append("%</td><td>");
+      buffer.append(entry.getKey());
+      buffer.append("</td></tr>");
+    }
+    buffer.append("</table>");
+  }
+}
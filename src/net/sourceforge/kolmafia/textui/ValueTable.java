@@ -0,0 +1,51 @@
+package net.sourceforge.kolmafia.textui;
+
+import java.util.Arrays;
+import net.sourceforge.kolmafia.textui.parsetree.Value;
+
+/**
+ * The shared Values of one enumerated type whose ids are small numbers, indexed by id.
+ *
+ * <p>A Value is only handed out again if it has the same name and content as the one which is
+ * wanted. The name must be the very same String, so a thing which has been renamed, or which
+ * needs its id in its name to tell it apart from another thing of the same name, gets a new Value.
+ *
+ * <p>Values from here are shared by every script, and must never be changed in place.
+ */
+final class ValueTable {
+  // Things with larger ids are rare and are not worth a slot
+  private static final int MAX_ID = 65536;
+
+  private Value[] values = new Value[0];
+
+  /**
+   * Returns the shared Value with the given id, name, and content.
+   *
+   * @return null if there is no such Value yet
+   */
+  synchronized Value get(final int id, final String name, final Object content) {
+    if (id < 0 || id >= this.values.length) {
+      return null;
+    }
+
+    Value value = this.values[id];
+    return value != null && value.contentString == name && value.content == content
+        ? value
+        : null;
+  }
+
+  /** Shares the given Value, replacing any Value with the same id, and returns it. */
+  synchronized Value put(final int id, final Value value) {
+    if (id < 0 || id >= MAX_ID) {
+      return value;
+    }
+
+    if (id >= this.values.length) {
+      int capacity = Math.max(256, this.values.length + (this.values.length >> 1));
+      this.values = Arrays.copyOf(this.values, Math.min(Math.max(id + 1, capacity), MAX_ID));
+    }
+
+    this.values[id] = value;
+    return value;
+  }
+}
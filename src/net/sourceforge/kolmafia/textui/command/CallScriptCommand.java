@@ -1,6 +1,8 @@
 package net.sourceforge.kolmafia.textui.command;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.util.List;
 import java.util.regex.Pattern;
 import net.java.dev.spellcast.utilities.DataUtilities;
@@ -12,8 +14,8 @@ import net.sourceforge.kolmafia.KoLmafiaCLI;
 import net.sourceforge.kolmafia.RequestLogger;
 import net.sourceforge.kolmafia.StaticEntity;
 import net.sourceforge.kolmafia.textui.AshRuntime;
-import net.sourceforge.kolmafia.textui.Profiler;
 import net.sourceforge.kolmafia.textui.ScriptRuntime;
+import net.sourceforge.kolmafia.textui.ScriptSampler;
 import net.sourceforge.kolmafia.textui.javascript.JavascriptRuntime;
 import net.sourceforge.kolmafia.textui.parsetree.Value;
 import net.sourceforge.kolmafia.utilities.StringUtilities;
@@ -23,6 +25,9 @@ public class CallScriptCommand extends AbstractCommand {
       Pattern.compile("\\.ash", Pattern.CASE_INSENSITIVE);
   private static final Pattern JSNAME_PATTERN = Pattern.compile("\\.js", Pattern.CASE_INSENSITIVE);
 
+  // Rows in each table of a profile
+  private static final int PROFILE_LIMIT = 20;
+
   public CallScriptCommand() {
     this.usage = " [<number>x] <filename> | <function> [<parameters>] - check/run script.";
   }
@@ -134,7 +139,9 @@ public class CallScriptCommand extends AbstractCommand {
           || CallScriptCommand.JSNAME_PATTERN.matcher(scriptFile.getPath()).find()) {
         ScriptRuntime interpreter = KoLmafiaASH.getInterpreter(scriptFile);
 
-        if (!command.equals("call") && interpreter instanceof JavascriptRuntime) {
+        if (!command.equals("call")
+            && !command.equals("profile")
+            && interpreter instanceof JavascriptRuntime) {
           KoLmafia.updateDisplay(
               MafiaState.ERROR, "Cannot use command " + command + " with JavaScript scripts.");
           return;
@@ -156,28 +163,7 @@ public class CallScriptCommand extends AbstractCommand {
         }
 
         if (command.equals("profile")) {
-          if (interpreter instanceof AshRuntime) {
-            AshRuntime ashInterpreter = (AshRuntime) interpreter;
-            Profiler prof = Profiler.create("toplevel");
-            long t0 = System.nanoTime();
-            prof.net0 = t0;
-            ashInterpreter.profiler = prof;
-
-            for (int i = 0; i < runCount && KoLmafia.permitsContinue(); ++i) {
-              KoLmafiaASH.logScriptExecution(
-                  "Starting ASH script: ", scriptFile.getName(), interpreter);
-              ashInterpreter.execute("main", arguments);
-              KoLmafiaASH.logScriptExecution(
-                  "Finished ASH script: ", scriptFile.getName(), interpreter);
-            }
-
-            long t1 = System.nanoTime();
-            prof.total = t1 - t0;
-            prof.net += t1 - prof.net0;
-            prof.finish();
-            ashInterpreter.profiler = null;
-            RequestLogger.printLine(Profiler.summary());
-          }
+          CallScriptCommand.profile(scriptFile, interpreter, runCount, arguments);
           return;
         }
 
@@ -219,4 +205,39 @@ public class CallScriptCommand extends AbstractCommand {
       return;
     }
   }
+
+  private static void profile(
+      final File scriptFile,
+      final ScriptRuntime interpreter,
+      final int runCount,
+      final String[] arguments)
+      throws IOException {
+    if (interpreter == null) {
+      return;
+    }
+
+    ScriptSampler sampler =
+        new ScriptSampler(
+            scriptFile.getName(),
+            Thread.currentThread(),
+            interpreter instanceof AshRuntime ? (AshRuntime) interpreter : null);
+    sampler.start();
+
+    try {
+      for (int i = 0; i < runCount && KoLmafia.permitsContinue(); ++i) {
+        KoLmafiaASH.logScriptExecution("Starting script: ", scriptFile.getName(), interpreter);
+        interpreter.execute("main", arguments);
+        KoLmafiaASH.logScriptExecution("Finished script: ", scriptFile.getName(), interpreter);
+      }
+    } finally {
+      sampler.stop();
+    }
+
+    RequestLogger.printLine(sampler.summary(PROFILE_LIMIT));
+
+    // Collapsed stacks, as read by flame graph tools
+    File output = new File(KoLConstants.DATA_LOCATION, scriptFile.getName() + ".folded");
+    Files.writeString(output.toPath(), sampler.collapsed());
+    RequestLogger.printLine("Stacks written to " + output.getPath());
+  }
 }
@@ -0,0 +1,17 @@
+package net.sourceforge.kolmafia.textui.command;
+
+import net.sourceforge.kolmafia.RequestEditorKit;
+import net.sourceforge.kolmafia.RequestLogger;
+
+public class DecoratorsCommand extends AbstractCommand {
+  public DecoratorsCommand() {
+    this.usage = " - show how long each kind of relay page has taken to decorate.";
+  }
+
+  @Override
+  public void run(final String cmd, final String parameters) {
+    for (String line : RequestEditorKit.getDecoratorTimings().split("\n")) {
+      RequestLogger.printLine(line);
+    }
+  }
+}
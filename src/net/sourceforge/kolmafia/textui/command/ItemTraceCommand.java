@@ -5,8 +5,8 @@ import net.sourceforge.kolmafia.AdventureResult;
 import net.sourceforge.kolmafia.KoLConstants;
 import net.sourceforge.kolmafia.RequestLogger;
 import net.sourceforge.kolmafia.StaticEntity;
+import net.sourceforge.kolmafia.listener.ImmediateListener;
 import net.sourceforge.kolmafia.listener.ItemListenerRegistry;
-import net.sourceforge.kolmafia.listener.Listener;
 import net.sourceforge.kolmafia.persistence.ItemFinder;
 
 public class ItemTraceCommand extends AbstractCommand {
@@ -37,7 +37,7 @@ public class ItemTraceCommand extends AbstractCommand {
     }
   }
 
-  private static class ItemListener implements Listener {
+  private static class ItemListener implements ImmediateListener {
     AdventureResult item;
 
     public ItemListener(AdventureResult item) {
@@ -3,7 +3,7 @@ package net.sourceforge.kolmafia.textui.command;
 import java.util.ArrayList;
 import net.sourceforge.kolmafia.RequestLogger;
 import net.sourceforge.kolmafia.StaticEntity;
-import net.sourceforge.kolmafia.listener.Listener;
+import net.sourceforge.kolmafia.listener.ImmediateListener;
 import net.sourceforge.kolmafia.listener.PreferenceListenerRegistry;
 import net.sourceforge.kolmafia.preferences.Preferences;
 
@@ -35,7 +35,7 @@ public class PrefTraceCommand extends AbstractCommand {
     }
   }
 
-  private static class PreferenceListener implements Listener {
+  private static class PreferenceListener implements ImmediateListener {
     String name;
 
     public PreferenceListener(String name) {
@@ -0,0 +1,17 @@
+package net.sourceforge.kolmafia.textui.command;
+
+import net.sourceforge.kolmafia.RequestLogger;
+import net.sourceforge.kolmafia.persistence.DatabaseWarmup;
+
+public class StartupCommand extends AbstractCommand {
+  public StartupCommand() {
+    this.usage = " - show how long each database took to load at startup.";
+  }
+
+  @Override
+  public void run(final String cmd, final String parameters) {
+    for (String line : DatabaseWarmup.report().split("\n")) {
+      RequestLogger.printLine(line);
+    }
+  }
+}
@@ -3,11 +3,12 @@ package net.sourceforge.kolmafia.textui.command;
 import net.sourceforge.kolmafia.KoLConstants.MafiaState;
 import net.sourceforge.kolmafia.KoLmafia;
 import net.sourceforge.kolmafia.persistence.MallPriceDatabase;
+import net.sourceforge.kolmafia.utilities.StringUtilities;
 
 public class UpdateDataCommand extends AbstractCommand {
   public UpdateDataCommand() {
     this.usage =
-        " clear | save | prices <URL or filename> - revert to built-in data or save override files for new objects.";
+        " clear | save | prices <URL or filename> | pricelog <filename> [days] - revert to built-in data, save override files for new objects, or import or export mall prices.";
   }
 
   @Override
@@ -22,6 +23,13 @@ public class UpdateDataCommand extends AbstractCommand {
       return;
     }
 
+    if (parameters.startsWith("pricelog")) {
+      String[] split = parameters.substring(8).trim().split("\\s+");
+      float days = split.length > 1 ? StringUtilities.parseFloat(split[1]) : 0.0f;
+      MallPriceDatabase.exportHistory(split[0], days);
+      return;
+    }
+
     if (parameters.startsWith("prices")) {
       MallPriceDatabase.updatePrices(parameters.substring(6).trim());
       return;
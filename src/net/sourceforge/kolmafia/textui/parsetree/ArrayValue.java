@@ -112,7 +112,7 @@ public class ArrayValue extends AggregateValue {
     int size = ((Value[]) this.content).length;
     Value[] result = new Value[size];
     for (int i = 0; i < size; ++i) {
-      result[i] = new Value(i);
+      result[i] = DataTypes.makeIntValue(i);
     }
     return result;
   }
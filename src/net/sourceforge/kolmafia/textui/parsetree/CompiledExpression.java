@@ -0,0 +1,355 @@
+package net.sourceforge.kolmafia.textui.parsetree;
+
+import net.sourceforge.kolmafia.textui.AshRuntime;
+import net.sourceforge.kolmafia.textui.DataTypes;
+import net.sourceforge.kolmafia.textui.Parser;
+
+/**
+ * Compiles hot numeric expressions into code which works on unboxed values.
+ *
+ * <p>Walking an {@link Operation} traces each operand, captures its value, and boxes every
+ * intermediate result in a {@link Value}. An operation which combines only int, float, and boolean
+ * constants and variables can do without all of that, since none of its operands can fail or exit
+ * the script. Such an operation is compiled into a tree of lambdas over longs, doubles, and
+ * booleans, which boxes only the final result.
+ *
+ * <p>Compiled code must behave exactly as the tree it replaces, including the errors it throws.
+ */
+final class CompiledExpression {
+  private CompiledExpression() {}
+
+  @FunctionalInterface
+  interface Code {
+    Value execute(AshRuntime interpreter);
+  }
+
+  @FunctionalInterface
+  private interface IntCode {
+    long execute(AshRuntime interpreter);
+  }
+
+  @FunctionalInterface
+  private interface FloatCode {
+    double execute(AshRuntime interpreter);
+  }
+
+  @FunctionalInterface
+  private interface BooleanCode {
+    boolean execute(AshRuntime interpreter);
+  }
+
+  /**
+   * Compiles an operation.
+   *
+   * @return null if the operation has operands which cannot be compiled
+   */
+  static Code compile(final Operation operation) {
+    Type type = operation.getType();
+
+    if (type.equals(DataTypes.TYPE_INT)) {
+      IntCode code = compileInt(operation);
+      return code == null ? null : interpreter -> DataTypes.makeIntValue(code.execute(interpreter));
+    }
+
+    if (type.equals(DataTypes.TYPE_FLOAT)) {
+      FloatCode code = compileFloat(operation);
+      return code == null
+          ? null
+          : interpreter -> DataTypes.makeFloatValue(code.execute(interpreter));
+    }
+
+    if (type.equals(DataTypes.TYPE_BOOLEAN)) {
+      BooleanCode code = compileBoolean(operation);
+      return code == null
+          ? null
+          : interpreter -> DataTypes.makeBooleanValue(code.execute(interpreter));
+    }
+
+    return null;
+  }
+
+  private static boolean isInt(final Evaluable node) {
+    return node.getType().equals(DataTypes.TYPE_INT);
+  }
+
+  private static boolean isFloat(final Evaluable node) {
+    return node.getType().equals(DataTypes.TYPE_FLOAT);
+  }
+
+  private static boolean isBoolean(final Evaluable node) {
+    return node.getType().equals(DataTypes.TYPE_BOOLEAN);
+  }
+
+  private static boolean isNumeric(final Evaluable node) {
+    return isInt(node) || isFloat(node);
+  }
+
+  // A constant, or a simple variable, but not an element of an aggregate
+  private static Value constant(final Evaluable node) {
+    if (node instanceof Value.Constant constant && constant.value.getClass() == Value.class) {
+      return constant.value;
+    }
+    return null;
+  }
+
+  private static Variable variable(final Evaluable node) {
+    return node.getClass() == VariableReference.class ? ((VariableReference) node).target : null;
+  }
+
+  // The operator, with the approximate equality which numbers share with equality folded in
+  private static String operator(final Operation operation) {
+    String operator = operation.getOperator().operator;
+    return operator.equals(Parser.APPROX) ? "==" : operator;
+  }
+
+  private static IntCode compileInt(final Evaluable node) {
+    if (!isInt(node)) {
+      return null;
+    }
+
+    Value constant = constant(node);
+    if (constant != null) {
+      long value = constant.intValue();
+      return interpreter -> value;
+    }
+
+    Variable variable = variable(node);
+    if (variable != null) {
+      return interpreter -> variable.getValue(interpreter).intValue();
+    }
+
+    if (!(node instanceof Operation operation)) {
+      return null;
+    }
+
+    Operator oper = operation.getOperator();
+    String operator = operator(operation);
+
+    if (operation.rhs == null) {
+      IntCode operand = compileInt(operation.lhs);
+      if (operand == null) {
+        return null;
+      }
+      return switch (operator) {
+        case "-" -> interpreter -> 0 - operand.execute(interpreter);
+        case "~" -> interpreter -> ~operand.execute(interpreter);
+        default -> null;
+      };
+    }
+
+    IntCode lhs = compileInt(operation.lhs);
+    IntCode rhs = compileInt(operation.rhs);
+    if (lhs == null || rhs == null) {
+      return null;
+    }
+
+    return switch (operator) {
+      case "+" -> interpreter -> lhs.execute(interpreter) + rhs.execute(interpreter);
+      case "-" -> interpreter -> lhs.execute(interpreter) - rhs.execute(interpreter);
+      case "*" -> interpreter -> lhs.execute(interpreter) * rhs.execute(interpreter);
+      case "/" -> interpreter -> {
+        long lint = lhs.execute(interpreter);
+        long rint = rhs.execute(interpreter);
+        if (rint == 0) {
+          throw oper.runtimeException(interpreter, "Division by zero");
+        }
+        return lint / rint;
+      };
+      case "%" -> interpreter -> {
+        long lint = lhs.execute(interpreter);
+        long rint = rhs.execute(interpreter);
+        if (rint == 0) {
+          throw oper.runtimeException(interpreter, "Division by zero");
+        }
+        return lint % rint;
+      };
+      case "**" -> interpreter ->
+          (long) Math.pow(lhs.execute(interpreter), rhs.execute(interpreter));
+      case "<<" -> interpreter -> lhs.execute(interpreter) << rhs.execute(interpreter);
+      case ">>" -> interpreter -> lhs.execute(interpreter) >> rhs.execute(interpreter);
+      case ">>>" -> interpreter -> lhs.execute(interpreter) >>> rhs.execute(interpreter);
+      case "&" -> interpreter -> lhs.execute(interpreter) & rhs.execute(interpreter);
+      case "|" -> interpreter -> lhs.execute(interpreter) | rhs.execute(interpreter);
+      case "^" -> interpreter -> lhs.execute(interpreter) ^ rhs.execute(interpreter);
+      default -> null;
+    };
+  }
+
+  private static FloatCode compileFloat(final Evaluable node) {
+    if (isInt(node)) {
+      IntCode code = compileInt(node);
+      return code == null ? null : interpreter -> (double) code.execute(interpreter);
+    }
+
+    if (!isFloat(node)) {
+      return null;
+    }
+
+    Value constant = constant(node);
+    if (constant != null) {
+      double value = constant.floatValue();
+      return interpreter -> value;
+    }
+
+    Variable variable = variable(node);
+    if (variable != null) {
+      return interpreter -> variable.getValue(interpreter).floatValue();
+    }
+
+    if (!(node instanceof Operation operation)) {
+      return null;
+    }
+
+    Operator oper = operation.getOperator();
+    String operator = operator(operation);
+
+    if (operation.rhs == null) {
+      FloatCode operand = compileFloat(operation.lhs);
+      return operand != null && operator.equals("-")
+          ? interpreter -> 0.0 - operand.execute(interpreter)
+          : null;
+    }
+
+    if (!isNumeric(operation.lhs) || !isNumeric(operation.rhs)) {
+      return null;
+    }
+
+    FloatCode lhs = compileFloat(operation.lhs);
+    FloatCode rhs = compileFloat(operation.rhs);
+    if (lhs == null || rhs == null) {
+      return null;
+    }
+
+    return switch (operator) {
+      case "+" -> interpreter -> lhs.execute(interpreter) + rhs.execute(interpreter);
+      case "-" -> interpreter -> lhs.execute(interpreter) - rhs.execute(interpreter);
+      case "*" -> interpreter -> lhs.execute(interpreter) * rhs.execute(interpreter);
+      case "/" -> interpreter -> {
+        double lfloat = lhs.execute(interpreter);
+        double rfloat = rhs.execute(interpreter);
+        if (rfloat == 0.0) {
+          throw oper.runtimeException(interpreter, "Division by zero");
+        }
+        return lfloat / rfloat;
+      };
+      case "%" -> interpreter -> {
+        double lfloat = lhs.execute(interpreter);
+        double rfloat = rhs.execute(interpreter);
+        if (rfloat == 0.0) {
+          throw oper.runtimeException(interpreter, "Division by zero");
+        }
+        return lfloat % rfloat;
+      };
+      case "**" -> interpreter -> {
+        double lfloat = lhs.execute(interpreter);
+        double rfloat = rhs.execute(interpreter);
+        double val = Math.pow(lfloat, rfloat);
+        if (Double.isNaN(val) || Double.isInfinite(val)) {
+          throw oper.runtimeException(
+              interpreter, "Invalid exponentiation: cannot take " + lfloat + " ** " + rfloat);
+        }
+        return val;
+      };
+      default -> null;
+    };
+  }
+
+  // Booleans compare as 0 and 1
+  private static IntCode compileIntOrBoolean(final Evaluable node) {
+    if (isBoolean(node)) {
+      BooleanCode code = compileBoolean(node);
+      return code == null ? null : interpreter -> code.execute(interpreter) ? 1 : 0;
+    }
+    return compileInt(node);
+  }
+
+  private static BooleanCode compileBoolean(final Evaluable node) {
+    if (!isBoolean(node)) {
+      return null;
+    }
+
+    Value constant = constant(node);
+    if (constant != null) {
+      boolean value = constant.intValue() != 0;
+      return interpreter -> value;
+    }
+
+    Variable variable = variable(node);
+    if (variable != null) {
+      return interpreter -> variable.getValue(interpreter).intValue() != 0;
+    }
+
+    if (!(node instanceof Operation operation)) {
+      return null;
+    }
+
+    String operator = operator(operation);
+
+    if (operation.rhs == null) {
+      BooleanCode operand = compileBoolean(operation.lhs);
+      return operand != null && (operator.equals("!") || operator.equals("~"))
+          ? interpreter -> !operand.execute(interpreter)
+          : null;
+    }
+
+    if (operation.getOperator().isComparison()) {
+      return compileComparison(operator, operation.lhs, operation.rhs);
+    }
+
+    BooleanCode lhs = compileBoolean(operation.lhs);
+    BooleanCode rhs = compileBoolean(operation.rhs);
+    if (lhs == null || rhs == null) {
+      return null;
+    }
+
+    return switch (operator) {
+      case "&&" -> interpreter -> lhs.execute(interpreter) && rhs.execute(interpreter);
+      case "||" -> interpreter -> lhs.execute(interpreter) || rhs.execute(interpreter);
+      case "&" -> interpreter -> lhs.execute(interpreter) & rhs.execute(interpreter);
+      case "|" -> interpreter -> lhs.execute(interpreter) | rhs.execute(interpreter);
+      case "^" -> interpreter -> lhs.execute(interpreter) ^ rhs.execute(interpreter);
+      default -> null;
+    };
+  }
+
+  private static BooleanCode compileComparison(
+      final String operator, final Evaluable left, final Evaluable right) {
+    if (isFloat(left) || isFloat(right)) {
+      if (!isNumeric(left) || !isNumeric(right)) {
+        return null;
+      }
+
+      FloatCode lhs = compileFloat(left);
+      FloatCode rhs = compileFloat(right);
+      if (lhs == null || rhs == null) {
+        return null;
+      }
+
+      return switch (operator) {
+        case "==" -> interpreter -> lhs.execute(interpreter) == rhs.execute(interpreter);
+        case "!=" -> interpreter -> lhs.execute(interpreter) != rhs.execute(interpreter);
+        case "<" -> interpreter -> lhs.execute(interpreter) < rhs.execute(interpreter);
+        case ">" -> interpreter -> lhs.execute(interpreter) > rhs.execute(interpreter);
+        case "<=" -> interpreter -> lhs.execute(interpreter) <= rhs.execute(interpreter);
+        case ">=" -> interpreter -> lhs.execute(interpreter) >= rhs.execute(interpreter);
+        default -> null;
+      };
+    }
+
+    IntCode lhs = compileIntOrBoolean(left);
+    IntCode rhs = compileIntOrBoolean(right);
+    if (lhs == null || rhs == null) {
+      return null;
+    }
+
+    return switch (operator) {
+      case "==" -> interpreter -> lhs.execute(interpreter) == rhs.execute(interpreter);
+      case "!=" -> interpreter -> lhs.execute(interpreter) != rhs.execute(interpreter);
+      case "<" -> interpreter -> lhs.execute(interpreter) < rhs.execute(interpreter);
+      case ">" -> interpreter -> lhs.execute(interpreter) > rhs.execute(interpreter);
+      case "<=" -> interpreter -> lhs.execute(interpreter) <= rhs.execute(interpreter);
+      case ">=" -> interpreter -> lhs.execute(interpreter) >= rhs.execute(interpreter);
+      default -> null;
+    };
+  }
+}
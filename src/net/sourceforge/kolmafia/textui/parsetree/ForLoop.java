@@ -144,7 +144,7 @@ public class ForLoop extends Loop {
 
     while (up && current <= end || !up && current >= end) {
       // Bind variable to current value
-      this.variable.setValue(interpreter, new Value(current));
+      this.variable.setValue(interpreter, DataTypes.makeIntValue(current));
 
       // Execute the scope
       Value result = super.execute(interpreter);
@@ -6,7 +6,6 @@ import net.sourceforge.kolmafia.KoLmafia;
 import net.sourceforge.kolmafia.textui.AshRuntime;
 import net.sourceforge.kolmafia.textui.DataTypes;
 import net.sourceforge.kolmafia.textui.Parser;
-import net.sourceforge.kolmafia.textui.Profiler;
 import net.sourceforge.kolmafia.textui.ScriptRuntime;
 import org.eclipse.lsp4j.Location;
 
@@ -92,26 +91,7 @@ public class FunctionCall extends Evaluable {
     // push to interpreter stack
     interpreter.pushFrame(this.target.getName());
 
-    Value result;
-    Profiler prev = interpreter.profiler;
-    if (prev != null) {
-      long t0 = System.nanoTime();
-      prev.net += t0 - prev.net0;
-      Profiler curr = Profiler.create(this.target.getSignature());
-      curr.net0 = t0;
-      interpreter.profiler = curr;
-
-      result = this.target.execute(interpreter, values);
-
-      long t1 = System.nanoTime();
-      prev.net0 = t1;
-      interpreter.profiler = prev;
-      curr.total = t1 - t0;
-      curr.net += t1 - curr.net0;
-      curr.finish();
-    } else {
-      result = this.target.execute(interpreter, values);
-    }
+    Value result = this.target.execute(interpreter, values);
 
     if (ScriptRuntime.isTracing()) {
       interpreter.trace("Function " + this.target.getName() + " returned: " + result);
@@ -4,10 +4,19 @@ import java.io.PrintStream;
 import net.sourceforge.kolmafia.textui.AshRuntime;
 import net.sourceforge.kolmafia.textui.DataTypes;
 import net.sourceforge.kolmafia.textui.Parser;
+import net.sourceforge.kolmafia.textui.ScriptRuntime;
 
 public class Operation extends Expression {
+  // Operations which have run this many times are compiled, if they can be
+  static final int COMPILE_THRESHOLD = 1000;
+
+  private static final CompiledExpression.Code NOT_COMPILABLE = interpreter -> null;
+
   private final Operator oper;
 
+  private int executions = 0;
+  private CompiledExpression.Code compiled = null;
+
   public Operation(final Evaluable lhs, final Evaluable rhs, final Operator oper) {
     super(rhs == null ? Parser.mergeLocations(oper, lhs) : Parser.mergeLocations(lhs, rhs));
     this.lhs = lhs;
@@ -67,6 +76,19 @@ public class Operation extends Expression {
 
   @Override
   public Value execute(final AshRuntime interpreter) {
+    CompiledExpression.Code code = this.compiled;
+    if (code == null && ++this.executions >= COMPILE_THRESHOLD) {
+      code = CompiledExpression.compile(this);
+      this.compiled = code = code == null ? NOT_COMPILABLE : code;
+    }
+
+    // A trace shows every step, so only the tree can be traced
+    if (code != null && code != NOT_COMPILABLE && !ScriptRuntime.isTracing()) {
+      Value result = code.execute(interpreter);
+      interpreter.captureValue(result);
+      return interpreter.getState() == ScriptRuntime.State.EXIT ? null : result;
+    }
+
     return this.rhs == null
         ? this.oper.applyTo(interpreter, this.lhs)
         : this.oper.applyTo(interpreter, this.lhs, this.rhs);
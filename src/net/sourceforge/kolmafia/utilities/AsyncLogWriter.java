@@ -0,0 +1,323 @@
+package net.sourceforge.kolmafia.utilities;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * An OutputStream which hands everything written to it to a dedicated writer thread. The writer
+ * batches the bytes into a FileChannel, rotating the file once it grows past a given size.
+ *
+ * <p>Writing only copies the bytes onto a bounded queue, so the thread producing log output never
+ * waits on the disk unless the writer falls so far behind that the queue fills up. flush() is a
+ * barrier: it returns once everything written before it is in the file.
+ */
+public class AsyncLogWriter extends OutputStream {
+  private static final int QUEUE_CAPACITY = 8192;
+  private static final int BATCH_SIZE = 64 * 1024;
+  private static final long IDLE_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(250);
+  private static final long SHUTDOWN_WAIT_MILLIS = 5000;
+
+  private static final Set<AsyncLogWriter> openWriters = ConcurrentHashMap.newKeySet();
+
+  static {
+    // Write out whatever is still queued if we exit without closing our logs
+    Runtime.getRuntime()
+        .addShutdownHook(new Thread(AsyncLogWriter::flushAll, "AsyncLogWriter shutdown"));
+  }
+
+  private static final Object CLOSE = new Object();
+
+  private final File file;
+  private final long rotationSize;
+  private final boolean compressRotated;
+
+  private final ConcurrentLinkedQueue<Object> queue = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger queued = new AtomicInteger();
+  private final Thread writer;
+  private volatile boolean closed = false;
+
+  // Only touched by the writer thread
+  private final ByteBuffer batch = ByteBuffer.allocate(BATCH_SIZE);
+  private FileChannel channel;
+  private long size;
+
+  /**
+   * @param file The log file
+   * @param append Whether to add to an existing file rather than replacing it
+   * @param rotationSize Rotate the file once it exceeds this many bytes; 0 to never rotate
+   * @param compressRotated Whether to gzip files once they have been rotated out
+   */
+  public AsyncLogWriter(
+      final File file, final boolean append, final long rotationSize, final boolean compressRotated)
+      throws IOException {
+    this.file = file;
+    this.rotationSize = rotationSize;
+    this.compressRotated = compressRotated;
+
+    this.openChannel(append);
+
+    this.writer = new Thread(this::drain, "AsyncLogWriter " + file.getName());
+    this.writer.setDaemon(true);
+    this.writer.start();
+
+    AsyncLogWriter.openWriters.add(this);
+  }
+
+  public static void flushAll() {
+    for (AsyncLogWriter writer : AsyncLogWriter.openWriters) {
+      writer.flush(SHUTDOWN_WAIT_MILLIS);
+    }
+  }
+
+  public File getFile() {
+    return this.file;
+  }
+
+  @Override
+  public void write(final int b) {
+    this.enqueue(new byte[] {(byte) b});
+  }
+
+  @Override
+  public void write(final byte[] b, final int off, final int len) {
+    if (len == 0) {
+      return;
+    }
+
+    // Callers such as PrintStream reuse their buffers, so take a copy
+    this.enqueue(Arrays.copyOfRange(b, off, off + len));
+  }
+
+  @Override
+  public void flush() {
+    this.flush(0);
+  }
+
+  private void flush(final long timeoutMillis) {
+    if (this.closed || Thread.currentThread() == this.writer) {
+      return;
+    }
+
+    CountDownLatch barrier = new CountDownLatch(1);
+    this.enqueue(barrier);
+
+    long deadline = System.currentTimeMillis() + timeoutMillis;
+    try {
+      // Stop waiting if the writer has gone away without reaching the barrier
+      while (!barrier.await(100, TimeUnit.MILLISECONDS)) {
+        if (!this.writer.isAlive()
+            || (timeoutMillis > 0 && System.currentTimeMillis() > deadline)) {
+          return;
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Override
+  public void close() {
+    if (this.closed) {
+      return;
+    }
+
+    // Refuse further writes before the close marker goes on the queue, so nothing follows it
+    this.closed = true;
+    this.offer(CLOSE);
+    AsyncLogWriter.openWriters.remove(this);
+
+    if (Thread.currentThread() == this.writer) {
+      return;
+    }
+
+    try {
+      this.writer.join(SHUTDOWN_WAIT_MILLIS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void enqueue(final Object entry) {
+    if (this.closed) {
+      return;
+    }
+
+    this.offer(entry);
+  }
+
+  private void offer(final Object entry) {
+    // Apply back pressure rather than dropping log output
+    while (this.queued.get() >= QUEUE_CAPACITY && this.writer.isAlive()) {
+      LockSupport.unpark(this.writer);
+      LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    this.queue.add(entry);
+    this.queued.incrementAndGet();
+
+    if (!(entry instanceof byte[])) {
+      // Barriers and close requests should not wait for the next batch
+      LockSupport.unpark(this.writer);
+    }
+  }
+
+  private void drain() {
+    while (true) {
+      Object entry = this.queue.poll();
+
+      if (entry == null) {
+        this.writeBatch();
+        LockSupport.parkNanos(this, IDLE_WAIT_NANOS);
+        continue;
+      }
+
+      this.queued.decrementAndGet();
+
+      if (entry instanceof byte[] bytes) {
+        this.append(bytes);
+      } else if (entry instanceof CountDownLatch barrier) {
+        this.writeBatch();
+        barrier.countDown();
+      } else if (entry == CLOSE) {
+        this.writeBatch();
+        this.closeChannel();
+        // Release anybody still waiting on a barrier
+        for (Object remaining : this.queue) {
+          if (remaining instanceof CountDownLatch barrier) {
+            barrier.countDown();
+          }
+        }
+        return;
+      }
+    }
+  }
+
+  private void append(final byte[] bytes) {
+    if (bytes.length > this.batch.remaining()) {
+      this.writeBatch();
+    }
+
+    if (bytes.length > this.batch.capacity()) {
+      this.write(ByteBuffer.wrap(bytes));
+      return;
+    }
+
+    this.batch.put(bytes);
+  }
+
+  private void writeBatch() {
+    if (this.batch.position() == 0) {
+      return;
+    }
+
+    this.batch.flip();
+    this.write(this.batch);
+    this.batch.clear();
+  }
+
+  private void write(final ByteBuffer buffer) {
+    if (this.rotationSize > 0
+        && this.size > 0
+        && this.size + buffer.remaining() > this.rotationSize) {
+      this.rotate();
+    }
+
+    try {
+      while (this.channel != null && buffer.hasRemaining()) {
+        this.size += this.channel.write(buffer);
+      }
+    } catch (IOException e) {
+      // There's nowhere to log a failure to log
+    }
+
+    // Whatever could not be written is dropped
+    buffer.position(buffer.limit());
+  }
+
+  private void openChannel(final boolean append) throws IOException {
+    File directory = this.file.getAbsoluteFile().getParentFile();
+    if (directory != null) {
+      Files.createDirectories(directory.toPath());
+    }
+
+    this.channel =
+        FileChannel.open(
+            this.file.toPath(),
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE,
+            append ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING);
+    this.size = this.channel.size();
+  }
+
+  private void closeChannel() {
+    if (this.channel == null) {
+      return;
+    }
+
+    try {
+      this.channel.close();
+    } catch (IOException e) {
+      // Nothing more to write anyway
+    }
+    this.channel = null;
+  }
+
+  /** Moves the current file aside as NAME.1.EXT (NAME.2.EXT, ...) and starts a new one. */
+  private void rotate() {
+    this.closeChannel();
+
+    File rotated = AsyncLogWriter.rotatedFile(this.file, this.compressRotated);
+    try {
+      if (this.compressRotated) {
+        AsyncLogWriter.compress(this.file, rotated);
+        Files.delete(this.file.toPath());
+      } else {
+        Files.move(this.file.toPath(), rotated.toPath());
+      }
+    } catch (IOException e) {
+      // Keep logging into the current file
+    }
+
+    try {
+      this.openChannel(true);
+    } catch (IOException e) {
+      this.channel = null;
+    }
+  }
+
+  public static File rotatedFile(final File file, final boolean compressed) {
+    String name = file.getName();
+    int dot = name.lastIndexOf('.');
+    String base = dot == -1 ? name : name.substring(0, dot);
+    String extension = (dot == -1 ? "" : name.substring(dot)) + (compressed ? ".gz" : "");
+
+    for (int i = 1; ; ++i) {
+      File rotated = new File(file.getParentFile(), base + "." + i + extension);
+      if (!rotated.exists()) {
+        return rotated;
+      }
+    }
+  }
+
+  private static void compress(final File source, final File destination) throws IOException {
+    try (InputStream in = Files.newInputStream(source.toPath());
+        OutputStream out = new GZIPOutputStream(Files.newOutputStream(destination.toPath()))) {
+      in.transferTo(out);
+    }
+  }
+}
@@ -0,0 +1,359 @@
+package net.sourceforge.kolmafia.utilities;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+import net.java.dev.spellcast.utilities.DataUtilities;
+import net.sourceforge.kolmafia.KoLConstants;
+import net.sourceforge.kolmafia.RequestLogger;
+
+/**
+ * Keeps the rows of versioned data files in a compiled binary form, so that they need not be
+ * parsed as text on every launch.
+ *
+ * <p>A compiled file holds a table of the distinct strings in the data file, followed by each row
+ * as indexes into that table. It is memory-mapped when read, and each row is built from shared
+ * strings as it is wanted.
+ *
+ * <p>A compiled file is keyed by a checksum of the data file it was compiled from, whether that is
+ * the built-in file or an override in the data directory. If the data file changes, the checksum
+ * no longer matches, and the data file is parsed as text and compiled again. The rest of the
+ * compiled file has a checksum of its own, so that a damaged file is also compiled again.
+ */
+public class DataFileCache {
+  private static final int MAGIC = 0x4B6F4C44;
+  private static final int FORMAT = 2;
+  // Magic, format, checksum, version, and checksum of the rest of the file
+  static final int HEADER_SIZE = 4 + 4 + 8 + 4 + 8;
+
+  // Rows read ahead of time by DatabaseWarmup, each taken by the first reader of its file
+  private static final Map<String, Rows> prefetched = new ConcurrentHashMap<>();
+
+  private record Rows(Iterator<String[]> rows, String message) {}
+
+  private DataFileCache() {}
+
+  /**
+   * Returns a reader for the rows of a versioned data file, compiling the data file if it has not
+   * been compiled before or has changed since.
+   *
+   * @return null if the data file is missing or is not the given version
+   */
+  public static BufferedReader getReader(final String filename, final int version) {
+    Rows rows = DataFileCache.prefetched.remove(filename + "@" + version);
+    if (rows == null) {
+      rows = DataFileCache.getRows(filename, version);
+    }
+
+    if (rows == null) {
+      return null;
+    }
+
+    if (rows.message() != null) {
+      RequestLogger.printLine(rows.message());
+    }
+
+    return new RowReader(rows.rows());
+  }
+
+  /**
+   * Reads all the rows of a versioned data file, to be handed to the next reader of that file.
+   * This may be called on any thread.
+   */
+  public static void prefetch(final String filename, final int version) {
+    Rows rows = DataFileCache.getRows(filename, version);
+    if (rows == null) {
+      return;
+    }
+
+    List<String[]> list = new ArrayList<>();
+    rows.rows().forEachRemaining(list::add);
+    DataFileCache.prefetched.put(
+        filename + "@" + version, new Rows(list.iterator(), rows.message()));
+  }
+
+  /** Forgets any prefetched rows which no one has read, so that they cannot go stale. */
+  public static void clearPrefetched() {
+    DataFileCache.prefetched.clear();
+  }
+
+  private static Rows getRows(final String filename, final int version) {
+    InputStream istream;
+    String message;
+
+    // DataUtilities keeps its last message in a static field
+    synchronized (DataFileCache.class) {
+      istream = DataUtilities.getInputStream(KoLConstants.DATA_DIRECTORY, filename, true);
+      message = DataUtilities.getLastMessage();
+    }
+
+    byte[] bytes;
+    try (istream) {
+      bytes = istream.readAllBytes();
+    } catch (IOException e) {
+      return null;
+    }
+
+    if (bytes.length == 0) {
+      return null;
+    }
+
+    CRC32 crc = new CRC32();
+    crc.update(bytes);
+    long checksum = crc.getValue();
+
+    File compiled = new File(KoLConstants.CACHE_LOCATION, filename + ".bin");
+    Iterator<String[]> rows = DataFileCache.readCompiled(compiled, checksum, version);
+
+    if (rows == null) {
+      List<String[]> parsed = DataFileCache.parse(bytes, version);
+      if (parsed == null) {
+        return null;
+      }
+      DataFileCache.writeCompiled(compiled, checksum, version, parsed);
+      rows = parsed.iterator();
+    }
+
+    return new Rows(rows, message);
+  }
+
+  // Parses the data file as FileUtilities does, or returns null if it is not the given version
+  static List<String[]> parse(final byte[] bytes, final int version) {
+    BufferedReader reader =
+        new BufferedReader(
+            new InputStreamReader(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8));
+
+    String line = FileUtilities.readLine(reader);
+    if (line == null || StringUtilities.parseInt(line) != version) {
+      return null;
+    }
+
+    List<String[]> rows = new ArrayList<>();
+    String[] data;
+    while ((data = FileUtilities.readData(reader)) != null) {
+      rows.add(data);
+    }
+    return rows;
+  }
+
+  static void writeCompiled(
+      final File compiled, final long checksum, final int version, final List<String[]> rows) {
+    Map<String, Integer> indexes = new HashMap<>();
+    List<String> strings = new ArrayList<>();
+    for (String[] row : rows) {
+      for (String field : row) {
+        if (indexes.putIfAbsent(field, strings.size()) == null) {
+          strings.add(field);
+        }
+      }
+    }
+
+    ByteArrayOutputStream payload = new ByteArrayOutputStream();
+    try (DataOutputStream ostream = new DataOutputStream(payload)) {
+      ostream.writeInt(strings.size());
+      for (String string : strings) {
+        byte[] utf8 = string.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(ostream, utf8.length);
+        ostream.write(utf8);
+      }
+
+      ostream.writeInt(rows.size());
+      for (String[] row : rows) {
+        writeVarInt(ostream, row.length);
+        for (String field : row) {
+          writeVarInt(ostream, indexes.get(field));
+        }
+      }
+    } catch (IOException e) {
+      return;
+    }
+
+    CRC32 crc = new CRC32();
+    crc.update(payload.toByteArray());
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream ostream = new DataOutputStream(bytes)) {
+      ostream.writeInt(MAGIC);
+      ostream.writeInt(FORMAT);
+      ostream.writeLong(checksum);
+      ostream.writeInt(version);
+      ostream.writeLong(crc.getValue());
+      payload.writeTo(ostream);
+    } catch (IOException e) {
+      return;
+    }
+
+    // Write to a new file and move it into place, so that no reader sees half a file. The
+    // compiled file is only an optimization, so failing to write it is not an error.
+    try {
+      File directory = compiled.getParentFile();
+      directory.mkdirs();
+      Path temporary = Files.createTempFile(directory.toPath(), compiled.getName(), ".tmp");
+      try {
+        Files.write(temporary, bytes.toByteArray());
+        Files.move(
+            temporary,
+            compiled.toPath(),
+            StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+      } finally {
+        Files.deleteIfExists(temporary);
+      }
+    } catch (IOException e) {
+      // Try again next time
+    }
+  }
+
+  /**
+   * Reads a compiled file.
+   *
+   * @return null if there is no compiled file, it was compiled from a different data file, or it
+   *     is damaged
+   */
+  static Iterator<String[]> readCompiled(
+      final File compiled, final long checksum, final int version) {
+    if (!compiled.isFile()) {
+      return null;
+    }
+
+    // Check the header with a plain read before mapping anything. A mapped file cannot be
+    // replaced on Windows until the mapping is collected, and a file compiled from a different
+    // data file is about to be replaced.
+    ByteBuffer buffer;
+    long payloadChecksum;
+    try (FileChannel channel = FileChannel.open(compiled.toPath(), StandardOpenOption.READ)) {
+      ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+      while (header.hasRemaining() && channel.read(header) >= 0) {}
+      header.flip();
+      if (header.remaining() < HEADER_SIZE
+          || header.getInt() != MAGIC
+          || header.getInt() != FORMAT
+          || header.getLong() != checksum
+          || header.getInt() != version) {
+        return null;
+      }
+      payloadChecksum = header.getLong();
+
+      buffer =
+          channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, channel.size() - HEADER_SIZE);
+    } catch (IOException e) {
+      return null;
+    }
+
+    // Rows are decoded as they are read, long after this returns, so check the whole file now
+    CRC32 crc = new CRC32();
+    crc.update(buffer.duplicate());
+    if (crc.getValue() != payloadChecksum) {
+      return null;
+    }
+
+    try {
+      String[] strings = new String[buffer.getInt()];
+      for (int i = 0; i < strings.length; ++i) {
+        byte[] utf8 = new byte[readVarInt(buffer)];
+        buffer.get(utf8);
+        strings[i] = new String(utf8, StandardCharsets.UTF_8);
+      }
+
+      return new CompiledRows(buffer, buffer.getInt(), strings);
+    } catch (RuntimeException e) {
+      // A truncated or corrupt file
+      return null;
+    }
+  }
+
+  private static void writeVarInt(final DataOutputStream ostream, int value) throws IOException {
+    while ((value & ~0x7F) != 0) {
+      ostream.writeByte((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    ostream.writeByte(value);
+  }
+
+  private static int readVarInt(final ByteBuffer buffer) {
+    int value = 0;
+    for (int shift = 0; ; shift += 7) {
+      byte b = buffer.get();
+      value |= (b & 0x7F) << shift;
+      if (b >= 0) {
+        return value;
+      }
+    }
+  }
+
+  private static class CompiledRows implements Iterator<String[]> {
+    private final ByteBuffer buffer;
+    private final String[] strings;
+    private int remaining;
+
+    CompiledRows(final ByteBuffer buffer, final int count, final String[] strings) {
+      this.buffer = buffer;
+      this.remaining = count;
+      this.strings = strings;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return this.remaining > 0;
+    }
+
+    @Override
+    public String[] next() {
+      if (this.remaining == 0) {
+        throw new NoSuchElementException();
+      }
+
+      --this.remaining;
+      String[] row = new String[readVarInt(this.buffer)];
+      for (int i = 0; i < row.length; ++i) {
+        row[i] = this.strings[readVarInt(this.buffer)];
+      }
+      return row;
+    }
+  }
+
+  /**
+   * A reader over the rows of a data file, which {@link FileUtilities#readData} takes as they are.
+   * Anything else which reads lines gets each row joined back together with tabs; the version
+   * line, comments, and blank lines are gone.
+   */
+  static class RowReader extends BufferedReader {
+    private final Iterator<String[]> rows;
+
+    RowReader(final Iterator<String[]> rows) {
+      super(Reader.nullReader());
+      this.rows = rows;
+    }
+
+    String[] readData() {
+      return this.rows.hasNext() ? this.rows.next() : null;
+    }
+
+    @Override
+    public String readLine() {
+      String[] row = this.readData();
+      return row == null ? null : String.join("\t", row);
+    }
+  }
+}
@@ -74,7 +74,15 @@ public class FileUtilities {
   }
 
   public static final BufferedReader getVersionedReader(final String filename, final int version) {
-    BufferedReader reader =
+    BufferedReader reader = DataFileCache.getReader(filename, version);
+    if (reader != null) {
+      return reader;
+    }
+
+    // Only a data file of the right version is compiled. Read any other as text, which reports
+    // the problem and falls back to the built-in file.
+
+    reader =
         FileUtilities.getReader(
             DataUtilities.getReader(KoLConstants.DATA_DIRECTORY, filename, true));
 
@@ -151,6 +159,10 @@ public class FileUtilities {
       return null;
     }
 
+    if (reader instanceof DataFileCache.RowReader rows) {
+      return rows.readData();
+    }
+
     String line = readLine(reader);
     return line == null ? null : line.split("\t", -1);
   }
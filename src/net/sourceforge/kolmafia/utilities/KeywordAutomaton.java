@@ -0,0 +1,153 @@
+package net.sourceforge.kolmafia.utilities;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeSet;
+
+/**
+ * Finds which of a fixed set of keywords occur in a text, in a single pass over the text however
+ * many keywords there are.
+ *
+ * <p>This is an Aho-Corasick automaton, compiled to a table with one row per state and one column
+ * per character which appears in some keyword. Every other character leads back to the start.
+ */
+public class KeywordAutomaton {
+  private final int keywordCount;
+
+  // The column for each ASCII character, and for the other characters in keywords, in order
+  private final int[] asciiColumns = new int[128];
+  private final char[] otherChars;
+  private final int[] otherColumns;
+
+  private final int width;
+  private final int[] transitions;
+
+  // The keywords, by index, which end at each state
+  private final int[][] outputs;
+
+  public KeywordAutomaton(final List<String> keywords) {
+    this.keywordCount = keywords.size();
+
+    TreeSet<Character> alphabet = new TreeSet<>();
+    for (String keyword : keywords) {
+      if (keyword.isEmpty()) {
+        throw new IllegalArgumentException("Keywords cannot be empty");
+      }
+      for (char c : keyword.toCharArray()) {
+        alphabet.add(c);
+      }
+    }
+
+    List<Character> others = new ArrayList<>();
+    int column = 1;
+    for (char c : alphabet) {
+      if (c < 128) {
+        this.asciiColumns[c] = column++;
+      } else {
+        others.add(c);
+      }
+    }
+    this.otherChars = new char[others.size()];
+    this.otherColumns = new int[others.size()];
+    for (int i = 0; i < others.size(); ++i) {
+      this.otherChars[i] = others.get(i);
+      this.otherColumns[i] = column++;
+    }
+    this.width = column;
+
+    // Build the trie of keywords
+    List<Map<Integer, Integer>> children = new ArrayList<>();
+    List<List<Integer>> ends = new ArrayList<>();
+    children.add(new HashMap<>());
+    ends.add(new ArrayList<>());
+
+    for (int i = 0; i < keywords.size(); ++i) {
+      int state = 0;
+      for (char c : keywords.get(i).toCharArray()) {
+        Integer next = children.get(state).get(this.column(c));
+        if (next == null) {
+          next = children.size();
+          children.get(state).put(this.column(c), next);
+          children.add(new HashMap<>());
+          ends.add(new ArrayList<>());
+        }
+        state = next;
+      }
+      ends.get(state).add(i);
+    }
+
+    // Fill in the table breadth first, so that each state's failure state is complete before
+    // the state itself is
+    int states = children.size();
+    this.transitions = new int[states * this.width];
+    this.outputs = new int[states][];
+
+    int[] failure = new int[states];
+    Queue<Integer> queue = new ArrayDeque<>();
+    queue.add(0);
+
+    while (!queue.isEmpty()) {
+      int state = queue.remove();
+      int fallback = failure[state];
+
+      List<Integer> output = ends.get(state);
+      if (state != 0) {
+        for (int keyword : this.outputs[fallback]) {
+          output.add(keyword);
+        }
+      }
+      this.outputs[state] = output.stream().mapToInt(Integer::intValue).toArray();
+
+      for (int c = 0; c < this.width; ++c) {
+        Integer child = children.get(state).get(c);
+        int fallbackNext = state == 0 ? 0 : this.transitions[fallback * this.width + c];
+        if (child == null) {
+          this.transitions[state * this.width + c] = fallbackNext;
+        } else {
+          this.transitions[state * this.width + c] = child;
+          failure[child] = fallbackNext;
+          queue.add(child);
+        }
+      }
+    }
+  }
+
+  private int column(final char c) {
+    if (c < 128) {
+      return this.asciiColumns[c];
+    }
+    int index = Arrays.binarySearch(this.otherChars, c);
+    return index < 0 ? 0 : this.otherColumns[index];
+  }
+
+  public int size() {
+    return this.keywordCount;
+  }
+
+  /** Returns the indexes of the keywords which occur in the text. */
+  public BitSet scan(final CharSequence text) {
+    BitSet found = new BitSet(this.keywordCount);
+    int remaining = this.keywordCount;
+
+    int state = 0;
+    for (int i = 0, length = text.length(); i < length; ++i) {
+      state = this.transitions[state * this.width + this.column(text.charAt(i))];
+      for (int keyword : this.outputs[state]) {
+        if (!found.get(keyword)) {
+          found.set(keyword);
+          if (--remaining == 0) {
+            return found;
+          }
+        }
+      }
+    }
+
+    return found;
+  }
+}
@@ -1,6 +1,7 @@
 package net.sourceforge.kolmafia.utilities;
 
 import java.io.File;
+import java.io.IOException;
 import java.io.OutputStream;
 import java.io.PrintStream;
 import java.nio.charset.Charset;
@@ -12,6 +13,7 @@ import net.sourceforge.kolmafia.KoLCharacter;
 import net.sourceforge.kolmafia.KoLConstants;
 import net.sourceforge.kolmafia.KoLDesktop;
 import net.sourceforge.kolmafia.StaticEntity;
+import net.sourceforge.kolmafia.preferences.Preferences;
 
 public class LogStream extends PrintStream implements Runnable {
   private File proxy;
@@ -27,14 +29,36 @@ public class LogStream extends PrintStream implements Runnable {
   public static PrintStream openStream(
       final File file, final boolean forceNewFile, final Charset encoding) {
     OutputStream ostream = DataUtilities.getOutputStream(file, !forceNewFile);
-    PrintStream pstream = openStream(ostream, encoding);
+    return LogStream.initialize(new LogStream(ostream, true, encoding), file);
+  }
+
+  /**
+   * Opens a log whose output is written to disk by a background thread, so that logging never
+   * blocks the caller on file I/O. The log rotates once it exceeds logRotationMegabytes.
+   */
+  public static PrintStream openAsyncStream(final String filename) {
+    return LogStream.openAsyncStream(filename, true);
+  }
 
-    if (!(pstream instanceof LogStream)) {
-      return pstream;
+  /** Opens a log written by a background thread, which is only rotated if rotate is true. */
+  public static PrintStream openAsyncStream(final String filename, final boolean rotate) {
+    File file = new File(KoLConstants.ROOT_LOCATION, filename);
+    long rotationSize = rotate ? Preferences.getLong("logRotationMegabytes") * 1024 * 1024 : 0;
+    boolean compressRotated = Preferences.getBoolean("logRotationCompressed");
+
+    AsyncLogWriter writer;
+    try {
+      writer = new AsyncLogWriter(file, true, rotationSize, compressRotated);
+    } catch (IOException e) {
+      // Fall back to writing synchronously
+      return LogStream.openStream(file, false);
     }
 
-    LogStream newStream = (LogStream) pstream;
+    // Without autoflush, each line goes to the writer's queue without waiting for the disk
+    return LogStream.initialize(new LogStream(writer, false, StandardCharsets.UTF_8), file);
+  }
 
+  private static PrintStream initialize(final LogStream newStream, final File file) {
     if (file.getName().startsWith("DEBUG")) {
       if (KoLDesktop.instanceExists()) {
         newStream.proxy = file;
@@ -80,7 +104,7 @@ public class LogStream extends PrintStream implements Runnable {
   }
 
   public static PrintStream openStream(final OutputStream ostream, final Charset encoding) {
-    return new LogStream(ostream, encoding);
+    return new LogStream(ostream, true, encoding);
   }
 
   @Override
@@ -88,7 +112,7 @@ public class LogStream extends PrintStream implements Runnable {
     KoLDesktop.getInstance().getRootPane().putClientProperty("Window.documentFile", this.proxy);
   }
 
-  private LogStream(final OutputStream ostream, final Charset encoding) {
-    super(ostream, true, encoding);
+  private LogStream(final OutputStream ostream, final boolean autoFlush, final Charset encoding) {
+    super(ostream, autoFlush, encoding);
   }
 }
@@ -0,0 +1,174 @@
+package net.sourceforge.kolmafia.utilities;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An inverted index over an array of canonical names, used by StringUtilities.getMatchingNames to
+ * narrow down which names are worth checking at all.
+ *
+ * <p>Any name containing a search string contains each of its trigrams, so intersecting the
+ * trigram postings gives every possible substring match. fuzzyMatches insists that the first
+ * character of the search string is found at the start of a word, so the names with that character
+ * at a word start are the only possible fuzzy matches. Candidates are still checked by the caller
+ * exactly as before; the index only ever removes names which could not match.
+ *
+ * <p>Postings are sorted arrays of indices into the names, so candidates come back in the same
+ * order as a linear scan would find them.
+ */
+final class NameIndex {
+  private static final int[] NONE = new int[0];
+
+  private final String[] names;
+  private final int[] all;
+  private final int[] hashes;
+  private final Map<String, int[]> trigrams;
+  private final Map<Character, int[]> wordStarts;
+
+  NameIndex(final String[] names) {
+    int nameCount = names.length;
+
+    this.names = names.clone();
+    this.all = new int[nameCount];
+    this.hashes = new int[nameCount];
+    for (int i = 0; i < nameCount; ++i) {
+      this.all[i] = i;
+      this.hashes[i] = StringUtilities.stringHash(names[i]);
+    }
+
+    // Count first so that every posting can be allocated at its final size. Each count is
+    // {postings, last name counted}, so that a name repeating a key is only counted once.
+    Map<String, int[]> trigramCounts = new HashMap<>();
+    Map<Character, int[]> wordStartCounts = new HashMap<>();
+    for (int i = 0; i < nameCount; ++i) {
+      String name = names[i];
+      for (int j = 0; j + 3 <= name.length(); ++j) {
+        NameIndex.count(trigramCounts, name.substring(j, j + 3), i);
+      }
+      for (int j = 0; j < name.length(); ++j) {
+        if (NameIndex.isWordStart(name, j)) {
+          NameIndex.count(wordStartCounts, name.charAt(j), i);
+        }
+      }
+    }
+
+    this.trigrams = NameIndex.allocate(trigramCounts);
+    this.wordStarts = NameIndex.allocate(wordStartCounts);
+
+    for (int i = 0; i < nameCount; ++i) {
+      String name = names[i];
+      for (int j = 0; j + 3 <= name.length(); ++j) {
+        NameIndex.add(this.trigrams, trigramCounts, name.substring(j, j + 3), i);
+      }
+      for (int j = 0; j < name.length(); ++j) {
+        if (NameIndex.isWordStart(name, j)) {
+          NameIndex.add(this.wordStarts, wordStartCounts, name.charAt(j), i);
+        }
+      }
+    }
+  }
+
+  private static <K> void count(final Map<K, int[]> counts, final K key, final int name) {
+    int[] count = counts.computeIfAbsent(key, k -> new int[] {0, -1});
+    if (count[1] != name) {
+      count[0]++;
+      count[1] = name;
+    }
+  }
+
+  private static <K> Map<K, int[]> allocate(final Map<K, int[]> counts) {
+    Map<K, int[]> postings = new HashMap<>(counts.size() * 4 / 3 + 1);
+    for (Map.Entry<K, int[]> entry : counts.entrySet()) {
+      int[] count = entry.getValue();
+      postings.put(entry.getKey(), new int[count[0]]);
+      // Reuse the count as {next free slot, last name added}
+      count[0] = 0;
+      count[1] = -1;
+    }
+    return postings;
+  }
+
+  private static <K> void add(
+      final Map<K, int[]> postings, final Map<K, int[]> counts, final K key, final int name) {
+    int[] count = counts.get(key);
+    if (count[1] != name) {
+      postings.get(key)[count[0]++] = name;
+      count[1] = name;
+    }
+  }
+
+  private static boolean isWordStart(final String name, final int index) {
+    return index == 0 || StringUtilities.isWordBoundary(name.charAt(index - 1));
+  }
+
+  /** Returns whether the array still holds the names this index was built from. */
+  boolean isCurrent(final String[] names) {
+    if (names.length != this.names.length) {
+      return false;
+    }
+    for (int i = 0; i < names.length; ++i) {
+      if (names[i] != this.names[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  int[] getHashes() {
+    return this.hashes;
+  }
+
+  /** Returns the indices of all names which could contain the given search string. */
+  int[] substringCandidates(final String searchString) {
+    if (searchString.length() < 3) {
+      return this.all;
+    }
+
+    int gramCount = searchString.length() - 2;
+    int[][] postings = new int[gramCount][];
+    for (int i = 0; i < gramCount; ++i) {
+      int[] posting = this.trigrams.get(searchString.substring(i, i + 3));
+      if (posting == null) {
+        return NONE;
+      }
+      postings[i] = posting;
+    }
+
+    return NameIndex.intersect(postings);
+  }
+
+  /** Returns the indices of all names which could fuzzy match the given search string. */
+  int[] fuzzyCandidates(final String searchString) {
+    for (int i = 0; i < searchString.length(); ++i) {
+      char ch = searchString.charAt(i);
+      if (!Character.isWhitespace(ch)) {
+        return this.wordStarts.getOrDefault(ch, NONE);
+      }
+    }
+
+    // Nothing but whitespace, which matches everything
+    return this.all;
+  }
+
+  private static int[] intersect(final int[][] postings) {
+    // Walk the shortest posting, looking each entry up in the others
+    Arrays.sort(postings, (a, b) -> Integer.compare(a.length, b.length));
+
+    int[] shortest = postings[0];
+    int[] result = new int[shortest.length];
+    int resultCount = 0;
+
+    next:
+    for (int name : shortest) {
+      for (int i = 1; i < postings.length; ++i) {
+        if (Arrays.binarySearch(postings[i], name) < 0) {
+          continue next;
+        }
+      }
+      result[resultCount++] = name;
+    }
+
+    return resultCount == result.length ? result : Arrays.copyOf(result, resultCount);
+  }
+}
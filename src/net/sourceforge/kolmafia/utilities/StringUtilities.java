@@ -29,7 +29,7 @@ public class StringUtilities {
   private static final HashMap<String, String> canonicalNameCache = new HashMap<>();
 
   private static final HashMap<String, String> prepositionsMap = new HashMap<>();
-  private static final WeakHashMap<String[], int[]> hashCache = new WeakHashMap<>();
+  private static final WeakHashMap<String[], NameIndex> nameIndexCache = new WeakHashMap<>();
 
   private static final Pattern NONINTEGER_PATTERN = Pattern.compile("[^0-9\\-]+");
 
@@ -247,18 +247,12 @@ public class StringUtilities {
       return matchList;
     }
 
-    int nameCount = names.length;
-    int[] hashes = StringUtilities.hashCache.get(names);
-    if (hashes == null) {
-      hashes = new int[nameCount];
-      for (int i = 0; i < nameCount; ++i) {
-        hashes[i] = StringUtilities.stringHash(names[i]);
-      }
-      StringUtilities.hashCache.put(names, hashes);
-    }
+    NameIndex index = StringUtilities.getNameIndex(names);
+    int[] hashes = index.getHashes();
     int hash = StringUtilities.stringHash(searchString);
+    int[] candidates = index.substringCandidates(searchString);
 
-    for (int i = 0; i < nameCount; ++i) {
+    for (int i : candidates) {
       if ((hashes[i] & hash) == hash
           && StringUtilities.substringMatches(names[i], searchString, true)) {
         matchList.add(names[i]);
@@ -269,7 +263,7 @@ public class StringUtilities {
       return matchList;
     }
 
-    for (int i = 0; i < nameCount; ++i) {
+    for (int i : candidates) {
       if ((hashes[i] & hash) == hash
           && StringUtilities.substringMatches(names[i], searchString, false)) {
         matchList.add(names[i]);
@@ -287,7 +281,7 @@ public class StringUtilities {
     // Therefore, strip out the bit representing a space in the hash:
     hash &= ~StringUtilities.stringHash(" ");
 
-    for (int i = 0; i < nameCount; ++i) {
+    for (int i : index.fuzzyCandidates(searchString)) {
       if ((hashes[i] & hash) == hash && StringUtilities.fuzzyMatches(names[i], searchString)) {
         matchList.add(names[i]);
       }
@@ -296,7 +290,19 @@ public class StringUtilities {
     return matchList;
   }
 
-  private static int stringHash(final String s) {
+  private static NameIndex getNameIndex(final String[] names) {
+    synchronized (StringUtilities.nameIndexCache) {
+      NameIndex index = StringUtilities.nameIndexCache.get(names);
+      // Some callers sort or fill in their arrays after searching them
+      if (index == null || !index.isCurrent(names)) {
+        index = new NameIndex(names);
+        StringUtilities.nameIndexCache.put(names, index);
+      }
+      return index;
+    }
+  }
+
+  static int stringHash(final String s) {
     int hash = 0;
     for (int i = s.length() - 1; i >= 0; --i) {
       hash |= 1 << (s.charAt(i) & 0x1F);
@@ -384,7 +390,7 @@ public class StringUtilities {
     return false;
   }
 
-  private static boolean isWordBoundary(char ch) {
+  static boolean isWordBoundary(char ch) {
     return ch != '#' && !Character.isLetterOrDigit(ch);
   }
 
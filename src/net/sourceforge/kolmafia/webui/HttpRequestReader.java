@@ -0,0 +1,390 @@
+package net.sourceforge.kolmafia.webui;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import net.sourceforge.kolmafia.request.GenericRequest;
+
+/**
+ * Reads HTTP/1.1 requests from the browser for a RelayAgent.
+ *
+ * <p>The request line and headers are scanned in place in a buffer which the agent reuses for
+ * every connection it serves. Header names are matched against the few headers the relay browser
+ * cares about without being turned into strings, and only the values of those headers are ever
+ * decoded. Bodies may be sent with a Content-Length or chunked, and are split into form fields
+ * straight from their bytes.
+ */
+final class HttpRequestReader {
+  static final String HOST = "host";
+  static final String REFERER = "referer";
+  static final String IF_MODIFIED_SINCE = "if-modified-since";
+  static final String CONTENT_LENGTH = "content-length";
+  static final String USER_AGENT = "user-agent";
+  static final String COOKIE = "cookie";
+  static final String TRANSFER_ENCODING = "transfer-encoding";
+  static final String IF_NONE_MATCH = "if-none-match";
+  static final String ACCEPT_ENCODING = "accept-encoding";
+
+  private static final String[] HEADERS = {
+    HOST,
+    REFERER,
+    IF_MODIFIED_SINCE,
+    CONTENT_LENGTH,
+    USER_AGENT,
+    COOKIE,
+    TRANSFER_ENCODING,
+    IF_NONE_MATCH,
+    ACCEPT_ENCODING
+  };
+
+  private static final int BUFFER_SIZE = 8192;
+
+  // Longer lines than this are not from a browser
+  private static final int MAX_LINE_LENGTH = 16384;
+
+  // Bodies larger than this are not kept around for the next request
+  private static final int RETAINED_BODY_SIZE = 65536;
+
+  private static final int MAX_BODY_SIZE = 64 * 1024 * 1024;
+
+  private final byte[] buffer = new byte[MAX_LINE_LENGTH];
+  private int position;
+  private int limit;
+  private InputStream in;
+
+  // The line most recently read, as offsets into the buffer
+  private int lineStart;
+  private int lineEnd;
+
+  private int methodEnd;
+  private int pathStart;
+  private int pathEnd;
+
+  private int valueStart;
+  private String headerName;
+
+  private byte[] body = new byte[BUFFER_SIZE];
+  private int bodyLength;
+
+  void reset(final InputStream in) {
+    this.in = in;
+    this.position = 0;
+    this.limit = 0;
+    this.bodyLength = 0;
+  }
+
+  /** Lets go of the connection, and of any unusually large body. */
+  void finish() {
+    this.in = null;
+    if (this.body.length > RETAINED_BODY_SIZE) {
+      this.body = new byte[BUFFER_SIZE];
+    }
+    this.bodyLength = 0;
+  }
+
+  /**
+   * Reads the request line.
+   *
+   * @return false if the browser closed the connection without sending one
+   */
+  boolean readRequestLine() throws IOException {
+    if (!this.readLine()) {
+      return false;
+    }
+
+    this.methodEnd = this.indexOf((byte) ' ', this.lineStart, this.lineEnd);
+    this.pathEnd = this.lastIndexOf((byte) ' ', this.lineStart, this.lineEnd);
+    this.pathStart = this.methodEnd + 1;
+    return true;
+  }
+
+  /** Returns whether the request line was an HTTP/1.1 request for some path. */
+  boolean isValidRequestLine() {
+    return this.methodEnd > this.lineStart
+        && this.pathEnd > this.pathStart
+        && this.regionEquals(this.pathEnd + 1, this.lineEnd, "HTTP/1.1");
+  }
+
+  String getRequestLine() {
+    return this.decode(this.lineStart, this.lineEnd);
+  }
+
+  String getMethod() {
+    if (this.regionEquals(this.lineStart, this.methodEnd, "GET")) {
+      return "GET";
+    }
+    if (this.regionEquals(this.lineStart, this.methodEnd, "POST")) {
+      return "POST";
+    }
+    return this.decode(this.lineStart, this.methodEnd);
+  }
+
+  String getPath() {
+    return this.decode(this.pathStart, this.pathEnd);
+  }
+
+  /**
+   * Reads the next header line.
+   *
+   * @return false at the blank line which ends the headers
+   */
+  boolean readHeader() throws IOException {
+    if (!this.readLine() || this.lineEnd == this.lineStart) {
+      return false;
+    }
+
+    this.headerName = null;
+
+    int colon = this.indexOf((byte) ':', this.lineStart, this.lineEnd);
+    if (colon == -1) {
+      return true;
+    }
+
+    int nameStart = this.skipSpaces(this.lineStart, colon);
+    int nameEnd = this.trimSpaces(nameStart, colon);
+
+    for (String header : HEADERS) {
+      if (this.regionEqualsIgnoreCase(nameStart, nameEnd, header)) {
+        this.headerName = header;
+        break;
+      }
+    }
+
+    this.valueStart = colon + 1;
+    return true;
+  }
+
+  /** Returns the name of the header just read, or null if it is not one we look at. */
+  String getHeaderName() {
+    return this.headerName;
+  }
+
+  String getHeaderValue() {
+    int start = this.skipSpaces(this.valueStart, this.lineEnd);
+    return this.decode(start, this.trimSpaces(start, this.lineEnd));
+  }
+
+  String getHeaderLine() {
+    return this.decode(this.lineStart, this.lineEnd);
+  }
+
+  /** Reads a body of the given length, or in chunks if the length is not known in advance. */
+  void readBody(final int contentLength, final boolean chunked) throws IOException {
+    this.bodyLength = 0;
+
+    if (!chunked) {
+      this.readBodyBytes(contentLength);
+      return;
+    }
+
+    while (true) {
+      if (!this.readLine()) {
+        throw new IOException("Truncated chunked body");
+      }
+
+      int chunkSize = this.parseChunkSize();
+      if (chunkSize == 0) {
+        break;
+      }
+
+      this.readBodyBytes(chunkSize);
+
+      // Each chunk is followed by a line break
+      if (!this.readLine() || this.lineEnd != this.lineStart) {
+        throw new IOException("Malformed chunked body");
+      }
+    }
+
+    // Skip any trailers
+    while (this.readLine() && this.lineEnd != this.lineStart) {}
+  }
+
+  private int parseChunkSize() throws IOException {
+    int size = 0;
+    int digits = 0;
+
+    for (int i = this.skipSpaces(this.lineStart, this.lineEnd); i < this.lineEnd; ++i) {
+      int digit = Character.digit(this.buffer[i], 16);
+      if (digit == -1) {
+        // Chunk extensions follow a semicolon
+        break;
+      }
+      if (size > MAX_BODY_SIZE) {
+        throw new IOException("Chunk too large");
+      }
+      size = size * 16 + digit;
+      digits++;
+    }
+
+    if (digits == 0) {
+      throw new IOException("Malformed chunk size");
+    }
+
+    return size;
+  }
+
+  private void readBodyBytes(final int length) throws IOException {
+    if (length < 0 || length > MAX_BODY_SIZE - this.bodyLength) {
+      throw new IOException("Request body too large");
+    }
+
+    int needed = this.bodyLength + length;
+    if (needed > this.body.length) {
+      byte[] grown = new byte[Math.max(needed, this.body.length * 2)];
+      System.arraycopy(this.body, 0, grown, 0, this.bodyLength);
+      this.body = grown;
+    }
+
+    // Some of the body may have arrived with the headers
+    int buffered = Math.min(length, this.limit - this.position);
+    System.arraycopy(this.buffer, this.position, this.body, this.bodyLength, buffered);
+    this.position += buffered;
+    this.bodyLength += buffered;
+
+    while (this.bodyLength < needed) {
+      int count = this.in.read(this.body, this.bodyLength, needed - this.bodyLength);
+      if (count == -1) {
+        throw new IOException("Truncated request body");
+      }
+      this.bodyLength += count;
+    }
+  }
+
+  String getBody() {
+    return new String(this.body, 0, this.bodyLength, StandardCharsets.UTF_8);
+  }
+
+  /** Adds each of the URL encoded fields in the body to the request. */
+  void addFormFields(final GenericRequest request) {
+    int start = 0;
+    while (start < this.bodyLength) {
+      int end = start;
+      while (end < this.bodyLength && this.body[end] != '&') {
+        end++;
+      }
+
+      if (end > start) {
+        request.addEncodedFormField(
+            new String(this.body, start, end - start, StandardCharsets.UTF_8));
+      }
+
+      start = end + 1;
+    }
+  }
+
+  // Reads up to the next line break, which may be either CRLF or a bare LF
+  private boolean readLine() throws IOException {
+    // How much of the line has already been searched for a line break
+    int scanned = 0;
+
+    while (true) {
+      int newline = this.indexOf((byte) '\n', this.position + scanned, this.limit);
+      if (newline != -1) {
+        this.lineStart = this.position;
+        this.lineEnd =
+            newline > this.position && this.buffer[newline - 1] == '\r' ? newline - 1 : newline;
+        this.position = newline + 1;
+        return true;
+      }
+
+      scanned = this.limit - this.position;
+      if (!this.fill()) {
+        if (this.position == this.limit) {
+          return false;
+        }
+
+        // The last line had no line break
+        this.lineStart = this.position;
+        this.lineEnd = this.limit;
+        this.position = this.limit;
+        return true;
+      }
+    }
+  }
+
+  // Moves the partial line to the front of the buffer and reads more after it
+  private boolean fill() throws IOException {
+    if (this.position > 0) {
+      System.arraycopy(this.buffer, this.position, this.buffer, 0, this.limit - this.position);
+      this.limit -= this.position;
+      this.position = 0;
+    }
+
+    if (this.limit == this.buffer.length) {
+      throw new IOException("Request line too long");
+    }
+
+    int count = this.in.read(this.buffer, this.limit, this.buffer.length - this.limit);
+    if (count == -1) {
+      return false;
+    }
+
+    this.limit += count;
+    return true;
+  }
+
+  private int indexOf(final byte b, final int start, final int end) {
+    for (int i = start; i < end; ++i) {
+      if (this.buffer[i] == b) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private int lastIndexOf(final byte b, final int start, final int end) {
+    for (int i = end - 1; i >= start; --i) {
+      if (this.buffer[i] == b) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private int skipSpaces(int start, final int end) {
+    while (start < end && (this.buffer[start] == ' ' || this.buffer[start] == '\t')) {
+      start++;
+    }
+    return start;
+  }
+
+  private int trimSpaces(final int start, int end) {
+    while (end > start && (this.buffer[end - 1] == ' ' || this.buffer[end - 1] == '\t')) {
+      end--;
+    }
+    return end;
+  }
+
+  private boolean regionEquals(final int start, final int end, final String s) {
+    if (end - start != s.length()) {
+      return false;
+    }
+    for (int i = 0; i < s.length(); ++i) {
+      if (this.buffer[start + i] != s.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // The header names we look for are all lower case
+  private boolean regionEqualsIgnoreCase(final int start, final int end, final String lower) {
+    if (end - start != lower.length()) {
+      return false;
+    }
+    for (int i = 0; i < lower.length(); ++i) {
+      int b = this.buffer[start + i];
+      if (b >= 'A' && b <= 'Z') {
+        b += 'a' - 'A';
+      }
+      if (b != lower.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private String decode(final int start, final int end) {
+    return start >= end ? "" : new String(this.buffer, start, end - start, StandardCharsets.UTF_8);
+  }
+}
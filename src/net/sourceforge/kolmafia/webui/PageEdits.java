@@ -0,0 +1,227 @@
+package net.sourceforge.kolmafia.webui;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import net.sourceforge.kolmafia.utilities.StringUtilities;
+
+/**
+ * A batch of insertions and replacements to make in a page, each anchored to some text in it.
+ *
+ * <p>Making each change as it comes shifts the rest of the page every time. Instead, every anchor
+ * is found in the page as it is before any of the changes, and the page is then rebuilt once with
+ * all of them. Changes at the same place are made in the order they were added.
+ *
+ * <p>That gives the same page as making the changes one after another, as StringUtilities does,
+ * so long as no change touches the anchor of another. If two changes do overlap, they are made one
+ * after another instead.
+ */
+public class PageEdits {
+  private enum Kind {
+    INSERT_BEFORE,
+    INSERT_AFTER,
+    REPLACE,
+    REPLACE_ALL
+  }
+
+  private record Edit(Kind kind, String anchor, String text) {}
+
+  // One change to the original page: the text between start and end becomes text. The change was
+  // found at the anchor between anchorStart and anchorEnd, which no other change may disturb.
+  private record Change(
+      Kind kind, int start, int end, String text, int anchorStart, int anchorEnd, int order) {
+    boolean inserts() {
+      return this.kind == Kind.INSERT_BEFORE || this.kind == Kind.INSERT_AFTER;
+    }
+
+    // Made one after another, later insertions after an anchor go before earlier ones, and
+    // insertions after one anchor go before insertions before the next.
+    int rank() {
+      return switch (this.kind) {
+        case INSERT_AFTER -> -this.order;
+        case INSERT_BEFORE -> this.order;
+        default -> Integer.MAX_VALUE;
+      };
+    }
+
+    boolean disturbs(final Change other) {
+      if (this.inserts()) {
+        return this.start > other.anchorStart && this.start < other.anchorEnd;
+      }
+      if (other.inserts() && other.start >= this.start && other.start <= this.end) {
+        return true;
+      }
+      return this.start < other.anchorEnd && this.end > other.anchorStart;
+    }
+  }
+
+  private static final Comparator<Change> ORDER =
+      Comparator.comparingInt(Change::start)
+          .thenComparing(change -> change.kind() != Kind.INSERT_AFTER)
+          .thenComparingInt(Change::rank);
+
+  private final List<Edit> edits = new ArrayList<>();
+
+  public PageEdits insertBefore(final String anchor, final String text) {
+    return this.add(Kind.INSERT_BEFORE, anchor, text);
+  }
+
+  public PageEdits insertAfter(final String anchor, final String text) {
+    return this.add(Kind.INSERT_AFTER, anchor, text);
+  }
+
+  /** Replaces the first occurrence of the anchor. */
+  public PageEdits replace(final String anchor, final String text) {
+    return this.add(Kind.REPLACE, anchor, text);
+  }
+
+  public PageEdits replaceAll(final String anchor, final String text) {
+    return this.add(Kind.REPLACE_ALL, anchor, text);
+  }
+
+  public PageEdits deleteAll(final String anchor) {
+    return this.add(Kind.REPLACE_ALL, anchor, "");
+  }
+
+  private PageEdits add(final Kind kind, final String anchor, final String text) {
+    if (!anchor.isEmpty()) {
+      this.edits.add(new Edit(kind, anchor, text == null ? "" : text));
+    }
+    return this;
+  }
+
+  public boolean isEmpty() {
+    return this.edits.isEmpty();
+  }
+
+  public void applyTo(final StringBuffer buffer) {
+    if (this.edits.isEmpty()) {
+      return;
+    }
+
+    List<Change> changes = this.find(buffer);
+    if (changes.isEmpty()) {
+      return;
+    }
+
+    changes.sort(ORDER);
+
+    if (this.overlap(changes) || this.makesAnchors(buffer, changes)) {
+      this.applyInTurn(buffer);
+      return;
+    }
+
+    StringBuilder result = new StringBuilder(buffer.length() + this.growth(changes));
+    int copied = 0;
+    for (Change change : changes) {
+      result.append(buffer, copied, change.start());
+      result.append(change.text());
+      copied = change.end();
+    }
+    result.append(buffer, copied, buffer.length());
+
+    buffer.setLength(0);
+    buffer.append(result);
+  }
+
+  private List<Change> find(final StringBuffer buffer) {
+    List<Change> changes = new ArrayList<>();
+    for (int i = 0; i < this.edits.size(); ++i) {
+      Edit edit = this.edits.get(i);
+      int length = edit.anchor().length();
+      int index = buffer.indexOf(edit.anchor());
+
+      while (index != -1) {
+        int end = index + length;
+        int start = edit.kind() == Kind.INSERT_AFTER ? end : index;
+        int stop = edit.kind() == Kind.REPLACE || edit.kind() == Kind.REPLACE_ALL ? end : start;
+        changes.add(new Change(edit.kind(), start, stop, edit.text(), index, end, i));
+
+        index = edit.kind() == Kind.REPLACE_ALL ? buffer.indexOf(edit.anchor(), end) : -1;
+      }
+    }
+    return changes;
+  }
+
+  // Whether any change disturbs the anchor of another
+  private boolean overlap(final List<Change> changes) {
+    for (Change change : changes) {
+      for (Change other : changes) {
+        if (change != other && change.disturbs(other)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  private int growth(final List<Change> changes) {
+    int growth = 0;
+    for (Change change : changes) {
+      growth += change.text().length() - (change.end() - change.start());
+    }
+    return Math.max(0, growth);
+  }
+
+  // Whether new text, or the text either side of a deletion, could make an anchor which was not
+  // in the page before, which changes made one after another might find.
+  private boolean makesAnchors(final StringBuffer buffer, final List<Change> changes) {
+    int longest = 0;
+    for (Edit edit : this.edits) {
+      longest = Math.max(longest, edit.anchor().length());
+    }
+
+    int first = 0;
+    while (first < changes.size()) {
+      // Changes close enough together to make an anchor between them must all be insertions at the
+      // same place, which is then checked as it is after each of them in turn
+      Change change = changes.get(first);
+      int last = first + 1;
+      while (last < changes.size() && changes.get(last).start() - change.end() < longest) {
+        Change next = changes.get(last);
+        if (!change.inserts() || !next.inserts() || next.start() != change.start()) {
+          return true;
+        }
+        ++last;
+      }
+
+      List<Change> cluster = new ArrayList<>(changes.subList(first, last));
+      cluster.sort(Comparator.comparingInt(Change::order));
+      for (int made = 1; made <= cluster.size(); ++made) {
+        List<Change> prefix = new ArrayList<>(cluster.subList(0, made));
+        prefix.sort(ORDER);
+        StringBuilder text = new StringBuilder();
+        for (Change each : prefix) {
+          text.append(each.text());
+        }
+
+        for (Edit edit : this.edits) {
+          int length = edit.anchor().length();
+          int start = change.start();
+          String before = buffer.substring(Math.max(0, start - length + 1), start);
+          String after =
+              buffer.substring(change.end(), Math.min(buffer.length(), change.end() + length - 1));
+          if ((before + text + after).contains(edit.anchor())) {
+            return true;
+          }
+        }
+      }
+
+      first = last;
+    }
+
+    return false;
+  }
+
+  /** Makes each change in turn, as StringUtilities would. */
+  void applyInTurn(final StringBuffer buffer) {
+    for (Edit edit : this.edits) {
+      switch (edit.kind()) {
+        case INSERT_BEFORE -> StringUtilities.insertBefore(buffer, edit.anchor(), edit.text());
+        case INSERT_AFTER -> StringUtilities.insertAfter(buffer, edit.anchor(), edit.text());
+        case REPLACE -> StringUtilities.singleStringReplace(buffer, edit.anchor(), edit.text());
+        case REPLACE_ALL -> StringUtilities.globalStringReplace(buffer, edit.anchor(), edit.text());
+      }
+    }
+  }
+}
@@ -1,13 +1,12 @@
 package net.sourceforge.kolmafia.webui;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.io.PrintStream;
 import java.net.InetAddress;
 import java.net.Socket;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.regex.Matcher;
@@ -44,12 +43,10 @@ public class RelayAgent extends Thread {
     RelayAgent.errorRequestPath = null;
   }
 
-  private final char[] data = new char[8192];
-  private final StringBuffer buffer = new StringBuffer();
+  private final HttpRequestReader reader = new HttpRequestReader();
   private final PauseObject pauser = new PauseObject();
 
   private Socket socket = null;
-  private BufferedReader reader;
   private PrintStream writer;
 
   private String path;
@@ -92,7 +89,6 @@ public class RelayAgent extends Thread {
     }
 
     this.path = null;
-    this.reader = null;
     this.writer = null;
 
     try {
@@ -113,33 +109,33 @@ public class RelayAgent extends Thread {
         RequestLogger.isDebugging() && Preferences.getBoolean("logBrowserInteractions");
     boolean tracing = RequestLogger.isTracing();
 
-    this.reader = new BufferedReader(new InputStreamReader(this.socket.getInputStream()));
+    this.reader.reset(this.socket.getInputStream());
 
-    String requestLine = this.reader.readLine();
-
-    if (requestLine == null) {
+    if (!this.reader.readRequestLine()) {
       return false;
     }
 
-    if (debugging) {
-      RequestLogger.updateDebugLog("-----From Browser-----");
-      RequestLogger.updateDebugLog(requestLine);
-    }
+    if (debugging || tracing) {
+      String requestLine = this.reader.getRequestLine();
 
-    if (tracing) {
-      RequestLogger.trace("From Browser: " + requestLine);
+      if (debugging) {
+        RequestLogger.updateDebugLog("-----From Browser-----");
+        RequestLogger.updateDebugLog(requestLine);
+      }
+
+      if (tracing) {
+        RequestLogger.trace("From Browser: " + requestLine);
+      }
     }
 
-    if (!requestLine.contains("HTTP/1.1")) {
+    if (!this.reader.isValidRequestLine()) {
       KoLmafia.updateDisplay("Malformed HTTP request from browser.");
       return false;
     }
 
-    int spaceIndex = requestLine.indexOf(" ");
-
-    this.requestMethod = requestLine.substring(0, spaceIndex);
+    this.requestMethod = this.reader.getMethod();
     boolean usePostMethod = this.requestMethod.equals("POST");
-    this.path = requestLine.substring(spaceIndex + 1, requestLine.lastIndexOf(" "));
+    this.path = this.reader.getPath();
 
     if (this.path.startsWith("//")) {
       // A current KoL bug causes URLs to gain an unnecessary
@@ -152,41 +148,56 @@ public class RelayAgent extends Thread {
     this.request.responseText = null;
     this.isCheckingModified = null;
 
-    String currentLine;
     int contentLength = 0;
+    boolean chunked = false;
 
     String host = null;
     String referer = null;
 
     this.request.cookies = null;
-    while ((currentLine = this.reader.readLine()) != null && !currentLine.equals("")) {
+    this.request.ifNoneMatch = null;
+    this.request.acceptsGzip = false;
+    while (this.reader.readHeader()) {
       if (debugging) {
-        RequestLogger.updateDebugLog(currentLine);
+        RequestLogger.updateDebugLog(this.reader.getHeaderLine());
       }
 
-      // HTTP headers are case-insensitive
+      // Header names are matched without regard to case. Only the
+      // values of headers we look at are decoded.
+
+      String headerType = this.reader.getHeaderName();
+      if (headerType == null) {
+        continue;
+      }
 
-      String[] currentHeader = currentLine.split(":", 2);
-      String headerType = currentHeader[0].toLowerCase().trim();
-      String headerValue = currentHeader[1].trim();
+      String headerValue = this.reader.getHeaderValue();
 
       switch (headerType) {
-        case "host":
+        case HttpRequestReader.HOST:
           host = headerValue;
           break;
-        case "referer":
+        case HttpRequestReader.REFERER:
           referer = headerValue;
           break;
-        case "if-modified-since":
+        case HttpRequestReader.IF_MODIFIED_SINCE:
           this.isCheckingModified = headerValue;
           break;
-        case "content-length":
+        case HttpRequestReader.IF_NONE_MATCH:
+          this.request.ifNoneMatch = headerValue;
+          break;
+        case HttpRequestReader.ACCEPT_ENCODING:
+          this.request.acceptsGzip = headerValue.toLowerCase().contains("gzip");
+          break;
+        case HttpRequestReader.CONTENT_LENGTH:
           contentLength = StringUtilities.parseInt(headerValue);
           break;
-        case "user-agent":
+        case HttpRequestReader.TRANSFER_ENCODING:
+          chunked = headerValue.toLowerCase().contains("chunked");
+          break;
+        case HttpRequestReader.USER_AGENT:
           GenericRequest.saveUserAgent(headerValue);
           break;
-        case "cookie":
+        case HttpRequestReader.COOKIE:
           StringBuilder buffer = new StringBuilder();
           for (String cookie : headerValue.split("\\s*;\\s*")) {
             if (cookie.startsWith("appserver")
@@ -214,23 +225,14 @@ public class RelayAgent extends Thread {
       return false;
     }
 
-    if (requestMethod.equals("POST")) {
-      int remaining = contentLength;
-
-      while (remaining > 0) {
-        int current = this.reader.read(this.data);
-        this.buffer.append(this.data, 0, current);
-        remaining -= current;
-      }
-
-      String fields = this.buffer.toString();
-      this.buffer.setLength(0);
+    if (usePostMethod) {
+      this.reader.readBody(contentLength, chunked);
 
       if (debugging) {
-        RequestLogger.updateDebugLog(fields);
+        RequestLogger.updateDebugLog(this.reader.getBody());
       }
 
-      this.request.addFormFields(fields, true);
+      this.reader.addFormFields(this.request);
     }
 
     if (debugging) {
@@ -359,8 +361,9 @@ public class RelayAgent extends Thread {
   }
 
   private void readServerResponse() throws IOException {
-    // If sending a local page, check modification date of file
-    if (this.isCheckingModified != null) {
+    // If sending a local page, check modification date of file. An
+    // ETag takes precedence, and is checked when the file is served.
+    if (this.isCheckingModified != null && this.request.ifNoneMatch == null) {
       if (this.shouldSendNotModified()) {
         this.request.pseudoResponse("HTTP/1.1 304 Not Modified", "");
         this.request.responseCode = 304;
@@ -472,8 +475,26 @@ public class RelayAgent extends Thread {
               + ")"
               + RelayAgent.NOCACHE_IMAGES);
 
+  /** Points links to KoL's image server at the local image cache instead. */
+  public static String useLocalImages(final String text) {
+    StringBuilder responseBuffer = new StringBuilder();
+    Matcher matcher = RelayAgent.IMAGE_PATTERN.matcher(text);
+
+    while (matcher.find()) {
+      if (matcher.group(2) != null) {
+        matcher.appendReplacement(responseBuffer, "$0");
+      } else {
+        matcher.appendReplacement(responseBuffer, "/images/");
+      }
+    }
+
+    matcher.appendTail(responseBuffer);
+
+    return responseBuffer.toString();
+  }
+
   private void sendServerResponse() throws IOException {
-    if (this.request.rawByteBuffer == null) {
+    if (this.request.rawByteBuffer == null && this.request.rawFile == null) {
       if (this.request.responseText == null) {
         // We did not make a request of KoL and did not
         // create a pseudoResponse
@@ -481,20 +502,7 @@ public class RelayAgent extends Thread {
       }
 
       if (Preferences.getBoolean("useImageCache")) {
-        StringBuilder responseBuffer = new StringBuilder();
-        Matcher matcher = RelayAgent.IMAGE_PATTERN.matcher(this.request.responseText);
-
-        while (matcher.find()) {
-          if (matcher.group(2) != null) {
-            matcher.appendReplacement(responseBuffer, "$0");
-          } else {
-            matcher.appendReplacement(responseBuffer, "/images/");
-          }
-        }
-
-        matcher.appendTail(responseBuffer);
-
-        this.request.responseText = responseBuffer.toString();
+        this.request.responseText = RelayAgent.useLocalImages(this.request.responseText);
       }
 
       // Convert the responseText into a byte buffer
@@ -505,7 +513,12 @@ public class RelayAgent extends Thread {
     this.writer.println(this.request.statusLine);
     this.request.printHeaders(this.writer);
     this.writer.println();
-    this.writer.write(this.request.rawByteBuffer);
+    if (this.request.rawFile != null) {
+      // Too large to have been read into memory
+      Files.copy(this.request.rawFile.toPath(), this.writer);
+    } else {
+      this.writer.write(this.request.rawByteBuffer);
+    }
     this.writer.flush();
 
     if (RequestLogger.isTracing()) {
@@ -515,7 +528,10 @@ public class RelayAgent extends Thread {
       buffer.append(this.path);
       if (this.request.responseCode == 200) {
         buffer.append(" (");
-        buffer.append(this.request.rawByteBuffer.length);
+        buffer.append(
+            this.request.rawFile != null
+                ? this.request.rawFile.length()
+                : this.request.rawByteBuffer.length);
         buffer.append(" bytes)");
       } else if (this.request.responseCode == 302) {
         buffer.append(" -> ");
@@ -550,15 +566,7 @@ public class RelayAgent extends Thread {
   }
 
   private void closeRelay() {
-    try {
-      if (this.reader != null) {
-        this.reader.close();
-        this.reader = null;
-      }
-    } catch (IOException e) {
-      // The only time this happens is if the
-      // input is already closed.  Ignore.
-    }
+    this.reader.finish();
 
     if (this.writer != null) {
       this.writer.close();
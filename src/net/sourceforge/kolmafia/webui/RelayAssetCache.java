@@ -0,0 +1,247 @@
+package net.sourceforge.kolmafia.webui;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the static files which the relay browser serves in memory: images from the image cache
+ * and files from the relay directory.
+ *
+ * <p>Files are cached by path, and an entry is only used while the file still has the modification
+ * time and length it had when it was read, so a file which has been changed on disk is read again.
+ * Each version of a file has a strong ETag, so the browser can revalidate its copy and be told
+ * that it has not been modified rather than downloading it again.
+ *
+ * <p>Text files are also kept with the image server links rewritten for the local image cache, and
+ * gzipped, each made at most once per version of the file. Files too large to be worth keeping in
+ * memory are streamed from disk whenever they are asked for.
+ */
+public class RelayAssetCache {
+  private static final long CACHE_SIZE = 16L * 1024 * 1024;
+
+  // Files at least this large are not held in memory
+  static final long LARGE_FILE_SIZE = 1024 * 1024;
+
+  // Compressing smaller files is not worth a header
+  private static final int MIN_GZIP_SIZE = 1024;
+
+  private static final Map<String, Asset> cache = new LinkedHashMap<>(64, 0.75f, true);
+  private static long cacheSize = 0;
+
+  private RelayAssetCache() {}
+
+  /** One version of one file, and the forms in which it has been sent. */
+  public static class Asset {
+    private final File file;
+    private final long lastModified;
+    private final long length;
+    private final byte[] contents;
+    private final String etag;
+
+    // Plain, gzipped, localized, and localized and gzipped. An empty array is a gzipped form
+    // which turned out to be no smaller.
+    private final byte[][] variants = new byte[4][];
+    private long variantSize = 0;
+
+    private Asset(final File file, final long lastModified, final long length, final byte[] contents) {
+      this.file = file;
+      this.lastModified = lastModified;
+      this.length = length;
+      this.contents = contents;
+      this.etag = Long.toHexString(lastModified) + "-" + Long.toHexString(length);
+    }
+
+    public File getFile() {
+      return this.file;
+    }
+
+    public long getLastModified() {
+      return this.lastModified;
+    }
+
+    /** Returns whether the file is too large to be held in memory, and must be streamed. */
+    public boolean isLarge() {
+      return this.contents == null;
+    }
+
+    public String getText() {
+      return new String(this.contents, StandardCharsets.UTF_8);
+    }
+
+    /** Returns whether the file contains the given ASCII text. */
+    public boolean contains(final String marker) {
+      int last = this.contents.length - marker.length();
+      next:
+      for (int i = 0; i <= last; ++i) {
+        for (int j = 0; j < marker.length(); ++j) {
+          if (this.contents[i + j] != marker.charAt(j)) {
+            continue next;
+          }
+        }
+        return true;
+      }
+      return false;
+    }
+
+    /** Returns the ETag of the given form of this file, including its quotes. */
+    public String getETag(final boolean localized, final boolean gzipped) {
+      return "\"" + this.etag + (localized ? "-l" : "") + (gzipped ? "-gzip" : "") + "\"";
+    }
+
+    /**
+     * Returns the contents of this file, with image server links pointed at the local image cache
+     * if localized, and gzipped if asked for and worth doing.
+     *
+     * @return null if gzipped contents were asked for but would not be any smaller
+     */
+    public byte[] getContents(final boolean localized, final boolean gzipped) {
+      if (this.contents == null) {
+        return null;
+      }
+
+      int variant = (localized ? 2 : 0) + (gzipped ? 1 : 0);
+
+      synchronized (RelayAssetCache.class) {
+        byte[] bytes = this.variants[variant];
+        if (bytes != null) {
+          return bytes.length == 0 ? null : bytes;
+        }
+      }
+
+      byte[] bytes = localized ? this.localize() : this.contents;
+      if (gzipped) {
+        bytes = RelayAssetCache.gzip(bytes);
+      }
+
+      synchronized (RelayAssetCache.class) {
+        if (this.variants[variant] == null) {
+          this.variants[variant] = bytes == null ? new byte[0] : bytes;
+          if (bytes != null
+              && bytes != this.contents
+              && RelayAssetCache.cache.get(this.file.getPath()) == this) {
+            this.variantSize += bytes.length;
+            RelayAssetCache.cacheSize += bytes.length;
+            RelayAssetCache.trim();
+          }
+        }
+      }
+
+      return bytes;
+    }
+
+    private byte[] localize() {
+      return RelayAgent.useLocalImages(this.getText()).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private long size() {
+      return (this.contents == null ? 0 : this.contents.length) + this.variantSize;
+    }
+  }
+
+  private static byte[] gzip(final byte[] bytes) {
+    if (bytes.length < MIN_GZIP_SIZE) {
+      return null;
+    }
+
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream(bytes.length / 2);
+    try (GZIPOutputStream ostream = new GZIPOutputStream(buffer)) {
+      ostream.write(bytes);
+    } catch (IOException e) {
+      return null;
+    }
+
+    byte[] gzipped = buffer.toByteArray();
+    return gzipped.length < bytes.length ? gzipped : null;
+  }
+
+  /**
+   * Returns the current version of the given file, reading it if it has changed since it was last
+   * asked for.
+   *
+   * @return null if the file does not exist or cannot be read
+   */
+  public static Asset get(final File file) {
+    long lastModified = file.lastModified();
+    long length = file.length();
+    if (lastModified == 0L || !file.isFile()) {
+      return null;
+    }
+
+    String key = file.getPath();
+
+    synchronized (RelayAssetCache.class) {
+      Asset asset = RelayAssetCache.cache.get(key);
+      if (asset != null && asset.lastModified == lastModified && asset.length == length) {
+        return asset;
+      }
+    }
+
+    if (length >= LARGE_FILE_SIZE) {
+      return new Asset(file, lastModified, length, null);
+    }
+
+    byte[] contents;
+    try {
+      contents = Files.readAllBytes(file.toPath());
+    } catch (IOException e) {
+      return null;
+    }
+
+    // The file may have been written while we read it. If so, we'll read it again next time.
+    Asset asset = new Asset(file, lastModified, contents.length, contents);
+
+    synchronized (RelayAssetCache.class) {
+      Asset old = RelayAssetCache.cache.put(key, asset);
+      if (old != null) {
+        RelayAssetCache.cacheSize -= old.size();
+      }
+      RelayAssetCache.cacheSize += asset.size();
+      RelayAssetCache.trim();
+    }
+
+    return asset;
+  }
+
+  // Callers synchronize on RelayAssetCache.class
+  private static void trim() {
+    Iterator<Asset> it = RelayAssetCache.cache.values().iterator();
+    while (RelayAssetCache.cacheSize > CACHE_SIZE && it.hasNext()) {
+      RelayAssetCache.cacheSize -= it.next().size();
+      it.remove();
+    }
+  }
+
+  public static synchronized void clear() {
+    RelayAssetCache.cache.clear();
+    RelayAssetCache.cacheSize = 0;
+  }
+
+  /**
+   * Returns whether an If-None-Match header matches the given ETag. Weak comparison is used, as
+   * the header requires.
+   */
+  public static boolean matches(final String ifNoneMatch, final String etag) {
+    if (ifNoneMatch == null) {
+      return false;
+    }
+
+    for (String candidate : ifNoneMatch.split(",")) {
+      candidate = candidate.trim();
+      if (candidate.startsWith("W/")) {
+        candidate = candidate.substring(2);
+      }
+      if (candidate.equals("*") || candidate.equals(etag)) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+}
@@ -14,6 +14,8 @@ import net.sourceforge.kolmafia.persistence.AdventureDatabase;
 import net.sourceforge.kolmafia.persistence.AdventureQueueDatabase;
 import net.sourceforge.kolmafia.persistence.MonsterDatabase;
 import net.sourceforge.kolmafia.preferences.Preferences;
+import net.sourceforge.kolmafia.session.BanishManager;
+import net.sourceforge.kolmafia.session.BanishManager.Banisher;
 import net.sourceforge.kolmafia.session.CrystalBallManager;
 import net.sourceforge.kolmafia.session.EquipmentManager;
 import org.junit.jupiter.api.AfterAll;
@@ -231,4 +233,64 @@ public class AreaCombatDataTest {
                 equalTo(MonsterDatabase.findMonster("The Large-Bellied Snitch")),
                 closeTo(100f / 6, 0.001))));
   }
+
+  @Test
+  public void returnedOddsCanBeChanged() {
+    AdventureQueueDatabase.resetQueue();
+
+    SMUT_ORC_CAMP.getMonsterData(true).clear();
+
+    assertThat(SMUT_ORC_CAMP.getMonsterData(true), hasEntry(JACKER, 25.0));
+  }
+
+  @Test
+  public void banishingUpdatesCachedOdds() {
+    AdventureQueueDatabase.resetQueue();
+    assertThat(SMUT_ORC_CAMP.getMonsterData(true), hasEntry(JACKER, 25.0));
+
+    try {
+      BanishManager.banishMonster(JACKER, Banisher.SNOKEBOMB);
+
+      assertThat(
+          SMUT_ORC_CAMP.getMonsterData(true),
+          allOf(
+              hasEntry(JACKER, -3.0),
+              hasEntry(equalTo(NAILER), closeTo(100.0 / 3, 0.001)),
+              hasEntry(equalTo(PIPELAYER), closeTo(100.0 / 3, 0.001)),
+              hasEntry(equalTo(SCREWER), closeTo(100.0 / 3, 0.001))));
+    } finally {
+      BanishManager.clearCache();
+    }
+  }
+
+  @Test
+  public void enqueueingUpdatesCachedOdds() {
+    AdventureQueueDatabase.resetQueue();
+    assertThat(SMUT_ORC_CAMP.getMonsterData(true), hasEntry(JACKER, 25.0));
+
+    AdventureQueueDatabase.enqueue(SMUT_ORC_CAMP.getZone(), "smut orc jacker");
+
+    assertThat(
+        SMUT_ORC_CAMP.getMonsterData(true),
+        allOf(
+            hasEntry(equalTo(JACKER), closeTo(100.0 / 13, 0.001)),
+            hasEntry(equalTo(NAILER), closeTo(400.0 / 13, 0.001))));
+  }
+
+  @Test
+  public void olfactionUpdatesCachedOdds() {
+    AdventureQueueDatabase.resetQueue();
+    Preferences.setString("olfactedMonster", "smut orc pipelayer");
+    assertThat(SMUT_ORC_CAMP.getMonsterData(true), hasEntry(PIPELAYER, 25.0));
+
+    var effect = EffectPool.get(EffectPool.ON_THE_TRAIL);
+    KoLConstants.activeEffects.add(effect);
+    try {
+      assertThat(
+          SMUT_ORC_CAMP.getMonsterData(true),
+          hasEntry(equalTo(PIPELAYER), closeTo(1600 / 28.0, 0.001)));
+    } finally {
+      KoLConstants.activeEffects.remove(effect);
+    }
+  }
 }
@@ -1,8 +1,11 @@
 package net.sourceforge.kolmafia;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import net.sourceforge.kolmafia.preferences.Preferences;
 import org.junit.jupiter.api.BeforeEach;
@@ -85,4 +88,31 @@ public class ExpressionTest {
     var exp = new Expression("1+(4*path(The Source))", "nonexistent function");
     assertThat(exp.hasErrors(), equalTo(true));
   }
+
+  @Test
+  public void constantExpressionsHaveNoDependencies() {
+    var exp = new Expression("max(2,3)*ceil(1.5)", "constant");
+    assertThat(exp.getDependencies(), empty());
+    assertEquals(6.0, exp.eval());
+  }
+
+  @Test
+  public void reevaluatesCachedPrefAfterChange() {
+    Preferences.setString("test", "1");
+    var exp = new Expression("pref(test)*10", "cached pref");
+    assertThat(exp.getDependencies(), contains(Expression.Dependency.PREFERENCES));
+    assertEquals(10.0, exp.eval());
+    assertEquals(10.0, exp.eval());
+
+    Preferences.setString("test", "2");
+    assertEquals(20.0, exp.eval());
+  }
+
+  @Test
+  public void reportsErrorsFromConstantSubexpressionsOnEachEvaluation() {
+    var exp = new Expression("1/(2-2)", "divide by zero");
+    assertThat(exp.hasErrors(), equalTo(false));
+    assertEquals(0.0, exp.eval());
+    assertThrows(ArithmeticException.class, exp::evalInternal);
+  }
 }
@@ -17,6 +17,8 @@ import static internal.helpers.Player.withMysticality;
 import static internal.helpers.Player.withPath;
 import static internal.helpers.Player.withSkill;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -528,4 +530,28 @@ public class ModifierExpressionTest {
       assertThat(exp.eval(), is(2.0));
     }
   }
+
+  @Test
+  public void reevaluatesCachedLocationAfterMove() {
+    var exp = new ModifierExpression("loc(Noob Cave)", "Cached location");
+    assertThat(exp.getDependencies(), contains(Expression.Dependency.LOCATION));
+
+    try (var cleanups = withLocation("Noob Cave")) {
+      assertThat(exp.eval(), is(1.0));
+    }
+    try (var cleanups = withLocation("The Smut Orc Logging Camp")) {
+      assertThat(exp.eval(), is(0.0));
+    }
+  }
+
+  @Test
+  public void combinesDependenciesOfSubexpressions() {
+    var exp = new ModifierExpression("pref(test)*effect(Fishy)+L", "Mixed dependencies");
+    assertThat(
+        exp.getDependencies(),
+        containsInAnyOrder(
+            Expression.Dependency.PREFERENCES,
+            Expression.Dependency.EFFECTS,
+            Expression.Dependency.CHARACTER));
+  }
 }
@@ -71,4 +71,23 @@ public class RequestEditorKitTest {
     matcher = CHARPANE_REFRESH_PATTERN.matcher(buffer);
     assertEquals(1, matcher.results().count());
   }
+
+  @Test
+  public void decoratesPagesByRegisteredDecorator() {
+    String html =
+        "<html><head></head><body>Check out the <a href=\"account_subscription.php\">"
+            + "subscribing</a> page.</body></html>";
+    StringBuffer buffer = new StringBuffer(html);
+
+    RequestEditorKit.getFeatureRichHTML("mrstore.php", buffer);
+
+    String decorated = buffer.toString();
+    assertTrue(decorated.contains("href=\"# title='This will not work in KoLmafia'\""));
+    assertTrue(decorated.contains("subscribing (does not work in KoLmafia)</a>"));
+    assertTrue(decorated.contains(KoLConstants.BASICS_JS + "\"></script><link"));
+
+    String timings = RequestEditorKit.getDecoratorTimings();
+    assertTrue(timings.contains("mrstore.php"));
+    assertTrue(timings.contains("(every page)"));
+  }
 }
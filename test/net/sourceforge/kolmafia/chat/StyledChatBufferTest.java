@@ -0,0 +1,138 @@
+package net.sourceforge.kolmafia.chat;
+
+import static internal.helpers.Player.withProperty;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.awt.Color;
+import javax.swing.JEditorPane;
+import javax.swing.SwingUtilities;
+import javax.swing.text.Document;
+import net.java.dev.spellcast.utilities.ChatBuffer;
+import net.sourceforge.kolmafia.KoLConstants;
+import net.sourceforge.kolmafia.preferences.Preferences;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class StyledChatBufferTest {
+  @BeforeEach
+  public void resetHighlights() {
+    Preferences.setString("highlightList", "");
+    StyledChatBuffer.initializeHighlights();
+  }
+
+  @Test
+  public void leavesMessageAloneWithoutHighlights() {
+    String message = "<b>Player</b>: hello world";
+    assertThat(StyledChatBuffer.highlight(message), equalTo(message));
+  }
+
+  @Test
+  public void highlightsEachSearchStringInItsColor() {
+    StyledChatBuffer.addHighlight("Hello", Color.RED);
+    StyledChatBuffer.addHighlight("world", Color.BLUE);
+
+    assertThat(
+        StyledChatBuffer.highlight("HELLO there, World"),
+        equalTo(
+            "<font color=\"#ff0000\">HELLO</font> there, <font color=\"#0000ff\">World</font>"));
+  }
+
+  @Test
+  public void doesNotHighlightInsideTags() {
+    StyledChatBuffer.addHighlight("font", Color.RED);
+
+    assertThat(
+        StyledChatBuffer.highlight("<font color=green>a font</font>"),
+        equalTo("<font color=green>a <font color=\"#ff0000\">font</font></font>"));
+  }
+
+  @Test
+  public void rebuildsHighlightsWhenRemoved() {
+    StyledChatBuffer.addHighlight("hello", Color.RED);
+    StyledChatBuffer.removeHighlight(0);
+
+    assertThat(StyledChatBuffer.highlight("hello"), equalTo("hello"));
+  }
+
+  @Test
+  public void highlightsOverlappingStringsOnce() {
+    StyledChatBuffer.addHighlight("hello", Color.RED);
+    StyledChatBuffer.addHighlight("hell", Color.BLUE);
+
+    // The first highlight wins where they overlap, and highlights are never nested
+    assertThat(
+        StyledChatBuffer.highlight("hello shell"),
+        equalTo(
+            "<font color=\"#ff0000\">hello</font> s<font color=\"#0000ff\">hell</font>"));
+  }
+
+  @Test
+  public void dropsOldestLines() {
+    StyledChatBuffer buffer = new StyledChatBuffer("test", "black", false);
+    buffer.setMaximumLines(2);
+
+    buffer.append("one<br>");
+    buffer.append("two<br>");
+    buffer.append("three<br>");
+
+    assertThat(buffer.getContent(), equalTo("two<br>three<br>"));
+
+    buffer.setMaximumLines(1);
+    assertThat(buffer.getContent(), equalTo("three<br>"));
+  }
+
+  @Test
+  public void onlyChatBuffersUseChatBufferLines() {
+    var cleanups = withProperty("chatBufferLines", 2);
+    cleanups.add(ChatManager::reset);
+
+    try (cleanups) {
+      assertThat(ChatManager.getBuffer("/clan").getMaximumLines(), equalTo(2));
+      assertThat(
+          new StyledChatBuffer("", "blue", false).getMaximumLines(),
+          equalTo(ChatBuffer.DEFAULT_MAXIMUM_LINES));
+      assertThat(
+          KoLConstants.commandBuffer.getMaximumLines(), equalTo(ChatBuffer.DEFAULT_MAXIMUM_LINES));
+    }
+  }
+
+  private static String displayedText(final JEditorPane pane) throws Exception {
+    // Displays are updated on the Swing thread; each <br> shows as whitespace
+    String[] text = new String[1];
+    SwingUtilities.invokeAndWait(
+        () -> {
+          try {
+            Document document = pane.getDocument();
+            text[0] = document.getText(0, document.getLength()).trim().replaceAll("\\s+", " ");
+          } catch (Exception e) {
+            text[0] = e.toString();
+          }
+        });
+    return text[0];
+  }
+
+  @Test
+  public void updatesDisplaysIncrementally() throws Exception {
+    StyledChatBuffer.addHighlight("hello", Color.RED);
+    StyledChatBuffer.addHighlight("hell", Color.BLUE);
+
+    StyledChatBuffer buffer = new StyledChatBuffer("test", "black", false);
+    buffer.setMaximumLines(2);
+    JEditorPane pane = new JEditorPane();
+    buffer.addDisplay(pane);
+
+    buffer.append("hello world<br>");
+    buffer.append("say hello<br>");
+    assertThat(displayedText(pane), equalTo("hello world say hello"));
+
+    // The oldest message leaves the display as the newest arrives
+    buffer.append("a shell<br>");
+    assertThat(displayedText(pane), equalTo("say hello a shell"));
+    assertThat(
+        buffer.getContent(),
+        equalTo(
+            "say <font color=\"#ff0000\">hello</font><br>"
+                + "a s<font color=\"#0000ff\">hell</font><br>"));
+  }
+}
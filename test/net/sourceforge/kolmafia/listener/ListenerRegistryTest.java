@@ -0,0 +1,157 @@
+package net.sourceforge.kolmafia.listener;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.swing.SwingUtilities;
+import net.sourceforge.kolmafia.listener.ListenerRegistry.DispatchMode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class ListenerRegistryTest {
+  private final ListenerRegistry registry = new ListenerRegistry();
+
+  @AfterEach
+  void strict() {
+    ListenerRegistry.setDispatchMode(DispatchMode.STRICT);
+    this.registry.clear();
+  }
+
+  private static class CountingListener implements Listener {
+    final AtomicInteger updates = new AtomicInteger();
+
+    @Override
+    public void update() {
+      this.updates.incrementAndGet();
+    }
+  }
+
+  private static class CountingImmediateListener extends CountingListener
+      implements ImmediateListener {}
+
+  // The frame timer also fires on the event dispatch thread, so it cannot flush in the middle
+  private static void onEventDispatchThread(final Runnable runnable) throws Exception {
+    SwingUtilities.invokeAndWait(runnable);
+  }
+
+  @Test
+  void strictModeUpdatesAtOnce() {
+    CountingListener listener = new CountingListener();
+    this.registry.registerListener("key", listener);
+
+    this.registry.fireListener("key");
+    this.registry.fireListener("key");
+
+    assertThat(listener.updates.get(), is(2));
+  }
+
+  @Test
+  void coalescingModeUpdatesOncePerFlush() throws Exception {
+    CountingListener listener = new CountingListener();
+    this.registry.registerListener("key", listener);
+    ListenerRegistry.setDispatchMode(DispatchMode.COALESCING);
+
+    onEventDispatchThread(
+        () -> {
+          this.registry.fireListener("key");
+          this.registry.fireListener("key");
+          this.registry.fireListener("key");
+          assertThat(listener.updates.get(), is(0));
+
+          ListenerRegistry.flushListeners();
+          assertThat(listener.updates.get(), is(1));
+
+          ListenerRegistry.flushListeners();
+          assertThat(listener.updates.get(), is(1));
+        });
+  }
+
+  @Test
+  void coalescingModeUpdatesListenerOnceForSeveralKeys() throws Exception {
+    CountingListener listener = new CountingListener();
+    this.registry.registerListener("one", listener);
+    this.registry.registerListener("two", listener);
+    ListenerRegistry.setDispatchMode(DispatchMode.COALESCING);
+
+    onEventDispatchThread(
+        () -> {
+          this.registry.fireListener("one");
+          this.registry.fireListener("two");
+          ListenerRegistry.flushListeners();
+          assertThat(listener.updates.get(), is(1));
+        });
+  }
+
+  @Test
+  void coalescingModeStillUpdatesImmediateListeners() throws Exception {
+    CountingListener listener = new CountingListener();
+    CountingListener immediate = new CountingImmediateListener();
+    this.registry.registerListener("key", listener);
+    this.registry.registerListener("key", immediate);
+    ListenerRegistry.setDispatchMode(DispatchMode.COALESCING);
+
+    onEventDispatchThread(
+        () -> {
+          this.registry.fireListener("key");
+          this.registry.fireListener("key");
+          assertThat(immediate.updates.get(), is(2));
+          assertThat(listener.updates.get(), is(0));
+
+          ListenerRegistry.flushListeners();
+          assertThat(immediate.updates.get(), is(2));
+          assertThat(listener.updates.get(), is(1));
+        });
+  }
+
+  @Test
+  void coalescingModeFiresAllListenersOnce() throws Exception {
+    CountingListener first = new CountingListener();
+    CountingListener second = new CountingListener();
+    this.registry.registerListener("one", first);
+    this.registry.registerListener("two", second);
+    ListenerRegistry.setDispatchMode(DispatchMode.COALESCING);
+
+    onEventDispatchThread(
+        () -> {
+          this.registry.fireListener("one");
+          this.registry.fireAllListeners();
+          ListenerRegistry.flushListeners();
+          assertThat(first.updates.get(), is(1));
+          assertThat(second.updates.get(), is(1));
+        });
+  }
+
+  @Test
+  void coalescingModeKeepsDeferredKeys() throws Exception {
+    CountingListener listener = new CountingListener();
+    this.registry.registerListener("key", listener);
+    ListenerRegistry.setDispatchMode(DispatchMode.COALESCING);
+
+    onEventDispatchThread(
+        () -> {
+          this.registry.deferListeners(true);
+          this.registry.fireListener("key");
+          ListenerRegistry.flushListeners();
+          assertThat(listener.updates.get(), is(0));
+
+          this.registry.deferListeners(false);
+          ListenerRegistry.flushListeners();
+          assertThat(listener.updates.get(), is(1));
+        });
+  }
+
+  @Test
+  void returningToStrictModeDeliversPendingKeys() throws Exception {
+    CountingListener listener = new CountingListener();
+    this.registry.registerListener("key", listener);
+    ListenerRegistry.setDispatchMode(DispatchMode.COALESCING);
+
+    onEventDispatchThread(
+        () -> {
+          this.registry.fireListener("key");
+          ListenerRegistry.setDispatchMode(DispatchMode.STRICT);
+          assertThat(listener.updates.get(), is(1));
+        });
+  }
+}
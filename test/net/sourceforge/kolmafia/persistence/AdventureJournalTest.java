@@ -0,0 +1,126 @@
+package net.sourceforge.kolmafia.persistence;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import net.sourceforge.kolmafia.persistence.AdventureJournal.Entry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class AdventureJournalTest {
+  private static final byte MONSTER = AdventureJournal.NAMED | 1;
+  private static final byte TURNS = 1;
+
+  @TempDir Path directory;
+
+  private static List<Entry> load(final File file) throws IOException {
+    List<Entry> entries = new ArrayList<>();
+    assertThat(new AdventureJournal(file).load(entries::add), is(true));
+    return entries;
+  }
+
+  @Test
+  void replaysAppendedEntries() throws IOException {
+    File file = directory.resolve("queue.journal").toFile();
+    AdventureJournal journal = new AdventureJournal(file);
+    journal.append(MONSTER, "The Spooky Forest", "spooky mummy");
+    journal.append(MONSTER, "The Spooky Forest", "spooky vampire");
+    journal.append(TURNS, "The Spooky Forest", 2);
+    journal.close();
+
+    assertThat(
+        load(file),
+        contains(
+            new Entry(MONSTER, "The Spooky Forest", "spooky mummy", 0),
+            new Entry(MONSTER, "The Spooky Forest", "spooky vampire", 0),
+            new Entry(TURNS, "The Spooky Forest", null, 2)));
+  }
+
+  @Test
+  void internsNames() throws IOException {
+    File file = directory.resolve("turns.journal").toFile();
+    AdventureJournal journal = new AdventureJournal(file);
+    journal.append(TURNS, "The Haunted Pantry", 1);
+    long first = file.length();
+    journal.append(TURNS, "The Haunted Pantry", 2);
+    journal.close();
+
+    // The second entry refers to the zone by number
+    assertThat(file.length() - first, is(13L));
+  }
+
+  @Test
+  void dropsTornTail() throws IOException {
+    File file = directory.resolve("turns.journal").toFile();
+    AdventureJournal journal = new AdventureJournal(file);
+    journal.append(TURNS, "The Haunted Pantry", 1);
+    journal.close();
+
+    long length = file.length();
+    try (FileOutputStream out = new FileOutputStream(file, true)) {
+      out.write(new byte[] {TURNS, 0, 0, 0});
+    }
+
+    assertThat(load(file), contains(new Entry(TURNS, "The Haunted Pantry", null, 1)));
+    assertThat(file.length(), is(length));
+  }
+
+  @Test
+  void appendsAfterLoading() throws IOException {
+    File file = directory.resolve("queue.journal").toFile();
+    AdventureJournal journal = new AdventureJournal(file);
+    journal.append(MONSTER, "The Spooky Forest", "spooky mummy");
+    journal.close();
+
+    AdventureJournal reopened = new AdventureJournal(file);
+    reopened.load(entry -> {});
+    reopened.append(MONSTER, "The Spooky Forest", "spooky vampire");
+    reopened.close();
+
+    assertThat(
+        load(file),
+        contains(
+            new Entry(MONSTER, "The Spooky Forest", "spooky mummy", 0),
+            new Entry(MONSTER, "The Spooky Forest", "spooky vampire", 0)));
+  }
+
+  @Test
+  void refusesToAppendToUnloadedJournal() throws IOException {
+    File file = directory.resolve("queue.journal").toFile();
+    AdventureJournal journal = new AdventureJournal(file);
+    journal.append(MONSTER, "The Spooky Forest", "spooky mummy");
+    journal.close();
+
+    new AdventureJournal(file).append(MONSTER, "The Dire Warren", "fluffy bunny");
+
+    assertThat(load(file), contains(new Entry(MONSTER, "The Spooky Forest", "spooky mummy", 0)));
+  }
+
+  @Test
+  void rewriteReplacesJournalWithSnapshot() throws IOException {
+    File file = directory.resolve("turns.journal").toFile();
+    AdventureJournal journal = new AdventureJournal(file);
+    for (int i = 1; i <= 100; ++i) {
+      journal.append(TURNS, "The Haunted Pantry", i);
+    }
+
+    journal.rewrite(snapshot -> snapshot.append(TURNS, "The Haunted Pantry", 100));
+    journal.append(TURNS, "The Haunted Pantry", 101);
+    journal.close();
+
+    assertThat(
+        load(file),
+        contains(
+            new Entry(TURNS, "The Haunted Pantry", null, 100),
+            new Entry(TURNS, "The Haunted Pantry", null, 101)));
+    assertThat(Files.exists(directory.resolve("turns.journal.tmp")), is(false));
+  }
+}
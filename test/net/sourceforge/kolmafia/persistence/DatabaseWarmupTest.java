@@ -0,0 +1,39 @@
+package net.sourceforge.kolmafia.persistence;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+import java.util.List;
+import net.sourceforge.kolmafia.persistence.DatabaseWarmup.Event;
+import net.sourceforge.kolmafia.persistence.DatabaseWarmup.Stage;
+import org.junit.jupiter.api.Test;
+
+class DatabaseWarmupTest {
+  @Test
+  void stagesComeAfterTheirDependencies() {
+    for (Stage stage : Stage.values()) {
+      for (Stage dependency : stage.getDependencies()) {
+        assertThat(stage + " needs " + dependency, dependency.ordinal(), lessThan(stage.ordinal()));
+      }
+    }
+  }
+
+  @Test
+  void recordsTimeline() {
+    DatabaseWarmup.run();
+
+    List<Event> timeline = DatabaseWarmup.getTimeline();
+    List<String> names = timeline.stream().map(Event::name).toList();
+
+    assertThat(names, hasItem("read items.txt"));
+    assertThat(names, hasItem("load ItemDatabase"));
+    assertThat(names, hasItem("load ConcoctionDatabase"));
+    for (Event event : timeline) {
+      assertThat(event.name(), event.start(), lessThanOrEqualTo(event.end()));
+    }
+    assertThat(DatabaseWarmup.report(), containsString("Databases loaded in"));
+  }
+}
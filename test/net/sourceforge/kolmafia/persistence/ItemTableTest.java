@@ -0,0 +1,75 @@
+package net.sourceforge.kolmafia.persistence;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import net.sourceforge.kolmafia.persistence.ItemTable.IntColumn;
+import net.sourceforge.kolmafia.persistence.ItemTable.StringColumn;
+import org.junit.jupiter.api.Test;
+
+class ItemTableTest {
+  @Test
+  void intColumnGrowsForLargerIds() {
+    var column = new IntColumn();
+    column.put(3, 30);
+    column.put(11000, 7);
+
+    assertThat(column.get(3), equalTo(30));
+    assertThat(column.get(11000), equalTo(7));
+    assertThat(column.get(4), equalTo(0));
+    assertThat(column.get(11001), equalTo(0));
+    assertThat(column.get(-1), equalTo(0));
+  }
+
+  @Test
+  void intColumnIgnoresNegativeIds() {
+    var column = new IntColumn();
+    column.put(-5, 1);
+
+    assertThat(column.get(-5), equalTo(0));
+  }
+
+  @Test
+  void stringColumnFindsValues() {
+    var column = new StringColumn();
+    column.put(2, "seal-clubbing club");
+
+    assertThat(column.get(2), equalTo("seal-clubbing club"));
+    assertThat(column.get(Integer.valueOf(2)), equalTo("seal-clubbing club"));
+    assertThat(column.get((Integer) null), nullValue());
+    assertThat(column.get(5000), nullValue());
+    assertThat(column.getOrDefault(5000, ""), equalTo(""));
+  }
+
+  @Test
+  void stringColumnViewsAreInIdOrder() {
+    var column = new StringColumn();
+    column.put(641, "toast");
+    column.put(1, "helmet turtle");
+    column.put(25, "dingy planks");
+    column.put(25, "dingy dinghy");
+
+    assertThat(column.keySet(), contains(1, 25, 641));
+    assertThat(
+        column.entrySet(),
+        contains(
+            new SimpleImmutableEntry<>(1, "helmet turtle"),
+            new SimpleImmutableEntry<>(25, "dingy dinghy"),
+            new SimpleImmutableEntry<>(641, "toast")));
+    assertThat(column.entrySet().size(), equalTo(3));
+  }
+
+  @Test
+  void removingValueShrinksViews() {
+    var column = new StringColumn();
+    column.put(7, "seven");
+    column.put(7, null);
+
+    assertThat(column.keySet(), empty());
+    assertThat(column.keySet().size(), equalTo(0));
+  }
+}
@@ -1,13 +1,17 @@
 package net.sourceforge.kolmafia.persistence;
 
 import static com.spotify.hamcrest.optional.OptionalMatchers.*;
+import static internal.helpers.Player.withProperty;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 
 import internal.network.FakeHttpClientBuilder;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.PrintStream;
+import java.net.URI;
 import java.nio.charset.StandardCharsets;
+import net.sourceforge.kolmafia.KoLConstants;
 import net.sourceforge.kolmafia.utilities.HttpUtilities;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
@@ -50,6 +54,25 @@ public class MallPriceDatabaseTest {
     assertThat(request.bodyPublisher(), is(optionalWithValue()));
   }
 
+  @Test
+  void remembersSubmissionsForEachServer() throws Exception {
+    var fakeClientBuilder = new FakeHttpClientBuilder();
+    HttpUtilities.setClientBuilder(() -> fakeClientBuilder);
+    fakeClientBuilder.client.addResponse(200, "ok");
+    var cleanups = withProperty("lastPriceSubmissions", "");
+
+    try (cleanups) {
+      MallPriceDatabase.recordPrice(603, 5000, true);
+      MallPriceDatabase.submitPrices("http://a.example.com/submit.php");
+
+      var a = new URI("http://a.example.com/submit.php");
+      var b = new URI("http://b.example.com/submit.php");
+      assertThat(MallPriceDatabase.getLastSubmission(a), greaterThan(Long.MIN_VALUE));
+      // A server we have never submitted to gets every price
+      assertThat(MallPriceDatabase.getLastSubmission(b), equalTo(Long.MIN_VALUE));
+    }
+  }
+
   @Test
   void writesDataInItemIdOrder() {
     MallPriceDatabase.recordPrice(600, 5, true);
@@ -68,4 +91,18 @@ public class MallPriceDatabaseTest {
     assertThat(lines[2], matchesPattern("^600\t\\d+\t5$"));
     assertThat(lines[3], matchesPattern("^607\t\\d+\t50$"));
   }
+
+  @Test
+  void exportsToTheDataDirectory() {
+    File output = new File(KoLConstants.DATA_LOCATION, "test_export.log");
+
+    try {
+      MallPriceDatabase.exportHistory("test_export.log", 1);
+      // The same place as "update prices test_export.log" reads from
+      assertThat(output.isFile(), is(true));
+      assertThat(new File("test_export.log").exists(), is(false));
+    } finally {
+      output.delete();
+    }
+  }
 }
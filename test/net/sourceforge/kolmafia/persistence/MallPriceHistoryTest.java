@@ -0,0 +1,148 @@
+package net.sourceforge.kolmafia.persistence;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import net.sourceforge.kolmafia.persistence.MallPriceHistory.Observation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MallPriceHistoryTest {
+  @TempDir Path directory;
+
+  private MallPriceHistory newHistory(final String name) {
+    return new MallPriceHistory(directory.resolve(name).toFile());
+  }
+
+  @Test
+  void answersPriceAtTime() {
+    MallPriceHistory history = newHistory("prices.log");
+    history.record(1, 100, 10);
+    history.record(1, 200, 20);
+
+    assertThat(history.getPriceAt(1, 99), is(0));
+    assertThat(history.getPriceAt(1, 100), is(10));
+    assertThat(history.getPriceAt(1, 199), is(10));
+    assertThat(history.getPriceAt(1, 500), is(20));
+    assertThat(history.getPriceAt(2, 500), is(0));
+  }
+
+  @Test
+  void averagesPricesByHowLongTheyStood() {
+    MallPriceHistory history = newHistory("prices.log");
+    history.record(1, 100, 10);
+    history.record(1, 200, 20);
+
+    assertThat(history.getAveragePrice(1, 100, 300), closeTo(15.0, 0.001));
+    assertThat(history.getAveragePrice(1, 150, 250), closeTo(15.0, 0.001));
+    assertThat(history.getAveragePrice(1, 0, 200), closeTo(10.0, 0.001));
+    assertThat(history.getAveragePrice(1, 0, 50), closeTo(0.0, 0.001));
+  }
+
+  @Test
+  void ignoresRepeatedObservations() {
+    MallPriceHistory history = newHistory("prices.log");
+
+    assertThat(history.record(1, 100, 10), is(true));
+    assertThat(history.record(1, 100, 10), is(false));
+    assertThat(history.record(1, 100, 11), is(true));
+  }
+
+  @Test
+  void reloadsWhatWasRecorded() {
+    MallPriceHistory history = newHistory("prices.log");
+    history.record(1, 100, 10);
+    history.record(2, 150, 5);
+    history.close();
+
+    MallPriceHistory reloaded = new MallPriceHistory(history.getFile());
+    assertThat(reloaded.load(0), is(2));
+    assertThat(reloaded.getPriceAt(1, 100), is(10));
+    assertThat(reloaded.getPriceAt(2, 150), is(5));
+  }
+
+  @Test
+  void dropsTornRecords() throws IOException {
+    MallPriceHistory history = newHistory("prices.log");
+    history.record(1, 100, 10);
+    history.close();
+
+    File file = history.getFile();
+    long length = file.length();
+    try (FileOutputStream out = new FileOutputStream(file, true)) {
+      out.write(new byte[] {1, 2, 3});
+    }
+
+    MallPriceHistory reloaded = new MallPriceHistory(file);
+    assertThat(reloaded.load(0), is(1));
+    assertThat(file.length(), is(length));
+
+    // Later records follow the last good one
+    reloaded.record(1, 200, 20);
+    reloaded.close();
+    assertThat(new MallPriceHistory(file).load(0), is(2));
+  }
+
+  @Test
+  void compactionKeepsLatestPriceOfEachItem() {
+    MallPriceHistory history = newHistory("prices.log");
+    history.record(1, 100, 10);
+    history.record(1, 200, 20);
+    history.record(1, 300, 30);
+    history.record(2, 100, 5);
+
+    history.compact(250);
+
+    assertThat(history.getObservations(1, 0, 1000), contains(new Observation(1, 300, 30)));
+    assertThat(history.getObservations(2, 0, 1000), contains(new Observation(2, 100, 5)));
+
+    MallPriceHistory reloaded = new MallPriceHistory(history.getFile());
+    assertThat(reloaded.load(0), is(2));
+  }
+
+  @Test
+  void compactsOnLoadWhenMostlyExpired() {
+    MallPriceHistory history = newHistory("prices.log");
+    for (int i = 1; i <= 10; ++i) {
+      history.record(1, i, i);
+    }
+    history.close();
+
+    MallPriceHistory reloaded = new MallPriceHistory(history.getFile());
+    assertThat(reloaded.load(100), is(1));
+    assertThat(reloaded.getPriceAt(1, 100), is(10));
+  }
+
+  @Test
+  void exchangesOnlyNewObservations() throws IOException {
+    MallPriceHistory history = newHistory("prices.log");
+    history.record(1, 100, 10);
+    history.record(1, 200, 20);
+    history.record(2, 300, 5);
+
+    ByteArrayOutputStream delta = new ByteArrayOutputStream();
+    assertThat(history.export(delta, 150), is(2));
+    assertThat(MallPriceHistory.isPriceLog(delta.toByteArray()), is(true));
+
+    MallPriceHistory other = newHistory("other.log");
+    other.record(2, 300, 5);
+
+    List<Observation> added = new ArrayList<>();
+    int count = other.importLog(new ByteArrayInputStream(delta.toByteArray()), true, added::add);
+
+    assertThat(count, equalTo(1));
+    assertThat(added, contains(new Observation(1, 200, 20)));
+    assertThat(other.getPriceAt(1, 250), is(20));
+  }
+}
@@ -0,0 +1,150 @@
+package net.sourceforge.kolmafia.request;
+
+import static internal.helpers.Networking.html;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.util.regex.Pattern;
+import net.sourceforge.kolmafia.request.FightPage.Marker;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class FightPageTest {
+  @Test
+  void findsRoundNumber() {
+    FightPage page = FightPage.scan("var onturn = ; var onturn = 4; var onturn = 5;");
+
+    assertThat(page.first(Marker.ONTURN).value(), equalTo(4));
+    assertThat(FightPage.scan("onturn = x").first(Marker.ONTURN), nullValue());
+  }
+
+  @Test
+  void countsMarkersWithinRange() {
+    String text =
+        "<form action=fight.php><hr><form action=fight.php><form action=\"fight.php\">"
+            + "<!--WINWINWIN--><a href=\"/fight.php\">again</a><a href=choice.php>more</a>";
+    FightPage page = FightPage.scan(text);
+    int round = text.indexOf("<hr>");
+
+    assertThat(page.count(Marker.FIGHT_ACTION, 0, text.length()), equalTo(2));
+    assertThat(page.count(Marker.FIGHT_ACTION, 0, round), equalTo(1));
+    assertThat(page.count(Marker.FIGHT_ACTION, round, text.length()), equalTo(1));
+    // A marker must lie entirely within the range
+    assertThat(page.contains(Marker.FIGHT_ACTION, 0, round - 8), equalTo(false));
+    assertThat(page.contains(Marker.QUOTED_FIGHT_ACTION), equalTo(true));
+    assertThat(page.contains(Marker.WIN, round, text.length()), equalTo(true));
+    assertThat(page.contains(Marker.WIN, 0, round), equalTo(false));
+    assertThat(page.contains(Marker.FIGHT_LINK), equalTo(true));
+    assertThat(page.contains(Marker.CHOICE_LINK), equalTo(true));
+    assertThat(page.contains(Marker.FAMBATTLE_ACTION), equalTo(false));
+  }
+
+  @Test
+  void matchesDotsAsRegexDoes() {
+    FightPage page =
+        FightPage.scan("action=fightXphp action=fight\nphp discomo2-gif discomo3\ngif");
+
+    assertThat(page.count(Marker.FIGHT_ACTION, 0, page.getText().length()), equalTo(1));
+    assertThat(page.first(Marker.DISCO_MOMENTUM).value(), equalTo(2));
+    assertThat(page.count(Marker.DISCO_MOMENTUM, 0, page.getText().length()), equalTo(1));
+  }
+
+  @ParameterizedTest
+  @ValueSource(
+      strings = {
+        "Macro Abort",
+        "Macro abort",
+        "macro abort",
+        "Could not match item(s) for use",
+        "(show old combat form)"
+      })
+  void findsLiterals(final String literal) {
+    FightPage page = FightPage.scan("<p>" + literal + "</p>");
+
+    assertThat(
+        page.contains(Marker.MACRO_ABORT) || page.contains(Marker.OLD_COMBAT_FORM),
+        equalTo(true));
+  }
+
+  @Test
+  void findsGainsWithWhatWasGained() {
+    FightPage page =
+        FightPage.scan(
+            "<td>You acquire an item: <b>seal tooth</b></td>"
+                + "<td>You acquire an effect: <b>Spit Upon</b><br>(duration: 15 Adventures)</td>"
+                + "<td>You gain 1 PvP Fight.</td><td>You lose 1,234 hit points.</td>"
+                + "You absorb 7 Soulsauce. You swallow <b>3</b> dB of it,"
+                + " recovering <b>2</b> bolts");
+
+    assertThat(page.first(Marker.ITEM_GAIN).name(), equalTo("seal tooth"));
+    assertThat(page.first(Marker.EFFECT_GAIN).name(), equalTo("Spit Upon"));
+    assertThat(page.first(Marker.EFFECT_GAIN).value(), equalTo(15));
+    assertThat(page.first(Marker.STAT_CHANGE, "PvP Fight").value(), equalTo(1));
+    assertThat(page.first(Marker.STAT_CHANGE, "hit points").value(), equalTo(-1234));
+    assertThat(page.first(Marker.STAT_CHANGE, "Soulsauce").value(), equalTo(7));
+    assertThat(page.first(Marker.STAT_CHANGE, "Thunder").value(), equalTo(3));
+    assertThat(page.first(Marker.STAT_CHANGE, "Lightning").value(), equalTo(2));
+    assertThat(page.first(Marker.STAT_CHANGE, "Rain"), nullValue());
+  }
+
+  @Test
+  void findsMonsterHealthAndDamage() {
+    String text =
+        "Opponent HP: 40<hr>I deduce that this monster has approximately 55 hit points."
+            + " You hit it for 1,168 (<b>+10</b>) (<font color=blueviolet><b>+48</b></font>)"
+            + " damage. It hits you for 5 (<b>hot damage</b>) damage.";
+    FightPage page = FightPage.scan(text);
+    int round = text.indexOf("<hr>");
+
+    assertThat(page.first(Marker.MONSTER_HP, "toy space helmet").value(), equalTo(40));
+    assertThat(page.first(Marker.MONSTER_HP, "detective skull").value(), equalTo(55));
+    assertThat(page.first(Marker.MONSTER_HP, "detective skull", 0, round), nullValue());
+    // Bonus damage is added in; damage in parentheses is not damage of its own
+    assertThat(page.first(Marker.DAMAGE).value(), equalTo(1226));
+    assertThat(page.count(Marker.DAMAGE, 0, text.length()), equalTo(2));
+  }
+
+  private static final Pattern[] PATTERNS = {
+    Pattern.compile("onturn = (\\d+)"),
+    Pattern.compile("<!--WINWINWIN-->"),
+    Pattern.compile("action=fight.php"),
+    Pattern.compile("action=\"fight.php\""),
+    Pattern.compile("action=fambattle.php"),
+    Pattern.compile("\\(show old combat form\\)"),
+    Pattern.compile("href=\"?/?fight.php"),
+    Pattern.compile("href=\"?choice.php"),
+    Pattern.compile("discomo(\\d).gif"),
+    Pattern.compile("Macro Abort|Macro abort|macro abort|Could not match item\\(s\\) for use"),
+    Pattern.compile("You acquire an item"),
+    Pattern.compile("You acquire an effect"),
+    Pattern.compile(
+        "You (?:gain|lose) \\d[\\d,]* |You absorb \\d+ Soulsauce|swallow <b>\\d+</b> dB of it"
+            + "|recovering <b>\\d+</b> (?:drops|bolts)"),
+    Pattern.compile(
+        "Opponent HP: \\d+|I deduce that this monster has approximately \\d+ hit points"),
+    Pattern.compile("(?<![\\d,])\\d[\\d,]*(?: \\([^()]*\\))* damage"),
+  };
+
+  @ParameterizedTest
+  @ValueSource(
+      strings = {
+        "request/test_fight_bellydancing_pickpocket_1.html",
+        "request/test_fight_can_of_mixed_everything.html",
+        "request/test_adventures_spent_fight_1_3.html",
+        "request/test_fight_goth_kid_pvp.html",
+        "request/test_fight_drama_spit_1.html"
+      })
+  void agreesWithPatterns(final String file) {
+    String text = html(file);
+    FightPage page = FightPage.scan(text);
+
+    Marker[] markers = Marker.values();
+    for (int i = 0; i < markers.length; ++i) {
+      long expected = PATTERNS[i].matcher(text).results().count();
+      int count = page.count(markers[i], 0, text.length());
+      assertThat(markers[i].name(), count, equalTo((int) expected));
+    }
+  }
+}
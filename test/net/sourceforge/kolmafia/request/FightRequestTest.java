@@ -1420,5 +1420,32 @@ public class FightRequestTest {
         assertThat("_gothKidFights", isSetTo(1));
       }
     }
+
+    @Test
+    public void finalRoundDataOnlyChecksTheGivenText() {
+      var cleanups =
+          new Cleanups(
+              withFamiliar(FamiliarPool.ARTISTIC_GOTH_KID),
+              withHippyStoneBroken(),
+              withProperty("_gothKidCharge", 1),
+              withProperty("_gothKidFights", 1));
+
+      try (cleanups) {
+        parseCombatData("request/test_fight_goth_kid_pvp.html");
+      }
+
+      // The PvP fight gained in the last page parsed is not in this text
+      var shrub =
+          new Cleanups(
+              withFamiliar(FamiliarPool.CRIMBO_SHRUB),
+              withHippyStoneBroken(),
+              withProperty("shrubGarland", "PvP"),
+              withProperty("_shrubCharge", 3));
+
+      try (shrub) {
+        FightRequest.updateFinalRoundData("", true);
+        assertThat("_shrubCharge", isSetTo(4));
+      }
+    }
   }
 }
@@ -0,0 +1,29 @@
+package net.sourceforge.kolmafia.request;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import org.junit.jupiter.api.Test;
+
+class ProfileRequestTest {
+  @Test
+  void readsAscensionsFromRosterRow() {
+    String row =
+        "<td class=small><a href=\"showplayer.php?who=1\">Bob</a></td><td class=small>Sauceror</td>"
+            + "<td class=small>120</td><td class=small>340</td><td class=small>150</td>"
+            + "<td class=small>610</td><td class=small>1,024</td><td class=small>300</td>"
+            + "<td class=small>50</td><td class=small>Normal Member</td><td class=small>12</td>";
+
+    assertThat(ProfileRequest.getRosterAscensions(row), equalTo(1024));
+  }
+
+  @Test
+  void missingAscensionsAreUnknown() {
+    assertThat(ProfileRequest.getRosterAscensions(null), equalTo(-1));
+    assertThat(ProfileRequest.getRosterAscensions("<td>Bob</td><td>Sauceror</td>"), equalTo(-1));
+    assertThat(
+        ProfileRequest.getRosterAscensions(
+            "<td>Bob</td><td>Sauceror</td><td>1</td><td>2</td><td>3</td><td>6</td><td>?</td>"),
+        equalTo(-1));
+  }
+}
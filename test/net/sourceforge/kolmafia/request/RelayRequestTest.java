@@ -39,4 +39,23 @@ public class RelayRequestTest {
     assertFalse(rr.retryOnTimeout());
     rr.constructURLString("diary.php?textversion=1");
   }
+
+  @Test
+  public void revalidatesRelayFilesWithETags() {
+    RelayRequest rr = new RelayRequest(false);
+    rr.constructURLString("barrel_sounds.js", false);
+    rr.run();
+
+    assertEquals(200, rr.responseCode);
+    assertNotNull(rr.rawByteBuffer);
+    String etag = rr.getHeaderField("ETag");
+    assertTrue(etag.startsWith("\""), "Supposed to send a strong ETag.");
+
+    rr.constructURLString("barrel_sounds.js", false);
+    rr.ifNoneMatch = etag;
+    rr.run();
+
+    assertEquals(304, rr.responseCode);
+    assertEquals(0, rr.rawByteBuffer.length);
+  }
 }
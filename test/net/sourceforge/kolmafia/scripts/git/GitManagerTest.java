@@ -13,14 +13,20 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Comparator;
 import net.sourceforge.kolmafia.KoLConstants.MafiaState;
+import net.sourceforge.kolmafia.KoLmafia;
 import net.sourceforge.kolmafia.StaticEntity;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
 import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.condition.DisabledOnOs;
 import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
 
 @DisabledOnOs(
     value = {OS.WINDOWS},
@@ -250,6 +256,106 @@ public class GitManagerTest {
     }
   }
 
+  @Nested
+  public class LocalRepositoryTests {
+    private static final String first = "local-first";
+    private static final String second = "local-second";
+    private static final String deps = "local-deps";
+
+    @TempDir Path remotes;
+
+    @AfterEach
+    public void removeRepos() {
+      removeGitIfExists(first);
+      removeGitIfExists(second);
+      removeGitIfExists(deps);
+      KoLmafia.forceContinue();
+    }
+
+    private String url(String name) {
+      return "file://" + remotes.resolve(name + ".git").toAbsolutePath();
+    }
+
+    private void createRemote(String name) throws GitAPIException {
+      Git.init().setBare(true).setDirectory(remotes.resolve(name + ".git").toFile()).call().close();
+      Git.cloneRepository()
+          .setURI(url(name))
+          .setDirectory(remotes.resolve(name).toFile())
+          .call()
+          .close();
+      commit(name, "scripts/" + name + ".ash", "print(\"" + name + "\");");
+    }
+
+    private void commit(String name, String file, String contents) throws GitAPIException {
+      var work = remotes.resolve(name);
+      try (var git = Git.open(work.toFile())) {
+        var path = work.resolve(file);
+        Files.createDirectories(path.getParent());
+        Files.writeString(path, contents);
+        git.add().addFilepattern(".").call();
+        git.commit()
+            .setMessage("Update " + file)
+            .setAuthor("Test", "test@example.com")
+            .setCommitter("Test", "test@example.com")
+            .call();
+        git.push().call();
+      } catch (IOException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+
+    @Test
+    public void updateAllReportsEachProject() throws GitAPIException {
+      createRemote(first);
+      createRemote(second);
+      CliCaller.callCli("git", "checkout " + url(first));
+      CliCaller.callCli("git", "checkout " + url(second));
+      assertTrue(Files.exists(Paths.get("scripts", first + ".ash")));
+      assertTrue(Files.exists(Paths.get("scripts", second + ".ash")));
+
+      commit(first, "scripts/" + first + "-new.ash", "print(\"new\");");
+      String output = CliCaller.callCli("git", "update");
+
+      assertThat(output, containsString("Updated 1 project, 1 unchanged, 0 failed"));
+      assertTrue(Files.exists(Paths.get("scripts", first + "-new.ash")));
+      assertEquals(MafiaState.CONTINUE, StaticEntity.getContinuationState());
+      Files.deleteIfExists(Paths.get("scripts", first + "-new.ash"));
+    }
+
+    @Test
+    public void updateAllReportsFailedProjects() throws GitAPIException, IOException {
+      createRemote(first);
+      createRemote(second);
+      CliCaller.callCli("git", "checkout " + url(first));
+      CliCaller.callCli("git", "checkout " + url(second));
+
+      try (var walk = Files.walk(remotes.resolve(second + ".git"))) {
+        for (var f : walk.sorted(Comparator.reverseOrder()).toList()) {
+          Files.delete(f);
+        }
+      }
+      String output = CliCaller.callCli("git", "update");
+
+      assertThat(output, containsString("Updated 0 projects, 1 unchanged, 1 failed: " + second));
+    }
+
+    @Test
+    public void installsDependenciesConcurrently() throws GitAPIException {
+      createRemote(first);
+      createRemote(second);
+      createRemote(deps);
+      commit(deps, "dependencies.txt", url(first) + "\n" + url(second) + "\n");
+
+      String output = CliCaller.callCli("git", "checkout " + url(deps));
+
+      assertThat(output, containsString("Cloned project " + first));
+      assertThat(output, containsString("Cloned project " + second));
+      assertThat(output, containsString("Cloned project " + deps));
+      assertTrue(Files.exists(Paths.get("scripts", first + ".ash")));
+      assertTrue(Files.exists(Paths.get("scripts", second + ".ash")));
+    }
+  }
+
   private static void removeGitIfExists(String remove) {
     if (Files.exists(Paths.get("git", remove))) {
       String output = CliCaller.callCli("git", "delete " + remove);
@@ -6,6 +6,7 @@ import static internal.matchers.Preference.isSetTo;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.arrayContaining;
 import static org.hamcrest.Matchers.arrayWithSize;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasSize;
@@ -395,6 +396,47 @@ class BanishManagerTest {
             "spooky vampire:ice house:20:smut orc nailer:banishing shout:115:unhinged survivor:Feel Hatred:119:grizzled survivor:Reflex Hammer:119:cat-alien:mafia middle finger ring:119:alielf:v for vivala mask:119:whiny survivor:stinky cheese eye:119:crate:louder than bomb:119:fluffy bunny:Be a Mind Master:119:paper towelgeist:divine champagne popper:128"));
   }
 
+  @Test
+  void banishesExpireIndependently() {
+    KoLCharacter.setCurrentRun(100);
+    BanishManager.banishMonster(SPOOKY_MUMMY, Banisher.SNOKEBOMB);
+    BanishManager.banishMonster(SCARY_PIRATE, Banisher.FEEL_HATRED);
+
+    KoLCharacter.setCurrentRun(130);
+    assertTrue(BanishManager.isBanished("spooky mummy"));
+
+    KoLCharacter.setCurrentRun(131);
+    assertFalse(BanishManager.isBanished("spooky mummy"));
+    assertTrue(BanishManager.isBanished("scary pirate"));
+    assertThat("banishedMonsters", isSetTo("scary pirate:Feel Hatred:100"));
+
+    KoLCharacter.setCurrentRun(151);
+    assertFalse(BanishManager.isBanished("scary pirate"));
+    assertThat("banishedMonsters", isSetTo(""));
+  }
+
+  @Test
+  void bowlingBallBanishEndsWhenBallReturns() {
+    KoLCharacter.setCurrentRun(100);
+    Preferences.setInteger("cosmicBowlingBallReturnCombats", 5);
+    BanishManager.banishMonster(TACO_CAT, Banisher.BOWL_A_CURVEBALL);
+    assertTrue(BanishManager.isBanished("Taco Cat"));
+
+    Preferences.setInteger("cosmicBowlingBallReturnCombats", 0);
+
+    assertFalse(BanishManager.isBanished("Taco Cat"));
+    assertThat("banishedMonsters", isSetTo(""));
+  }
+
+  @Test
+  void isBanishedIgnoresCase() {
+    KoLCharacter.setCurrentRun(100);
+    BanishManager.banishMonster(TACO_CAT, Banisher.SNOKEBOMB);
+
+    assertTrue(BanishManager.isBanished("taco cat"));
+    assertThat(BanishManager.getBanishedMonsters(Banisher.SNOKEBOMB), contains("Taco Cat"));
+  }
+
   @Test
   void isBanished() {
     BanishManager.banishMonster(SCARY_PIRATE, Banisher.BEANCANNON);
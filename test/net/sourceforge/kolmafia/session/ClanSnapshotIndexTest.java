@@ -0,0 +1,65 @@
+package net.sourceforge.kolmafia.session;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.io.File;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ClanSnapshotIndexTest {
+  @Test
+  void pagesAreFreshUntilTheMemberAscends(@TempDir final File directory) {
+    ClanSnapshotIndex index = ClanSnapshotIndex.load(new File(directory, "snapshots.txt"));
+    index.record("bob", false, 12, "clan/1/2026-10-1/");
+
+    assertThat(index.getFreshFolder("bob", false, 12), equalTo("clan/1/2026-10-1/"));
+    assertThat(index.isStale("bob", false, 12), equalTo(false));
+
+    assertThat(index.getFreshFolder("bob", false, 13), nullValue());
+    assertThat(index.isStale("bob", false, 13), equalTo(true));
+  }
+
+  @Test
+  void unknownCountsAreNeitherFreshNorStale(@TempDir final File directory) {
+    ClanSnapshotIndex index = ClanSnapshotIndex.load(new File(directory, "snapshots.txt"));
+    index.record("bob", false, 12, "clan/1/2026-10-1/");
+
+    assertThat(index.getFreshFolder("bob", false, -1), nullValue());
+    assertThat(index.isStale("bob", false, -1), equalTo(false));
+    assertThat(index.getFreshFolder("alice", false, 3), nullValue());
+    assertThat(index.isStale("alice", false, 3), equalTo(false));
+
+    index.record("bob", false, -1, "clan/1/2026-10-2/");
+    assertThat(index.getFreshFolder("bob", false, 12), nullValue());
+  }
+
+  @Test
+  void profilesFromEarlierWeeksAreNotReused(@TempDir final File directory) {
+    // A full snapshot saves both pages
+    ClanSnapshotIndex index = ClanSnapshotIndex.load(new File(directory, "snapshots.txt"));
+    index.record("bob", true, 12, "clan/1/2026-10-1/");
+    index.record("bob", false, 12, "clan/1/2026-10-1/");
+
+    // A week later Bob has not ascended, but has played and levelled up, so only his ascension
+    // history can be reused. His profile is fetched again unless this week's folder has it.
+    assertThat(index.getFreshFolder("bob", false, 12), equalTo("clan/1/2026-10-1/"));
+    assertThat(index.getFreshFolder("bob", true, 12), nullValue());
+    assertThat(index.isStale("bob", true, 12), equalTo(false));
+  }
+
+  @Test
+  void readsWhatItSaves(@TempDir final File directory) {
+    File file = new File(directory, "snapshots.txt");
+    ClanSnapshotIndex index = ClanSnapshotIndex.load(file);
+    index.record("bob", false, 12, "clan/1/2026-10-1/");
+    index.record("alice", false, 0, "clan/1/2026-10-2/");
+    index.save();
+
+    ClanSnapshotIndex loaded = ClanSnapshotIndex.load(file);
+    assertThat(loaded.getFreshFolder("bob", false, 12), equalTo("clan/1/2026-10-1/"));
+    assertThat(loaded.getFreshFolder("alice", false, 0), equalTo("clan/1/2026-10-2/"));
+    assertThat(loaded.getFreshFolder("bob", true, 12), nullValue());
+  }
+}
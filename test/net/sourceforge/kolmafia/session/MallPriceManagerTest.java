@@ -2,22 +2,27 @@ package net.sourceforge.kolmafia.session;
 
 import static internal.helpers.Networking.html;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mockStatic;
 
 import internal.helpers.Cleanups;
+import java.io.File;
 import java.time.Clock;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import net.sourceforge.kolmafia.AdventureResult;
 import net.sourceforge.kolmafia.KoLCharacter;
+import net.sourceforge.kolmafia.KoLConstants;
 import net.sourceforge.kolmafia.objectpool.ItemPool;
 import net.sourceforge.kolmafia.persistence.CoinmastersDatabase;
 import net.sourceforge.kolmafia.persistence.MallPriceDatabase;
@@ -570,6 +575,115 @@ public class MallPriceManagerTest {
     }
   }
 
+  @Test
+  public void singleSearchesAreNotSavedImmediately() {
+    AdventureResult item = ItemPool.get(ItemPool.HELL_RAMEN);
+    File file = new File(KoLConstants.DATA_LOCATION, "mallsearches.txt");
+
+    MallSearchRequest request = new MockMallSearchRequest("Hell ramen", 0);
+    request.responseText = html("request/test_mall_search_hell_ramen.html");
+
+    var cleanups = mockMallSearchRequest(request);
+    cleanups.add(file::delete);
+
+    try (cleanups) {
+      long timestamp = 1_000_000;
+      Mockito.when(clock.millis()).thenReturn(timestamp);
+
+      file.delete();
+      MallPriceManager.loadMallSearches();
+      MallPriceManager.searchMall(item);
+      assertFalse(file.exists());
+
+      // Saving writes it, as at logout
+      MallPriceManager.saveMallSearches();
+      assertTrue(file.exists());
+    }
+  }
+
+  @Test
+  public void canPrefetchEachItemOnlyOnce() {
+    AdventureResult item = ItemPool.get(ItemPool.HELL_RAMEN);
+    AtomicInteger searches = new AtomicInteger();
+
+    var cleanups =
+        new Cleanups(
+            () -> {
+              Preferences.resetToDefault("mallPrefetchThreads");
+              Preferences.resetToDefault("mallPrefetchDelay");
+            });
+    // A single thread keeps the searches on this thread, where they are mocked
+    Preferences.setInteger("mallPrefetchThreads", 1);
+    Preferences.setInteger("mallPrefetchDelay", 0);
+
+    var mocked = mockStatic(MallPriceManager.class, Mockito.CALLS_REAL_METHODS);
+    cleanups.add(mocked::close);
+    mocked.when(MallPriceManager::getSystemClock).thenReturn(clock);
+    mocked
+        .when(() -> MallPriceManager.newMallSearchRequest(anyString(), anyInt(), anyList()))
+        .thenAnswer(
+            invocation -> {
+              searches.incrementAndGet();
+              List<PurchaseRequest> results = invocation.getArgument(2);
+              MallSearchRequest request = new MockMallSearchRequest("Hell ramen", 0, results);
+              request.responseText = html("request/test_mall_search_hell_ramen.html");
+              return request;
+            });
+
+    try (cleanups) {
+      // Newer than anything MallPriceDatabase already knows about
+      long timestamp = 2_000_000_000_000L;
+      Mockito.when(clock.millis()).thenReturn(timestamp);
+
+      List<AdventureResult> items = List.of(item, item.getInstance(3), item);
+      assertEquals(1, MallPriceManager.prefetchMallPrices(items, 0.0f));
+      assertEquals(1, searches.get());
+
+      // Everything now comes from the prefetched search
+      assertFalse(MallPriceManager.getMallPrice(item) <= 0);
+      assertEquals(0, MallPriceManager.prefetchMallPrices(items, 0.0f));
+      assertEquals(1, searches.get());
+    }
+  }
+
+  @Test
+  public void canSaveAndLoadMallSearches() {
+    AdventureResult item = ItemPool.get(ItemPool.REAGENT);
+    File file = new File(KoLConstants.DATA_LOCATION, "mallsearches.txt");
+
+    var cleanups = new Cleanups(mockClock());
+    cleanups.add(MallPriceManager::reset);
+    cleanups.add(file::delete);
+
+    try (cleanups) {
+      long timestamp = 1_000_000;
+      Mockito.when(clock.millis()).thenReturn(timestamp);
+
+      MallPriceManager.loadMallSearches();
+      List<PurchaseRequest> results = generateSearchResults(item, getTestPrices());
+      addSearchResults(item, results);
+      MallPriceManager.saveMallSearches();
+
+      // Simulate a new session
+      MallPriceManager.reset();
+      MallPriceManager.loadMallSearches();
+
+      List<PurchaseRequest> search = MallPriceManager.getSavedSearch(item.getItemId(), 0);
+      assertNotNull(search);
+      assertEquals(15, search.stream().filter(request -> request.isMallStore).count());
+      assertEquals(500, MallPriceManager.getMallPrice(item.getItemId()));
+      assertEquals("shop 1", search.get(0).getShopName());
+
+      // Searches which have gone stale are not loaded
+      Mockito.when(clock.millis())
+          .thenReturn(timestamp + (MallPriceManager.MALL_SEARCH_FRESHNESS + 1) * 1000L);
+      MallPriceManager.reset();
+      MallPriceManager.loadMallSearches();
+
+      assertNull(MallPriceManager.getSavedSearch(item.getItemId(), 0));
+    }
+  }
+
   @Test
   public void canGetMallPricesByCategory() {
     // Test with category = "unlockers" since that only has two pages of results
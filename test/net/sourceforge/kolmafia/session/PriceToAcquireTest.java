@@ -544,6 +544,40 @@ public class PriceToAcquireTest {
     }
   }
 
+  @Test
+  public void pricesEachSubtreeOnlyOnce() {
+    Map<Integer, Integer> priceMap = makePriceMap();
+    Map<Integer, Integer> exactLookups = new HashMap<>();
+
+    var mocked = mockStatic(MallPriceManager.class);
+    mocked
+        .when(() -> MallPriceManager.getMallPrice(any(AdventureResult.class)))
+        .thenAnswer(
+            invocation -> {
+              AdventureResult item = invocation.getArgument(0);
+              exactLookups.merge(item.getItemId(), 1, Integer::sum);
+              return (long) priceMap.get(item.getItemId()) * item.getCount();
+            });
+    mocked
+        .when(() -> MallPriceManager.getMallPrice(any(AdventureResult.class), anyFloat()))
+        .thenAnswer(
+            invocation -> {
+              AdventureResult item = invocation.getArgument(0);
+              return (long) priceMap.get(item.getItemId()) * item.getCount();
+            });
+
+    Cleanups cleanups =
+        new Cleanups(new Cleanups(mocked::close), mockIsPermittedMethod(new HashSet<>()));
+    try (cleanups) {
+      // Mall and make prices are within 2:1 of each other at every level of the drive-by
+      // shooting recipe, so each level is priced again with exact prices. The exact prices of
+      // the boxed wine subtree are only needed once, however many levels ask for them.
+      InventoryManager.priceToAcquire(ItemPool.get(ItemPool.DRIVE_BY_SHOOTING, 1), false);
+      assertEquals(1, exactLookups.get(ItemPool.BUNCH_OF_SQUARE_GRAPES));
+      assertEquals(1, exactLookups.get(ItemPool.FERMENTING_POWDER));
+    }
+  }
+
   @Test
   public void canPriceMultipleConcoctions() {
     // We'll be testing with the following concoction:
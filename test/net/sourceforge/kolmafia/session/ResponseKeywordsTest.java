@@ -0,0 +1,47 @@
+package net.sourceforge.kolmafia.session;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.stream.Stream;
+import net.sourceforge.kolmafia.KoLConstants;
+import net.sourceforge.kolmafia.session.ResponseKeywords.Keyword;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class ResponseKeywordsTest {
+  private static Stream<String> pages() {
+    File directory = new File(KoLConstants.ROOT_LOCATION, "request");
+    return Arrays.stream(directory.list((dir, name) -> name.endsWith(".html"))).sorted();
+  }
+
+  // Whatever the automaton finds must be what searching for each keyword finds
+  @ParameterizedTest
+  @MethodSource("pages")
+  void agreesWithSearchingPage(final String page) throws IOException {
+    String text =
+        Files.readString(new File(KoLConstants.ROOT_LOCATION, "request/" + page).toPath());
+    ResponseKeywords keywords = ResponseKeywords.of(text);
+
+    for (Keyword keyword : Keyword.values()) {
+      assertThat(
+          keyword.name(), keywords.contains(keyword), equalTo(text.contains(keyword.getText())));
+    }
+  }
+
+  @Test
+  void scansEachPageOnce() {
+    String text = "<td>You feel less lucky</td>";
+    ResponseKeywords keywords = ResponseKeywords.of(text);
+
+    assertThat(ResponseKeywords.of(text), sameInstance(keywords));
+    assertThat(ResponseKeywords.contains(text, Keyword.LESS_LUCKY), equalTo(true));
+    assertThat(ResponseKeywords.contains(text, Keyword.FARQUAR), equalTo(false));
+  }
+}
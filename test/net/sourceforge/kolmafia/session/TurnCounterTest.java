@@ -0,0 +1,83 @@
+package net.sourceforge.kolmafia.session;
+
+import static internal.matchers.Preference.isSetTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import net.sourceforge.kolmafia.KoLCharacter;
+import net.sourceforge.kolmafia.preferences.Preferences;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TurnCounterTest {
+  @BeforeEach
+  public void beforeEach() {
+    KoLCharacter.reset("TurnCounterTest");
+    Preferences.reset("TurnCounterTest");
+    TurnCounter.clearCounters();
+  }
+
+  @AfterAll
+  public static void cleanup() {
+    TurnCounter.clearCounters();
+  }
+
+  @Test
+  void findsCountersByLabel() {
+    KoLCharacter.setCurrentRun(100);
+    TurnCounter.startCounting(5, "Fortune Cookie", "fortune.gif");
+    TurnCounter.startCounting(10, "Fortune Cookie", "fortune.gif");
+    TurnCounter.startCounting(20, "Semirare window begin loc=*", "lparen.gif");
+
+    assertTrue(TurnCounter.isCounting("Fortune Cookie", 10));
+    assertFalse(TurnCounter.isCounting("Fortune Cookie", 11));
+    assertTrue(TurnCounter.isCounting("Fortune Cookie", 6, 12));
+    assertTrue(TurnCounter.isCounting("Semirare window begin"));
+    assertThat(TurnCounter.turnsRemaining("Fortune Cookie"), equalTo(5));
+    assertThat(TurnCounter.turnsRemaining("Nothing"), equalTo(-1));
+
+    TurnCounter.stopCounting("Fortune Cookie");
+
+    assertFalse(TurnCounter.isCounting("Fortune Cookie"));
+    assertThat(TurnCounter.count(), equalTo(1));
+  }
+
+  @Test
+  void savesCountersWhenTheyChange() {
+    KoLCharacter.setCurrentRun(100);
+    TurnCounter.startCounting(5, "Fortune Cookie", "fortune.gif");
+
+    assertThat("relayCounters", isSetTo("105:Fortune Cookie:fortune.gif"));
+
+    TurnCounter.removeWarning("Fortune Cookie");
+
+    assertThat("relayCounters", isSetTo("105:Fortune Cookie loc=*:fortune.gif"));
+  }
+
+  @Test
+  void restoresPreferenceChangedElsewhere() {
+    KoLCharacter.setCurrentRun(100);
+    TurnCounter.startCounting(5, "Fortune Cookie", "fortune.gif");
+    Preferences.setString("relayCounters", "");
+
+    TurnCounter.saveCounters();
+
+    assertThat("relayCounters", isSetTo("105:Fortune Cookie:fortune.gif"));
+  }
+
+  @Test
+  void loadsSavedCounters() {
+    KoLCharacter.setCurrentRun(100);
+    Preferences.setString(
+        "relayCounters", "105:Fortune Cookie:fortune.gif:120:Dance Card loc=*:guildapp.gif");
+
+    TurnCounter.loadCounters();
+
+    assertTrue(TurnCounter.isCounting("Fortune Cookie", 5));
+    assertTrue(TurnCounter.isCounting("Dance Card", 20));
+    assertThat(TurnCounter.count(), equalTo(2));
+  }
+}
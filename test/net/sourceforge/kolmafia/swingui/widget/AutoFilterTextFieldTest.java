@@ -1,7 +1,14 @@
 package net.sourceforge.kolmafia.swingui.widget;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.awt.event.KeyEvent;
+import java.awt.event.KeyListener;
+import java.util.ArrayList;
+import java.util.List;
+import javax.swing.text.BadLocationException;
 import net.java.dev.spellcast.utilities.LockableListModel;
 import org.junit.jupiter.api.Test;
 
@@ -15,4 +22,96 @@ public class AutoFilterTextFieldTest {
 
     assertTrue(autoFilterTextField.isVisible("ALPHA"));
   }
+
+  private static class CountingElement {
+    private final String name;
+    private int calls = 0;
+
+    CountingElement(final String name) {
+      this.name = name;
+    }
+
+    @Override
+    public String toString() {
+      this.calls++;
+      return this.name;
+    }
+  }
+
+  private static void type(final AutoFilterTextField<?> field, final String text)
+      throws BadLocationException {
+    for (char ch : text.toCharArray()) {
+      field.getDocument().insertString(field.getDocument().getLength(), String.valueOf(ch), null);
+      for (KeyListener listener : field.getKeyListeners()) {
+        listener.keyReleased(
+            new KeyEvent(field, KeyEvent.KEY_RELEASED, 0, 0, KeyEvent.VK_UNDEFINED, ch));
+      }
+    }
+  }
+
+  @Test
+  public void typingMoreOnlyChecksWhatIsShown() throws BadLocationException {
+    CountingElement tooth = new CountingElement("seal tooth");
+    CountingElement club = new CountingElement("seal-clubbing club");
+    CountingElement spices = new CountingElement("spices");
+    LockableListModel<CountingElement> model = new LockableListModel<>();
+    model.addAll(List.of(tooth, club, spices));
+    AutoFilterTextField<CountingElement> field = new AutoFilterTextField<>(model);
+
+    type(field, "seal");
+    assertThat(model.getSize(), is(2));
+
+    int spicesCalls = spices.calls;
+    type(field, " t");
+    assertThat(model.getSize(), is(1));
+    assertThat(model.getElementAt(0), is(tooth));
+    assertThat(spices.calls, is(spicesCalls));
+  }
+
+  @Test
+  public void fallsBackToFuzzyMatchesWhileTyping() throws BadLocationException {
+    LockableListModel<String> model = new LockableListModel<>();
+    model.addAll(List.of("seal tooth", "seal-clubbing club", "spices"));
+    AutoFilterTextField<String> field = new AutoFilterTextField<>(model);
+
+    type(field, "sc");
+    assertThat(model.getSize(), is(1));
+    assertThat(model.getElementAt(0), is("seal-clubbing club"));
+
+    type(field, "l");
+    assertThat(model.getSize(), is(1));
+
+    type(field, "x");
+    assertThat(model.getSize(), is(0));
+  }
+
+  @Test
+  public void deletingTextShowsMoreAgain() throws BadLocationException {
+    LockableListModel<String> model = new LockableListModel<>();
+    model.addAll(List.of("seal tooth", "seal-clubbing club", "spices"));
+    AutoFilterTextField<String> field = new AutoFilterTextField<>(model);
+
+    type(field, "tooth");
+    assertThat(model.getSize(), is(1));
+
+    field.setText("s");
+    assertThat(model.getSize(), is(3));
+  }
+
+  @Test
+  public void filtersLongListsInBackground() throws Exception {
+    List<String> names = new ArrayList<>();
+    for (int i = 0; i < 5000; ++i) {
+      names.add("item " + i);
+    }
+    LockableListModel<String> model = new LockableListModel<>();
+    model.addAll(names);
+    AutoFilterTextField<String> field = new AutoFilterTextField<>(model);
+
+    field.setText("item 4999");
+    field.awaitFilter();
+
+    assertThat(model.getSize(), is(1));
+    assertThat(model.getElementAt(0), is("item 4999"));
+  }
 }
@@ -0,0 +1,113 @@
+package net.sourceforge.kolmafia.textui;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.util.List;
+import net.sourceforge.kolmafia.KoLAdventure;
+import net.sourceforge.kolmafia.objectpool.EffectPool;
+import net.sourceforge.kolmafia.objectpool.ItemPool;
+import net.sourceforge.kolmafia.objectpool.SkillPool;
+import net.sourceforge.kolmafia.persistence.AdventureDatabase;
+import net.sourceforge.kolmafia.textui.command.AbstractCommandTestBase;
+import net.sourceforge.kolmafia.textui.parsetree.Type;
+import net.sourceforge.kolmafia.textui.parsetree.Value;
+import org.junit.jupiter.api.Test;
+
+public class DataTypesTest extends AbstractCommandTestBase {
+  public DataTypesTest() {
+    this.command = "ash";
+  }
+
+  @Test
+  void sharesSmallInts() {
+    assertThat(DataTypes.makeIntValue(0), sameInstance(DataTypes.ZERO_VALUE));
+    assertThat(DataTypes.makeIntValue(1), sameInstance(DataTypes.ONE_VALUE));
+    assertThat(DataTypes.makeIntValue(-128), sameInstance(DataTypes.makeIntValue(-128)));
+    assertThat(DataTypes.makeIntValue(1023), sameInstance(DataTypes.parseIntValue("1023", true)));
+    assertThat(DataTypes.makeIntValue(1023).intValue(), equalTo(1023L));
+
+    Value large = DataTypes.makeIntValue(1L << 40);
+    assertThat(large, not(sameInstance(DataTypes.makeIntValue(1L << 40))));
+    assertThat(large.intValue(), equalTo(1L << 40));
+  }
+
+  @Test
+  void sharesItems() {
+    Value club = DataTypes.makeItemValue(ItemPool.SEAL_CLUB, true);
+
+    assertThat(DataTypes.makeItemValue(ItemPool.SEAL_CLUB, true), sameInstance(club));
+    assertThat(DataTypes.parseItemValue("seal-clubbing club", true), sameInstance(club));
+    assertThat(DataTypes.makeItemValue(ItemPool.get(ItemPool.SEAL_CLUB)), sameInstance(club));
+    assertThat(club.toString(), equalTo("seal-clubbing club"));
+  }
+
+  @Test
+  void sharesSkillsEffectsMonstersAndLocations() {
+    assertThat(
+        DataTypes.makeSkillValue(SkillPool.CLUBFOOT, true),
+        sameInstance(DataTypes.makeSkillValue(SkillPool.CLUBFOOT, true)));
+    assertThat(
+        DataTypes.makeEffectValue(EffectPool.BEATEN_UP, true),
+        sameInstance(DataTypes.parseEffectValue("Beaten Up", true)));
+    assertThat(
+        DataTypes.parseMonsterValue("fluffy bunny", true),
+        sameInstance(DataTypes.parseMonsterValue("fluffy bunny", true)));
+
+    KoLAdventure noobCave = AdventureDatabase.getAdventure("Noob Cave");
+    assertThat(
+        DataTypes.makeLocationValue(noobCave),
+        sameInstance(DataTypes.parseLocationValue("Noob Cave", true)));
+  }
+
+  private record Snapshot(Value value, Type type, long contentLong, String string, Object content) {
+    Snapshot(final Value value) {
+      this(value, value.type, value.contentLong, value.contentString, value.content);
+    }
+
+    void assertUnchanged() {
+      assertThat(this.value.type, sameInstance(this.type));
+      assertThat(this.value.contentLong, equalTo(this.contentLong));
+      assertThat(this.value.contentString, sameInstance(this.string));
+      assertThat(this.value.content, sameInstance(this.content));
+    }
+  }
+
+  @Test
+  void scriptsDoNotChangeSharedValues() {
+    var shared =
+        List.of(
+            new Snapshot(DataTypes.makeIntValue(3)),
+            new Snapshot(DataTypes.makeIntValue(5)),
+            new Snapshot(DataTypes.makeIntValue(10)),
+            new Snapshot(DataTypes.makeItemValue(ItemPool.SEAL_CLUB, true)),
+            new Snapshot(DataTypes.makeEffectValue(EffectPool.BEATEN_UP, true)),
+            new Snapshot(DataTypes.parseMonsterValue("fluffy bunny", true)),
+            new Snapshot(DataTypes.parseLocationValue("Noob Cave", true)));
+
+    String output =
+        execute(
+            "item it = $item[seal-clubbing club];"
+                + "int i = 3;"
+                + "i += 2;"
+                + "i++;"
+                + "int[item] counts;"
+                + "counts[it] = 5;"
+                + "counts[it] += 5;"
+                + "foreach x in $items[seal-clubbing club] { counts[x] = to_int(x); }"
+                + "for j from 1 to 10 { string s = to_string(j); s += \"!\"; }"
+                + "matcher m = create_matcher(\"club\", it.to_string());"
+                + "effect e = $effect[Beaten Up];"
+                + "monster mon = $monster[fluffy bunny];"
+                + "location loc = $location[Noob Cave];"
+                + "print(it + \" \" + e + \" \" + mon + \" \" + loc + \" \" + i);");
+
+    assertThat(output, containsString("seal-clubbing club Beaten Up fluffy bunny Noob Cave 6"));
+
+    assertContinueState();
+    shared.forEach(Snapshot::assertUnchanged);
+  }
+}
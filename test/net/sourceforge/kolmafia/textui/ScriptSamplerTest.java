@@ -0,0 +1,137 @@
+package net.sourceforge.kolmafia.textui;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class ScriptSamplerTest {
+  private static StackTraceElement frame(final String className, final String methodName) {
+    return new StackTraceElement(className, methodName, null, -1);
+  }
+
+  private static StackTraceElement frame(
+      final String className, final String methodName, final String fileName, final int line) {
+    return new StackTraceElement(className, methodName, fileName, line);
+  }
+
+  @Test
+  void classifiesNetworkWaits() {
+    StackTraceElement[] trace = {
+      frame("jdk.internal.misc.Unsafe", "park"),
+      frame("jdk.internal.net.http.HttpClientImpl", "send"),
+      frame("net.sourceforge.kolmafia.request.GenericRequest", "execute"),
+      frame("net.sourceforge.kolmafia.textui.RuntimeLibrary", "visit_url"),
+      frame("net.sourceforge.kolmafia.textui.parsetree.FunctionCall", "execute"),
+    };
+
+    assertThat(ScriptSampler.activity(trace), equalTo(ScriptSampler.NETWORK));
+    assertThat(ScriptSampler.libraryFunction(trace), equalTo("visit_url"));
+  }
+
+  @Test
+  void classifiesResponsesLibraryFunctionsAndInterpreter() {
+    StackTraceElement[] response = {
+      frame("java.util.regex.Matcher", "find"),
+      frame("net.sourceforge.kolmafia.session.ResultProcessor", "processResults"),
+      frame("net.sourceforge.kolmafia.request.GenericRequest", "processResults"),
+      frame("net.sourceforge.kolmafia.textui.RuntimeLibrary", "visit_url"),
+    };
+    StackTraceElement[] library = {
+      frame("java.util.HashMap", "get"),
+      frame("net.sourceforge.kolmafia.textui.RuntimeLibrary", "item_amount"),
+      frame("net.sourceforge.kolmafia.textui.parsetree.FunctionCall", "execute"),
+    };
+    StackTraceElement[] interpreter = {
+      frame("net.sourceforge.kolmafia.textui.parsetree.Operation", "execute"),
+      frame("net.sourceforge.kolmafia.textui.parsetree.Loop", "execute"),
+    };
+
+    assertThat(ScriptSampler.activity(response), equalTo(ScriptSampler.RESPONSE));
+    assertThat(ScriptSampler.activity(library), equalTo(ScriptSampler.LIBRARY));
+    assertThat(ScriptSampler.activity(interpreter), equalTo(ScriptSampler.INTERPRETER));
+    assertThat(ScriptSampler.libraryFunction(interpreter), nullValue());
+  }
+
+  @Test
+  void usesOutermostLibraryFunction() {
+    StackTraceElement[] trace = {
+      frame("net.sourceforge.kolmafia.textui.RuntimeLibrary", "to_item"),
+      frame("net.sourceforge.kolmafia.textui.RuntimeLibrary", "retrieve_item"),
+    };
+
+    assertThat(ScriptSampler.libraryFunction(trace), equalTo("retrieve_item"));
+  }
+
+  @Test
+  void findsJavascriptStack() {
+    String file = "file:/home/user/scripts/autoscend.js";
+    StackTraceElement[] trace = {
+      frame("net.sourceforge.kolmafia.textui.RuntimeLibrary", "adv1"),
+      frame("org.mozilla.javascript.gen.file__autoscend_js_1", "_c_fight_3", file, 42),
+      frame("org.mozilla.javascript.gen.file__autoscend_js_1", "call", file, -1),
+      frame("org.mozilla.javascript.gen.file__autoscend_js_1", "_c__2", file, 17),
+      frame("org.mozilla.javascript.gen.file__autoscend_js_1", "_c_script_0", file, 3),
+    };
+
+    List<String> frames = new ArrayList<>();
+    String line = ScriptSampler.javascriptStack(trace, frames);
+
+    assertThat(frames, contains("autoscend.js", "(anonymous)", "fight"));
+    assertThat(line, equalTo("autoscend.js:42"));
+  }
+
+  @Test
+  void collapsesStacks() {
+    ScriptSampler sampler = new ScriptSampler("test.ash", Thread.currentThread(), null);
+    sampler.record(List.of("main", "fight"), "test.ash:10", "visit_url", ScriptSampler.NETWORK);
+    sampler.record(List.of("main", "fight"), "test.ash:10", "visit_url", ScriptSampler.NETWORK);
+    sampler.record(List.of("main"), "test.ash:3", null, ScriptSampler.INTERPRETER);
+    sampler.record(List.of("main", "a;b"), null, null, ScriptSampler.INTERPRETER);
+
+    assertThat(sampler.getSamples(), equalTo(4));
+    assertThat(
+        sampler.collapsed(),
+        equalTo(
+            "test.ash;main;[interpreter] 1\n"
+                + "test.ash;main;a:b;[interpreter] 1\n"
+                + "test.ash;main;fight;visit_url;[network] 2\n"));
+
+    String summary = sampler.summary(10);
+    assertThat(summary, containsString("4 samples"));
+    assertThat(summary, containsString("<tr><td>2</td><td>50.00%</td><td>[network]</td></tr>"));
+    assertThat(summary, containsString("<tr><td>2</td><td>50.00%</td><td>test.ash:10</td></tr>"));
+  }
+
+  @Test
+  void samplesWaitingThread() throws InterruptedException {
+    Thread sleeper =
+        new Thread(
+            () -> {
+              try {
+                Thread.sleep(10000);
+              } catch (InterruptedException e) {
+                // Done
+              }
+            });
+    sleeper.start();
+    try {
+      while (sleeper.getState() != Thread.State.TIMED_WAITING) {
+        Thread.sleep(1);
+      }
+
+      ScriptSampler sampler = new ScriptSampler("sleep.js", sleeper, null);
+      sampler.sample();
+
+      assertThat(sampler.collapsed(), equalTo("sleep.js;[waiting] 1\n"));
+    } finally {
+      sleeper.interrupt();
+      sleeper.join();
+    }
+  }
+}
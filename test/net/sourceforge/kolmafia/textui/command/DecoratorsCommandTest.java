@@ -0,0 +1,23 @@
+package net.sourceforge.kolmafia.textui.command;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+
+import net.sourceforge.kolmafia.RequestEditorKit;
+import org.junit.jupiter.api.Test;
+
+public class DecoratorsCommandTest extends AbstractCommandTestBase {
+  public DecoratorsCommandTest() {
+    this.command = "decorators";
+  }
+
+  @Test
+  void showsTimings() {
+    RequestEditorKit.getFeatureRichHTML("hermit.php", "<html><head></head></html>");
+
+    String output = execute("");
+
+    assertThat(output, containsString("hermit.php"));
+    assertThat(output, containsString("mean ms"));
+  }
+}
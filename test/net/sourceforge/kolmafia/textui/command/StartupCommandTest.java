@@ -0,0 +1,23 @@
+package net.sourceforge.kolmafia.textui.command;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+
+import net.sourceforge.kolmafia.persistence.DatabaseWarmup;
+import org.junit.jupiter.api.Test;
+
+public class StartupCommandTest extends AbstractCommandTestBase {
+  public StartupCommandTest() {
+    this.command = "startup";
+  }
+
+  @Test
+  void showsTimeline() {
+    DatabaseWarmup.run();
+
+    String output = execute("");
+
+    assertThat(output, containsString("load ItemDatabase"));
+    assertThat(output, containsString("Databases loaded in"));
+  }
+}
@@ -0,0 +1,49 @@
+package net.sourceforge.kolmafia.textui.parsetree;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+
+import net.sourceforge.kolmafia.textui.command.AbstractCommandTestBase;
+import org.junit.jupiter.api.Test;
+
+public class CompiledExpressionTest extends AbstractCommandTestBase {
+  // Well past Operation.COMPILE_THRESHOLD
+  private static final int RUNS = 3000;
+
+  public CompiledExpressionTest() {
+    this.command = "ash";
+  }
+
+  @Test
+  void compiledOperationsComputeWhatTheTreeDoes() {
+    String output =
+        execute(
+            "int total = 0; float f = 0.0; int count = 0;"
+                + "for i from 1 to "
+                + RUNS
+                + " {"
+                + "  total = total + i * 3 - i / 2 % 5;"
+                + "  f = f + i / 4.0;"
+                + "  if (i % 2 == 0 && i > 10 || i == 1) count = count + 1;"
+                + "}"
+                + "print(total + \" \" + (f == 1125375.0) + \" \" + count);");
+
+    assertThat(output, containsString("13498500 true 1496"));
+  }
+
+  @Test
+  void compiledOperationsFailAsTheTreeDoes() {
+    String output =
+        execute(
+            "int x;"
+                + "for i from 1 to "
+                + RUNS
+                + " {"
+                + "  x = 10 / ("
+                + (Operation.COMPILE_THRESHOLD + 200)
+                + " - i);"
+                + "}");
+
+    assertThat(output, containsString("Division by zero"));
+  }
+}
@@ -0,0 +1,108 @@
+package net.sourceforge.kolmafia.utilities;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class AsyncLogWriterTest {
+  @TempDir Path directory;
+
+  private static String read(final File file) throws IOException {
+    return Files.readString(file.toPath(), StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void flushWaitsForQueuedLines() throws IOException {
+    File file = directory.resolve("session.txt").toFile();
+    AsyncLogWriter writer = new AsyncLogWriter(file, true, 0, false);
+
+    try (PrintStream stream = new PrintStream(writer, false, StandardCharsets.UTF_8)) {
+      stream.println("first");
+      stream.println("second");
+      stream.flush();
+
+      assertThat(read(file), equalTo("first\nsecond\n"));
+    }
+  }
+
+  @Test
+  public void closeWritesEverything() throws IOException {
+    File file = directory.resolve("debug.txt").toFile();
+    AsyncLogWriter writer = new AsyncLogWriter(file, true, 0, false);
+
+    PrintStream stream = new PrintStream(writer, false, StandardCharsets.UTF_8);
+    for (int i = 0; i < 10000; ++i) {
+      stream.println(i);
+    }
+    stream.close();
+
+    assertThat(read(file).split("\n").length, is(10000));
+  }
+
+  @Test
+  public void ignoresWritesAfterClose() throws IOException {
+    File file = directory.resolve("closed.txt").toFile();
+    AsyncLogWriter writer = new AsyncLogWriter(file, true, 0, false);
+
+    writer.write("before\n".getBytes(StandardCharsets.UTF_8));
+    writer.close();
+    writer.write("after\n".getBytes(StandardCharsets.UTF_8));
+    writer.flush();
+
+    assertThat(read(file), equalTo("before\n"));
+  }
+
+  @Test
+  public void appendsToExistingFile() throws IOException {
+    File file = directory.resolve("trace.txt").toFile();
+    Files.writeString(file.toPath(), "old\n");
+
+    try (AsyncLogWriter writer = new AsyncLogWriter(file, true, 0, false)) {
+      writer.write("new\n".getBytes(StandardCharsets.UTF_8));
+    }
+
+    assertThat(read(file), equalTo("old\nnew\n"));
+  }
+
+  @Test
+  public void rotatesFileWhenTooLarge() throws IOException {
+    File file = directory.resolve("DEBUG_20221019.txt").toFile();
+
+    try (AsyncLogWriter writer = new AsyncLogWriter(file, true, 8, false)) {
+      writer.write("1234567\n".getBytes(StandardCharsets.UTF_8));
+      writer.flush();
+      writer.write("abcdefg\n".getBytes(StandardCharsets.UTF_8));
+    }
+
+    assertThat(read(directory.resolve("DEBUG_20221019.1.txt").toFile()), equalTo("1234567\n"));
+    assertThat(read(file), equalTo("abcdefg\n"));
+  }
+
+  @Test
+  public void compressesRotatedFiles() throws IOException {
+    File file = directory.resolve("TRACE_20221019.txt").toFile();
+
+    try (AsyncLogWriter writer = new AsyncLogWriter(file, true, 8, true)) {
+      writer.write("1234567\n".getBytes(StandardCharsets.UTF_8));
+      writer.flush();
+      writer.write("abcdefg\n".getBytes(StandardCharsets.UTF_8));
+    }
+
+    File rotated = directory.resolve("TRACE_20221019.1.txt.gz").toFile();
+    try (InputStream in = new GZIPInputStream(Files.newInputStream(rotated.toPath()))) {
+      assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8), equalTo("1234567\n"));
+    }
+    assertThat(read(file), equalTo("abcdefg\n"));
+  }
+}
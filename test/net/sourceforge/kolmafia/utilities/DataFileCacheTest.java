@@ -0,0 +1,160 @@
+package net.sourceforge.kolmafia.utilities;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayContaining;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import net.java.dev.spellcast.utilities.DataUtilities;
+import net.sourceforge.kolmafia.KoLConstants;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DataFileCacheTest {
+  private static final byte[] DATA =
+      ("3\n"
+              + "# A comment\n"
+              + "1\tseal-clubbing club\tnone\n"
+              + "\n"
+              + "2\tseal tooth\tnone\t\n"
+              + "3\tspices\n")
+          .getBytes(StandardCharsets.UTF_8);
+
+  private static List<String[]> rows(final Iterator<String[]> iterator) {
+    List<String[]> rows = new ArrayList<>();
+    iterator.forEachRemaining(rows::add);
+    return rows;
+  }
+
+  @Test
+  void parsesAsFileUtilitiesDoes() {
+    List<String[]> rows = DataFileCache.parse(DATA, 3);
+
+    assertThat(
+        rows,
+        contains(
+            arrayContaining("1", "seal-clubbing club", "none"),
+            arrayContaining("2", "seal tooth", "none", ""),
+            arrayContaining("3", "spices")));
+  }
+
+  @Test
+  void rejectsOtherVersions() {
+    assertThat(DataFileCache.parse(DATA, 4), nullValue());
+  }
+
+  @Test
+  void readsWhatItWrites(@TempDir final File directory) {
+    File compiled = new File(directory, "test.txt.bin");
+    DataFileCache.writeCompiled(compiled, 1234L, 3, DataFileCache.parse(DATA, 3));
+
+    List<String[]> rows = rows(DataFileCache.readCompiled(compiled, 1234L, 3));
+
+    assertThat(
+        rows,
+        contains(
+            arrayContaining("1", "seal-clubbing club", "none"),
+            arrayContaining("2", "seal tooth", "none", ""),
+            arrayContaining("3", "spices")));
+    // Equal fields are shared
+    assertThat(rows.get(1)[2], sameInstance(rows.get(0)[2]));
+  }
+
+  @Test
+  void ignoresStaleCompiledFiles(@TempDir final File directory) throws IOException {
+    File compiled = new File(directory, "test.txt.bin");
+    DataFileCache.writeCompiled(compiled, 1234L, 3, DataFileCache.parse(DATA, 3));
+
+    assertThat(DataFileCache.readCompiled(compiled, 1235L, 3), nullValue());
+    assertThat(DataFileCache.readCompiled(compiled, 1234L, 4), nullValue());
+    assertThat(DataFileCache.readCompiled(new File(directory, "none.bin"), 1234L, 3), nullValue());
+
+    Files.write(compiled.toPath(), new byte[] {1, 2, 3});
+    assertThat(DataFileCache.readCompiled(compiled, 1234L, 3), nullValue());
+  }
+
+  @Test
+  void replacesStaleCompiledFiles(@TempDir final File directory) throws IOException {
+    File compiled = new File(directory, "test.txt.bin");
+    DataFileCache.writeCompiled(compiled, 1234L, 3, DataFileCache.parse(DATA, 3));
+
+    // The data file changed, so the compiled file is rejected and compiled again
+    assertThat(DataFileCache.readCompiled(compiled, 1235L, 3), nullValue());
+    DataFileCache.writeCompiled(compiled, 1235L, 3, DataFileCache.parse(DATA, 3));
+
+    assertThat(rows(DataFileCache.readCompiled(compiled, 1235L, 3)).size(), equalTo(3));
+  }
+
+  @Test
+  void ignoresTruncatedCompiledFiles(@TempDir final File directory) throws IOException {
+    File compiled = new File(directory, "test.txt.bin");
+    DataFileCache.writeCompiled(compiled, 1234L, 3, DataFileCache.parse(DATA, 3));
+
+    // A whole header, but nothing after it
+    byte[] bytes = Files.readAllBytes(compiled.toPath());
+    Files.write(compiled.toPath(), Arrays.copyOf(bytes, DataFileCache.HEADER_SIZE));
+    assertThat(DataFileCache.readCompiled(compiled, 1234L, 3), nullValue());
+
+    // The strings, but only some of the rows
+    Files.write(compiled.toPath(), Arrays.copyOf(bytes, bytes.length - 3));
+    assertThat(DataFileCache.readCompiled(compiled, 1234L, 3), nullValue());
+  }
+
+  @Test
+  void ignoresDamagedCompiledFiles(@TempDir final File directory) throws IOException {
+    File compiled = new File(directory, "test.txt.bin");
+    DataFileCache.writeCompiled(compiled, 1234L, 3, DataFileCache.parse(DATA, 3));
+
+    // The last row refers to a string which is not there
+    byte[] bytes = Files.readAllBytes(compiled.toPath());
+    bytes[bytes.length - 1] = 0x7F;
+    Files.write(compiled.toPath(), bytes);
+    assertThat(DataFileCache.readCompiled(compiled, 1234L, 3), nullValue());
+  }
+
+  private static List<String> lines(final BufferedReader reader) {
+    List<String> lines = new ArrayList<>();
+    String[] data;
+    while ((data = FileUtilities.readData(reader)) != null) {
+      lines.add(String.join("\t", data));
+    }
+    return lines;
+  }
+
+  @Test
+  void versionedReaderReturnsSameRowsCompiled() throws IOException {
+    File compiled = new File(KoLConstants.CACHE_LOCATION, "items.txt.bin");
+    compiled.delete();
+
+    List<String> expected;
+    try (BufferedReader text =
+        DataUtilities.getReader(KoLConstants.DATA_DIRECTORY, "items.txt", false)) {
+      FileUtilities.readLine(text);
+      expected = lines(text);
+    }
+
+    try (BufferedReader compiling =
+        FileUtilities.getVersionedReader("items.txt", KoLConstants.ITEMS_VERSION)) {
+      assertThat(lines(compiling), equalTo(expected));
+    }
+    assertThat(compiled.isFile(), equalTo(true));
+
+    try (BufferedReader reader =
+        FileUtilities.getVersionedReader("items.txt", KoLConstants.ITEMS_VERSION)) {
+      assertThat(reader, instanceOf(DataFileCache.RowReader.class));
+      assertThat(lines(reader), equalTo(expected));
+    }
+  }
+}
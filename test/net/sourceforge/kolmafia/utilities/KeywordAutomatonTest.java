@@ -0,0 +1,58 @@
+package net.sourceforge.kolmafia.utilities;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.BitSet;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class KeywordAutomatonTest {
+  private static BitSet bits(final int... indexes) {
+    BitSet bits = new BitSet();
+    for (int index : indexes) {
+      bits.set(index);
+    }
+    return bits;
+  }
+
+  @Test
+  void findsOverlappingKeywords() {
+    KeywordAutomaton automaton = new KeywordAutomaton(List.of("he", "she", "his", "hers"));
+
+    assertThat(automaton.scan("ushers"), equalTo(bits(0, 1, 3)));
+    assertThat(automaton.scan("this"), equalTo(bits(2)));
+    assertThat(automaton.scan("HERS"), equalTo(bits()));
+    assertThat(automaton.scan(""), equalTo(bits()));
+  }
+
+  @Test
+  void findsKeywordsWithinOtherKeywords() {
+    KeywordAutomaton automaton = new KeywordAutomaton(List.of("aaa", "aa", "ab", "b"));
+
+    assertThat(automaton.scan("aab"), equalTo(bits(1, 2, 3)));
+    assertThat(automaton.scan("aaa"), equalTo(bits(0, 1)));
+  }
+
+  @Test
+  void findsNonAsciiKeywords() {
+    KeywordAutomaton automaton = new KeywordAutomaton(List.of("caf\u00e9", "\u00e9t\u00e9"));
+
+    assertThat(automaton.scan("un caf\u00e9 en \u00e9t\u00e9"), equalTo(bits(0, 1)));
+    assertThat(automaton.scan("cafe ete"), equalTo(bits()));
+  }
+
+  @Test
+  void findsDuplicateKeywords() {
+    KeywordAutomaton automaton = new KeywordAutomaton(List.of("Meat", "Meat"));
+
+    assertThat(automaton.size(), equalTo(2));
+    assertThat(automaton.scan("You gain 10 Meat"), equalTo(bits(0, 1)));
+  }
+
+  @Test
+  void rejectsEmptyKeywords() {
+    assertThrows(IllegalArgumentException.class, () -> new KeywordAutomaton(List.of("a", "")));
+  }
+}
@@ -2,6 +2,7 @@ package net.sourceforge.kolmafia.utilities;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.time.Instant;
@@ -653,6 +654,29 @@ class StringUtilitiesTest {
     assertEquals(0, results.size(), "Unexpected matches");
   }
 
+  @Test
+  public void itShouldFuzzyMatchFromTheStartOfAWord() {
+    String[] names = {"chef-in-the-box", "chefstaff", "hot chef", "main chef"};
+
+    assertThat(
+        StringUtilities.getMatchingNames(names, "in the box"), equalTo(List.of("chef-in-the-box")));
+    assertThat(StringUtilities.getMatchingNames(names, "hc"), equalTo(List.of("hot chef")));
+    assertThat(StringUtilities.getMatchingNames(names, "ain"), equalTo(List.of("main chef")));
+    assertThat(StringUtilities.getMatchingNames(names, "nchef"), equalTo(List.of()));
+  }
+
+  @Test
+  public void itShouldNoticeWhenNamesChangeUnderneathIt() {
+    String[] names = {"bone shop", "altar of bones", "game shop"};
+    assertThat(StringUtilities.getMatchingNames(names, "bone"), hasSize(2));
+
+    names[0] = "crimbo shop";
+    assertThat(
+        StringUtilities.getMatchingNames(names, "bone"), equalTo(List.of("altar of bones")));
+    assertThat(
+        StringUtilities.getMatchingNames(names, "crimbo"), equalTo(List.of("crimbo shop")));
+  }
+
   @Test
   public void itShouldNotHavACanonicalNameForNull() {
     assertNull(StringUtilities.getCanonicalName(null));
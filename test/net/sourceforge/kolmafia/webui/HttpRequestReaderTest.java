@@ -0,0 +1,145 @@
+package net.sourceforge.kolmafia.webui;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import net.sourceforge.kolmafia.request.GenericRequest;
+import org.junit.jupiter.api.Test;
+
+class HttpRequestReaderTest {
+  private static HttpRequestReader reader(final String request) {
+    HttpRequestReader reader = new HttpRequestReader();
+    reader.reset(new ByteArrayInputStream(request.getBytes(StandardCharsets.UTF_8)));
+    return reader;
+  }
+
+  // Hands out a few bytes at a time, as a socket might
+  private static InputStream trickle(final byte[] bytes) {
+    return new InputStream() {
+      private int position = 0;
+
+      @Override
+      public int read() {
+        return this.position < bytes.length ? bytes[this.position++] & 0xFF : -1;
+      }
+
+      @Override
+      public int read(final byte[] b, final int off, final int len) {
+        if (this.position >= bytes.length) {
+          return -1;
+        }
+        int count = Math.min(Math.min(len, 3), bytes.length - this.position);
+        System.arraycopy(bytes, this.position, b, off, count);
+        this.position += count;
+        return count;
+      }
+    };
+  }
+
+  @Test
+  void readsRequestLine() throws IOException {
+    var reader = reader("GET /main.php?x=1 HTTP/1.1\r\n\r\n");
+
+    assertThat(reader.readRequestLine(), is(true));
+    assertThat(reader.isValidRequestLine(), is(true));
+    assertThat(reader.getMethod(), sameInstance("GET"));
+    assertThat(reader.getPath(), equalTo("/main.php?x=1"));
+    assertThat(reader.readHeader(), is(false));
+  }
+
+  @Test
+  void rejectsOtherVersions() throws IOException {
+    var reader = reader("GET /main.php HTTP/1.0\r\n\r\n");
+
+    assertThat(reader.readRequestLine(), is(true));
+    assertThat(reader.isValidRequestLine(), is(false));
+  }
+
+  @Test
+  void reportsClosedConnection() throws IOException {
+    assertThat(reader("").readRequestLine(), is(false));
+  }
+
+  @Test
+  void matchesHeaderNamesWithoutRegardToCase() throws IOException {
+    var reader =
+        reader("GET / HTTP/1.1\r\nHOST: localhost\r\nX-Other: y\r\nContent-length:  12 \r\n\r\n");
+    reader.readRequestLine();
+
+    assertThat(reader.readHeader(), is(true));
+    assertThat(reader.getHeaderName(), sameInstance(HttpRequestReader.HOST));
+    assertThat(reader.getHeaderValue(), equalTo("localhost"));
+
+    assertThat(reader.readHeader(), is(true));
+    assertThat(reader.getHeaderName(), nullValue());
+    assertThat(reader.getHeaderLine(), equalTo("X-Other: y"));
+
+    assertThat(reader.readHeader(), is(true));
+    assertThat(reader.getHeaderName(), sameInstance(HttpRequestReader.CONTENT_LENGTH));
+    assertThat(reader.getHeaderValue(), equalTo("12"));
+
+    assertThat(reader.readHeader(), is(false));
+  }
+
+  @Test
+  void readsBodyAsFormFields() throws IOException {
+    var reader = reader("POST /craft.php HTTP/1.1\r\nContent-Length: 19\r\n\r\naction=craft&&qty=1");
+    reader.readRequestLine();
+    while (reader.readHeader()) {}
+
+    reader.readBody(19, false);
+
+    var request = new GenericRequest("craft.php");
+    reader.addFormFields(request);
+    assertThat(reader.getBody(), equalTo("action=craft&&qty=1"));
+    assertThat(request.getFormField("action"), equalTo("craft"));
+    assertThat(request.getFormField("qty"), equalTo("1"));
+  }
+
+  @Test
+  void readsChunkedBody() throws IOException {
+    var reader =
+        reader(
+            "POST / HTTP/1.1\r\nTransfer-Encoding: chunked\r\n\r\n"
+                + "4\r\na=1&\r\n7;name=value\r\nb=2&c=3\r\n0\r\nTrailer: x\r\n\r\n");
+    reader.readRequestLine();
+    while (reader.readHeader()) {}
+
+    reader.readBody(0, true);
+
+    assertThat(reader.getBody(), equalTo("a=1&b=2&c=3"));
+  }
+
+  @Test
+  void readsLargeBodyInPieces() throws IOException {
+    String fields = "x=" + "y".repeat(200000);
+    byte[] request =
+        ("POST / HTTP/1.1\r\nContent-Length: " + fields.length() + "\r\n\r\n" + fields)
+            .getBytes(StandardCharsets.UTF_8);
+
+    var reader = new HttpRequestReader();
+    reader.reset(trickle(request));
+    reader.readRequestLine();
+    while (reader.readHeader()) {}
+    reader.readBody(fields.length(), false);
+
+    assertThat(reader.getBody(), equalTo(fields));
+  }
+
+  @Test
+  void failsOnTruncatedBody() throws IOException {
+    var reader = reader("POST / HTTP/1.1\r\nContent-Length: 10\r\n\r\nabc");
+    reader.readRequestLine();
+    while (reader.readHeader()) {}
+
+    assertThrows(IOException.class, () -> reader.readBody(10, false));
+  }
+}
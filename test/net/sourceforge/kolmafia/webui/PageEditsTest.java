@@ -0,0 +1,68 @@
+package net.sourceforge.kolmafia.webui;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import org.junit.jupiter.api.Test;
+
+class PageEditsTest {
+  private static String apply(final PageEdits edits, final String page) {
+    StringBuffer buffer = new StringBuffer(page);
+    edits.applyTo(buffer);
+
+    // The result must be the same as making the changes one after another
+    StringBuffer inTurn = new StringBuffer(page);
+    edits.applyInTurn(inTurn);
+    assertThat(buffer.toString(), equalTo(inTurn.toString()));
+
+    return buffer.toString();
+  }
+
+  @Test
+  void makesAllChanges() {
+    PageEdits edits =
+        new PageEdits()
+            .insertBefore("</head>", "<script>")
+            .insertBefore("</head>", "<link>")
+            .replace("old", "new")
+            .deleteAll(" gone")
+            .insertAfter("<body>", "!");
+
+    String page = "<head></head><body>Here are some old words that are gone, and old ones.</body>";
+
+    assertThat(
+        apply(edits, page),
+        equalTo(
+            "<head><script><link></head><body>!Here are some new words that are, and old ones."
+                + "</body>"));
+  }
+
+  @Test
+  void insertsAfterAnchorInReverseOrder() {
+    PageEdits edits = new PageEdits().insertAfter("a", "1").insertAfter("a", "2");
+
+    assertThat(apply(edits, "ab"), equalTo("a21b"));
+  }
+
+  @Test
+  void ignoresMissingAnchors() {
+    PageEdits edits = new PageEdits().replace("missing", "found").replaceAll("gone", "");
+
+    assertThat(apply(edits, "nothing to see"), equalTo("nothing to see"));
+  }
+
+  @Test
+  void findsAnchorsMadeByEarlierChanges() {
+    // Deleting "aa" brings two c's together for the next change to replace
+    PageEdits edits = new PageEdits().deleteAll("aa").replace("cc", "ba");
+
+    assertThat(apply(edits, "acaacccaab"), equalTo("abaccb"));
+  }
+
+  @Test
+  void replacesEachOccurrenceOnce() {
+    PageEdits edits = new PageEdits().replace("ab", "x").replace("ab", "y");
+
+    assertThat(apply(edits, "abab"), equalTo("xy"));
+  }
+}
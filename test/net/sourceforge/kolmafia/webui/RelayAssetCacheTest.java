@@ -0,0 +1,91 @@
+package net.sourceforge.kolmafia.webui;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+import net.sourceforge.kolmafia.webui.RelayAssetCache.Asset;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class RelayAssetCacheTest {
+  @TempDir Path directory;
+
+  @AfterEach
+  void clearCache() {
+    RelayAssetCache.clear();
+  }
+
+  private File write(final String name, final String contents, final long lastModified)
+      throws IOException {
+    File file = directory.resolve(name).toFile();
+    Files.writeString(file.toPath(), contents);
+    file.setLastModified(lastModified);
+    return file;
+  }
+
+  @Test
+  void keepsFileUntilItChanges() throws IOException {
+    File file = write("style.css", "body { color: red; }", 1_600_000_000_000L);
+
+    Asset first = RelayAssetCache.get(file);
+    assertThat(RelayAssetCache.get(file), sameInstance(first));
+    assertThat(first.getText(), equalTo("body { color: red; }"));
+
+    write("style.css", "body { color: blue; }", 1_600_000_001_000L);
+
+    Asset second = RelayAssetCache.get(file);
+    assertThat(second.getText(), equalTo("body { color: blue; }"));
+    assertThat(second.getETag(false, false), not(equalTo(first.getETag(false, false))));
+  }
+
+  @Test
+  void missingFileIsNotFound() {
+    assertThat(RelayAssetCache.get(directory.resolve("missing.js").toFile()), nullValue());
+  }
+
+  @Test
+  void gzipsOnlyWhenSmaller() throws IOException {
+    File small = write("small.js", "var x = 1;", 1_600_000_000_000L);
+    assertThat(RelayAssetCache.get(small).getContents(false, true), nullValue());
+
+    String text = "function f() { return 1; }\n".repeat(200);
+    Asset large = RelayAssetCache.get(write("large.js", text, 1_600_000_000_000L));
+    byte[] gzipped = large.getContents(false, true);
+
+    try (var in = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+      assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8), equalTo(text));
+    }
+    assertThat(large.getETag(false, true), not(equalTo(large.getETag(false, false))));
+  }
+
+  @Test
+  void findsMarkers() throws IOException {
+    Asset asset = RelayAssetCache.get(write("page.html", "<a href='x?MAFIAHIT'>", 1L << 40));
+
+    assertThat(asset.contains("MAFIAHIT"), is(true));
+    assertThat(asset.contains("MAFIAMISS"), is(false));
+  }
+
+  @Test
+  void matchesIfNoneMatch() {
+    String etag = "\"abc-12\"";
+
+    assertThat(RelayAssetCache.matches(etag, etag), is(true));
+    assertThat(RelayAssetCache.matches("\"old\", W/\"abc-12\"", etag), is(true));
+    assertThat(RelayAssetCache.matches("*", etag), is(true));
+    assertThat(RelayAssetCache.matches("\"abc-12-gzip\"", etag), is(false));
+    assertThat(RelayAssetCache.matches(null, etag), is(false));
+  }
+}